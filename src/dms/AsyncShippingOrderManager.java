@@ -0,0 +1,194 @@
+package dms;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Asynchronous facade over {@link ShippingOrderManager}.
+ *
+ * <p>Each call runs on its own virtual thread and returns a {@link CompletableFuture}
+ * holding the typed result. Failures complete the future exceptionally with an
+ * {@link OrderOperationException} whose {@link OrderOperationException.Reason} says
+ * what went wrong. Database work is bounded by the size of the {@link ConnectionPool}:
+ * each operation borrows one pooled connection for its duration, so thousands of
+ * requests can be in flight while only a handful of connections and platform
+ * threads are in use.</p>
+ *
+ * <p>Example:</p>
+ * <pre>
+ * async.addOrderAsync("Alice", "UPS", 10.5, 500)
+ *      .thenAccept(order -&gt; System.out.println("Created " + order.getOrderId()))
+ *      .exceptionally(e -&gt; { System.err.println(e.getCause().getMessage()); return null; });
+ * </pre>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class AsyncShippingOrderManager implements AutoCloseable {
+
+    /** Underlying blocking manager */
+    private final ShippingOrderManager manager;
+
+    /** Starts one virtual thread per submitted operation */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Limits concurrent database work to the number of pooled connections */
+    private final Semaphore dbPermits;
+
+    /**
+     * Creates an asynchronous facade over the given manager.
+     *
+     * @param manager the blocking manager that performs each operation
+     */
+    public AsyncShippingOrderManager(ShippingOrderManager manager) {
+        this.manager = manager;
+        ConnectionPool pool = DBConnectionManager.getInstance().getPool();
+        // Without a pool every operation shares one connection, so run them one at a time
+        this.dbPermits = new Semaphore(pool != null ? pool.getMaxSize() : 1, true);
+    }
+
+    /**
+     * Adds a new order asynchronously.
+     *
+     * @param customerName customer name
+     * @param shipperName  shipper name
+     * @param weight       weight in pounds
+     * @param distance     distance in miles
+     * @return a future completed with the stored order
+     */
+    public CompletableFuture<ShippingOrder> addOrderAsync(String customerName, String shipperName,
+                                                          double weight, int distance) {
+        return submitDatabaseWork(() -> manager.insertOrder(customerName, shipperName, weight, distance));
+    }
+
+    /**
+     * Adds many orders asynchronously in one batched transaction.
+     * See {@link ShippingOrderManager#insertOrders} for how invalid rows are reported.
+     *
+     * @param customerNames customer name per row
+     * @param shipperNames  shipper name per row
+     * @param weights       weight in pounds per row
+     * @param distances     distance in miles per row
+     * @param count         number of rows
+     * @return a future completed with the stored order per row (null where invalid)
+     */
+    public CompletableFuture<ShippingOrder[]> addOrdersAsync(String[] customerNames, String[] shipperNames,
+                                                             double[] weights, int[] distances, int count) {
+        return submitDatabaseWork(() -> manager.insertOrders(customerNames, shipperNames, weights, distances, count));
+    }
+
+    /**
+     * Updates an order's weight and distance asynchronously.
+     *
+     * @param orderId  order ID to update
+     * @param weight   new weight in pounds
+     * @param distance new distance in miles
+     * @return a future completed with the updated order
+     */
+    public CompletableFuture<ShippingOrder> updateOrderAsync(int orderId, double weight, int distance) {
+        return submitDatabaseWork(() -> manager.applyOrderUpdate(orderId, weight, distance));
+    }
+
+    /**
+     * Updates an order asynchronously, only if its stored row still has the expected version.
+     *
+     * @param orderId         order ID to update
+     * @param expectedVersion row version the caller read
+     * @param weight          new weight in pounds
+     * @param distance        new distance in miles
+     * @return a future completed with the outcome, including the stored order on conflict
+     */
+    public CompletableFuture<OrderWriteResult> updateOrderIfVersionAsync(int orderId, int expectedVersion,
+                                                                         double weight, int distance) {
+        return submitDatabaseWork(() -> manager.updateOrderIfVersion(orderId, expectedVersion, weight, distance));
+    }
+
+    /**
+     * Deletes an order asynchronously, only if its stored row still has the expected version.
+     *
+     * @param orderId         order ID to delete
+     * @param expectedVersion row version the caller read
+     * @return a future completed with the outcome, including the stored order on conflict
+     */
+    public CompletableFuture<OrderWriteResult> deleteOrderIfVersionAsync(int orderId, int expectedVersion) {
+        return submitDatabaseWork(() -> manager.deleteOrderIfVersion(orderId, expectedVersion));
+    }
+
+    /**
+     * Deletes an order asynchronously.
+     *
+     * @param orderId order ID to delete
+     * @return a future completed with the deleted order's ID
+     */
+    public CompletableFuture<Integer> deleteOrderAsync(int orderId) {
+        return submitDatabaseWork(() -> {
+            manager.removeOrder(orderId);
+            return orderId;
+        });
+    }
+
+    /**
+     * Looks up an order asynchronously from the manager's in-memory data.
+     *
+     * @param orderId order ID to find
+     * @return a future completed with the order, or an empty Optional if not found
+     */
+    public CompletableFuture<Optional<ShippingOrder>> findOrderAsync(int orderId) {
+        return CompletableFuture.supplyAsync(() -> Optional.ofNullable(manager.findOrder(orderId)), executor);
+    }
+
+    /**
+     * Stops accepting new operations and waits for running ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * A unit of work that may fail with a typed order exception.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    private interface OrderWork<T> {
+        T run() throws OrderOperationException;
+    }
+
+    /**
+     * Runs work on a virtual thread with a pooled connection bound for its duration.
+     */
+    private <T> CompletableFuture<T> submitDatabaseWork(OrderWork<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return runWithPooledConnection(work);
+            } catch (OrderOperationException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private <T> T runWithPooledConnection(OrderWork<T> work) throws OrderOperationException {
+        try {
+            dbPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderOperationException(OrderOperationException.Reason.INTERRUPTED,
+                    "Interrupted while waiting for a database connection.", e);
+        }
+
+        try (var _ = DBConnectionManager.getInstance().lease()) {
+            return work.run();
+        } catch (SQLException e) {
+            throw new OrderOperationException(OrderOperationException.Reason.NO_CONNECTION,
+                    "Could not borrow a database connection: " + e.getMessage(), e);
+        } finally {
+            dbPermits.release();
+        }
+    }
+}
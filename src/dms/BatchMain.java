@@ -0,0 +1,313 @@
+package dms;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Non-interactive command-line entry point for scripted bulk jobs such as nightly loads.
+ *
+ * <p>Commands:</p>
+ * <ul>
+ *     <li>{@code import <file> [--batch-size N]} – stream a manifest or a
+ *         {@link ColumnarOrderFile} ({@code .dmscol}) into the database; manifests and
+ *         rows imported before are skipped (see {@link ImportDeduplicator}), and rerunning
+ *         an interrupted import resumes at its last checkpoint (see {@link ImportCheckpoint})</li>
+ *     <li>{@code export <file> [--format pipe|csv|columnar]} – stream every order to a file
+ *         (CSV and columnar are also chosen by a {@code .csv} or {@code .dmscol} extension)</li>
+ *     <li>{@code reprice} – recalculate stored costs with the current rate tables</li>
+ *     <li>{@code purge --before-id N} – delete orders with IDs below N</li>
+ *     <li>{@code archive --before-id N | --keep N} – move orders with IDs below N, or all but
+ *         the newest N orders, to the archive table (see {@link OrderArchive})</li>
+ *     <li>{@code schema} – create or migrate the tables and their indexes
+ *         (see {@link SchemaManager})</li>
+ * </ul>
+ *
+ * <p>Nothing is ever prompted for, and the order list is never loaded into memory.
+ * Database settings come from the environment (see
+ * {@link DBConnectionManager#connectFromEnvironment()}). Exit codes:</p>
+ * <ul>
+ *     <li>{@value #EXIT_OK} – success</li>
+ *     <li>{@value #EXIT_USAGE} – invalid command line</li>
+ *     <li>{@value #EXIT_FAILURE} – the job failed (database, file, or connection error)</li>
+ *     <li>{@value #EXIT_REJECTED_ROWS} – an import finished but rejected some lines</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class BatchMain {
+
+    /** Exit code: the command succeeded */
+    public static final int EXIT_OK = 0;
+
+    /** Exit code: the command line was invalid */
+    public static final int EXIT_USAGE = 1;
+
+    /** Exit code: the job failed */
+    public static final int EXIT_FAILURE = 2;
+
+    /** Exit code: an import completed but rejected some lines */
+    public static final int EXIT_REJECTED_ROWS = 3;
+
+    /** Rejected lines printed individually before only the totals are reported */
+    private static final int MAX_REJECTS_SHOWN = 20;
+
+    private static final String USAGE = """
+        Usage: java dms.BatchMain <command> [options]
+          import <file> [--batch-size N]   stream a manifest or .dmscol file into the database
+          export <file> [--format pipe|csv|columnar]
+                                           stream all orders to a file
+          reprice                          recalculate stored shipping costs
+          purge --before-id N              delete orders with IDs below N
+          archive --before-id N | --keep N move old orders to the archive table
+          schema                           create missing tables, columns, and indexes
+        """;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BatchMain() {}
+
+    /**
+     * Runs one command and exits with its status code.
+     *
+     * @param args the command and its options
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs one command and returns its exit code instead of exiting.
+     *
+     * @param args the command and its options
+     * @return one of the {@code EXIT_} codes
+     */
+    public static int run(String[] args) {
+        Command command;
+        try {
+            command = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            return EXIT_USAGE;
+        }
+
+        MetricsHttpServer.startIfConfigured();
+        DBConnectionManager db = DBConnectionManager.getInstance();
+        try {
+            Connection conn = db.connectFromEnvironment();
+            if (!command.name().equals("schema")) SchemaManager.checkOnStartup(conn);
+        } catch (SQLException e) {
+            System.err.println("Could not connect to the database: " + e.getMessage());
+            return EXIT_FAILURE;
+        }
+
+        try {
+            return switch (command.name()) {
+                case "import" -> runImport(command);
+                case "export" -> runExport(command);
+                case "reprice" -> runReprice();
+                case "schema" -> runSchema();
+                case "archive" -> runArchive(command);
+                default -> runPurge(command);
+            };
+        } catch (IOException | SQLException | OrderOperationException e) {
+            System.err.println(command.name() + " failed: " + e.getMessage());
+            return EXIT_FAILURE;
+        } finally {
+            db.closeConnection();
+        }
+    }
+
+    /**
+     * A parsed command line.
+     *
+     * @param name      the command
+     * @param file      file argument for import and export
+     * @param batchSize rows per transaction for import
+     * @param beforeId  ID bound for purge and archive
+     * @param keep      number of newest orders archive leaves in place, or 0
+     * @param format    output format for export
+     */
+    private record Command(String name, Path file, int batchSize, int beforeId, int keep, OrderExporter.Format format) {}
+
+    private static Command parse(String[] args) {
+        if (args.length == 0) throw new IllegalArgumentException("Missing command.");
+        String name = args[0];
+        Path file = null;
+        int batchSize = OrderImporter.DEFAULT_BATCH_SIZE;
+        Integer beforeId = null;
+        Integer keep = null;
+        OrderExporter.Format format = null;
+
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--batch-size" -> batchSize = positiveInt(arg, optionValue(args, ++i, arg));
+                case "--before-id" -> beforeId = positiveInt(arg, optionValue(args, ++i, arg));
+                case "--keep" -> keep = positiveInt(arg, optionValue(args, ++i, arg));
+                case "--format" -> format = exportFormat(optionValue(args, ++i, arg));
+                default -> {
+                    if (arg.startsWith("--") || file != null) throw new IllegalArgumentException("Unexpected argument: " + arg);
+                    file = Path.of(arg);
+                }
+            }
+        }
+
+        switch (name) {
+            case "import", "export" -> {
+                if (file == null) throw new IllegalArgumentException(name + " needs a file.");
+                if (name.equals("import") && !Files.isReadable(file)) {
+                    throw new IllegalArgumentException("Cannot read file: " + file);
+                }
+            }
+            case "reprice", "schema" -> {
+                if (file != null) throw new IllegalArgumentException(name + " takes no arguments.");
+            }
+            case "purge" -> {
+                if (beforeId == null) throw new IllegalArgumentException("purge needs --before-id N.");
+            }
+            case "archive" -> {
+                if ((beforeId == null) == (keep == null)) {
+                    throw new IllegalArgumentException("archive needs either --before-id N or --keep N.");
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown command: " + name);
+        }
+        if (format == null && file != null) format = OrderExporter.Format.forFile(file);
+        return new Command(name, file, batchSize, beforeId != null ? beforeId : 0, keep != null ? keep : 0, format);
+    }
+
+    private static OrderExporter.Format exportFormat(String value) {
+        return switch (value.toLowerCase()) {
+            case "pipe" -> OrderExporter.Format.PIPE;
+            case "csv" -> OrderExporter.Format.CSV;
+            case "columnar" -> OrderExporter.Format.COLUMNAR;
+            default -> throw new IllegalArgumentException("--format must be pipe, csv, or columnar: " + value);
+        };
+    }
+
+    private static String optionValue(String[] args, int index, String option) {
+        if (index >= args.length) throw new IllegalArgumentException(option + " needs a value.");
+        return args[index];
+    }
+
+    private static int positiveInt(String option, String value) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n > 0) return n;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(option + " must be a positive integer: " + value);
+    }
+
+    private static int runImport(Command command) throws IOException, OrderOperationException {
+        if (ColumnarOrderFile.isColumnarFile(command.file())) return runColumnarImport(command);
+
+        OrderImporter importer = new OrderImporter(new ShippingOrderManager(false), command.batchSize());
+        importer.setDeduplicator(ImportDeduplicator.ifEnabled());
+        importer.setCheckpointing(ImportCheckpoint.isEnabled());
+        long[] shown = {0};
+        importer.setRejectHandler((lineNumber, reason, line) -> {
+            if (shown[0]++ < MAX_REJECTS_SHOWN) {
+                System.err.println("Line " + lineNumber + ": " + reason + (line != null ? ": " + line : ""));
+            }
+        });
+
+        OrderImporter.Result result = importer.importFile(command.file());
+        if (result.isSkippedFile()) {
+            System.out.println("Skipped " + command.file() + ": already imported");
+            return EXIT_OK;
+        }
+        if (result.getResumedAtLine() > 0) {
+            System.out.printf("Resumed after line %,d from an earlier interrupted import%n", result.getResumedAtLine());
+        }
+        System.out.printf("Imported %,d of %,d lines in %.2f s (%,.0f lines/s); rejected %,d (malformed %,d, invalid %,d); %,d duplicates skipped%n",
+                result.getAccepted(), result.getLinesRead(), result.getElapsedNanos() / 1e9,
+                result.getRowsPerSecond(), result.getRejected(), result.getMalformed(), result.getInvalid(),
+                result.getDuplicates());
+        return result.getRejected() > 0 ? EXIT_REJECTED_ROWS : EXIT_OK;
+    }
+
+    private static int runColumnarImport(Command command) throws IOException, OrderOperationException {
+        long start = System.nanoTime();
+        long stored = new ShippingOrderManager(false).importColumnarFile(command.file());
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Imported %,d orders from %s in %.2f s (%,.0f rows/s)%n",
+                stored, command.file(), elapsed / 1e9, elapsed > 0 ? stored * 1e9 / elapsed : 0.0);
+        return EXIT_OK;
+    }
+
+    private static int runExport(Command command) throws IOException, SQLException {
+        DBConnectionManager db = DBConnectionManager.getInstance();
+        int shards = db.getShardRouter().getShardCount();
+        // One connection per shard stays open while their cursors are merged
+        List<DBConnectionManager.Lease> leases = new ArrayList<>(shards);
+        try {
+            List<Connection> conns = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                leases.add(db.leaseShard(shard));
+                conns.add(db.requireConnection());
+            }
+            long start = System.nanoTime();
+            long rows = new OrderExporter(conns).exportTo(command.file(), command.format());
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("Exported %,d orders to %s in %.2f s (%,.0f rows/s)%n",
+                    rows, command.file(), elapsed / 1e9, elapsed > 0 ? rows * 1e9 / elapsed : 0.0);
+            return EXIT_OK;
+        } finally {
+            for (int i = leases.size() - 1; i >= 0; i--) leases.get(i).close();
+        }
+    }
+
+    private static int runReprice() throws OrderOperationException {
+        long start = System.nanoTime();
+        int changed = new ShippingOrderManager(false).repriceOrders();
+        System.out.printf("Repriced orders in %.2f s; %,d costs changed%n", (System.nanoTime() - start) / 1e9, changed);
+        return EXIT_OK;
+    }
+
+    private static int runSchema() throws SQLException {
+        DBConnectionManager db = DBConnectionManager.getInstance();
+        List<String> changes = new ArrayList<>();
+        for (int shard = 0; shard < db.getShardRouter().getShardCount(); shard++) {
+            try (var _ = db.leaseShard(shard)) {
+                changes.addAll(SchemaManager.migrate(db.getConnection()));
+            }
+        }
+        db.copyReferenceDataToShards();
+        for (String change : changes) System.out.println(change);
+        System.out.println(changes.isEmpty() ? "Schema is up to date" : "Applied " + changes.size() + " schema changes");
+        return EXIT_OK;
+    }
+
+    private static int runArchive(Command command) throws OrderOperationException {
+        long start = System.nanoTime();
+        ShippingOrderManager manager = new ShippingOrderManager(false);
+        long moved;
+        if (command.keep() > 0) {
+            try (OrderArchiver archiver = new OrderArchiver(manager, command.keep(), 1)) {
+                moved = archiver.runOnce();
+            }
+        } else {
+            moved = manager.archiveOrdersBefore(command.beforeId());
+        }
+        System.out.printf("Archived %,d orders in %.2f s%n", moved, (System.nanoTime() - start) / 1e9);
+        return EXIT_OK;
+    }
+
+    private static int runPurge(Command command) throws OrderOperationException {
+        long start = System.nanoTime();
+        long deleted = new ShippingOrderManager(false).purgeOrdersBefore(command.beforeId());
+        System.out.printf("Purged %,d orders with IDs below %d in %.2f s%n",
+                deleted, command.beforeId(), (System.nanoTime() - start) / 1e9);
+        return EXIT_OK;
+    }
+}
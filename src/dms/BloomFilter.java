@@ -0,0 +1,134 @@
+package dms;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size Bloom filter over 64-bit keys, safe for concurrent use.
+ *
+ * <p>A Bloom filter answers "definitely not added" or "probably added" in a few memory
+ * reads, using far less space than a set of the keys: about 9.6 bits per key for a 1%
+ * false-positive rate. Keys are expected to be well-mixed hashes already (such as
+ * {@link ImportDeduplicator#rowHash}); the {@code k} probe positions are derived from
+ * the key by double hashing. Bits are set with compare-and-set, so adding never blocks
+ * and a key added by one thread is seen by every later lookup.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class BloomFilter {
+
+    /** Bits per key for roughly a 1% false-positive rate with {@link #OPTIMAL_HASHES} probes */
+    private static final int BITS_PER_KEY = 10;
+
+    /** Probe count that minimizes false positives at {@link #BITS_PER_KEY} bits per key */
+    private static final int OPTIMAL_HASHES = 7;
+
+    /** The bit array, 64 bits per word */
+    private final AtomicLongArray words;
+
+    /** Number of bits, a multiple of 64 */
+    private final long bitCount;
+
+    /** Number of probes per key */
+    private final int hashCount;
+
+    /** Keys added so far, counting repeats */
+    private final LongAdder added = new LongAdder();
+
+    /**
+     * Creates an empty filter.
+     *
+     * @param bitCount  number of bits, rounded up to a multiple of 64
+     * @param hashCount number of probes per key
+     */
+    public BloomFilter(long bitCount, int hashCount) {
+        if (bitCount < 1 || hashCount < 1) {
+            throw new IllegalArgumentException("bitCount and hashCount must be positive: " + bitCount + ", " + hashCount);
+        }
+        long wordCount = (bitCount + 63) / 64;
+        if (wordCount > Integer.MAX_VALUE) throw new IllegalArgumentException("Filter too large: " + bitCount + " bits");
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitCount = wordCount * 64;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Creates a filter that uses a memory budget, sized for about a 1% false-positive
+     * rate up to {@link #getCapacity()} keys.
+     *
+     * @param bytes memory budget in bytes
+     * @return the filter
+     */
+    public static BloomFilter withBudget(long bytes) {
+        return new BloomFilter(Math.max(64, bytes * 8), OPTIMAL_HASHES);
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param key the key, ideally a well-mixed 64-bit hash
+     */
+    public void add(long key) {
+        long h2 = secondHash(key);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(key + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) break;
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+        added.increment();
+    }
+
+    /**
+     * Checks whether a key may have been added.
+     *
+     * @param key the key
+     * @return false if the key was definitely never added; true if it probably was
+     */
+    public boolean mightContain(long key) {
+        long h2 = secondHash(key);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(key + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of keys the filter holds at about a 1% false-positive rate.
+     *
+     * @return the capacity
+     */
+    public long getCapacity() {
+        return bitCount / BITS_PER_KEY;
+    }
+
+    /**
+     * Returns the number of keys added, counting repeats.
+     *
+     * @return keys added
+     */
+    public long getAddedCount() {
+        return added.sum();
+    }
+
+    /**
+     * Returns the size of the bit array.
+     *
+     * @return bytes used by the bits
+     */
+    public long getByteSize() {
+        return bitCount / 8;
+    }
+
+    /** Derives an odd step for double hashing from the key. */
+    private static long secondHash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (h ^ (h >>> 32)) | 1;
+    }
+}
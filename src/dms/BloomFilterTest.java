@@ -0,0 +1,78 @@
+package dms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link BloomFilter} class and the row hashes it is fed during imports.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Every added key is found (no false negatives)</li>
+ *     <li>The false-positive rate at capacity stays near the 1% design target</li>
+ *     <li>Row hashes depend on every field and are stable across calls</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class BloomFilterTest {
+
+    /**
+     * Default constructor for BloomFilterTest.
+     */
+    public BloomFilterTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Fills a filter to capacity and measures lookups of keys that were never added.
+     */
+    @Test
+    @DisplayName("No false negatives and about 1% false positives at capacity")
+    public void testFalsePositiveRate() {
+        BloomFilter filter = BloomFilter.withBudget(64 * 1024);
+        long capacity = filter.getCapacity();
+        assertEquals(64 * 1024, filter.getByteSize());
+
+        for (int i = 0; i < capacity; i++) filter.add(ImportDeduplicator.rowHash("1", "c" + i, "s", 1.0, i));
+        assertEquals(capacity, filter.getAddedCount());
+        for (int i = 0; i < capacity; i++) {
+            assertTrue(filter.mightContain(ImportDeduplicator.rowHash("1", "c" + i, "s", 1.0, i)), "Lost key " + i);
+        }
+
+        int trials = 100_000;
+        int falsePositives = 0;
+        for (int i = 0; i < trials; i++) {
+            if (filter.mightContain(ImportDeduplicator.rowHash("1", "other" + i, "s", 2.0, i))) falsePositives++;
+        }
+        double rate = (double) falsePositives / trials;
+        assertTrue(rate < 0.02, "False-positive rate too high: " + rate);
+    }
+
+    /**
+     * Hashes rows that differ in one field at a time.
+     */
+    @Test
+    @DisplayName("Row hashes depend on every field")
+    public void testRowHash() {
+        long base = ImportDeduplicator.rowHash("1", "John Smith", "FedEx", 12.5, 300);
+        assertEquals(base, ImportDeduplicator.rowHash("1", "John Smith", "FedEx", 12.5, 300));
+
+        Set<Long> variants = new HashSet<>();
+        variants.add(base);
+        variants.add(ImportDeduplicator.rowHash("1", "John Smyth", "FedEx", 12.5, 300));
+        variants.add(ImportDeduplicator.rowHash("1", "John Smith", "FedEx2", 12.5, 300));
+        variants.add(ImportDeduplicator.rowHash("1", "John Smith", "FedEx", 12.51, 300));
+        variants.add(ImportDeduplicator.rowHash("1", "John Smith", "FedEx", 12.5, 301));
+        variants.add(ImportDeduplicator.rowHash("2", "John Smith", "FedEx", 12.5, 300));
+        // The separator keeps a character moving between the two names from colliding
+        variants.add(ImportDeduplicator.rowHash("1", "John SmithF", "edEx", 12.5, 300));
+        assertEquals(7, variants.size());
+    }
+}
@@ -0,0 +1,649 @@
+package dms;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary columnar file format for moving order sets between environments.
+ *
+ * <p>Text manifests must re-parse every number on load. This format stores each column
+ * as a contiguous block of little-endian binary values, so the reader maps the file with
+ * a {@link MappedByteBuffer} and views uncompressed blocks directly as
+ * {@link IntBuffer}/{@link DoubleBuffer} without any per-row parsing.</p>
+ *
+ * <p>Layout (all integers little-endian):</p>
+ * <pre>
+ * header     magic "DMSCOL" 0 1 | int version | int flags | long rowCount | int groupCount | int reserved
+ * schema     short columnCount, then per column: byte type, short nameLength, UTF-8 name
+ * row group  int rows | long groupBytes | one block per schema column
+ * block      byte compression | int rawLength | int storedLength | int crc32(raw) | data
+ * </pre>
+ *
+ * <p>Rows are written in groups of up to {@value #DEFAULT_GROUP_SIZE}, so writing and
+ * reading use bounded memory for any number of orders. Names are stored once per group
+ * in a dictionary block and referenced by index from the customer and shipper name
+ * columns. Blocks may be Deflate-compressed (kept only when smaller) and carry a CRC32
+ * of their uncompressed bytes, which the reader verifies.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class ColumnarOrderFile {
+
+    /** File name extension used for this format */
+    public static final String EXTENSION = ".dmscol";
+
+    /** Rows per group unless configured otherwise */
+    public static final int DEFAULT_GROUP_SIZE = 65_536;
+
+    /** First eight bytes of every file */
+    private static final byte[] MAGIC = {'D', 'M', 'S', 'C', 'O', 'L', 0, 1};
+
+    /** Current format version */
+    private static final int VERSION = 1;
+
+    /** Header flag: blocks may be compressed */
+    private static final int FLAG_COMPRESSED = 1;
+
+    /** Size of the fixed header in bytes */
+    private static final int HEADER_SIZE = 32;
+
+    /** Offset of the row count within the header */
+    private static final int ROW_COUNT_OFFSET = 16;
+
+    // Column value types
+    private static final byte TYPE_INT32 = 1;
+    private static final byte TYPE_FLOAT64 = 2;
+    private static final byte TYPE_STRINGS = 3;
+
+    // Block compression codes
+    private static final byte COMPRESSION_NONE = 0;
+    private static final byte COMPRESSION_DEFLATE = 1;
+
+    /** Size of a block header in bytes */
+    private static final int BLOCK_HEADER_SIZE = 13;
+
+    /** Size of a row group header in bytes */
+    private static final int GROUP_HEADER_SIZE = 12;
+
+    // Column names, in the order the writer stores them
+    private static final String ORDER_ID = "order_id";
+    private static final String CUSTOMER_ID = "customer_id";
+    private static final String SHIPPER_ID = "shipper_id";
+    private static final String WEIGHT = "weight_in_pounds";
+    private static final String DISTANCE = "distance_in_miles";
+    private static final String COST = "shipping_cost";
+    private static final String CUSTOMER_NAME = "customer_name";
+    private static final String SHIPPER_NAME = "shipper_name";
+    private static final String NAMES = "name_dictionary";
+
+    private static final String[] COLUMN_NAMES = {
+            ORDER_ID, CUSTOMER_ID, SHIPPER_ID, WEIGHT, DISTANCE, COST, CUSTOMER_NAME, SHIPPER_NAME, NAMES
+    };
+    private static final byte[] COLUMN_TYPES = {
+            TYPE_INT32, TYPE_INT32, TYPE_INT32, TYPE_FLOAT64, TYPE_INT32, TYPE_FLOAT64, TYPE_INT32, TYPE_INT32, TYPE_STRINGS
+    };
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ColumnarOrderFile() {}
+
+    /**
+     * Writes a collection of orders to a file.
+     *
+     * @param file     destination file, replaced if it exists
+     * @param orders   the orders to write
+     * @param compress true to Deflate-compress blocks
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, Collection<ShippingOrder> orders, boolean compress) throws IOException {
+        try (Writer writer = new Writer(file, compress)) {
+            for (ShippingOrder order : orders) writer.write(order);
+        }
+    }
+
+    /**
+     * Reads every order in a file into memory.
+     *
+     * @param file the file to read
+     * @return the orders in file order
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public static List<ShippingOrder> readAll(Path file) throws IOException {
+        try (Reader reader = new Reader(file)) {
+            List<ShippingOrder> orders = new ArrayList<>((int) Math.min(reader.getRowCount(), Integer.MAX_VALUE));
+            while (reader.nextGroup()) {
+                for (int row = 0; row < reader.getGroupRowCount(); row++) orders.add(reader.getOrder(row));
+            }
+            return orders;
+        }
+    }
+
+    /**
+     * Returns whether a path names a columnar order file, judging by its extension.
+     *
+     * @param file the path to check
+     * @return true if the file name ends with {@value #EXTENSION}
+     */
+    public static boolean isColumnarFile(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(EXTENSION);
+    }
+
+    /**
+     * Streams orders into a columnar file one row group at a time.
+     */
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final boolean compress;
+        private final int groupSize;
+
+        // Current row group, column by column
+        private final int[] orderIds;
+        private final int[] customerIds;
+        private final int[] shipperIds;
+        private final double[] weights;
+        private final int[] distances;
+        private final double[] costs;
+        private final int[] customerRefs;
+        private final int[] shipperRefs;
+        private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private int rows;
+
+        private final ByteBuffer raw;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private byte[] compressed = new byte[0];
+        private final CRC32 crc = new CRC32();
+
+        private long rowCount;
+        private int groupCount;
+
+        /**
+         * Creates or truncates a file and writes its header and schema.
+         *
+         * @param file     destination file
+         * @param compress true to Deflate-compress blocks
+         * @throws IOException if the file cannot be written
+         */
+        public Writer(Path file, boolean compress) throws IOException {
+            this(file, compress, DEFAULT_GROUP_SIZE);
+        }
+
+        /**
+         * Creates a writer with a custom row group size (used by tests).
+         */
+        Writer(Path file, boolean compress, int groupSize) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.compress = compress;
+            this.groupSize = groupSize;
+            orderIds = new int[groupSize];
+            customerIds = new int[groupSize];
+            shipperIds = new int[groupSize];
+            weights = new double[groupSize];
+            distances = new int[groupSize];
+            costs = new double[groupSize];
+            customerRefs = new int[groupSize];
+            shipperRefs = new int[groupSize];
+            raw = ByteBuffer.allocate(groupSize * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 2 + COLUMN_NAMES.length * 32).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC).putInt(VERSION).putInt(compress ? FLAG_COMPRESSED : 0)
+                    .putLong(0).putInt(0).putInt(0);
+            header.putShort((short) COLUMN_NAMES.length);
+            for (int i = 0; i < COLUMN_NAMES.length; i++) {
+                byte[] name = COLUMN_NAMES[i].getBytes(StandardCharsets.UTF_8);
+                header.put(COLUMN_TYPES[i]).putShort((short) name.length).put(name);
+            }
+            writeFully(header.flip());
+        }
+
+        /**
+         * Appends one order.
+         *
+         * @param order the order to write
+         * @throws IOException if a completed row group cannot be written
+         */
+        public void write(ShippingOrder order) throws IOException {
+            write(order.getOrderId(), order.getCustomerId(), order.getShipperId(), order.getCustomerName(),
+                    order.getShipperName(), order.getWeightInPounds(), order.getDistanceInMiles(), order.getShippingCost());
+        }
+
+        /**
+         * Appends one order from its field values.
+         *
+         * @param orderId      order ID
+         * @param customerId   customer ID
+         * @param shipperId    shipper ID
+         * @param customerName customer name
+         * @param shipperName  shipper name
+         * @param weight       weight in pounds
+         * @param distance     distance in miles
+         * @param cost         stored shipping cost
+         * @throws IOException if a completed row group cannot be written
+         */
+        public void write(int orderId, int customerId, int shipperId, String customerName, String shipperName,
+                          double weight, int distance, double cost) throws IOException {
+            orderIds[rows] = orderId;
+            customerIds[rows] = customerId;
+            shipperIds[rows] = shipperId;
+            weights[rows] = weight;
+            distances[rows] = distance;
+            costs[rows] = cost;
+            customerRefs[rows] = dictionaryRef(customerName);
+            shipperRefs[rows] = dictionaryRef(shipperName);
+            rows++;
+            if (rows == groupSize) flushGroup();
+        }
+
+        /**
+         * Writes the last row group, completes the header, and closes the file.
+         *
+         * @throws IOException if writing fails
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                if (rows > 0) flushGroup();
+                ByteBuffer counts = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+                counts.putLong(rowCount).putInt(groupCount).flip();
+                while (counts.hasRemaining()) channel.write(counts, ROW_COUNT_OFFSET + counts.position());
+            } finally {
+                deflater.end();
+                channel.close();
+            }
+        }
+
+        private int dictionaryRef(String name) {
+            String key = name != null ? name : "";
+            Integer ref = dictionaryIndex.get(key);
+            if (ref == null) {
+                ref = dictionary.size();
+                dictionary.add(key);
+                dictionaryIndex.put(key, ref);
+            }
+            return ref;
+        }
+
+        private void flushGroup() throws IOException {
+            long groupStart = channel.position();
+            ByteBuffer groupHeader = ByteBuffer.allocate(GROUP_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            writeFully(groupHeader.putInt(rows).putLong(0).flip());
+
+            writeInts(orderIds);
+            writeInts(customerIds);
+            writeInts(shipperIds);
+            writeDoubles(weights);
+            writeInts(distances);
+            writeDoubles(costs);
+            writeInts(customerRefs);
+            writeInts(shipperRefs);
+            writeDictionary();
+
+            // Patch the group's byte length now that its blocks are written
+            long groupBytes = channel.position() - groupStart - GROUP_HEADER_SIZE;
+            ByteBuffer length = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            length.putLong(groupBytes).flip();
+            while (length.hasRemaining()) channel.write(length, groupStart + Integer.BYTES + length.position());
+
+            rowCount += rows;
+            groupCount++;
+            rows = 0;
+            dictionary.clear();
+            dictionaryIndex.clear();
+        }
+
+        private void writeInts(int[] values) throws IOException {
+            raw.clear();
+            raw.asIntBuffer().put(values, 0, rows);
+            raw.position(rows * Integer.BYTES);
+            writeBlock(raw.flip());
+        }
+
+        private void writeDoubles(double[] values) throws IOException {
+            raw.clear();
+            raw.asDoubleBuffer().put(values, 0, rows);
+            raw.position(rows * Double.BYTES);
+            writeBlock(raw.flip());
+        }
+
+        private void writeDictionary() throws IOException {
+            int size = Integer.BYTES;
+            byte[][] encoded = new byte[dictionary.size()][];
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = dictionary.get(i).getBytes(StandardCharsets.UTF_8);
+                size += Integer.BYTES + encoded[i].length;
+            }
+            ByteBuffer block = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            block.putInt(encoded.length);
+            for (byte[] name : encoded) block.putInt(name.length).put(name);
+            writeBlock(block.flip());
+        }
+
+        /**
+         * Writes one block: header, then the raw or compressed bytes of {@code data}.
+         */
+        private void writeBlock(ByteBuffer data) throws IOException {
+            int rawLength = data.remaining();
+            crc.reset();
+            crc.update(data.duplicate());
+
+            byte compression = COMPRESSION_NONE;
+            ByteBuffer payload = data;
+            if (compress && rawLength > 0) {
+                if (compressed.length < rawLength) compressed = new byte[rawLength];
+                deflater.reset();
+                deflater.setInput(data.duplicate());
+                deflater.finish();
+                int stored = deflater.deflate(compressed, 0, rawLength);
+                // Keep compression only if the whole block fit and got smaller
+                if (deflater.finished() && stored < rawLength) {
+                    compression = COMPRESSION_DEFLATE;
+                    payload = ByteBuffer.wrap(compressed, 0, stored);
+                }
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(compression).putInt(rawLength).putInt(payload.remaining()).putInt((int) crc.getValue());
+            writeFully(header.flip());
+            writeFully(payload);
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads a columnar file one row group at a time through memory-mapped buffers.
+     * Values of the current group are accessed by row index or copied out in bulk.
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final long rowCount;
+        private final int groupCount;
+        private final String[] columnNames;
+        private final byte[] columnTypes;
+
+        /** Schema position of each known column, or -1 if absent */
+        private final int[] knownColumns = new int[COLUMN_NAMES.length];
+
+        private long nextGroupPosition;
+        private int groupsRead;
+        private int groupRows;
+
+        // Decoded views of the current group, indexed by schema position
+        private IntBuffer[] intColumns;
+        private DoubleBuffer[] doubleColumns;
+        private String[] dictionary;
+
+        private final CRC32 crc = new CRC32();
+        private final Inflater inflater = new Inflater();
+
+        /**
+         * Opens a file and reads its header and schema.
+         *
+         * @param file the file to read
+         * @throws IOException if the file cannot be read or is not a columnar order file
+         */
+        public Reader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 2).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(header, 0);
+                byte[] magic = new byte[MAGIC.length];
+                header.get(magic);
+                if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a columnar order file: " + file);
+                int version = header.getInt();
+                if (version != VERSION) throw new IOException("Unsupported columnar file version " + version);
+                header.getInt(); // flags: compression is recorded per block
+                rowCount = header.getLong();
+                groupCount = header.getInt();
+                header.getInt(); // reserved
+
+                int columns = header.getShort();
+                columnNames = new String[columns];
+                columnTypes = new byte[columns];
+                long position = HEADER_SIZE + 2;
+                ByteBuffer entry = ByteBuffer.allocate(3).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < columns; i++) {
+                    entry.clear();
+                    readFully(entry, position);
+                    columnTypes[i] = entry.get();
+                    ByteBuffer name = ByteBuffer.allocate(entry.getShort());
+                    readFully(name, position + 3);
+                    columnNames[i] = new String(name.array(), StandardCharsets.UTF_8);
+                    position += 3 + name.capacity();
+                }
+                nextGroupPosition = position;
+
+                for (int k = 0; k < COLUMN_NAMES.length; k++) {
+                    knownColumns[k] = -1;
+                    for (int i = 0; i < columns; i++) {
+                        if (columnNames[i].equals(COLUMN_NAMES[k]) && columnTypes[i] == COLUMN_TYPES[k]) knownColumns[k] = i;
+                    }
+                    if (knownColumns[k] < 0) throw new IOException("Columnar file is missing column " + COLUMN_NAMES[k]);
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e instanceof IOException io ? io : new IOException("Corrupt columnar file header: " + e, e);
+            }
+        }
+
+        /**
+         * Returns the total number of rows in the file.
+         *
+         * @return the row count from the header
+         */
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Maps and decodes the next row group, verifying every block's checksum.
+         *
+         * @return true if a group was read, false after the last group
+         * @throws IOException if the group cannot be read or a checksum does not match
+         */
+        public boolean nextGroup() throws IOException {
+            if (groupsRead == groupCount) return false;
+
+            ByteBuffer groupHeader = ByteBuffer.allocate(GROUP_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(groupHeader, nextGroupPosition);
+            groupRows = groupHeader.getInt();
+            long groupBytes = groupHeader.getLong();
+            long dataStart = nextGroupPosition + GROUP_HEADER_SIZE;
+            if (groupRows < 0 || groupBytes < 0 || dataStart + groupBytes > channel.size()) {
+                throw new IOException("Corrupt row group " + groupsRead);
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, dataStart, groupBytes);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            intColumns = new IntBuffer[columnNames.length];
+            doubleColumns = new DoubleBuffer[columnNames.length];
+            dictionary = null;
+            for (int i = 0; i < columnNames.length; i++) {
+                ByteBuffer data = readBlock(mapped, i);
+                switch (columnTypes[i]) {
+                    case TYPE_INT32 -> intColumns[i] = checkLength(data, Integer.BYTES, i).asIntBuffer();
+                    case TYPE_FLOAT64 -> doubleColumns[i] = checkLength(data, Double.BYTES, i).asDoubleBuffer();
+                    case TYPE_STRINGS -> {
+                        if (i == knownColumns[8]) dictionary = decodeStrings(data);
+                    }
+                    default -> {
+                        // Unknown column types from newer writers are skipped
+                    }
+                }
+            }
+
+            nextGroupPosition = dataStart + groupBytes;
+            groupsRead++;
+            return true;
+        }
+
+        /**
+         * Returns the number of rows in the current group.
+         *
+         * @return the current group's row count
+         */
+        public int getGroupRowCount() {
+            return groupRows;
+        }
+
+        /**
+         * Builds an order object for one row of the current group.
+         *
+         * @param row row index within the group
+         * @return the order
+         */
+        public ShippingOrder getOrder(int row) {
+            return new ShippingOrder(
+                    ints(0).get(row), ints(1).get(row), ints(2).get(row),
+                    doubles(3).get(row), ints(4).get(row),
+                    dictionary[ints(6).get(row)], dictionary[ints(7).get(row)],
+                    doubles(5).get(row));
+        }
+
+        /**
+         * Copies the current group's customer names into {@code out}.
+         *
+         * @param out receives one name per row
+         */
+        public void getCustomerNames(String[] out) {
+            IntBuffer refs = ints(6);
+            for (int row = 0; row < groupRows; row++) out[row] = dictionary[refs.get(row)];
+        }
+
+        /**
+         * Copies the current group's shipper names into {@code out}.
+         *
+         * @param out receives one name per row
+         */
+        public void getShipperNames(String[] out) {
+            IntBuffer refs = ints(7);
+            for (int row = 0; row < groupRows; row++) out[row] = dictionary[refs.get(row)];
+        }
+
+        /**
+         * Copies the current group's weights into {@code out} in one bulk transfer.
+         *
+         * @param out receives one weight per row
+         */
+        public void getWeights(double[] out) {
+            doubles(3).get(0, out, 0, groupRows);
+        }
+
+        /**
+         * Copies the current group's distances into {@code out} in one bulk transfer.
+         *
+         * @param out receives one distance per row
+         */
+        public void getDistances(int[] out) {
+            ints(4).get(0, out, 0, groupRows);
+        }
+
+        /**
+         * Closes the file.
+         *
+         * @throws IOException if closing fails
+         */
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            channel.close();
+        }
+
+        private IntBuffer ints(int known) {
+            return intColumns[knownColumns[known]];
+        }
+
+        private DoubleBuffer doubles(int known) {
+            return doubleColumns[knownColumns[known]];
+        }
+
+        /**
+         * Reads the next block from the mapped group, inflating it if needed, and
+         * verifies its checksum. Uncompressed blocks are returned as a view of the mapping.
+         */
+        private ByteBuffer readBlock(ByteBuffer mapped, int column) throws IOException {
+            try {
+                byte compression = mapped.get();
+                int rawLength = mapped.getInt();
+                int storedLength = mapped.getInt();
+                int expectedCrc = mapped.getInt();
+
+                ByteBuffer stored = mapped.slice(mapped.position(), storedLength).order(ByteOrder.LITTLE_ENDIAN);
+                mapped.position(mapped.position() + storedLength);
+
+                ByteBuffer data;
+                if (compression == COMPRESSION_NONE) {
+                    if (storedLength != rawLength) throw new IOException("Length mismatch");
+                    data = stored;
+                } else if (compression == COMPRESSION_DEFLATE) {
+                    byte[] inflated = new byte[rawLength];
+                    inflater.reset();
+                    inflater.setInput(stored);
+                    if (inflater.inflate(inflated) != rawLength || !inflater.finished()) {
+                        throw new IOException("Inflated length mismatch");
+                    }
+                    data = ByteBuffer.wrap(inflated).order(ByteOrder.LITTLE_ENDIAN);
+                } else {
+                    throw new IOException("Unknown compression " + compression);
+                }
+
+                crc.reset();
+                crc.update(data.duplicate());
+                if ((int) crc.getValue() != expectedCrc) throw new IOException("Checksum mismatch");
+                return data;
+            } catch (IOException | DataFormatException | RuntimeException e) {
+                throw new IOException("Corrupt block for column " + columnNames[column]
+                        + " in row group " + groupsRead + ": " + e.getMessage(), e);
+            }
+        }
+
+        private ByteBuffer checkLength(ByteBuffer data, int width, int column) throws IOException {
+            if (data.remaining() != groupRows * width) {
+                throw new IOException("Column " + columnNames[column] + " has the wrong length in row group " + groupsRead);
+            }
+            return data;
+        }
+
+        private static String[] decodeStrings(ByteBuffer data) {
+            String[] strings = new String[data.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[data.getInt()];
+                data.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return strings;
+        }
+
+        private void readFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) throw new IOException("Unexpected end of file");
+            }
+            buffer.flip();
+        }
+    }
+}
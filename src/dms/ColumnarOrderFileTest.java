@@ -0,0 +1,167 @@
+package dms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ColumnarOrderFile} format.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Orders round-trip with identical values, with and without compression,
+ *         across several row groups</li>
+ *     <li>Bulk column copies match the per-row values</li>
+ *     <li>Corrupted blocks and foreign files are rejected</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class ColumnarOrderFileTest {
+
+    private Path file;
+
+    /**
+     * Default constructor for ColumnarOrderFileTest.
+     */
+    public ColumnarOrderFileTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Creates a temporary file before each test.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("orders", ColumnarOrderFile.EXTENSION);
+    }
+
+    /**
+     * Deletes the temporary file after each test.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Verifies every field survives a write and read, compressed or not.
+     *
+     * @throws IOException if writing or reading fails
+     */
+    @Test
+    @DisplayName("Orders round-trip across row groups")
+    public void testRoundTrip() throws IOException {
+        List<ShippingOrder> orders = sampleOrders(2_500);
+        for (boolean compress : new boolean[]{false, true}) {
+            try (ColumnarOrderFile.Writer writer = new ColumnarOrderFile.Writer(file, compress, 1_000)) {
+                for (ShippingOrder order : orders) writer.write(order);
+            }
+
+            List<ShippingOrder> read = ColumnarOrderFile.readAll(file);
+            assertEquals(orders.size(), read.size());
+            for (int i = 0; i < orders.size(); i++) {
+                ShippingOrder expected = orders.get(i);
+                ShippingOrder actual = read.get(i);
+                assertEquals(expected.getOrderId(), actual.getOrderId());
+                assertEquals(expected.getCustomerId(), actual.getCustomerId());
+                assertEquals(expected.getShipperId(), actual.getShipperId());
+                assertEquals(expected.getCustomerName(), actual.getCustomerName());
+                assertEquals(expected.getShipperName(), actual.getShipperName());
+                assertEquals(expected.getWeightInPounds(), actual.getWeightInPounds(), 0.0);
+                assertEquals(expected.getDistanceInMiles(), actual.getDistanceInMiles());
+                assertEquals(expected.getShippingCost(), actual.getShippingCost(), 0.0);
+            }
+        }
+    }
+
+    /**
+     * Verifies the bulk accessors used for loading into the manager.
+     *
+     * @throws IOException if writing or reading fails
+     */
+    @Test
+    @DisplayName("Bulk column copies match the rows")
+    public void testBulkColumns() throws IOException {
+        List<ShippingOrder> orders = sampleOrders(1_500);
+        try (ColumnarOrderFile.Writer writer = new ColumnarOrderFile.Writer(file, true, 1_000)) {
+            for (ShippingOrder order : orders) writer.write(order);
+        }
+
+        try (ColumnarOrderFile.Reader reader = new ColumnarOrderFile.Reader(file)) {
+            assertEquals(1_500, reader.getRowCount());
+            int offset = 0;
+            String[] customers = new String[1_000];
+            String[] shippers = new String[1_000];
+            double[] weights = new double[1_000];
+            int[] distances = new int[1_000];
+            while (reader.nextGroup()) {
+                int rows = reader.getGroupRowCount();
+                reader.getCustomerNames(customers);
+                reader.getShipperNames(shippers);
+                reader.getWeights(weights);
+                reader.getDistances(distances);
+                for (int row = 0; row < rows; row++) {
+                    ShippingOrder expected = orders.get(offset + row);
+                    assertEquals(expected.getCustomerName(), customers[row]);
+                    assertEquals(expected.getShipperName(), shippers[row]);
+                    assertEquals(expected.getWeightInPounds(), weights[row], 0.0);
+                    assertEquals(expected.getDistanceInMiles(), distances[row]);
+                }
+                offset += rows;
+            }
+            assertEquals(1_500, offset);
+        }
+    }
+
+    /**
+     * Verifies a flipped data byte fails the checksum and a text file is refused.
+     *
+     * @throws IOException if the file cannot be prepared
+     */
+    @Test
+    @DisplayName("Corrupt and foreign files are rejected")
+    public void testCorruption() throws IOException {
+        ColumnarOrderFile.write(file, sampleOrders(100), false);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = channel.size() - 20;
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, position);
+            one.put(0, (byte) (one.get(0) ^ 0x5A)).rewind();
+            channel.write(one, position);
+        }
+        IOException corrupt = assertThrows(IOException.class, () -> ColumnarOrderFile.readAll(file));
+        assertTrue(corrupt.getMessage().contains("Checksum"), corrupt.getMessage());
+
+        Files.writeString(file, "1|John Smith|UPS|45.0|1200\n".repeat(10));
+        assertThrows(IOException.class, () -> ColumnarOrderFile.readAll(file));
+    }
+
+    private static List<ShippingOrder> sampleOrders(int count) {
+        String[] customers = {"John Smith", "Maria Garcia", "Zoë Müller", ""};
+        String[] shippers = {"UPS", "FedEx", "DHL"};
+        List<ShippingOrder> orders = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            orders.add(new ShippingOrder(i, 1 + i % 4, 1 + i % 3, (i % 1500) / 10.0 + 0.1, i % 3000 + 1,
+                    customers[i % 4], shippers[i % 3], i * 1.25));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,288 @@
+package dms;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Background monitor of the shared database connection.
+ *
+ * <p>Validates the connection from {@link DBConnectionManager} on a schedule, off any UI
+ * thread, and caches the outcome so {@link #getStatus()} is a plain field read. When
+ * validation fails and the app connected with known settings, it reconnects through
+ * {@link DBConnectionManager#reconnect()}, retrying with exponential backoff and random
+ * jitter so many clients that lost the same server do not all retry at the same moment.
+ * Status changes are published to {@link StatusListener}s, such as the GUI's
+ * connection label.</p>
+ *
+ * <p>The check interval defaults to 5 seconds and can be set with
+ * {@code -Ddms.health.intervalMillis}.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class ConnectionHealthMonitor implements AutoCloseable {
+
+    /**
+     * Connection state as last observed by the monitor.
+     */
+    public enum Status {
+        /** No check has completed yet */
+        UNKNOWN,
+        /** The connection answered the last validation */
+        CONNECTED,
+        /** The connection failed validation and reconnect attempts are in progress */
+        RECONNECTING,
+        /** There is no working connection and no settings to reconnect with */
+        DISCONNECTED
+    }
+
+    /**
+     * Receives status changes. Called on the monitor's thread, so GUI listeners must
+     * hand the update to their UI thread.
+     */
+    @FunctionalInterface
+    public interface StatusListener {
+        /**
+         * Called when the status changes.
+         *
+         * @param previous the status before the change
+         * @param current  the new status
+         */
+        void statusChanged(Status previous, Status current);
+    }
+
+    /** Default time between checks while the connection is healthy */
+    private static final long DEFAULT_INTERVAL_MILLIS = 5_000;
+
+    /** Seconds a validation query may take before the connection counts as broken */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /** First reconnect delay; doubled after every failed attempt */
+    static final long BACKOFF_BASE_MILLIS = 500;
+
+    /** Upper bound on the reconnect delay */
+    static final long BACKOFF_MAX_MILLIS = 30_000;
+
+    // Health metrics
+    private static final LatencyHistogram CHECK_LATENCY = MetricsRegistry.getInstance().histogram("db.health.check");
+    private static final LongAdder FAILED_CHECKS = MetricsRegistry.getInstance().counter("db.health.failures");
+    private static final LongAdder RECONNECTS = MetricsRegistry.getInstance().counter("db.health.reconnects");
+
+    /** Source of the connection being watched */
+    private final DBConnectionManager connections;
+
+    /** Time between checks while healthy */
+    private final long intervalMillis;
+
+    /** Single daemon thread that runs every check */
+    private final ScheduledExecutorService scheduler;
+
+    /** Registered listeners */
+    private final List<StatusListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Cached outcome of the latest check */
+    private volatile Status status = Status.UNKNOWN;
+
+    /** Wall-clock time of the latest completed check, or 0 */
+    private volatile long lastCheckMillis;
+
+    /** Reconnect attempts that failed in a row; only used on the monitor thread */
+    private int failedAttempts;
+
+    /** Next scheduled check, or null before {@link #start()} */
+    private ScheduledFuture<?> nextCheck;
+
+    /** Set once the monitor has been closed */
+    private boolean closed;
+
+    /**
+     * Creates a monitor with the configured check interval. Call {@link #start()} to begin.
+     *
+     * @param connections the connection manager to watch
+     */
+    public ConnectionHealthMonitor(DBConnectionManager connections) {
+        this(connections, Long.getLong("dms.health.intervalMillis", DEFAULT_INTERVAL_MILLIS));
+    }
+
+    /**
+     * Creates a monitor. Call {@link #start()} to begin.
+     *
+     * @param connections    the connection manager to watch
+     * @param intervalMillis time between checks while the connection is healthy
+     */
+    public ConnectionHealthMonitor(DBConnectionManager connections, long intervalMillis) {
+        this.connections = connections;
+        this.intervalMillis = Math.max(1, intervalMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "db-health-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        MetricsRegistry.getInstance().gauge("db.health.connected", () -> status == Status.CONNECTED ? 1 : 0);
+    }
+
+    /**
+     * Starts checking, with the first check right away. Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (nextCheck == null) scheduleCheck(0);
+    }
+
+    /**
+     * Runs a check as soon as possible instead of waiting for the next scheduled one,
+     * for example after an operation failed. Returns immediately.
+     */
+    public synchronized void requestCheck() {
+        scheduleCheck(0);
+    }
+
+    /**
+     * Registers a listener for status changes.
+     *
+     * @param listener the listener
+     */
+    public void addListener(StatusListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the listener
+     */
+    public void removeListener(StatusListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the status found by the latest check. This never touches the database.
+     *
+     * @return the cached status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns whether the latest check found a working connection.
+     *
+     * @return true if the status is {@link Status#CONNECTED}
+     */
+    public boolean isConnected() {
+        return status == Status.CONNECTED;
+    }
+
+    /**
+     * Gets the time the latest check completed.
+     *
+     * @return epoch milliseconds, or 0 if no check has completed
+     */
+    public long getLastCheckMillis() {
+        return lastCheckMillis;
+    }
+
+    /**
+     * Stops checking. A check that is already running is interrupted.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Returns the delay before a reconnect attempt: exponential in the number of failed
+     * attempts and capped, with "equal jitter" so the delay falls randomly between half
+     * and all of the capped value.
+     *
+     * @param failedAttempts reconnect attempts that failed in a row (at least 1)
+     * @param baseMillis     delay after the first failure, before jitter
+     * @param maxMillis      upper bound on the delay
+     * @param random         source of jitter
+     * @return the delay in milliseconds
+     */
+    static long backoffMillis(int failedAttempts, long baseMillis, long maxMillis, RandomGenerator random) {
+        int doublings = Math.min(Math.max(failedAttempts - 1, 0), 30);
+        long capped = Math.min(maxMillis, baseMillis << doublings);
+        if (capped < 0) capped = maxMillis;
+        long half = capped / 2;
+        return half + random.nextLong(capped - half + 1);
+    }
+
+    private synchronized void scheduleCheck(long delayMillis) {
+        if (closed) return;
+        if (nextCheck != null) nextCheck.cancel(false);
+        nextCheck = scheduler.schedule(this::check, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Validates the connection, reconnecting if needed, and schedules the next check.
+     */
+    private void check() {
+        long start = System.nanoTime();
+        try {
+            if (isValid(connections.getConnection())) {
+                failedAttempts = 0;
+                setStatus(Status.CONNECTED);
+                scheduleCheck(intervalMillis);
+                return;
+            }
+
+            FAILED_CHECKS.increment();
+            if (!connections.canReconnect()) {
+                setStatus(Status.DISCONNECTED);
+                scheduleCheck(intervalMillis);
+                return;
+            }
+
+            setStatus(Status.RECONNECTING);
+            try {
+                connections.reconnect();
+                RECONNECTS.increment();
+                failedAttempts = 0;
+                setStatus(Status.CONNECTED);
+                scheduleCheck(intervalMillis);
+            } catch (SQLException e) {
+                failedAttempts++;
+                long delay = backoffMillis(failedAttempts, BACKOFF_BASE_MILLIS, BACKOFF_MAX_MILLIS,
+                        ThreadLocalRandom.current());
+                System.err.println("Reconnect attempt " + failedAttempts + " failed (retrying in "
+                        + delay + " ms): " + e.getMessage());
+                scheduleCheck(delay);
+            }
+        } finally {
+            lastCheckMillis = System.currentTimeMillis();
+            CHECK_LATENCY.recordSince(start);
+        }
+    }
+
+    private static boolean isValid(Connection conn) {
+        try {
+            return conn != null && !conn.isClosed() && conn.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void setStatus(Status current) {
+        Status previous = status;
+        if (previous == current) return;
+        status = current;
+        for (StatusListener listener : listeners) {
+            try {
+                listener.statusChanged(previous, current);
+            } catch (RuntimeException e) {
+                System.err.println("Connection status listener failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package dms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ConnectionHealthMonitor} class.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Reconnect delays grow exponentially, stay within the cap, and are jittered</li>
+ *     <li>The first check publishes a status change and caches the result</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class ConnectionHealthMonitorTest {
+
+    /**
+     * Default constructor for ConnectionHealthMonitorTest.
+     */
+    public ConnectionHealthMonitorTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Checks the bounds of every delay and that delays vary between attempts.
+     */
+    @Test
+    @DisplayName("Backoff doubles up to the cap with jitter")
+    public void testBackoff() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int attempt = 1; attempt <= 40; attempt++) {
+            long capped = Math.min(30_000, 500L << Math.min(attempt - 1, 30));
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            for (int i = 0; i < 200; i++) {
+                long delay = ConnectionHealthMonitor.backoffMillis(attempt, 500, 30_000, random);
+                assertTrue(delay >= capped / 2 && delay <= capped, "Attempt " + attempt + " delay " + delay);
+                min = Math.min(min, delay);
+                max = Math.max(max, delay);
+            }
+            assertTrue(max > min, "Delays should be jittered");
+        }
+        long longest = ConnectionHealthMonitor.backoffMillis(Integer.MAX_VALUE, 500, 30_000, random);
+        assertTrue(longest >= 15_000 && longest <= 30_000, "Many failures stay capped, got " + longest);
+    }
+
+    /**
+     * Starts a monitor and waits for its first status change.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test
+    @DisplayName("First check notifies listeners and caches the status")
+    public void testFirstCheckNotifies() throws InterruptedException {
+        CountDownLatch changed = new CountDownLatch(1);
+        AtomicReference<ConnectionHealthMonitor.Status> previous = new AtomicReference<>();
+        AtomicReference<ConnectionHealthMonitor.Status> current = new AtomicReference<>();
+
+        try (ConnectionHealthMonitor monitor = new ConnectionHealthMonitor(DBConnectionManager.getInstance(), 60_000)) {
+            assertEquals(ConnectionHealthMonitor.Status.UNKNOWN, monitor.getStatus());
+            monitor.addListener((before, after) -> {
+                if (previous.compareAndSet(null, before)) {
+                    current.set(after);
+                    changed.countDown();
+                }
+            });
+            monitor.start();
+
+            assertTrue(changed.await(10, TimeUnit.SECONDS), "The first check should change the status");
+            assertEquals(ConnectionHealthMonitor.Status.UNKNOWN, previous.get());
+            assertNotEquals(ConnectionHealthMonitor.Status.UNKNOWN, current.get());
+            assertEquals(current.get(), monitor.getStatus());
+        }
+    }
+}
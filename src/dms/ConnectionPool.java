@@ -0,0 +1,248 @@
+package dms;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small bounded pool of JDBC connections for operations that run concurrently.
+ *
+ * <p>At most {@code maxSize} connections are lent out at a time; further callers
+ * block in {@link #acquire()} until one is returned. Connections are opened lazily,
+ * wrapped by {@link JdbcTracer}, and reused until they are found closed.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /** JDBC URL used to open new connections */
+    private final String url;
+
+    /** Database user name */
+    private final String user;
+
+    /** Database password */
+    private final String password;
+
+    /** Maximum number of connections lent out at once */
+    private final int maxSize;
+
+    /** Whether new connections are marked read-only, as for replicas */
+    private final boolean readOnly;
+
+    /** Statement run on every new connection, or null */
+    private final String sessionSql;
+
+    /** One permit per connection that may be lent out */
+    private final Semaphore permits;
+
+    /** Connections returned to the pool and ready for reuse */
+    private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+
+    /** Number of connections currently lent out */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /** Set once the pool has been closed */
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool that opens connections with the given settings.
+     *
+     * @param url      JDBC URL
+     * @param user     database user name
+     * @param password database password
+     * @param maxSize  maximum number of connections lent out at once
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize) {
+        this(url, user, password, maxSize, false);
+    }
+
+    /**
+     * Creates a pool that opens connections with the given settings, optionally marking
+     * each one read-only so that a write sent to a replica by mistake fails instead of
+     * diverging from the primary.
+     *
+     * @param url      JDBC URL
+     * @param user     database user name
+     * @param password database password
+     * @param maxSize  maximum number of connections lent out at once
+     * @param readOnly whether connections are marked read-only
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize, boolean readOnly) {
+        this(url, user, password, maxSize, readOnly, null);
+    }
+
+    /**
+     * Creates a pool whose connections each run a statement when opened, such as the
+     * session settings a shard needs (see {@link ShardRouter#sessionSql(int)}).
+     *
+     * @param url        JDBC URL
+     * @param user       database user name
+     * @param password   database password
+     * @param maxSize    maximum number of connections lent out at once
+     * @param readOnly   whether connections are marked read-only
+     * @param sessionSql statement run on every new connection, or null
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize, boolean readOnly, String sessionSql) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.readOnly = readOnly;
+        this.sessionSql = sessionSql;
+        this.permits = new Semaphore(this.maxSize, true);
+    }
+
+    /**
+     * Borrows a connection, waiting if all connections are in use.
+     * Every successful call must be paired with {@link #release(Connection)}.
+     *
+     * @return an open connection
+     * @throws SQLException if the pool is closed, the wait is interrupted, or a new connection fails
+     */
+    public Connection acquire() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed.");
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection.", e);
+        }
+
+        try {
+            Connection conn;
+            while ((conn = idle.pollFirst()) != null) {
+                if (!conn.isClosed()) break;
+            }
+            if (conn == null) {
+                conn = open();
+            }
+            active.incrementAndGet();
+            return conn;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool.
+     * Closed connections are dropped; open ones are reset to auto-commit and reused.
+     *
+     * @param conn a connection obtained from {@link #acquire()}
+     */
+    public void release(Connection conn) {
+        if (conn == null) return;
+        active.decrementAndGet();
+        try {
+            if (closed || conn.isClosed()) {
+                conn.close();
+            } else {
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+                idle.offerFirst(conn);
+            }
+        } catch (SQLException e) {
+            closeQuietly(conn);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Returns the JDBC URL connections are opened with.
+     *
+     * @return the URL
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the maximum number of connections lent out at once.
+     *
+     * @return the pool size
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of connections currently lent out.
+     *
+     * @return active connections
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * Returns the number of open connections waiting to be reused.
+     *
+     * @return idle connections
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Closes every idle connection so later borrowers get freshly opened ones.
+     * Used after the database link dropped, when idle connections may look open
+     * but be unusable. Connections currently lent out are not affected.
+     *
+     * @return the number of connections closed
+     */
+    public int evictIdle() {
+        int evicted = 0;
+        Connection conn;
+        while ((conn = idle.pollFirst()) != null) {
+            closeQuietly(conn);
+            evicted++;
+        }
+        return evicted;
+    }
+
+    /**
+     * Closes all idle connections and rejects further borrowing.
+     * Connections still lent out are closed when they are released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Connection conn;
+        while ((conn = idle.pollFirst()) != null) {
+            closeQuietly(conn);
+        }
+    }
+
+    private Connection open() throws SQLException {
+        Connection conn = JdbcTracer.wrap(DriverManager.getConnection(url, user, password));
+        try {
+            if (sessionSql != null) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(sessionSql);
+                }
+            }
+            if (readOnly) conn.setReadOnly(true);
+            return conn;
+        } catch (SQLException e) {
+            closeQuietly(conn);
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package dms;
 import java.util.*;
 import java.io.*;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Main class for the Package Shipping System console interface.
@@ -21,6 +22,15 @@ import java.math.BigInteger;
  */
 public class ConsoleMain {
 
+    /** Orders shown per page in the paged view */
+    private static final int PAGE_SIZE = 20;
+
+    /** Orders fetched per keyset query when dumping every order */
+    private static final int DUMP_FETCH_SIZE = 10_000;
+
+    /** Size of the output buffer used by the bulk dump, in chars */
+    private static final int DUMP_BUFFER_SIZE = 1 << 20;
+
     /** Manager object that handles all CRUD operations on shipping orders */
     private final ShippingOrderManager manager;
 
@@ -120,10 +130,13 @@ public class ConsoleMain {
                     continue;
                 }
 
-                if (manager.addOrder(customerName, shipperName, weight, distance)) {
+                int failures = OrderValidator.checkOrder(customerName, shipperName, weight, distance);
+                if (failures != 0) {
+                    System.out.println("❌ Invalid " + OrderValidator.describe(failures) + " in line: " + line);
+                } else if (manager.addOrder(customerName, shipperName, weight, distance)) {
                     System.out.println("✅ Order loaded: " + customerName + " -> " + shipperName);
                 } else {
-                    System.out.println("❌ Invalid order in line: " + line);
+                    System.out.println("❌ Failed to save order in line: " + line);
                 }
             }
             System.out.println("✅ File loading complete.");
@@ -138,14 +151,11 @@ public class ConsoleMain {
      * Fields are validated before the order is added.
      */
     private void addOrderManually() {
-        System.out.print("Customer Name: ");
-        String customerName = scanner.nextLine().trim();
+        String customerName = readValidatedName("Customer Name");
+        String shipperName = readValidatedName("Shipper Name");
 
-        System.out.print("Shipper Name: ");
-        String shipperName = scanner.nextLine().trim();
-
-        double weight = readValidatedDouble("Weight (lbs)", 0.1, 150.0);
-        int distance = readValidatedInt("Distance (miles)", 1, 3000);
+        double weight = readValidatedDouble("Weight (lbs)", OrderValidator.MIN_WEIGHT, OrderValidator.MAX_WEIGHT);
+        int distance = readValidatedInt("Distance (miles)", OrderValidator.MIN_DISTANCE, OrderValidator.MAX_DISTANCE);
 
         if (manager.addOrder(customerName, shipperName, weight, distance)) {
             System.out.println("✅ Order added successfully!");
@@ -155,20 +165,111 @@ public class ConsoleMain {
     }
 
     /**
-     * Displays all shipping orders currently stored in the system.
+     * Shows orders one page at a time, read from the database with keyset queries,
+     * so the first page appears immediately however many orders exist. The user can
+     * move to the next or previous page, jump to an order ID, or dump every order.
      */
     private void viewOrders() {
-        List<ShippingOrder> orders = manager.getAllOrders();
-        if (orders.isEmpty()) {
+        List<ShippingOrder> page = loadPage(true, 0);
+        if (page == null) return;
+        if (page.isEmpty()) {
             System.out.println("❌ No orders found.");
-        } else {
-            System.out.println("\n=== Current Orders ===");
-            for (ShippingOrder order : orders) {
-                System.out.println(order);
+            return;
+        }
+
+        StringBuilder text = new StringBuilder(PAGE_SIZE * 128);
+        while (true) {
+            text.setLength(0);
+            text.append("\n=== Current Orders ===\n");
+            for (ShippingOrder order : page) OrderText.appendDescription(text, order).append('\n');
+            System.out.print(text);
+
+            System.out.print("[N]ext, [P]revious, [J]ump to ID, [D]ump all, [Q]uit: ");
+            String choice = scanner.nextLine().trim().toLowerCase();
+            List<ShippingOrder> next;
+            switch (choice) {
+                case "", "n" -> next = loadPage(true, page.get(page.size() - 1).getOrderId());
+                case "p" -> next = loadPage(false, page.get(0).getOrderId());
+                case "j" -> {
+                    System.out.print("Jump to Order ID: ");
+                    next = loadPage(true, readValidatedInt(1, Integer.MAX_VALUE) - 1);
+                }
+                case "d" -> {
+                    dumpOrders();
+                    continue;
+                }
+                case "q" -> {
+                    return;
+                }
+                default -> {
+                    System.out.println("❌ Invalid option.");
+                    continue;
+                }
+            }
+
+            if (next == null) return;
+            if (next.isEmpty()) {
+                System.out.println(choice.equals("p") ? "❌ Already at the first page." : "❌ No more orders.");
+            } else {
+                page = next;
             }
         }
     }
 
+    /**
+     * Reads one page of orders after or before an ID.
+     *
+     * @param forward true for orders after {@code boundId}, false for orders before it
+     * @param boundId the keyset bound
+     * @return the page, or null if it could not be read
+     */
+    private List<ShippingOrder> loadPage(boolean forward, int boundId) {
+        try {
+            return forward ? manager.getOrdersAfter(boundId, PAGE_SIZE) : manager.getOrdersBefore(boundId, PAGE_SIZE);
+        } catch (OrderOperationException e) {
+            System.out.println("❌ " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes every order to standard output in ID order. Orders are read in large keyset
+     * pages and formatted into one reused builder, then copied into a single large
+     * buffered writer, so the terminal rather than formatting limits the speed.
+     */
+    private void dumpOrders() {
+        System.out.flush();
+        Writer out = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8),
+                DUMP_BUFFER_SIZE);
+        StringBuilder line = new StringBuilder(256);
+        char[] chars = new char[256];
+        long count = 0;
+        long start = System.nanoTime();
+        try {
+            int afterId = 0;
+            List<ShippingOrder> page;
+            do {
+                page = manager.getOrdersAfter(afterId, DUMP_FETCH_SIZE);
+                for (ShippingOrder order : page) {
+                    line.setLength(0);
+                    OrderText.appendDescription(line, order).append('\n');
+                    if (chars.length < line.length()) chars = new char[line.length() * 2];
+                    line.getChars(0, line.length(), chars, 0);
+                    out.write(chars, 0, line.length());
+                }
+                count += page.size();
+                if (!page.isEmpty()) afterId = page.get(page.size() - 1).getOrderId();
+            } while (page.size() == DUMP_FETCH_SIZE);
+            out.flush();
+            System.out.printf("✅ Dumped %,d orders in %.2f s.%n", count, (System.nanoTime() - start) / 1e9);
+        } catch (OrderOperationException e) {
+            System.out.println("❌ " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("❌ Output failed: " + e.getMessage());
+        }
+    }
+
     /**
      * Prompts the user for an order ID and updates the weight and distance.
      * Provides feedback if the order ID is invalid.
@@ -180,8 +281,8 @@ public class ConsoleMain {
             System.out.println("❌ Order Not Found");
             return;
         }
-        double weight = readValidatedDouble("New Weight (lbs)", 0.1, 150.0);
-        int distance = readValidatedInt("New Distance (miles)", 1, 3000);
+        double weight = readValidatedDouble("New Weight (lbs)", OrderValidator.MIN_WEIGHT, OrderValidator.MAX_WEIGHT);
+        int distance = readValidatedInt("New Distance (miles)", OrderValidator.MIN_DISTANCE, OrderValidator.MAX_DISTANCE);
         if (manager.updateOrder(id, weight, distance)) {
             System.out.println("✅ Order updated successfully!");
         } else {
@@ -239,6 +340,24 @@ public class ConsoleMain {
         }
     }
 
+    /**
+     * Prompts for a customer or shipper name until it passes {@link OrderValidator}.
+     *
+     * @param prompt custom label for the user input
+     * @return validated, trimmed name
+     */
+    private String readValidatedName(String prompt) {
+        while (true) {
+            System.out.print(prompt + ": ");
+            String name = scanner.nextLine().trim();
+            OrderValidator.NameProblem problem = OrderValidator.checkName(name);
+            if (problem == OrderValidator.NameProblem.NONE) {
+                return name;
+            }
+            System.out.println("❌ " + problem.getMessage());
+        }
+    }
+
     /**
      * Prompts the user with a custom message and reads a validated integer.
      *
@@ -290,6 +409,7 @@ public class ConsoleMain {
      * @param args command-line arguments (not used)
      */
     public static void main(String[] args) {
+        MetricsHttpServer.startIfConfigured();
         ConsoleMain app = new ConsoleMain();
         app.run();
     }
@@ -1,53 +1,143 @@
 package dms;
 
+import io.github.cdimascio.dotenv.Dotenv;
+
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Manages the MySQL database connection for the application using the singleton pattern.
- * Ensures only one shared connection is used throughout the app.
+ * Ensures only one shared connection is used throughout the app, and lends pooled
+ * connections to operations that run concurrently.
  *
  * <p>Responsibilities include:
  * <ul>
  *     <li>Creating a connection with given credentials</li>
  *     <li>Providing access to the shared connection</li>
+ *     <li>Maintaining a bounded {@link ConnectionPool} for concurrent operations</li>
+ *     <li>Leasing a pooled connection to the current thread for one operation</li>
+ *     <li>Routing read-only operations to replica databases, round robin, while reads
+ *         shortly after a write stay on the primary</li>
+ *     <li>Holding one pool per shard when orders are hash-sharded over several databases,
+ *         and running a query on every shard in parallel</li>
+ *     <li>Re-establishing the connection after an outage</li>
  *     <li>Closing the connection cleanly</li>
  * </ul>
  *
+ * <p>Writes always go to the primary through {@link #lease()}. Reads that can tolerate
+ * replication lag use {@link #leaseForRead()}, which spreads them over the replica pools.
+ * For read-your-writes, a writer calls {@link #markWritten()} after committing a change,
+ * which opens a window ({@code -Ddms.replica.readYourWritesMillis}, default 2000) during
+ * which that thread's reads use the primary too, so its reload right after a change never
+ * misses it. Other threads keep reading from the replicas. The window should be longer
+ * than the replicas' usual lag. Reads fall back to the primary whenever no
+ * replica connection can be borrowed.</p>
+ *
+ * <p>With shards configured ({@link #configureShards}), the primary is shard 0 and also
+ * owns the customer and shipper tables; {@link ShardRouter} decides which shard holds
+ * each order. {@link #leaseShard(int)} binds a connection to a given shard, nesting inside
+ * a lease on another shard and restoring it when closed. A thread holding a connection to
+ * shard 0 may lease other shards, but not the other way around, so two threads can never
+ * wait on each other's pools.</p>
+ *
  * Author: Julio Lopez
  * Version: 1.0
  */
 public class DBConnectionManager {
 
-    /** Singleton instance of DBConnectionManager */
-    private static DBConnectionManager instance;
-
     /** Static reference to the shared database connection */
-    private static Connection connection;
+    private static volatile Connection connection;
+
+    /** SQL state of the exception thrown by {@link #requireConnection()}: connection does not exist */
+    public static final String NO_CONNECTION_STATE = "08003";
+
+    /** Default number of pooled connections (override with -Ddms.pool.size) */
+    private static final int DEFAULT_POOL_SIZE = 8;
+
+    /** Pool used by concurrent operations; null until {@link #connect} succeeds */
+    private static volatile ConnectionPool pool;
+
+    // Settings of the last successful connect, kept so the connection can be re-established
+    private static volatile String lastUrl;
+    private static volatile String lastUser;
+    private static volatile String lastPassword;
+
+    /** Pools for the read replicas, in the order given; empty without replicas */
+    private static volatile List<ConnectionPool> replicaPools = List.of();
+
+    /** Round-robin position over {@link #replicaPools} */
+    private static final AtomicInteger nextReplica = new AtomicInteger();
+
+    /** How long after a write reads stay on the primary */
+    private static final long READ_YOUR_WRITES_NANOS =
+            Long.getLong("dms.replica.readYourWritesMillis", 2_000) * 1_000_000;
+
+    /** {@link System#nanoTime()} when the current thread last committed a write, if it has */
+    private static final ThreadLocal<Long> lastWriteNanos = new ThreadLocal<>();
+
+    // Where read leases were served
+    private static final LongAdder REPLICA_READS = MetricsRegistry.getInstance().counter("db.reads.replica");
+    private static final LongAdder PRIMARY_READS = MetricsRegistry.getInstance().counter("db.reads.primary");
+
+    /** Pools for shards 1 to N-1; shard 0 is {@link #pool}. Empty when not sharded */
+    private static volatile List<ConnectionPool> shardPools = List.of();
+
+    /** Routing rules for the configured shards */
+    private static volatile ShardRouter router = ShardRouter.SINGLE;
+
+    /** Pooled connection lent to the current thread's operation, if any */
+    private static final ThreadLocal<Connection> boundConnection = new ThreadLocal<>();
+
+    /** Pool the bound connection came from */
+    private static final ThreadLocal<ConnectionPool> boundPool = new ThreadLocal<>();
 
     /**
      * Private constructor to prevent external instantiation.
      * Used only internally to enforce singleton pattern.
      */
-    private DBConnectionManager() {}
+    private DBConnectionManager() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("db.connections.open", DBConnectionManager::openConnectionCount);
+        metrics.gauge("db.pool.max", () -> pool != null ? pool.getMaxSize() : 0);
+        metrics.gauge("db.pool.active", () -> pool != null ? pool.getActiveCount() : 0);
+        metrics.gauge("db.pool.idle", () -> pool != null ? pool.getIdleCount() : 0);
+        metrics.gauge("db.replicas", () -> replicaPools.size());
+        metrics.gauge("db.shards", () -> router.getShardCount());
+    }
+
+    /**
+     * Holds the singleton. The JVM initializes this class once, on first use, with the
+     * class-initialization lock, so every thread sees the same fully built instance.
+     */
+    private static final class Holder {
+        private static final DBConnectionManager INSTANCE = new DBConnectionManager();
+    }
 
     /**
      * Returns the singleton instance of DBConnectionManager.
-     * Instantiates the instance if it does not yet exist.
+     * The instance is created lazily and safely on first use from any thread.
      *
      * @return singleton instance of DBConnectionManager
      */
     public static DBConnectionManager getInstance() {
-        if (instance == null) {
-            instance = new DBConnectionManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     /**
      * Establishes and returns a new database connection using the provided credentials.
-     * Stores the connection for reuse.
+     * Stores the connection for reuse. The returned connection is wrapped by
+     * {@link JdbcTracer} so every statement is timed and slow ones are logged.
      *
      * @param host     the database host (e.g., "localhost")
      * @param port     the database port (e.g., "3306")
@@ -58,27 +148,472 @@ public class DBConnectionManager {
      * @throws SQLException if the connection fails
      */
     public Connection connect(String host, String port, String dbName, String user, String password) throws SQLException {
-        String url = "jdbc:mysql://" + host + ":" + port + "/" + dbName + "?useSSL=false&serverTimezone=UTC";
-        connection = DriverManager.getConnection(url, user, password);
+        return connect(mysqlUrl(host, port, dbName), user, password);
+    }
+
+    /**
+     * Establishes and returns a new database connection from a full JDBC URL.
+     * Used by the headless entry points and by tests that run against an embedded database.
+     *
+     * @param url      the JDBC URL (e.g., "jdbc:mysql://localhost:3306/ShippingDMS")
+     * @param user     the database username
+     * @param password the database password
+     * @return a valid and active database connection
+     * @throws SQLException if the connection fails
+     */
+    public Connection connect(String url, String user, String password) throws SQLException {
+        return connect(url, List.of(), user, password);
+    }
+
+    /**
+     * Establishes a connection to the primary database and sets up pools for read
+     * replicas, which are expected to accept the same credentials. Replica connections
+     * are opened lazily and marked read-only.
+     *
+     * @param url         the primary's JDBC URL
+     * @param replicaUrls JDBC URLs of the read replicas; may be empty
+     * @param user        the database username
+     * @param password    the database password
+     * @return a valid and active connection to the primary
+     * @throws SQLException if the connection to the primary fails
+     */
+    public Connection connect(String url, List<String> replicaUrls, String user, String password) throws SQLException {
+        connection = JdbcTracer.wrap(DriverManager.getConnection(url, user, password));
+
+        int poolSize = Integer.getInteger("dms.pool.size", DEFAULT_POOL_SIZE);
+        if (pool != null) pool.close();
+        pool = new ConnectionPool(url, user, password, poolSize);
+
+        List<ConnectionPool> replicas = new ArrayList<>(replicaUrls.size());
+        for (String replicaUrl : replicaUrls) {
+            replicas.add(new ConnectionPool(replicaUrl, user, password, poolSize, true));
+        }
+        closeReplicaPools();
+        replicaPools = List.copyOf(replicas);
+        closeShardPools();
+
+        lastUrl = url;
+        lastUser = user;
+        lastPassword = password;
         return connection;
     }
 
+    /**
+     * Returns whether {@link #reconnect()} can be used, that is, whether the app connected
+     * through {@link #connect} rather than only being handed a connection.
+     *
+     * @return true if the settings of a previous connect are known
+     */
+    public boolean canReconnect() {
+        return lastUrl != null;
+    }
+
+    /**
+     * Replaces the shared connection with a new one opened with the settings of the last
+     * successful {@link #connect}, and discards idle pooled connections, which may have
+     * been broken by the same outage. Called by {@link ConnectionHealthMonitor} when the
+     * connection stops responding.
+     *
+     * @return the new shared connection
+     * @throws SQLException if there are no settings to reconnect with or the connection fails
+     */
+    public synchronized Connection reconnect() throws SQLException {
+        String url = lastUrl;
+        if (url == null) throw new SQLException("No connection settings to reconnect with.");
+        Connection old = connection;
+        connection = JdbcTracer.wrap(DriverManager.getConnection(url, lastUser, lastPassword));
+        applySessionSql(connection, router.sessionSql(0));
+        if (old != null) {
+            try {
+                old.close();
+            } catch (SQLException e) {
+                // The old connection is already broken; nothing more to release
+            }
+        }
+        ConnectionPool current = pool;
+        if (current != null) current.evictIdle();
+        for (ConnectionPool replica : replicaPools) replica.evictIdle();
+        for (ConnectionPool shard : shardPools) shard.evictIdle();
+        return connection;
+    }
+
+    /**
+     * Connects using settings from the environment or a {@code .env} file.
+     * {@code DB_URL} is used as a full JDBC URL when present; otherwise the URL is built
+     * from {@code DB_HOST}, {@code DB_PORT}, and {@code DB_NAME}. Credentials come from
+     * {@code DB_USER} and {@code DB_PASSWORD}. {@code DB_REPLICA_URLS} optionally lists
+     * comma-separated JDBC URLs of read replicas, and {@code DB_SHARD_URLS} the JDBC URLs of
+     * shards 1 to N-1 (see {@link #configureShards}).
+     *
+     * @return a valid and active database connection
+     * @throws SQLException if the settings are incomplete or the connection fails
+     */
+    public Connection connectFromEnvironment() throws SQLException {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        String user = dotenv.get("DB_USER", "");
+        String password = dotenv.get("DB_PASSWORD", "");
+
+        List<String> replicaUrls = urlList(dotenv.get("DB_REPLICA_URLS", ""));
+        List<String> shardUrls = urlList(dotenv.get("DB_SHARD_URLS", ""));
+
+        String url = dotenv.get("DB_URL");
+        if (url == null || url.isBlank()) {
+            String host = dotenv.get("DB_HOST");
+            String dbName = dotenv.get("DB_NAME");
+            if (host == null || dbName == null) {
+                throw new SQLException("Set DB_URL, or DB_HOST and DB_NAME, in the environment or .env file.");
+            }
+            url = mysqlUrl(host, dotenv.get("DB_PORT", "3306"), dbName);
+        }
+        Connection conn = connect(url, replicaUrls, user, password);
+        if (!shardUrls.isEmpty()) configureShards(shardUrls);
+        return conn;
+    }
+
+    /**
+     * Spreads orders over the primary (shard 0) and the given databases, which are
+     * expected to accept the primary's credentials and to have the same schema. Replaces
+     * the primary's pool with one whose connections generate IDs in shard 0's residue
+     * class, opens pools for the other shards, checks their schema like the primary's
+     * ({@link SchemaManager#checkOnStartup}), and copies any customers and shippers they
+     * lack. Must be called after {@link #connect}, while the order tables are empty or were
+     * filled under the same shard layout.
+     *
+     * @param shardUrls JDBC URLs of shards 1 to N-1
+     * @throws SQLException if there is no primary connection or a shard pool cannot be opened
+     */
+    public synchronized void configureShards(List<String> shardUrls) throws SQLException {
+        String url = lastUrl;
+        if (url == null) throw new SQLException("Connect to the primary before configuring shards.");
+
+        ShardRouter next = new ShardRouter(shardUrls.size() + 1);
+        int poolSize = Integer.getInteger("dms.pool.size", DEFAULT_POOL_SIZE);
+        closeShardPools();
+        if (pool != null) pool.close();
+        pool = new ConnectionPool(url, lastUser, lastPassword, poolSize, false, next.sessionSql(0));
+        List<ConnectionPool> pools = new ArrayList<>(shardUrls.size());
+        for (int i = 0; i < shardUrls.size(); i++) {
+            pools.add(new ConnectionPool(shardUrls.get(i), lastUser, lastPassword, poolSize, false, next.sessionSql(i + 1)));
+        }
+        applySessionSql(connection, next.sessionSql(0));
+        shardPools = List.copyOf(pools);
+        router = next;
+
+        for (int shard = 1; shard < next.getShardCount(); shard++) {
+            try (var _ = leaseShard(shard)) {
+                SchemaManager.checkOnStartup(getConnection());
+            }
+        }
+        try {
+            copyReferenceDataToShards();
+        } catch (SQLException e) {
+            System.err.println("Could not copy customers and shippers to the shards: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Copies the customers and shippers that shards 1 to N-1 lack from the primary,
+     * keeping their IDs. Does nothing when not sharded.
+     *
+     * @return the number of rows copied
+     * @throws SQLException if a shard cannot be read or written
+     */
+    public int copyReferenceDataToShards() throws SQLException {
+        int copied = 0;
+        for (int shard = 1; shard < router.getShardCount(); shard++) {
+            try (var _ = leaseShard(shard)) {
+                int shardCopied = ShardRouter.copyReferenceData(connection, getConnection());
+                if (shardCopied > 0) System.out.println("Copied " + shardCopied + " customers and shippers to shard " + shard);
+                copied += shardCopied;
+            }
+        }
+        if (copied > 0) {
+            QueryCache.getInstance().invalidate(QueryCache.Tag.CUSTOMERS);
+            QueryCache.getInstance().invalidate(QueryCache.Tag.SHIPPERS);
+        }
+        return copied;
+    }
+
+    /**
+     * Gets the routing rules for the configured shards.
+     *
+     * @return the router; a single-shard router when not sharded
+     */
+    public ShardRouter getShardRouter() {
+        return router;
+    }
+
     /**
      * Sets the internal shared connection manually (typically after a successful login).
+     * The connection is wrapped by {@link JdbcTracer} if it is not already traced.
      *
      * @param conn an externally created and validated Connection object
      */
     public static void setConnection(Connection conn) {
-        connection = conn;
+        connection = JdbcTracer.wrap(conn);
     }
 
     /**
-     * Returns the currently stored database connection.
+     * Returns the connection the current operation should use: the pooled connection
+     * leased to this thread by {@link #lease()}, or otherwise
+     * the shared connection.
      *
      * @return Connection object or null if no connection has been established
      */
     public Connection getConnection() {
-        return connection;
+        Connection bound = boundConnection.get();
+        return bound != null ? bound : connection;
+    }
+
+    /**
+     * Returns the connection the current operation should use, like
+     * {@link #getConnection()}, failing if there is none.
+     *
+     * @return an open connection
+     * @throws SQLException with SQL state {@value #NO_CONNECTION_STATE} if no connection is
+     *                      established or it has been closed
+     */
+    public Connection requireConnection() throws SQLException {
+        Connection conn = getConnection();
+        if (conn == null || conn.isClosed()) {
+            throw new SQLNonTransientConnectionException("DB connection is closed or null.", NO_CONNECTION_STATE);
+        }
+        return conn;
+    }
+
+    /**
+     * Returns whether a failure means the database could not be reached, as opposed to
+     * the database rejecting the statement: SQL state class {@code 08} (connection exception).
+     *
+     * @param e the failure
+     * @return true for a missing or lost connection
+     */
+    public static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    /**
+     * Returns the pool for concurrent operations.
+     *
+     * @return the connection pool, or null if the app was not connected through {@link #connect}
+     */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Borrows a pooled connection to the primary and binds it to the calling thread until
+     * the lease is closed, so that {@link #getConnection()} returns it for the whole
+     * operation and concurrent operations never share a connection. If the thread already
+     * holds a primary connection, or there is no pool, the lease does nothing and the
+     * current connection is used. If it holds a read lease on a replica, that connection is
+     * set aside and bound again when this lease closes, so the write never runs on a
+     * read-only replica. Use it with try-with-resources.
+     *
+     * <p>This is the lease for operations that write. Writers call {@link #markWritten()}
+     * once a change commits, so the thread's later {@link #leaseForRead()} calls see it.</p>
+     *
+     * @return the lease, to be closed when the operation ends
+     * @throws SQLException if no pooled connection could be borrowed
+     */
+    public Lease lease() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null || boundPool.get() == current) return Lease.NONE;
+        Connection conn = current.acquire();
+        return bind(current, conn);
+    }
+
+    /**
+     * Borrows a connection to one shard and binds it to the calling thread until the lease
+     * is closed, like {@link #lease()}. If the thread already holds a connection to that
+     * shard, the lease does nothing; if it holds one to another shard, that connection is
+     * set aside and bound again when this lease closes.
+     *
+     * @param shard the shard index, from 0 to {@code getShardRouter().getShardCount() - 1}
+     * @return the lease, to be closed when the operation ends
+     * @throws SQLException if no pooled connection could be borrowed
+     */
+    public Lease leaseShard(int shard) throws SQLException {
+        ConnectionPool target = shard == 0 ? pool : shardPools.get(shard - 1);
+        if (target == null || boundPool.get() == target) return Lease.NONE;
+        return bind(target, target.acquire());
+    }
+
+    /**
+     * A query run on one shard by {@link #scatter}.
+     *
+     * @param <T> the query's result type
+     */
+    @FunctionalInterface
+    public interface ShardQuery<T> {
+        /**
+         * Runs the query.
+         *
+         * @param shard the shard index
+         * @param conn  a connection to that shard, bound to the calling thread
+         * @return the shard's result
+         * @throws SQLException if the query fails
+         */
+        T run(int shard, Connection conn) throws SQLException;
+    }
+
+    /**
+     * Runs a read-only query on every shard in parallel, each on its own virtual thread
+     * with its own pooled connection, and returns the results in shard order for the
+     * caller to merge. Without shards the query runs once, on the calling thread, through
+     * {@link #leaseForRead()}, so it may use a replica.
+     *
+     * @param query the query
+     * @param <T>   the query's result type
+     * @return one result per shard
+     * @throws SQLException if the query fails on any shard
+     */
+    public <T> List<T> scatter(ShardQuery<T> query) throws SQLException {
+        ShardRouter current = router;
+        List<T> results = new ArrayList<>(current.getShardCount());
+        if (!current.isSharded()) {
+            try (var _ = leaseForRead()) {
+                results.add(query.run(0, requireConnection()));
+            }
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<>(current.getShardCount());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int shard = 0; shard < current.getShardCount(); shard++) {
+                int target = shard;
+                futures.add(executor.submit(() -> {
+                    try (var _ = leaseShard(target)) {
+                        return query.run(target, requireConnection());
+                    }
+                }));
+            }
+            for (Future<T> future : futures) results.add(future.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sql) throw sql;
+            throw new SQLException("Shard query failed: " + e.getCause(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while querying shards.", e);
+        }
+        return results;
+    }
+
+    /**
+     * Borrows a connection for an operation that only reads, and binds it to the calling
+     * thread like {@link #lease()}. The connection comes from the next replica in round-robin
+     * order, or from the primary when there are no replicas, when this thread committed a
+     * write within the read-your-writes window, or when no replica connection can be
+     * borrowed. Replica connections are read-only, so a write attempted through one fails.
+     *
+     * @return the lease, to be closed when the operation ends
+     * @throws SQLException if no connection could be borrowed from the primary either
+     */
+    public Lease leaseForRead() throws SQLException {
+        ConnectionPool primary = pool;
+        if (primary == null || boundConnection.get() != null) return Lease.NONE;
+
+        List<ConnectionPool> replicas = replicaPools;
+        if (!replicas.isEmpty() && !inReadYourWritesWindow()) {
+            int first = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                ConnectionPool replica = replicas.get((first + i) % replicas.size());
+                try {
+                    Connection conn = replica.acquire();
+                    REPLICA_READS.increment();
+                    return bind(replica, conn);
+                } catch (SQLException e) {
+                    System.err.println("Replica " + replica.getUrl() + " unavailable: " + e.getMessage());
+                }
+            }
+        }
+
+        Connection conn = primary.acquire();
+        PRIMARY_READS.increment();
+        return bind(primary, conn);
+    }
+
+    /**
+     * Binds a borrowed connection to the calling thread, remembering any connection it
+     * replaces so the lease can restore it.
+     */
+    private static Lease bind(ConnectionPool from, Connection conn) {
+        Lease lease = new Lease(from, conn, boundConnection.get(), boundPool.get());
+        boundConnection.set(conn);
+        boundPool.set(from);
+        return lease;
+    }
+
+    /**
+     * Returns the pools of the read replicas.
+     *
+     * @return the replica pools, in the order configured; empty without replicas
+     */
+    public List<ConnectionPool> getReplicaPools() {
+        return replicaPools;
+    }
+
+    /**
+     * Records that the calling thread committed a write, so its reads use the primary
+     * for the read-your-writes window. Leases that only read never open the window.
+     */
+    public void markWritten() {
+        lastWriteNanos.set(System.nanoTime());
+    }
+
+    /**
+     * Returns whether the calling thread committed a write recently enough that its reads
+     * must use the primary.
+     *
+     * @return true within the thread's read-your-writes window
+     */
+    public boolean inReadYourWritesWindow() {
+        Long written = lastWriteNanos.get();
+        if (written == null) return false;
+        if (System.nanoTime() - written < READ_YOUR_WRITES_NANOS) return true;
+        lastWriteNanos.remove();
+        return false;
+    }
+
+    /**
+     * A pooled connection bound to one thread for one operation.
+     * Closing the lease unbinds the connection and returns it to the pool.
+     */
+    public static final class Lease implements AutoCloseable {
+
+        /** Lease that holds no connection */
+        private static final Lease NONE = new Lease(null, null, null, null);
+
+        private final ConnectionPool pool;
+        private final Connection conn;
+
+        // Binding this lease replaced, restored when it closes
+        private final Connection previous;
+        private final ConnectionPool previousPool;
+
+        private Lease(ConnectionPool pool, Connection conn, Connection previous, ConnectionPool previousPool) {
+            this.pool = pool;
+            this.conn = conn;
+            this.previous = previous;
+            this.previousPool = previousPool;
+        }
+
+        /**
+         * Unbinds the connection from the thread and returns it to the pool.
+         */
+        @Override
+        public void close() {
+            if (conn == null) return;
+            if (previous != null) {
+                boundConnection.set(previous);
+                boundPool.set(previousPool);
+            } else {
+                boundConnection.remove();
+                boundPool.remove();
+            }
+            pool.release(conn);
+        }
     }
 
     /**
@@ -86,6 +621,12 @@ public class DBConnectionManager {
      * If no connection exists or it is already closed, this method does nothing.
      */
     public void closeConnection() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+        closeReplicaPools();
+        closeShardPools();
         if (connection != null) {
             try {
                 if (!connection.isClosed()) {
@@ -96,4 +637,47 @@ public class DBConnectionManager {
             }
         }
     }
+
+    private static String mysqlUrl(String host, String port, String dbName) {
+        return "jdbc:mysql://" + host + ":" + port + "/" + dbName + "?useSSL=false&serverTimezone=UTC&rewriteBatchedStatements=true";
+    }
+
+    private static List<String> urlList(String commaSeparated) {
+        List<String> urls = new ArrayList<>();
+        for (String url : commaSeparated.split(",")) {
+            if (!url.isBlank()) urls.add(url.trim());
+        }
+        return urls;
+    }
+
+    private static void applySessionSql(Connection conn, String sql) throws SQLException {
+        if (sql == null || conn == null) return;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static void closeShardPools() {
+        for (ConnectionPool shard : shardPools) shard.close();
+        shardPools = List.of();
+        router = ShardRouter.SINGLE;
+    }
+
+    private static void closeReplicaPools() {
+        for (ConnectionPool replica : replicaPools) replica.close();
+        replicaPools = List.of();
+    }
+
+    /**
+     * Reports how many managed connections are currently open (0 or 1).
+     *
+     * @return the number of open connections
+     */
+    private static double openConnectionCount() {
+        try {
+            return connection != null && !connection.isClosed() ? 1 : 0;
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
 }
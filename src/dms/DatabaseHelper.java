@@ -2,7 +2,10 @@ package dms;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Utility class to encapsulate all database operations for the DMS (Data Management System).
@@ -13,13 +16,52 @@ import java.util.List;
  *     <li>ShippingOrder table (with JOINs for customer and shipper names)</li>
  * </ul>
  *
- * <p>Note: shipping_cost is not stored in the database—it is calculated in Java.</p>
+ * <p>Note: shipping_cost is calculated in Java by {@link PricingEngine} and stored with each order.</p>
+ *
+ * <p>The full-table reads are served from the shared {@link QueryCache}, keyed by the
+ * database they read, and return read-only lists. Customers and shippers change rarely
+ * and are cached for {@code -Ddms.cache.referenceTtlMillis} (default five minutes);
+ * orders for {@code -Ddms.cache.orderTtlMillis} (default five seconds). Writes made
+ * through {@link ShippingOrderManager} invalidate the affected entries at once.</p>
  *
  * Author: Julio Lopez
  * Version: 1.0
  */
 public class DatabaseHelper {
 
+    // Latency histograms for each read operation
+    private static final LatencyHistogram CUSTOMERS_LATENCY = MetricsRegistry.getInstance().histogram("jdbc.get_all_customers");
+    private static final LatencyHistogram SHIPPERS_LATENCY = MetricsRegistry.getInstance().histogram("jdbc.get_all_shippers");
+    private static final LatencyHistogram ORDERS_LATENCY = MetricsRegistry.getInstance().histogram("jdbc.get_all_shipping_orders");
+    private static final LatencyHistogram PAGE_LATENCY = MetricsRegistry.getInstance().histogram("jdbc.get_order_page");
+    private static final LatencyHistogram ORDER_LATENCY = MetricsRegistry.getInstance().histogram("jdbc.get_order");
+
+    private static final QueryCache CACHE = QueryCache.getInstance();
+
+    // How long cached results may be served
+    private static final long REFERENCE_TTL_MILLIS = Long.getLong("dms.cache.referenceTtlMillis", 5 * 60 * 1000);
+    private static final long ORDER_TTL_MILLIS = Long.getLong("dms.cache.orderTtlMillis", 5 * 1000);
+
+    // Estimated heap size of one cached row, object and strings included
+    private static final long CUSTOMER_BYTES = 200;
+    private static final long SHIPPER_BYTES = 150;
+    private static final long ORDER_BYTES = 180;
+
+    // Tables each cached query reads
+    private static final Set<QueryCache.Tag> CUSTOMER_TAGS = EnumSet.of(QueryCache.Tag.CUSTOMERS);
+    private static final Set<QueryCache.Tag> SHIPPER_TAGS = EnumSet.of(QueryCache.Tag.SHIPPERS);
+    private static final Set<QueryCache.Tag> ORDER_TAGS = EnumSet.allOf(QueryCache.Tag.class);
+
+    /** Order columns with joined names, shared by the paged queries */
+    private static final String ORDER_PAGE_SELECT = """
+        SELECT so.order_id, so.customer_id, so.shipper_id,
+               so.weight_in_pounds, so.distance_in_miles, so.shipping_cost, so.row_version,
+               c.name AS customer_name, s.name AS shipper_name
+        FROM ShippingOrder so
+        JOIN Customer c ON so.customer_id = c.customer_id
+        JOIN Shipper s ON so.shipper_id = s.shipper_id
+        """;
+
     /** Active database connection for running prepared SQL queries */
     private final Connection conn;
 
@@ -33,92 +75,209 @@ public class DatabaseHelper {
     }
 
     /**
-     * Fetches all customer records from the Customer table.
+     * Fetches all customer records from the Customer table, from the cache when possible.
      *
-     * @return a list of Customer objects loaded from the database
+     * @return a read-only list of Customer objects loaded from the database
      * @throws SQLException if a database access error occurs
      */
     public List<Customer> getAllCustomers() throws SQLException {
-        List<Customer> list = new ArrayList<>();
-        String sql = "SELECT * FROM Customer";
-
-        try (PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                list.add(new Customer(
-                        rs.getInt("customer_id"),
-                        rs.getString("name"),
-                        rs.getString("email"),
-                        rs.getString("phone")
-                ));
+        return CACHE.get(cacheKey("customers"), REFERENCE_TTL_MILLIS, CUSTOMER_BYTES, CUSTOMER_TAGS, this::queryAllCustomers);
+    }
+
+    private List<Customer> queryAllCustomers() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<Customer> list = new ArrayList<>();
+            String sql = "SELECT * FROM Customer";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    list.add(new Customer(
+                            rs.getInt("customer_id"),
+                            rs.getString("name"),
+                            rs.getString("email"),
+                            rs.getString("phone")
+                    ));
+                }
             }
-        }
 
-        return list;
+            return list;
+        } finally {
+            CUSTOMERS_LATENCY.recordSince(start);
+        }
     }
 
     /**
-     * Fetches all shipper records from the Shipper table.
+     * Fetches all shipper records from the Shipper table, from the cache when possible.
      *
-     * @return a list of Shipper objects loaded from the database
+     * @return a read-only list of Shipper objects loaded from the database
      * @throws SQLException if a database access error occurs
      */
     public List<Shipper> getAllShippers() throws SQLException {
-        List<Shipper> list = new ArrayList<>();
-        String sql = "SELECT * FROM Shipper";
-
-        try (PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                list.add(new Shipper(
-                        rs.getInt("shipper_id"),
-                        rs.getString("name"),
-                        rs.getString("phone")
-                ));
+        return CACHE.get(cacheKey("shippers"), REFERENCE_TTL_MILLIS, SHIPPER_BYTES, SHIPPER_TAGS, this::queryAllShippers);
+    }
+
+    private List<Shipper> queryAllShippers() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<Shipper> list = new ArrayList<>();
+            String sql = "SELECT * FROM Shipper";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    list.add(new Shipper(
+                            rs.getInt("shipper_id"),
+                            rs.getString("name"),
+                            rs.getString("phone")
+                    ));
+                }
             }
-        }
 
-        return list;
+            return list;
+        } finally {
+            SHIPPERS_LATENCY.recordSince(start);
+        }
     }
 
     /**
      * Retrieves all shipping orders from the ShippingOrder table,
-     * including customer and shipper names using JOIN operations.
+     * including customer and shipper names using JOIN operations, from the cache when
+     * possible. The orders in the list are shared with other callers and must not be modified.
      *
-     * @return a list of ShippingOrder objects, each enriched with joined customer/shipper names
+     * @return a read-only list of ShippingOrder objects, each enriched with joined customer/shipper names
      * @throws SQLException if a database access error occurs
      */
     public List<ShippingOrder> getAllShippingOrders() throws SQLException {
-        List<ShippingOrder> list = new ArrayList<>();
-
-        // SQL query with JOINs to bring in customer and shipper names for display
-        String sql = """
-            SELECT so.order_id, so.customer_id, so.shipper_id,
-                   so.weight_in_pounds, so.distance_in_miles,
-                   c.name AS customer_name, s.name AS shipper_name
-            FROM ShippingOrder so
-            JOIN Customer c ON so.customer_id = c.customer_id
-            JOIN Shipper s ON so.shipper_id = s.shipper_id
-        """;
+        return CACHE.get(cacheKey("orders"), ORDER_TTL_MILLIS, ORDER_BYTES, ORDER_TAGS, this::queryAllShippingOrders);
+    }
+
+    private List<ShippingOrder> queryAllShippingOrders() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<ShippingOrder> list = new ArrayList<>();
+
+            // SQL query with JOINs to bring in customer and shipper names for display
+            String sql = """
+                SELECT so.order_id, so.customer_id, so.shipper_id,
+                       so.weight_in_pounds, so.distance_in_miles, so.shipping_cost, so.row_version,
+                       c.name AS customer_name, s.name AS shipper_name
+                FROM ShippingOrder so
+                JOIN Customer c ON so.customer_id = c.customer_id
+                JOIN Shipper s ON so.shipper_id = s.shipper_id
+            """;
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    list.add(readOrder(rs));
+                }
+            }
+
+            return list;
+        } finally {
+            ORDERS_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Retrieves one page of orders with IDs greater than {@code afterId}, in ascending ID order.
+     * This is a keyset query: it seeks straight to {@code afterId} on the primary key, so every
+     * page costs the same no matter how deep into the table it is.
+     *
+     * @param afterId the last ID already seen (0 for the first page)
+     * @param limit   maximum number of orders to return
+     * @return up to {@code limit} orders, in ascending ID order
+     * @throws SQLException if a database access error occurs
+     */
+    public List<ShippingOrder> getOrdersAfter(int afterId, int limit) throws SQLException {
+        return getOrderPage(ORDER_PAGE_SELECT + "WHERE so.order_id > ? ORDER BY so.order_id LIMIT ?", afterId, limit);
+    }
 
-        try (PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                list.add(new ShippingOrder(
-                        rs.getInt("order_id"),
-                        rs.getInt("customer_id"),
-                        rs.getInt("shipper_id"),
-                        rs.getDouble("weight_in_pounds"),
-                        rs.getInt("distance_in_miles"),
-                        rs.getString("customer_name"),
-                        rs.getString("shipper_name")
-                ));
+    /**
+     * Retrieves one page of orders with IDs less than {@code beforeId}, for paging backwards.
+     *
+     * @param beforeId the first ID of the current page
+     * @param limit    maximum number of orders to return
+     * @return up to {@code limit} orders immediately before {@code beforeId}, in ascending ID order
+     * @throws SQLException if a database access error occurs
+     */
+    public List<ShippingOrder> getOrdersBefore(int beforeId, int limit) throws SQLException {
+        List<ShippingOrder> page = getOrderPage(
+                ORDER_PAGE_SELECT + "WHERE so.order_id < ? ORDER BY so.order_id DESC LIMIT ?", beforeId, limit);
+        Collections.reverse(page);
+        return page;
+    }
+
+    /**
+     * Retrieves a single order by ID, with its current row version.
+     *
+     * @param orderId the order ID
+     * @return the stored order, or null if no order has that ID
+     * @throws SQLException if a database access error occurs
+     */
+    public ShippingOrder getShippingOrder(int orderId) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement stmt = conn.prepareStatement(ORDER_PAGE_SELECT + "WHERE so.order_id = ?")) {
+            stmt.setInt(1, orderId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? readOrder(rs) : null;
+            }
+        } finally {
+            ORDER_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Builds an order from the current row of a query selecting the order columns,
+     * row version, and joined customer and shipper names.
+     *
+     * @param rs result set positioned on a row
+     * @return the order
+     * @throws SQLException if a column is missing or cannot be read
+     */
+    static ShippingOrder readOrder(ResultSet rs) throws SQLException {
+        return new ShippingOrder(
+                rs.getInt("order_id"),
+                rs.getInt("customer_id"),
+                rs.getInt("shipper_id"),
+                rs.getDouble("weight_in_pounds"),
+                rs.getInt("distance_in_miles"),
+                rs.getString("customer_name"),
+                rs.getString("shipper_name"),
+                rs.getDouble("shipping_cost"),
+                rs.getInt("row_version")
+        );
+    }
+
+    private List<ShippingOrder> getOrderPage(String sql, int boundId, int limit) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<ShippingOrder> list = new ArrayList<>(limit);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, boundId);
+                stmt.setInt(2, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        list.add(readOrder(rs));
+                    }
+                }
             }
+            return list;
+        } finally {
+            PAGE_LATENCY.recordSince(start);
         }
+    }
 
-        return list;
+    /**
+     * Builds the cache key of a query on this helper's database, so shards and replicas
+     * with different URLs keep separate entries.
+     */
+    private String cacheKey(String query) throws SQLException {
+        return conn.getMetaData().getURL() + "#" + query;
     }
 }
@@ -0,0 +1,102 @@
+package dms;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmark comparing String-based manifest writing with {@link OrderExporter}'s
+ * buffer-based row writer, without a database.
+ *
+ * <p>Writes the same synthetic rows both ways and reports throughput and bytes
+ * allocated per row (from the JVM's per-thread allocation counter). Run it with:</p>
+ * <pre>java -cp out dms.ExportBenchmark [rows] [directory]</pre>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class ExportBenchmark {
+
+    /** Distinct names cycled through, like rows coming back from a join */
+    private static final String[] CUSTOMERS = {"John Smith", "Maria Garcia", "David Johnson", "Linda Brown"};
+    private static final String[] SHIPPERS = {"UPS", "FedEx", "DHL", "USPS"};
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ExportBenchmark() {}
+
+    /**
+     * Entry point for the benchmark.
+     *
+     * @param args optional row count (default 10,000,000) and output directory
+     * @throws IOException if the output files cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path dir = args.length > 1 ? Path.of(args[1]) : Path.of(System.getProperty("java.io.tmpdir"));
+        Path stringFile = dir.resolve("export-bench-strings.txt");
+        Path bufferFile = dir.resolve("export-bench-buffer.txt");
+
+        try {
+            for (int round = 1; round <= 3; round++) {
+                long allocStart = allocatedBytes();
+                long start = System.nanoTime();
+                writeWithStrings(stringFile, rows);
+                long stringNanos = System.nanoTime() - start;
+                long stringAlloc = allocatedBytes() - allocStart;
+
+                allocStart = allocatedBytes();
+                start = System.nanoTime();
+                writeWithRowWriter(bufferFile, rows);
+                long bufferNanos = System.nanoTime() - start;
+                long bufferAlloc = allocatedBytes() - allocStart;
+
+                double megabytes = Files.size(bufferFile) / 1e6;
+                System.out.printf("Round %d: strings %.0f MB/s (%.0f B/row), row writer %.0f MB/s (%.1f B/row)%n",
+                        round, megabytes * 1e9 / stringNanos, (double) stringAlloc / rows,
+                        megabytes * 1e9 / bufferNanos, (double) bufferAlloc / rows);
+            }
+        } finally {
+            Files.deleteIfExists(stringFile);
+            Files.deleteIfExists(bufferFile);
+        }
+    }
+
+    private static void writeWithStrings(Path file, int rows) throws IOException {
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 20)) {
+            for (int i = 0; i < rows; i++) {
+                out.write(Integer.toString(i + 1));
+                out.write('|');
+                out.write(CUSTOMERS[i & 3]);
+                out.write('|');
+                out.write(SHIPPERS[(i >> 2) & 3]);
+                out.write('|');
+                out.write(Double.toString(weight(i)));
+                out.write('|');
+                out.write(Integer.toString(i % 3000 + 1));
+                out.write('\n');
+            }
+        }
+    }
+
+    private static void writeWithRowWriter(Path file, int rows) throws IOException {
+        try (OrderExporter.RowWriter out = new OrderExporter.RowWriter(file, OrderExporter.Format.PIPE)) {
+            for (int i = 0; i < rows; i++) {
+                out.write(i + 1, CUSTOMERS[i & 3], SHIPPERS[(i >> 2) & 3], weight(i), i % 3000 + 1, 0);
+            }
+        }
+    }
+
+    private static double weight(int i) {
+        return (1 + i % 1500) / 10.0;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,169 @@
+package dms;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How far an interrupted import of one manifest got, so a restart can pick up there.
+ *
+ * <p>{@link OrderImporter} writes a checkpoint row in the same transaction as each batch
+ * it stores: the file's SHA-256 fingerprint (see {@link ImportDeduplicator#fingerprint}),
+ * the byte offset and line number just after the last line the batch covers, and the
+ * number of orders committed from the file so far. Because the row commits or rolls
+ * back with the batch, it never claims rows that were not stored and never lags behind
+ * rows that were. Importing the same file again seeks straight to the checkpoint with
+ * {@link ManifestReader#ManifestReader(Path, long, long)}; the row is deleted once the
+ * whole file has been imported. A file whose contents changed has a different
+ * fingerprint and starts from the beginning.</p>
+ *
+ * <p>When orders are sharded, each shard keeps its own checkpoint in its own
+ * {@code ImportCheckpoint} table, written in the transaction that stores the shard's part
+ * of a batch, and its row count covers only that shard's orders. A batch commits on the
+ * other shards before the primary (shard 0), so if it fails part way the primary's
+ * checkpoint is the furthest point every shard has reached: the import resumes there and
+ * leaves out the rows of any shard whose checkpoint is further along, since that shard
+ * already committed them. The tables are created by {@link SchemaManager}. Checkpoints
+ * are written unless the JVM is started with {@code -Ddms.import.checkpoints=false}.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class ImportCheckpoint {
+
+    private static final LongAdder RESUMED_IMPORTS = MetricsRegistry.getInstance().counter("import.resumed");
+    private static final LongAdder SKIPPED_LINES = MetricsRegistry.getInstance().counter("import.resumed_lines_skipped");
+
+    /** Byte offset where the next unread line starts */
+    private final long byteOffset;
+
+    /** Lines read up to {@link #byteOffset} */
+    private final long lineNumber;
+
+    /** Orders committed from the file up to {@link #byteOffset} */
+    private final long rowCount;
+
+    private ImportCheckpoint(long byteOffset, long lineNumber, long rowCount) {
+        this.byteOffset = byteOffset;
+        this.lineNumber = lineNumber;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Returns whether imports write checkpoints, which is the default unless the JVM is
+     * started with {@code -Ddms.import.checkpoints=false}.
+     *
+     * @return true if checkpoints are enabled
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("dms.import.checkpoints", "true"));
+    }
+
+    /**
+     * Looks up the checkpoints of an unfinished import, one per shard. The primary's
+     * (index 0) is where the import resumes.
+     *
+     * @param fingerprint the file's fingerprint
+     * @return each shard's checkpoint by shard index, null where a shard has none
+     * @throws SQLException if a lookup fails
+     */
+    public static ImportCheckpoint[] find(String fingerprint) throws SQLException {
+        DBConnectionManager db = DBConnectionManager.getInstance();
+        String sql = "SELECT byte_offset, line_number, row_count FROM ImportCheckpoint WHERE fingerprint = ?";
+        ImportCheckpoint[] checkpoints = new ImportCheckpoint[db.getShardRouter().getShardCount()];
+        for (int shard = 0; shard < checkpoints.length; shard++) {
+            try (var _ = db.leaseShard(shard);
+                 PreparedStatement stmt = db.requireConnection().prepareStatement(sql)) {
+                stmt.setString(1, fingerprint);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) checkpoints[shard] = new ImportCheckpoint(rs.getLong(1), rs.getLong(2), rs.getLong(3));
+                }
+            }
+        }
+        if (checkpoints[0] != null) {
+            RESUMED_IMPORTS.increment();
+            SKIPPED_LINES.add(checkpoints[0].lineNumber);
+        }
+        return checkpoints;
+    }
+
+    /**
+     * Writes a file's checkpoint on the given connection, so it commits with whatever
+     * transaction the connection has open.
+     *
+     * @param conn        a connection to the shard the checkpoint describes
+     * @param fingerprint the file's fingerprint
+     * @param file        the file, for its name
+     * @param byteOffset  byte offset where the next unread line starts
+     * @param lineNumber  lines read up to that offset
+     * @param rowCount    orders committed from the file to this shard up to that offset
+     * @throws SQLException if the write fails
+     */
+    public static void save(Connection conn, String fingerprint, Path file,
+                            long byteOffset, long lineNumber, long rowCount) throws SQLException {
+        String sql = """
+            INSERT INTO ImportCheckpoint (fingerprint, file_name, byte_offset, line_number, row_count)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE byte_offset = VALUES(byte_offset),
+                                    line_number = VALUES(line_number),
+                                    row_count = VALUES(row_count)
+        """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, fingerprint);
+            stmt.setString(2, String.valueOf(file.getFileName()));
+            stmt.setLong(3, byteOffset);
+            stmt.setLong(4, lineNumber);
+            stmt.setLong(5, rowCount);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Deletes a file's checkpoints on every shard once the file has been imported in full.
+     *
+     * @param fingerprint the file's fingerprint
+     * @throws SQLException if a delete fails
+     */
+    public static void clear(String fingerprint) throws SQLException {
+        DBConnectionManager db = DBConnectionManager.getInstance();
+        for (int shard = 0; shard < db.getShardRouter().getShardCount(); shard++) {
+            try (var _ = db.leaseShard(shard);
+                 PreparedStatement stmt = db.requireConnection().prepareStatement(
+                         "DELETE FROM ImportCheckpoint WHERE fingerprint = ?")) {
+                stmt.setString(1, fingerprint);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Returns the byte offset where the next unread line starts.
+     *
+     * @return the offset to resume reading at
+     */
+    public long getByteOffset() {
+        return byteOffset;
+    }
+
+    /**
+     * Returns the number of lines read up to the checkpoint.
+     *
+     * @return the line number of the last line covered
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the number of orders committed from the file to the checkpoint's shard
+     * up to the checkpoint.
+     *
+     * @return the committed row count
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+}
@@ -0,0 +1,556 @@
+package dms;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps {@link OrderImporter} from storing the same order twice when a manifest is
+ * imported again or overlaps another.
+ *
+ * <p>Two levels of checks are made:</p>
+ * <ul>
+ *     <li>Files: the SHA-256 of a fully imported manifest is recorded in
+ *         {@code ImportedFile}, so importing the same bytes again is one primary-key
+ *         lookup and the file is skipped.</li>
+ *     <li>Rows: every stored row is recorded in {@code ImportedRow} with its
+ *         {@link #rowKey} (the manifest's order ID, customer, shipper, weight, and
+ *         distance), a 64-bit {@link #rowHash} of the same fields, and the file and line
+ *         it came from. Before a batch is stored, each row is checked against a
+ *         {@link BloomFilter} of the recorded hashes; rows the filter has never seen are
+ *         new without a round trip. Probable hits are verified with one indexed query per
+ *         batch that compares the full key, so neither a filter false positive nor a hash
+ *         collision drops an order.</li>
+ * </ul>
+ *
+ * <p>A recorded row is a duplicate when it came from another file, or from the same
+ * line of the same file (an import run again). Identical lines elsewhere in the same
+ * manifest are separate orders and are all stored.</p>
+ *
+ * <p>Only recent imports count: rows and files recorded more than
+ * {@code -Ddms.import.dedupWindowDays} days ago (default 90) are ignored by every check
+ * and deleted when the filter is rebuilt, so the same order can be imported again once
+ * it is that old. The filter is filled from the rows inside the window on first use,
+ * kept up to date as batches are recorded, and rebuilt once a day so expired rows stop
+ * costing lookups. Its size is read from {@code -Ddms.import.bloomBytes}
+ * (default 8 MB, enough for about 6.7 million rows at a 1% false-positive rate; more
+ * rows only raise the rate of verified lookups). Rows being stored by another import
+ * at the same moment are held in an in-flight set: an import that reaches such a row
+ * waits until the other import's batch has committed or rolled back and then checks
+ * the row again, so two overlapping manifests imported in parallel store each order
+ * once, and a batch that fails never takes another import's rows down with it. Rows
+ * are claimed in hash order, so two imports waiting for each other's rows cannot
+ * deadlock.</p>
+ *
+ * <p>Rows are recorded in the primary's transaction for each batch, so a failure
+ * part way through an import never leaves stored rows unrecorded (when orders are
+ * sharded, rows on other shards commit just before it and are the exception; resuming
+ * from an {@link ImportCheckpoint} leaves those rows out). The tables
+ * live on the primary (shard 0) and are created by {@link SchemaManager}.
+ * Deduplication is on for interactive and batch imports unless the JVM is started with
+ * {@code -Ddms.import.dedup=false}.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class ImportDeduplicator {
+
+    /** Default size of the Bloom filter's bit array */
+    private static final long DEFAULT_BLOOM_BYTES = 8L * 1024 * 1024;
+
+    /** Largest number of hashes verified with one {@code IN} query */
+    private static final int VERIFY_CHUNK = 500;
+
+    /** Days a recorded row or file counts against new imports */
+    static final int WINDOW_DAYS = Math.max(1, Integer.getInteger("dms.import.dedupWindowDays", 90));
+
+    /** How often the filter is rebuilt from the rows still inside the window */
+    private static final long REBUILD_NANOS = TimeUnit.DAYS.toNanos(1);
+
+    /** Largest number of expired rows deleted per statement */
+    private static final int PRUNE_CHUNK = 10_000;
+
+    /** Longest row key {@code ImportedRow} holds; longer rows are never deduplicated */
+    static final int MAX_KEY_LENGTH = 255;
+
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    private static final LongAdder DUPLICATE_ROWS = METRICS.counter("import.duplicates");
+    private static final LongAdder SKIPPED_FILES = METRICS.counter("import.files_skipped");
+    private static final LongAdder VERIFIED_ROWS = METRICS.counter("import.dedup_verified");
+    private static final LongAdder FALSE_POSITIVES = METRICS.counter("import.dedup_false_positives");
+    private static final LongAdder PRUNED_ROWS = METRICS.counter("import.dedup_pruned");
+    private static final LongAdder WAITED_ROWS = METRICS.counter("import.dedup_waits");
+
+    /** Deduplicator shared by every import */
+    private static final ImportDeduplicator INSTANCE =
+            new ImportDeduplicator(Long.getLong("dms.import.bloomBytes", DEFAULT_BLOOM_BYTES));
+
+    static {
+        METRICS.gauge("import.dedup_bloom_bytes", () -> INSTANCE.budgetBytes);
+        METRICS.gauge("import.dedup_bloom_fill", () -> {
+            BloomFilter current = INSTANCE.filter;
+            return current == null ? 0 : (double) current.getAddedCount() / current.getCapacity();
+        });
+    }
+
+    /** Memory budget for the filter */
+    private final long budgetBytes;
+
+    /** Filter over every recorded row hash, or null until first used */
+    private volatile BloomFilter filter;
+
+    /** When {@link #filter} was built, from {@link System#nanoTime()} */
+    private volatile long filterBuiltNanos;
+
+    /** Filter being built, which recorded rows are added to as well, or null */
+    private volatile BloomFilter building;
+
+    /** Hashes claimed by imports that have not yet recorded or released them, and their claim */
+    private final Map<Long, Claim> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a deduplicator with its own filter. The application uses {@link #getInstance()}.
+     *
+     * @param budgetBytes memory budget for the Bloom filter
+     */
+    ImportDeduplicator(long budgetBytes) {
+        this.budgetBytes = Math.max(8, budgetBytes);
+    }
+
+    /**
+     * Returns the shared deduplicator.
+     *
+     * @return the singleton deduplicator
+     */
+    public static ImportDeduplicator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the shared deduplicator unless deduplication is switched off with
+     * {@code -Ddms.import.dedup=false}.
+     *
+     * @return the deduplicator, or null when disabled
+     */
+    public static ImportDeduplicator ifEnabled() {
+        return Boolean.parseBoolean(System.getProperty("dms.import.dedup", "true")) ? INSTANCE : null;
+    }
+
+    /**
+     * Computes the 64-bit hash of an order row (FNV-1a over the fields, then a final
+     * avalanche so every bit depends on every input).
+     *
+     * @param orderId      the order ID written in the manifest
+     * @param customerName customer name
+     * @param shipperName  shipper name
+     * @param weight       weight in pounds
+     * @param distance     distance in miles
+     * @return the hash
+     */
+    public static long rowHash(String orderId, String customerName, String shipperName, double weight, int distance) {
+        long h = 0xCBF29CE484222325L;
+        h = fnv(h, orderId);
+        h = (h ^ 0x1F) * 0x100000001B3L;
+        h = fnv(h, customerName);
+        h = (h ^ 0x1F) * 0x100000001B3L;
+        h = fnv(h, shipperName);
+        h = (h ^ Double.doubleToLongBits(weight)) * 0x100000001B3L;
+        h = (h ^ distance) * 0x100000001B3L;
+        // Finalizer from MurmurHash3
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Builds the text that identifies an order row, compared in full when its hash
+     * matches a recorded row.
+     *
+     * @param orderId      the order ID written in the manifest
+     * @param customerName customer name
+     * @param shipperName  shipper name
+     * @param weight       weight in pounds
+     * @param distance     distance in miles
+     * @return the fields joined with {@code |}, the manifest's own separator
+     */
+    public static String rowKey(String orderId, String customerName, String shipperName, double weight, int distance) {
+        return orderId + '|' + customerName + '|' + shipperName + '|' + weight + '|' + distance;
+    }
+
+    /** Folds a string's characters into an FNV-1a hash. */
+    private static long fnv(long h, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    /**
+     * Computes the SHA-256 fingerprint of a file's contents.
+     *
+     * @param file the file
+     * @return the digest as 64 lowercase hex digits
+     * @throws IOException if the file cannot be read
+     */
+    public static String fingerprint(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Checks whether a file with this fingerprint was imported in full within the window.
+     *
+     * @param fingerprint the file's fingerprint
+     * @return true if the file can be skipped
+     * @throws SQLException if the lookup fails
+     */
+    public boolean isFileImported(String fingerprint) throws SQLException {
+        DBConnectionManager db = DBConnectionManager.getInstance();
+        try (var _ = db.leaseShard(0);
+             PreparedStatement stmt = db.requireConnection().prepareStatement(
+                     "SELECT 1 FROM ImportedFile WHERE fingerprint = ? AND imported_at >= CURRENT_TIMESTAMP - INTERVAL ? DAY")) {
+            stmt.setString(1, fingerprint);
+            stmt.setInt(2, WINDOW_DAYS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                boolean imported = rs.next();
+                if (imported) SKIPPED_FILES.increment();
+                return imported;
+            }
+        }
+    }
+
+    /**
+     * Records that a file was imported in full.
+     *
+     * @param fingerprint the file's fingerprint
+     * @param file        the file, for its name and size
+     * @param rows        number of orders stored from it
+     * @throws SQLException if the insert fails
+     * @throws IOException  if the file size cannot be read
+     */
+    public void recordFile(String fingerprint, Path file, long rows) throws SQLException, IOException {
+        DBConnectionManager db = DBConnectionManager.getInstance();
+        String sql = """
+            INSERT INTO ImportedFile (fingerprint, file_name, file_size, row_count)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE file_name = VALUES(file_name),
+                                    row_count = VALUES(row_count),
+                                    imported_at = CURRENT_TIMESTAMP
+        """;
+        try (var _ = db.leaseShard(0);
+             PreparedStatement stmt = db.requireConnection().prepareStatement(sql)) {
+            stmt.setString(1, fingerprint);
+            stmt.setString(2, String.valueOf(file.getFileName()));
+            stmt.setLong(3, Files.size(file));
+            stmt.setLong(4, rows);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Finds the rows of a batch that were already imported, and claims the others so a
+     * parallel import waits for this batch to be recorded or the claim to be closed before
+     * deciding about them. Always close the claim, after {@link Claim#recordStored} and
+     * the batch's commit on success.
+     *
+     * @param fingerprint the fingerprint of the file the rows come from
+     * @param hashes      row hashes of the batch ({@link #rowHash})
+     * @param keys        row keys of the batch ({@link #rowKey})
+     * @param lines       line number of each row in the file
+     * @param count       number of rows
+     * @return the claim, telling which rows are duplicates
+     * @throws SQLException if the filter cannot be loaded, a probable hit cannot be verified,
+     *                      or the thread is interrupted while waiting for another import
+     */
+    public Claim claim(String fingerprint, long[] hashes, String[] keys, long[] lines, int count) throws SQLException {
+        loadedFilter();
+        Claim claim = new Claim(sourceId(fingerprint), count);
+        try {
+            // Claiming in hash order means a waiting import only holds hashes below the one it waits for
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+
+            List<Integer> probable = new ArrayList<>();
+            for (int i : order) {
+                if (keys[i].length() > MAX_KEY_LENGTH) continue;
+                long hash = hashes[i];
+                Claim owner;
+                while ((owner = inFlight.putIfAbsent(hash, claim)) != null && owner != claim) {
+                    // Being stored by another import; its outcome decides whether this row is new
+                    WAITED_ROWS.increment();
+                    owner.awaitRelease();
+                }
+                if (owner == null) claim.claimed.add(hash);
+                // Read after any wait, so rows the other import recorded are seen
+                if (filter.mightContain(hash)) probable.add(i);
+            }
+
+            if (!probable.isEmpty()) {
+                VERIFIED_ROWS.add(probable.size());
+                Map<Long, List<Recorded>> found = findRecorded(probable, hashes);
+                for (int i : probable) {
+                    if (claim.isRecorded(found.get(hashes[i]), keys[i], lines[i])) claim.duplicate[i] = true;
+                    else FALSE_POSITIVES.increment();
+                }
+            }
+            for (boolean duplicate : claim.duplicate) {
+                if (duplicate) DUPLICATE_ROWS.increment();
+            }
+            return claim;
+        } catch (SQLException | RuntimeException e) {
+            claim.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number a file's rows are recorded under: the first 64 bits of its
+     * fingerprint.
+     */
+    private static long sourceId(String fingerprint) {
+        return Long.parseUnsignedLong(fingerprint.substring(0, 16), 16);
+    }
+
+    /**
+     * A row found in {@code ImportedRow}.
+     *
+     * @param key  the row key
+     * @param file the number of the file it came from
+     * @param line its line in that file
+     */
+    private record Recorded(String key, long file, long line) {}
+
+    /**
+     * Rows of one batch claimed by {@link #claim}.
+     */
+    public final class Claim implements AutoCloseable {
+
+        /** Number of the file the batch comes from */
+        private final long sourceFile;
+
+        /** Whether each row was already imported */
+        private final boolean[] duplicate;
+
+        /** Hashes this claim added to the in-flight set */
+        private final List<Long> claimed = new ArrayList<>();
+
+        /** Opened once the claimed hashes are released */
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private Claim(long sourceFile, int count) {
+            this.sourceFile = sourceFile;
+            this.duplicate = new boolean[count];
+        }
+
+        /**
+         * Returns whether a row was already imported and should be skipped.
+         *
+         * @param row index into the batch passed to {@link #claim}
+         * @return true for a duplicate
+         */
+        public boolean isDuplicate(int row) {
+            return duplicate[row];
+        }
+
+        /**
+         * Records the stored rows, so later imports skip them. Called from a
+         * {@link ShippingOrderManager.BatchCommitHook}, the rows are recorded in the same
+         * transaction that stores them.
+         *
+         * @param conn   a connection to the primary, usually with the batch's transaction open
+         * @param hashes row hashes, aligned with {@code stored}
+         * @param keys   row keys, aligned with {@code stored}
+         * @param lines  line number of each row, aligned with {@code stored}
+         * @param stored stored order per row, or null where the row was not stored
+         * @param count  number of rows
+         * @throws SQLException if the rows cannot be written
+         */
+        public void recordStored(Connection conn, long[] hashes, String[] keys, long[] lines,
+                                 ShippingOrder[] stored, int count) throws SQLException {
+            String sql = """
+                INSERT INTO ImportedRow (source_file, source_line, row_hash, row_key)
+                VALUES (?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE row_hash = VALUES(row_hash),
+                                        row_key = VALUES(row_key),
+                                        imported_at = CURRENT_TIMESTAMP
+            """;
+            int pending = 0;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < count; i++) {
+                    if (stored[i] == null || keys[i].length() > MAX_KEY_LENGTH) continue;
+                    stmt.setLong(1, sourceFile);
+                    stmt.setLong(2, lines[i]);
+                    stmt.setLong(3, hashes[i]);
+                    stmt.setString(4, keys[i]);
+                    stmt.addBatch();
+                    pending++;
+                }
+                if (pending > 0) stmt.executeBatch();
+            }
+            // Added before the commit; if it rolls back, the extra bits only cost a verified lookup
+            BloomFilter current = filter;
+            BloomFilter next = building;
+            for (int i = 0; i < count; i++) {
+                if (stored[i] == null) continue;
+                current.add(hashes[i]);
+                if (next != null) next.add(hashes[i]);
+            }
+        }
+
+        /**
+         * Releases the claimed hashes and wakes imports waiting for them.
+         */
+        @Override
+        public void close() {
+            for (long hash : claimed) inFlight.remove(hash, this);
+            released.countDown();
+        }
+
+        /** Waits until this claim is closed. */
+        private void awaitRelease() throws SQLException {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted waiting for another import's rows", e);
+            }
+        }
+
+        /** Whether a row matches a recorded one from another file or the same line of this one. */
+        private boolean isRecorded(List<Recorded> recorded, String key, long line) {
+            if (recorded == null) return false;
+            for (Recorded r : recorded) {
+                if (r.key().equals(key) && (r.file() != sourceFile || r.line() == line)) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns the filter, filling it from the rows inside the window on first use and
+     * rebuilding it, after deleting expired rows, once a day.
+     */
+    private BloomFilter loadedFilter() throws SQLException {
+        BloomFilter current = filter;
+        if (current != null && System.nanoTime() - filterBuiltNanos < REBUILD_NANOS) return current;
+        synchronized (this) {
+            if (filter != null && System.nanoTime() - filterBuiltNanos < REBUILD_NANOS) return filter;
+            pruneExpired();
+
+            BloomFilter loaded = BloomFilter.withBudget(budgetBytes);
+            building = loaded;
+            try {
+                // Rows recorded but not yet committed are invisible to the query below
+                for (long hash : inFlight.keySet()) loaded.add(hash);
+                DBConnectionManager db = DBConnectionManager.getInstance();
+                String sql = "SELECT row_hash FROM ImportedRow WHERE imported_at >= CURRENT_TIMESTAMP - INTERVAL ? DAY";
+                try (var _ = db.leaseShard(0);
+                     PreparedStatement stmt = db.requireConnection().prepareStatement(
+                             sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    OrderExporter.enableStreaming(stmt);
+                    stmt.setInt(1, WINDOW_DAYS);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) loaded.add(rs.getLong(1));
+                    }
+                }
+                filter = loaded;
+                filterBuiltNanos = System.nanoTime();
+            } finally {
+                building = null;
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Deletes rows and files recorded before the window, a chunk at a time so no single
+     * statement holds locks for long.
+     */
+    private static void pruneExpired() throws SQLException {
+        DBConnectionManager db = DBConnectionManager.getInstance();
+        try (var _ = db.leaseShard(0)) {
+            Connection conn = db.requireConnection();
+            for (String table : List.of("ImportedRow", "ImportedFile")) {
+                String sql = "DELETE FROM " + table
+                        + " WHERE imported_at < CURRENT_TIMESTAMP - INTERVAL ? DAY LIMIT " + PRUNE_CHUNK;
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, WINDOW_DAYS);
+                    int deleted;
+                    do {
+                        deleted = stmt.executeUpdate();
+                        PRUNED_ROWS.add(deleted);
+                    } while (deleted == PRUNE_CHUNK);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the recorded rows sharing a hash with the given rows, by hash, with one
+     * indexed query per chunk.
+     */
+    private static Map<Long, List<Recorded>> findRecorded(List<Integer> rows, long[] hashes) throws SQLException {
+        Map<Long, List<Recorded>> found = new HashMap<>();
+        Set<Long> unique = new HashSet<>();
+        for (int row : rows) unique.add(hashes[row]);
+        List<Long> pending = new ArrayList<>(unique);
+        DBConnectionManager db = DBConnectionManager.getInstance();
+        try (var _ = db.leaseShard(0)) {
+            Connection conn = db.requireConnection();
+            for (int from = 0; from < pending.size(); from += VERIFY_CHUNK) {
+                List<Long> chunk = pending.subList(from, Math.min(pending.size(), from + VERIFY_CHUNK));
+                String sql = "SELECT row_hash, row_key, source_file, source_line FROM ImportedRow"
+                        + " WHERE imported_at >= CURRENT_TIMESTAMP - INTERVAL ? DAY AND row_hash IN ("
+                        + "?,".repeat(chunk.size() - 1) + "?)";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, WINDOW_DAYS);
+                    for (int i = 0; i < chunk.size(); i++) stmt.setLong(i + 2, chunk.get(i));
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            found.computeIfAbsent(rs.getLong(1), _ -> new ArrayList<>())
+                                    .add(new Recorded(rs.getString(2), rs.getLong(3), rs.getLong(4)));
+                        }
+                    }
+                }
+            }
+        }
+        return found;
+    }
+}
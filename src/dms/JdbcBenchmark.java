@@ -0,0 +1,139 @@
+package dms;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Micro-benchmark measuring what {@link JdbcTracer} adds to a query.
+ *
+ * <p>Runs the same query loop on an in-memory connection, once directly and once
+ * through {@link JdbcTracer#wrap(Connection)}: prepare a statement, bind two
+ * parameters, execute it, read two columns from each row, and close everything. The
+ * in-memory driver does no I/O, so the difference between the two loops is the
+ * tracer's own cost. It prints that cost per statement (from a query returning no
+ * rows) and per row read. Run it with:</p>
+ * <pre>java -cp out dms.JdbcBenchmark [statements] [rowsPerQuery]</pre>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class JdbcBenchmark {
+
+    /** Sink that keeps the JIT from eliminating benchmark loops */
+    private static volatile long blackhole;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private JdbcBenchmark() {}
+
+    /**
+     * Entry point for the benchmark.
+     *
+     * @param args optional statement count (default 2,000,000) and rows per query (default 100)
+     * @throws SQLException never, the in-memory driver does not fail
+     */
+    public static void main(String[] args) throws SQLException {
+        int statements = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        Connection raw = inMemoryConnection();
+        Connection traced = JdbcTracer.wrap(raw);
+        for (int round = 0; round < 3; round++) {
+            double rawEmpty = run(raw, statements, 0);
+            double tracedEmpty = run(traced, statements, 0);
+            double rawRows = run(raw, statements / 10, rows);
+            double tracedRows = run(traced, statements / 10, rows);
+            System.out.printf("round %d: statement %.1f ns raw, %.1f ns traced (overhead %.1f ns); "
+                            + "per row %.2f ns raw, %.2f ns traced (overhead %.2f ns)%n",
+                    round + 1, rawEmpty, tracedEmpty, tracedEmpty - rawEmpty,
+                    (rawRows - rawEmpty) / rows, (tracedRows - tracedEmpty) / rows,
+                    ((tracedRows - tracedEmpty) - (rawRows - rawEmpty)) / rows);
+        }
+        System.out.println("blackhole " + (blackhole & 1));
+    }
+
+    /**
+     * Runs the query loop and returns the average time per statement in nanoseconds.
+     */
+    private static double run(Connection conn, int statements, int rows) throws SQLException {
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < statements; i++) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT order_id, name FROM Bench WHERE a = ? AND b = ?")) {
+                stmt.setInt(1, rows);
+                stmt.setString(2, "x");
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        sum += rs.getInt(1) + rs.getString(2).length();
+                    }
+                }
+            }
+        }
+        double perStatement = (double) (System.nanoTime() - start) / statements;
+        blackhole += sum;
+        return perStatement;
+    }
+
+    /**
+     * A connection whose statements return the number of rows bound to parameter 1.
+     * Connection and statement calls are reflective stubs, identical on both sides of
+     * the comparison; the rows are a plain in-memory result set.
+     */
+    private static Connection inMemoryConnection() {
+        return (Connection) Proxy.newProxyInstance(JdbcBenchmark.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (conn, connMethod, connArgs) -> {
+                    if (!connMethod.getName().equals("prepareStatement")) return stubResult(connMethod.getReturnType());
+                    int[] rows = new int[1];
+                    return Proxy.newProxyInstance(JdbcBenchmark.class.getClassLoader(),
+                            new Class<?>[]{PreparedStatement.class}, (stmt, method, args) -> {
+                                if (method.getName().equals("setInt")) rows[0] = (Integer) args[1];
+                                if (method.getName().equals("executeQuery")) return new InMemoryResults(rows[0]);
+                                return stubResult(method.getReturnType());
+                            });
+                });
+    }
+
+    private static Object stubResult(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        return null;
+    }
+
+    /**
+     * A result set of {@code count} rows holding an ID and a fixed name.
+     */
+    private static final class InMemoryResults extends ResultSetDelegate {
+        private final int count;
+        private int row;
+
+        InMemoryResults(int count) {
+            super(null);
+            this.count = count;
+        }
+
+        @Override
+        public boolean next() {
+            return ++row <= count;
+        }
+
+        @Override
+        public int getInt(int columnIndex) {
+            return row;
+        }
+
+        @Override
+        public String getString(int columnIndex) {
+            return "Customer";
+        }
+
+        @Override
+        public void close() {
+            row = count;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package dms;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JDBC wrapper layer that times every statement and logs slow or failed ones.
+ *
+ * <p>{@link #wrap(Connection)} returns a proxy connection whose statements record the
+ * SQL text, number of bound parameters, rows affected or returned, and elapsed time. A
+ * query is timed until {@code executeQuery} returns, so the time spent reading its rows
+ * is not counted. Its result set is wrapped in a plain delegate (not a proxy) that only
+ * counts {@code next()} calls, and its trace line is written when the result set, or
+ * its statement, is closed. Every execution feeds the {@code jdbc.statement} histogram
+ * in {@link MetricsRegistry}; only a sample is written to the trace log.</p>
+ *
+ * <p>Every call on a traced statement, including each parameter setter, is a reflective
+ * proxy call. {@link JdbcBenchmark} measured about 360 ns added per statement (prepare,
+ * two binds, execute, close) and about 3 ns per row read, against a driver that does no
+ * I/O; a real round trip to the database takes far longer. Bulk loads that care can
+ * still turn tracing off.</p>
+ *
+ * <p>Configuration (system properties):</p>
+ * <ul>
+ *     <li>{@code dms.jdbc.slowQueryMillis} – statements at or above this go to the
+ *         slow-query log at WARNING level (default 200)</li>
+ *     <li>{@code dms.jdbc.traceSampleRate} – fraction of statements written to the
+ *         trace log at FINE level (default 0.01; 0 disables tracing)</li>
+ *     <li>{@code dms.jdbc.trace} – {@code false} leaves connections unwrapped, with no
+ *         timing, metrics, or logging (default true)</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class JdbcTracer {
+
+    /** Logger receiving statements slower than the threshold and failed statements */
+    private static final Logger slowLog = Logger.getLogger("dms.jdbc.slowquery");
+
+    /** Logger receiving sampled statement traces */
+    private static final Logger traceLog = Logger.getLogger("dms.jdbc.trace");
+
+    /** Statements taking at least this long are logged as slow */
+    private static final long SLOW_NANOS =
+            Long.getLong("dms.jdbc.slowQueryMillis", 200L) * 1_000_000L;
+
+    /** Whether {@link #wrap(Connection)} wraps connections at all */
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("dms.jdbc.trace", "true"));
+
+    /** One in this many statements is written to the trace log (0 = never) */
+    private static final int SAMPLE_EVERY = sampleInterval(System.getProperty("dms.jdbc.traceSampleRate", "0.01"));
+
+    // Statement-level metrics
+    private static final LatencyHistogram STATEMENT_LATENCY = MetricsRegistry.getInstance().histogram("jdbc.statement");
+    private static final LongAdder SLOW_STATEMENTS = MetricsRegistry.getInstance().counter("jdbc.slow_statements");
+    private static final LongAdder FAILED_STATEMENTS = MetricsRegistry.getInstance().counter("jdbc.failed_statements");
+
+    /** Walks the caller stack to name the operation that issued a statement */
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private JdbcTracer() {}
+
+    /**
+     * Wraps a connection so that all statements created from it are traced.
+     * Wrapping an already-traced connection, or any connection while tracing is
+     * disabled, returns it unchanged.
+     *
+     * @param conn the raw JDBC connection (may be null)
+     * @return a tracing proxy, or {@code conn} itself if it is null, already traced, or tracing is off
+     */
+    public static Connection wrap(Connection conn) {
+        if (conn == null || !ENABLED || isTraced(conn)) return conn;
+        return (Connection) Proxy.newProxyInstance(
+                JdbcTracer.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(conn));
+    }
+
+    /**
+     * Checks whether a connection was produced by {@link #wrap(Connection)}.
+     *
+     * @param conn the connection to check
+     * @return true if the connection is a tracing proxy
+     */
+    public static boolean isTraced(Connection conn) {
+        return Proxy.isProxyClass(conn.getClass())
+                && Proxy.getInvocationHandler(conn) instanceof ConnectionHandler;
+    }
+
+    private static int sampleInterval(String rate) {
+        try {
+            double r = Double.parseDouble(rate);
+            return r <= 0 ? 0 : (int) Math.max(1, Math.round(1.0 / Math.min(r, 1.0)));
+        } catch (NumberFormatException e) {
+            return 100;
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Completes one statement execution: records its latency and reports it.
+     */
+    private static void finish(String sql, int binds, long rows, long startNanos, Throwable error) {
+        long elapsed = System.nanoTime() - startNanos;
+        STATEMENT_LATENCY.record(elapsed);
+        report(sql, binds, rows, elapsed, error);
+    }
+
+    /**
+     * Writes log entries for a statement execution that was slow, failed, or was picked
+     * by sampling. A negative row count means the statement's rows were not counted.
+     */
+    private static void report(String sql, int binds, long rows, long elapsed, Throwable error) {
+        boolean slow = elapsed >= SLOW_NANOS;
+        boolean sampled = SAMPLE_EVERY > 0 && ThreadLocalRandom.current().nextInt(SAMPLE_EVERY) == 0;
+        if (!slow && error == null && !(sampled && traceLog.isLoggable(Level.FINE))) return;
+
+        String message = rows < 0
+                ? String.format("%s took %.3f ms (binds=%d): %s",
+                        callingOperation(), elapsed / 1e6, binds, compact(sql))
+                : String.format("%s took %.3f ms (binds=%d, rows=%d): %s",
+                        callingOperation(), elapsed / 1e6, binds, rows, compact(sql));
+        if (error != null) {
+            FAILED_STATEMENTS.increment();
+            slowLog.log(Level.WARNING, "FAILED " + message, error);
+        } else if (slow) {
+            SLOW_STATEMENTS.increment();
+            slowLog.warning("SLOW " + message);
+        } else {
+            traceLog.fine(message);
+        }
+    }
+
+    /** Names the first application frame outside this class, e.g. "ShippingOrderManager.addOrder" */
+    private static String callingOperation() {
+        return WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith("dms.")
+                        && !f.getClassName().startsWith(JdbcTracer.class.getName()))
+                .findFirst()
+                .map(f -> f.getClassName().substring(4) + "." + f.getMethodName())
+                .orElse("unknown"));
+    }
+
+    private static String compact(String sql) {
+        return sql == null ? "" : sql.strip().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Intercepts statement creation on the wrapped connection.
+     */
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = JdbcTracer.invoke(target, method, args);
+            String name = method.getName();
+            if (result instanceof Statement stmt
+                    && (name.equals("createStatement") || name.equals("prepareStatement") || name.equals("prepareCall"))) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                Class<?> type = method.getReturnType();
+                return Proxy.newProxyInstance(JdbcTracer.class.getClassLoader(),
+                        new Class<?>[]{type}, new StatementHandler(stmt, sql));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Times executions on a statement and tracks bound parameters and rows affected.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private int binds;
+
+        /** The result set of the last query, until its trace line is written */
+        private CountingResultSet openResults;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && target instanceof PreparedStatement) {
+                binds = Math.max(binds, index);
+                return JdbcTracer.invoke(target, method, args);
+            }
+            if (name.equals("clearParameters")) {
+                binds = 0;
+                return JdbcTracer.invoke(target, method, args);
+            }
+            if (name.equals("close")) {
+                reportOpenResults();
+                return JdbcTracer.invoke(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return JdbcTracer.invoke(target, method, args);
+            }
+
+            // A new execution closes the previous result set
+            reportOpenResults();
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = JdbcTracer.invoke(target, method, args);
+            } catch (Throwable t) {
+                finish(sql, binds, 0, start, t);
+                throw t;
+            }
+
+            // Queries stop the clock here; reading the rows is the caller's time, and the
+            // trace line waits until the rows have been counted
+            if (result instanceof ResultSet rs) {
+                long elapsed = System.nanoTime() - start;
+                STATEMENT_LATENCY.record(elapsed);
+                openResults = new CountingResultSet(rs, (Statement) proxy, sql, binds, elapsed);
+                return openResults;
+            } else if (Boolean.TRUE.equals(result)) {
+                finish(sql, binds, -1, start, null);
+            } else if (result instanceof int[] counts) {
+                long total = 0;
+                for (int c : counts) total += Math.max(c, 0);
+                finish(sql, binds, total, start, null);
+            } else if (result instanceof long[] counts) {
+                long total = 0;
+                for (long c : counts) total += Math.max(c, 0);
+                finish(sql, binds, total, start, null);
+            } else if (result instanceof Number count) {
+                finish(sql, binds, count.longValue(), start, null);
+            } else {
+                finish(sql, binds, target.getUpdateCount(), start, null);
+            }
+            return result;
+        }
+
+        /**
+         * Reports the last query's rows when its result set is closed implicitly, by
+         * closing the statement or executing it again.
+         */
+        private void reportOpenResults() {
+            if (openResults != null) {
+                openResults.report();
+                openResults = null;
+            }
+        }
+    }
+
+    /**
+     * Counts the rows a query returns and writes its trace line once the result set is
+     * closed. Only {@code next()} and {@code close()} are intercepted; every other call is
+     * a plain delegated call with no reflection.
+     */
+    private static final class CountingResultSet extends ResultSetDelegate {
+        private final Statement statement;
+        private final String sql;
+        private final int binds;
+        private final long elapsed;
+        private long rows;
+        private boolean reported;
+
+        CountingResultSet(ResultSet target, Statement statement, String sql, int binds, long elapsed) {
+            super(target);
+            this.statement = statement;
+            this.sql = sql;
+            this.binds = binds;
+            this.elapsed = elapsed;
+        }
+
+        @Override
+        public boolean next() throws SQLException {
+            boolean more = target.next();
+            if (more) rows++;
+            return more;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            report();
+            target.close();
+        }
+
+        @Override
+        public Statement getStatement() {
+            return statement;
+        }
+
+        void report() {
+            if (reported) return;
+            reported = true;
+            JdbcTracer.report(sql, binds, rows, elapsed, null);
+        }
+    }
+}
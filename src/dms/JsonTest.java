@@ -0,0 +1,96 @@
+package dms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link Json} helper used by {@link ServerMain}.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Order request bodies parse into maps with numeric and text fields</li>
+ *     <li>Arrays, nesting, escapes, and literals</li>
+ *     <li>Malformed input is rejected</li>
+ *     <li>Orders and strings are written as valid, escaped JSON</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class JsonTest {
+
+    /**
+     * Default constructor for JsonTest.
+     */
+    public JsonTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Verifies an order body parses into the expected field types.
+     */
+    @Test
+    @DisplayName("Parses an order request body")
+    public void testParseOrder() {
+        Object parsed = Json.parse(" {\"customerName\":\"Alice\", \"shipperName\":\"UPS\", \"weight\":10.5, \"distance\":500} ");
+        Map<?, ?> fields = assertInstanceOf(Map.class, parsed);
+        assertEquals("Alice", fields.get("customerName"));
+        assertEquals("UPS", fields.get("shipperName"));
+        assertEquals(10.5, fields.get("weight"));
+        assertEquals(500.0, fields.get("distance"));
+    }
+
+    /**
+     * Verifies arrays, escapes, negative and exponent numbers, and literals.
+     */
+    @Test
+    @DisplayName("Parses arrays, escapes and literals")
+    public void testParseValues() {
+        List<?> list = assertInstanceOf(List.class, Json.parse("[true, false, null, -1.5e2, \"a\\\"b\\u0041\\n\", {}, []]"));
+        assertEquals(7, list.size());
+        assertEquals(Boolean.TRUE, list.get(0));
+        assertEquals(Boolean.FALSE, list.get(1));
+        assertNull(list.get(2));
+        assertEquals(-150.0, list.get(3));
+        assertEquals("a\"bA\n", list.get(4));
+        assertEquals(Map.of(), list.get(5));
+        assertEquals(List.of(), list.get(6));
+    }
+
+    /**
+     * Verifies malformed documents raise IllegalArgumentException.
+     */
+    @Test
+    @DisplayName("Rejects malformed JSON")
+    public void testMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\":1"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\" 1}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[1,]"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{} extra"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("\"unterminated"));
+    }
+
+    /**
+     * Verifies written orders and strings round-trip through the parser.
+     */
+    @Test
+    @DisplayName("Writes orders and escaped strings")
+    public void testWrite() {
+        StringBuilder out = new StringBuilder();
+        Json.writeOrder(out, new ShippingOrder(7, 1, 2, 10.5, 500, "Alice \"A\"", "UPS", 7.88));
+        Map<?, ?> fields = assertInstanceOf(Map.class, Json.parse(out.toString()));
+        assertEquals(7.0, fields.get("orderId"));
+        assertEquals("Alice \"A\"", fields.get("customerName"));
+        assertEquals(7.88, fields.get("shippingCost"));
+
+        StringBuilder text = new StringBuilder();
+        Json.writeString(text, "tab\there\u0001");
+        assertEquals("\"tab\\there\\u0001\"", text.toString());
+    }
+}
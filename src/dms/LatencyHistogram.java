@@ -0,0 +1,140 @@
+package dms;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets.
+ *
+ * <p>Each power of two is split into four sub-buckets, so recorded values are
+ * accurate to within 25% across the full range of nanosecond latencies.
+ * Recording is a handful of atomic increments and never blocks, which keeps
+ * the cost on instrumented hot paths in the tens of nanoseconds.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class LatencyHistogram {
+
+    /** Number of buckets needed to cover every positive long value */
+    private static final int BUCKETS = 248;
+
+    /** Per-bucket sample counts */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /** Total number of recorded samples */
+    private final LongAdder count = new LongAdder();
+
+    /** Sum of all recorded values in nanoseconds */
+    private final LongAdder sum = new LongAdder();
+
+    /** Largest value recorded so far */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        // Buckets start at zero
+    }
+
+    /**
+     * Records a single latency sample.
+     *
+     * @param nanos elapsed time in nanoseconds (negative values are treated as zero)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Records the time elapsed since a {@link System#nanoTime()} reading.
+     *
+     * @param startNanos the value of {@code System.nanoTime()} when the operation began
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the number of recorded samples.
+     *
+     * @return the sample count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of all recorded samples.
+     *
+     * @return total nanoseconds recorded
+     */
+    public long getSumNanos() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the largest recorded sample.
+     *
+     * @return maximum nanoseconds recorded, or 0 if empty
+     */
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of all recorded samples.
+     *
+     * @return mean nanoseconds, or 0 if empty
+     */
+    public double getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Estimates the value at the given quantile from the bucket counts.
+     * The result is the upper bound of the bucket containing the quantile.
+     *
+     * @param quantile a value between 0.0 and 1.0 (e.g., 0.99)
+     * @return estimated nanoseconds at that quantile, or 0 if empty
+     */
+    public long getQuantileNanos(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= Math.max(rank, 1)) return Math.min(upperBoundOf(i), max.get());
+        }
+        return max.get();
+    }
+
+    static int bucketOf(long value) {
+        if (value < 4) return (int) value;
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exp - 2)) & 3;
+        return ((exp - 1) << 2) | sub;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < 4) return bucket;
+        int exp = (bucket >> 2) + 1;
+        int sub = bucket & 3;
+        long upper = ((long) (5 + sub) << (exp - 2)) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
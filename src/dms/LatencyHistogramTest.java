@@ -0,0 +1,65 @@
+package dms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link LatencyHistogram} class.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Bucket boundaries cover every value without gaps</li>
+ *     <li>Count, sum, mean, and max bookkeeping</li>
+ *     <li>Quantile estimates stay within bucket precision</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Default constructor for LatencyHistogramTest.
+     */
+    public LatencyHistogramTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Verifies that every value falls into a bucket whose upper bound contains it.
+     */
+    @Test
+    @DisplayName("Bucket bounds contain their values")
+    public void testBucketBounds() {
+        long[] samples = {0, 1, 3, 4, 7, 8, 1_000, 1_000_000, 123_456_789, Long.MAX_VALUE};
+        for (long value : samples) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= value, "Upper bound too small for " + value);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.upperBoundOf(bucket - 1) < value, "Previous bucket overlaps " + value);
+            }
+        }
+    }
+
+    /**
+     * Verifies summary statistics and quantile estimates.
+     */
+    @Test
+    @DisplayName("Statistics and quantiles are accurate")
+    public void testQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1_000; i++) histogram.record(i * 1_000L);
+
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(1_000_000L, histogram.getMaxNanos());
+        assertEquals(500_500.0, histogram.getMeanNanos(), 0.001);
+
+        long p50 = histogram.getQuantileNanos(0.5);
+        long p99 = histogram.getQuantileNanos(0.99);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.25, "p50 out of range: " + p50);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 out of range: " + p99);
+        assertEquals(0, new LatencyHistogram().getQuantileNanos(0.99), "Empty histogram should report 0");
+    }
+}
@@ -1,21 +1,25 @@
 package dms;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller class for the login view (LoginView.fxml).
  * Handles user input for MySQL connection settings and establishes a connection
  * through the {@link DBConnectionManager}. If successful, the app transitions
- * to the main dashboard view.
+ * to the main dashboard view, which is parsed in the background while the form is
+ * being filled in.
  *
  * Author: Julio Lopez
  * Version: 1.0
@@ -45,13 +49,31 @@ public class LoginView {
     /** Label for displaying connection status messages to the user */
     @FXML private Label statusLabel;
 
+    /** Main view, parsed in the background while the user types credentials */
+    private CompletableFuture<FXMLLoader> mainView;
+
+    /** True while a connection attempt is running, to ignore repeated clicks */
+    private boolean connecting;
+
+    /**
+     * Starts parsing the main view on a background thread as soon as the login form
+     * is loaded, so it is ready by the time the user has connected.
+     */
+    @FXML
+    private void initialize() {
+        mainView = CompletableFuture.supplyAsync(LoginView::loadMainView, LoginView::runInBackground);
+    }
+
     /**
      * Triggered when the user clicks the "Connect" button.
-     * Attempts to connect to the database using the provided credentials.
-     * If successful, transitions the application to the MainView interface.
+     * Connects to the database on a background thread using the provided credentials.
+     * If successful, switches to the preloaded MainView interface right away and lets it
+     * stream orders into its table.
      */
     @FXML
     private void handleConnect() {
+        if (connecting) return;
+
         // Retrieve and trim input values
         String host = hostField.getText().trim();
         String port = portField.getText().trim();
@@ -65,33 +87,82 @@ public class LoginView {
             return;
         }
 
-        try {
-            // Attempt to establish a connection using DBConnectionManager
-            DBConnectionManager dbManager = DBConnectionManager.getInstance();
-            Connection conn = dbManager.connect(host, port, dbName, user, pass);
-
-            // Check if connection is valid and active
-            if (conn != null && !conn.isClosed()) {
-                statusLabel.setText("🟢 Connected successfully.");
-
-                // Load the main dashboard view
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("/dms/view/MainView.fxml"));
-                Parent mainRoot = loader.load();
-
-                // Switch scenes
-                Stage currentStage = (Stage) hostField.getScene().getWindow();
-                currentStage.setScene(new Scene(mainRoot));
-                currentStage.setTitle("Shipping Order Manager");
-                currentStage.show();
-
-            } else {
-                statusLabel.setText("🔴 Connection failed.");
+        StartupTimer.mark(StartupTimer.LOGIN_SUBMITTED);
+        connecting = true;
+        statusLabel.setText("Connecting...");
+
+        // Connect off the FX thread; the view keeps parsing in parallel if it is not done yet
+        CompletableFuture<Connection> connection = CompletableFuture.supplyAsync(() -> {
+            try {
+                Connection conn = DBConnectionManager.getInstance().connect(host, port, dbName, user, pass);
+                SchemaManager.checkOnStartup(conn);
+                return conn;
+            } catch (SQLException e) {
+                throw new CompletionException(e);
             }
+        }, LoginView::runInBackground);
+
+        connection.thenCombine(mainView, (conn, loader) -> loader)
+                .whenComplete((loader, failure) -> Platform.runLater(() -> {
+                    connecting = false;
+                    if (failure == null) {
+                        showMainView(loader);
+                    } else {
+                        showFailure(failure instanceof CompletionException && failure.getCause() != null
+                                ? failure.getCause() : failure);
+                    }
+                }));
+    }
+
+    /**
+     * Switches the window to the main view and starts loading orders into it.
+     */
+    private void showMainView(FXMLLoader loader) {
+        statusLabel.setText("🟢 Connected successfully.");
+        StartupTimer.mark(StartupTimer.CONNECTED);
+
+        Stage currentStage = (Stage) hostField.getScene().getWindow();
+        currentStage.setScene(new Scene(loader.getRoot()));
+        currentStage.setTitle("Shipping Order Manager");
+        currentStage.show();
+        StartupTimer.mark(StartupTimer.WINDOW_SHOWN);
+
+        MainController controller = loader.getController();
+        controller.startLoading();
+    }
+
+    private void showFailure(Throwable failure) {
+        if (failure instanceof UncheckedIOException e) failure = e.getCause();
+        if (failure instanceof SQLException) {
+            statusLabel.setText("🔴 Connection error: " + failure.getMessage());
+        } else if (failure instanceof IOException) {
+            statusLabel.setText("🔴 Failed to load main view: " + failure.getMessage());
+            // Parse again on the next attempt
+            mainView = CompletableFuture.supplyAsync(LoginView::loadMainView, LoginView::runInBackground);
+        } else {
+            statusLabel.setText("🔴 Connection failed: " + failure.getMessage());
+        }
+    }
 
-        } catch (SQLException e) {
-            statusLabel.setText("🔴 Connection error: " + e.getMessage());
+    /**
+     * Loads and parses MainView.fxml. Safe off the FX thread because the resulting
+     * nodes are not yet part of a showing window.
+     */
+    private static FXMLLoader loadMainView() {
+        try {
+            FXMLLoader loader = new FXMLLoader(LoginView.class.getResource("/dms/view/MainView.fxml"));
+            loader.load();
+            StartupTimer.mark(StartupTimer.VIEW_PRELOADED);
+            return loader;
         } catch (IOException e) {
-            statusLabel.setText("🔴 Failed to load main view: " + e.getMessage());
+            throw new UncheckedIOException(e);
         }
     }
+
+    /**
+     * Runs a startup task on its own daemon thread, so it never keeps the app alive.
+     */
+    private static void runInBackground(Runnable task) {
+        Thread.ofPlatform().daemon().name("startup-worker").start(task);
+    }
 }
@@ -54,6 +54,7 @@ public class Main extends Application {
             primaryStage.setScene(new Scene(root));
             primaryStage.setTitle("Database Login");
             primaryStage.show();
+            StartupTimer.mark(StartupTimer.LOGIN_SHOWN);
 
         } catch (Exception ex) {
             // Log failure to load the FXML
@@ -67,6 +68,7 @@ public class Main extends Application {
      * @param args command-line arguments (not used)
      */
     public static void main(String[] args) {
+        MetricsHttpServer.startIfConfigured();
         launch(args);
     }
 }
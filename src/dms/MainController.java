@@ -1,9 +1,12 @@
 package dms;
 
 import javafx.animation.ScaleTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
+import javafx.geometry.Side;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.FileChooser;
@@ -13,6 +16,10 @@ import javafx.util.Duration;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
 
 /**
  * JavaFX Controller for the main Shipping Order Management interface.
@@ -21,7 +28,9 @@ import java.sql.SQLException;
  * Responsibilities include:
  * <ul>
  *     <li>Initializing table columns</li>
+ *     <li>Streaming orders into the table progressively at startup</li>
  *     <li>Adding, updating, deleting, and loading orders</li>
+ *     <li>Type-ahead search over customer and shipper names</li>
  *     <li>Displaying connection and status messages</li>
  * </ul>
  *
@@ -46,17 +55,40 @@ public class MainController {
     @FXML private TableColumn<ShippingOrder, Integer> distanceColumn;
     @FXML private TableColumn<ShippingOrder, Double> priceColumn;
 
+    // Type-ahead search box above the table
+    @FXML private TextField searchField;
+
     // UI labels for dynamic user feedback
     @FXML private Label statusLabel;
     @FXML private Label connectionStatusLabel;
 
     // Data management layer and observable list for table refresh
     private ObservableList<ShippingOrder> orderList;
+    private FilteredList<ShippingOrder> filteredOrders;
     private ShippingOrderManager shippingOrderManager;
 
+    /** Validates the connection in the background; the status label shows its cached result */
+    private ConnectionHealthMonitor healthMonitor;
+
+    /** Imports manifests dropped into the spool directory, or null when none is configured */
+    private ManifestWatcher spoolWatcher;
+
+    /** Maximum number of names suggested while typing */
+    private static final int SUGGESTION_LIMIT = 10;
+
+    /** Largest number of orders added to the table at once while loading */
+    private static final int LOAD_CHUNK_SIZE = 5_000;
+
+    // Popup listing name suggestions under the search box; created on first use on the FX thread
+    private ContextMenu suggestionMenu;
+
+    /** Set on the FX thread once every order has been loaded and edits are allowed */
+    private boolean ordersLoaded;
+
     /**
-     * Initializes the UI, binds table columns, applies formatting,
-     * loads data from the database, and checks connection status.
+     * Initializes the UI and binds table columns and formatting. This does no database
+     * work, so the view can be loaded on a background thread before the user has even
+     * connected; {@link #startLoading()} fills the table once the window is showing.
      */
     @FXML
     private void initialize() {
@@ -68,53 +100,162 @@ public class MainController {
         distanceColumn.setCellValueFactory(new PropertyValueFactory<>("distanceInMiles"));
         priceColumn.setCellValueFactory(new PropertyValueFactory<>("shippingCost"));
 
-        // Format columns
-        weightColumn.setCellFactory(_ -> new TableCell<>() {
-            @Override protected void updateItem(Double weight, boolean empty) {
-                super.updateItem(weight, empty);
-                setText(empty || weight == null ? null : String.format("%.1f lb", weight));
-            }
-        });
+        // Format columns from each row's cached display text
+        weightColumn.setCellFactory(_ -> new OrderTextCell<>(ShippingOrder::getWeightText));
+        distanceColumn.setCellFactory(_ -> new OrderTextCell<>(ShippingOrder::getDistanceText));
+        priceColumn.setCellFactory(_ -> new OrderTextCell<>(ShippingOrder::getCostText));
+
+        orderList = FXCollections.observableArrayList();
+        filteredOrders = new FilteredList<>(orderList);
+        orderTable.setItems(filteredOrders);
+        setupSearch();
+
+        // Connection checks run off the FX thread; changes are pushed to the label
+        healthMonitor = new ConnectionHealthMonitor(DBConnectionManager.getInstance());
+        healthMonitor.addListener((_, status) -> Platform.runLater(() -> showConnectionStatus(status)));
+        statusLabel.setText("Loading orders...");
+        showConnectionStatus(healthMonitor.getStatus());
+    }
 
-        distanceColumn.setCellFactory(_ -> new TableCell<>() {
-            @Override protected void updateItem(Integer distance, boolean empty) {
-                super.updateItem(distance, empty);
-                setText(empty || distance == null ? null : distance + " mi");
-            }
+    /**
+     * Starts filling the table once the window is showing and the database is connected.
+     * Orders are read on a background thread and appended to the table in chunks as they
+     * come off the cursor, so the first rows appear long before the last are read.
+     * Edits are refused until loading completes. Must be called on the FX thread.
+     */
+    public void startLoading() {
+        healthMonitor.start();
+        shippingOrderManager = new ShippingOrderManager(true, false);
+        ShippingOrderManager manager = shippingOrderManager;
+
+        Thread.ofPlatform().daemon().name("order-loader").start(() -> {
+            int total = manager.streamOrdersFromDatabase(LOAD_CHUNK_SIZE, chunk -> Platform.runLater(() -> {
+                orderList.addAll(chunk);
+                StartupTimer.mark(StartupTimer.FIRST_ROW);
+                statusLabel.setText("Loading orders... " + orderList.size());
+            }));
+            Platform.runLater(() -> {
+                // Replace the streamed rows with the published snapshot, which is authoritative
+                orderList.setAll(manager.getAllOrders());
+                ordersLoaded = true;
+                StartupTimer.mark(StartupTimer.ALL_ROWS);
+                System.out.print(StartupTimer.report());
+                setStatus("Loaded " + total + " orders from database.");
+                startSpoolWatcher(manager);
+            });
         });
+    }
 
-        priceColumn.setCellFactory(_ -> new TableCell<>() {
-            @Override protected void updateItem(Double price, boolean empty) {
-                super.updateItem(price, empty);
-                setText(empty || price == null ? null : String.format("$%.2f", price));
-            }
+    /**
+     * Starts importing files dropped into the spool directory, if one is configured, and
+     * refreshes the table after each file. Started once loading is done so imported
+     * orders are not overwritten by the initial load.
+     */
+    private void startSpoolWatcher(ShippingOrderManager manager) {
+        spoolWatcher = ManifestWatcher.startIfConfigured(manager);
+        if (spoolWatcher == null) return;
+        spoolWatcher.addListener((file, result) -> Platform.runLater(() -> {
+            orderList.setAll(manager.getAllOrders());
+            setStatus(result.isSkippedFile()
+                    ? "Skipped " + file.getFileName() + ": already imported."
+                    : "Imported " + result.getAccepted() + " orders from " + file.getFileName() + ".");
+        }));
+    }
+
+    /**
+     * Returns true if orders are loaded; otherwise tells the user to wait.
+     */
+    private boolean requireOrdersLoaded() {
+        if (!ordersLoaded) setStatus("Still loading orders, please wait.");
+        return ordersLoaded;
+    }
+
+    /**
+     * Wires the search box: filters the table by name prefix and shows
+     * type-ahead suggestions backed by the manager's name indexes.
+     */
+    private void setupSearch() {
+        searchField.textProperty().addListener((_, _, text) -> {
+            String prefix = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+            filteredOrders.setPredicate(prefix.isEmpty() ? null : order ->
+                    startsWithIgnoreCase(order.getCustomerName(), prefix)
+                            || startsWithIgnoreCase(order.getShipperName(), prefix));
+            showSuggestions(prefix);
         });
+    }
 
-        // Load orders
-        shippingOrderManager = new ShippingOrderManager();
-        orderList = FXCollections.observableArrayList(shippingOrderManager.getAllOrders());
-        orderTable.setItems(orderList);
+    /**
+     * Shows matching customer and shipper names under the search box.
+     *
+     * @param prefix the lower-cased text typed so far
+     */
+    private void showSuggestions(String prefix) {
+        if (suggestionMenu == null) suggestionMenu = new ContextMenu();
+        if (prefix.isEmpty() || shippingOrderManager == null) {
+            suggestionMenu.hide();
+            return;
+        }
 
-        setStatus("Orders loaded from database.");
-        setConnectionStatus();
+        List<String> names = new ArrayList<>(shippingOrderManager.searchCustomers(prefix, SUGGESTION_LIMIT));
+        for (String shipper : shippingOrderManager.searchShippers(prefix, SUGGESTION_LIMIT - names.size())) {
+            if (!names.contains(shipper)) names.add(shipper);
+        }
+        if (names.isEmpty() || (names.size() == 1 && names.get(0).equalsIgnoreCase(prefix))) {
+            suggestionMenu.hide();
+            return;
+        }
+
+        List<MenuItem> items = new ArrayList<>(names.size());
+        for (String name : names) {
+            MenuItem item = new MenuItem(name);
+            item.setOnAction(_ -> {
+                searchField.setText(name);
+                searchField.positionCaret(name.length());
+                suggestionMenu.hide();
+            });
+            items.add(item);
+        }
+        suggestionMenu.getItems().setAll(items);
+        if (!suggestionMenu.isShowing()) {
+            suggestionMenu.show(searchField, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    private static boolean startsWithIgnoreCase(String value, String lowerPrefix) {
+        return value != null && value.regionMatches(true, 0, lowerPrefix, 0, lowerPrefix.length());
     }
 
     /**
-     * Updates the connection status label based on current database state.
+     * Updates the connection status label from the health monitor's cached status.
+     * This never blocks on the database.
      */
     private void setConnectionStatus() {
-        try {
-            Connection conn = DBConnectionManager.getInstance().getConnection();
-            if (conn != null && !conn.isClosed() && conn.isValid(2)) {
+        showConnectionStatus(healthMonitor.getStatus());
+    }
+
+    /**
+     * Shows a connection status in the status label.
+     *
+     * @param status the status to show
+     */
+    private void showConnectionStatus(ConnectionHealthMonitor.Status status) {
+        switch (status) {
+            case CONNECTED -> {
                 connectionStatusLabel.setText("🟢 Connected");
                 connectionStatusLabel.setStyle("-fx-text-fill: green;");
-            } else {
+            }
+            case RECONNECTING -> {
+                connectionStatusLabel.setText("🟡 Reconnecting...");
+                connectionStatusLabel.setStyle("-fx-text-fill: orange;");
+            }
+            case DISCONNECTED -> {
                 connectionStatusLabel.setText("🔴 Not connected");
                 connectionStatusLabel.setStyle("-fx-text-fill: red;");
             }
-        } catch (SQLException e) {
-            connectionStatusLabel.setText("🔴 Connection error");
-            connectionStatusLabel.setStyle("-fx-text-fill: red;");
+            case UNKNOWN -> {
+                connectionStatusLabel.setText("⚪ Checking connection...");
+                connectionStatusLabel.setStyle("-fx-text-fill: gray;");
+            }
         }
     }
 
@@ -124,16 +265,19 @@ public class MainController {
      */
     @FXML
     private void handleAddOrder() {
+        if (!requireOrdersLoaded()) return;
         String customerName = promptValidName("Enter Customer Name:");
         if (customerName == null) return;
 
         String shipperName = promptValidName("Enter Shipper Name:");
         if (shipperName == null) return;
 
-        double weight = promptDouble("Enter Weight (1–150 lb):", 1, 150);
+        double weight = promptDouble("Enter Weight (" + OrderValidator.MIN_WEIGHT + "–" + OrderValidator.MAX_WEIGHT + " lb):",
+                OrderValidator.MIN_WEIGHT, OrderValidator.MAX_WEIGHT);
         if (weight == -1) return;
 
-        int distance = promptInt("Enter Distance (1–3000 mi):", 1, 3000);
+        int distance = promptInt("Enter Distance (" + OrderValidator.MIN_DISTANCE + "–" + OrderValidator.MAX_DISTANCE + " mi):",
+                OrderValidator.MIN_DISTANCE, OrderValidator.MAX_DISTANCE);
         if (distance == -1) return;
 
         boolean added = shippingOrderManager.addOrder(customerName, shipperName, weight, distance);
@@ -142,6 +286,7 @@ public class MainController {
             setStatus("Order added.");
         } else {
             setStatus("Failed to add order.");
+            healthMonitor.requestCheck();
         }
         setConnectionStatus();
     }
@@ -151,24 +296,35 @@ public class MainController {
      */
     @FXML
     private void handleUpdateOrder() {
+        if (!requireOrdersLoaded()) return;
         var selected = orderTable.getSelectionModel().getSelectedItem();
         if (selected == null) {
             setStatus("Select an order to update.");
             return;
         }
 
-        double newWeight = promptDouble("Update Weight (1–150 lb):", 1, 150);
+        double newWeight = promptDouble("Update Weight (" + OrderValidator.MIN_WEIGHT + "–" + OrderValidator.MAX_WEIGHT + " lb):",
+                OrderValidator.MIN_WEIGHT, OrderValidator.MAX_WEIGHT);
         if (newWeight == -1) return;
 
-        int newDistance = promptInt("Update Distance (1–3000 mi):", 1, 3000);
+        int newDistance = promptInt("Update Distance (" + OrderValidator.MIN_DISTANCE + "–" + OrderValidator.MAX_DISTANCE + " mi):",
+                OrderValidator.MIN_DISTANCE, OrderValidator.MAX_DISTANCE);
         if (newDistance == -1) return;
 
-        boolean updated = shippingOrderManager.updateOrder(selected.getOrderId(), newWeight, newDistance);
-        if (updated) {
+        // Conditional on the version shown in the table, so a concurrent edit is not overwritten
+        try {
+            OrderWriteResult result = shippingOrderManager.updateOrderIfVersion(
+                    selected.getOrderId(), selected.getRowVersion(), newWeight, newDistance);
             orderList.setAll(shippingOrderManager.getAllOrders());
-            setStatus("Order updated.");
-        } else {
+            setStatus(switch (result.getStatus()) {
+                case APPLIED -> "Order updated.";
+                case CONFLICT -> "Order was changed by another user; showing the latest values. Try again.";
+                case NOT_FOUND -> "Order no longer exists.";
+            });
+        } catch (OrderOperationException e) {
+            System.err.println(e.getMessage());
             setStatus("Update failed.");
+            healthMonitor.requestCheck();
         }
         setConnectionStatus();
     }
@@ -178,6 +334,7 @@ public class MainController {
      */
     @FXML
     private void handleDeleteOrder() {
+        if (!requireOrdersLoaded()) return;
         var selected = orderTable.getSelectionModel().getSelectedItem();
         if (selected == null) {
             setStatus("Select an order to delete.");
@@ -191,12 +348,19 @@ public class MainController {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                boolean deleted = shippingOrderManager.deleteOrder(selected.getOrderId());
-                if (deleted) {
+                try {
+                    OrderWriteResult result = shippingOrderManager.deleteOrderIfVersion(
+                            selected.getOrderId(), selected.getRowVersion());
                     orderList.setAll(shippingOrderManager.getAllOrders());
-                    setStatus("Order deleted.");
-                } else {
+                    setStatus(switch (result.getStatus()) {
+                        case APPLIED -> "Order deleted.";
+                        case CONFLICT -> "Order was changed by another user; review the latest values before deleting.";
+                        case NOT_FOUND -> "Order no longer exists.";
+                    });
+                } catch (OrderOperationException e) {
+                    System.err.println(e.getMessage());
                     setStatus("Delete failed.");
+                    healthMonitor.requestCheck();
                 }
                 setConnectionStatus();
             } else {
@@ -210,6 +374,7 @@ public class MainController {
      */
     @FXML
     private void handleLoadFile() {
+        if (!requireOrdersLoaded()) return;
         FileChooser chooser = new FileChooser();
         chooser.setTitle("Select Order File");
         chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files", "*.txt"));
@@ -285,15 +450,11 @@ public class MainController {
 
             String name = result.get().trim();
 
-            if (name.isEmpty()) {
-                showValidationError("Name cannot be blank.");
-            } else if (name.length() > 30) {
-                showValidationError("Name must be 30 characters or fewer.");
-            } else if (!name.matches("^[A-Za-z]+( [A-Za-z]+)*$")) {
-                showValidationError("Only letters and a single space allowed. No numbers or symbols.");
-            } else {
+            OrderValidator.NameProblem problem = OrderValidator.checkName(name);
+            if (problem == OrderValidator.NameProblem.NONE) {
                 return name;
             }
+            showValidationError(problem.getMessage());
         }
     }
 
@@ -309,6 +470,9 @@ public class MainController {
      */
     @FXML
     private void handleExit() {
+        // Stop health checks first so a closed connection is not reopened
+        healthMonitor.close();
+        if (spoolWatcher != null) spoolWatcher.close();
         try {
             Connection conn = DBConnectionManager.getInstance().getConnection();
             if (conn != null && !conn.isClosed()) {
@@ -345,4 +509,26 @@ public class MainController {
         anim.setAutoReverse(true);
         anim.play();
     }
+
+    /**
+     * Table cell that shows text cached on its row's order rather than formatting
+     * the cell value on every update, so scrolling does not allocate per cell.
+     *
+     * @param <T> the column's value type
+     */
+    private static final class OrderTextCell<T> extends TableCell<ShippingOrder, T> {
+        private final Function<ShippingOrder, String> text;
+
+        OrderTextCell(Function<ShippingOrder, String> text) {
+            this.text = text;
+        }
+
+        @Override
+        protected void updateItem(T value, boolean empty) {
+            super.updateItem(value, empty);
+            TableRow<ShippingOrder> row = getTableRow();
+            ShippingOrder order = empty || value == null || row == null ? null : row.getItem();
+            setText(order == null ? null : text.apply(order));
+        }
+    }
 }
@@ -0,0 +1,418 @@
+package dms;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming reader for pipe-delimited order manifests
+ * ({@code ID|Customer|Shipper|Weight|Distance}, one order per line).
+ *
+ * <p>The file is read through a {@link FileChannel} into one reusable buffer and each
+ * line is split and parsed in place, without {@code String.split} or per-line strings.
+ * Names that repeat (which is most of them) are served from a small cache instead of
+ * being decoded again, and common numbers are parsed by hand. Memory use is the same
+ * for a file of ten lines or ten million.</p>
+ *
+ * <p>The reader tracks the byte offset of every line, so callers can record how far an
+ * import got and report the exact position of a rejected line.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>
+ * try (ManifestReader reader = new ManifestReader(path)) {
+ *     while (reader.next()) {
+ *         if (reader.isWellFormed()) use(reader.getCustomerName(), reader.getWeight(), ...);
+ *     }
+ * }
+ * </pre>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class ManifestReader implements Closeable {
+
+    /** Initial read buffer size; grows only if a single line is longer */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Exact powers of ten for the fast decimal path */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** Largest mantissa that a double represents exactly (2^53) */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /** Number of entries in the name cache (power of two) */
+    private static final int NAME_CACHE_SIZE = 1024;
+
+    /** Source file */
+    private final FileChannel channel;
+
+    /** Read buffer and its backing array */
+    private ByteBuffer buffer;
+    private byte[] bytes;
+
+    /** Next unread byte and end of valid data in {@link #bytes} */
+    private int pos;
+    private int limit;
+
+    /** File offset of {@code bytes[0]} */
+    private long bufferOffset;
+
+    /** True once the channel has no more data */
+    private boolean endOfFile;
+
+    // Decoded-name cache: direct-mapped by hash of the name's bytes
+    private final byte[][] cachedNameBytes = new byte[NAME_CACHE_SIZE][];
+    private final String[] cachedNames = new String[NAME_CACHE_SIZE];
+
+    // Current record
+    private long lineNumber;
+    private long lineOffset;
+    private long nextOffset;
+    private boolean wellFormed;
+    private String customerName;
+    private String shipperName;
+    private double weight;
+    private int distance;
+
+    // Field boundaries within the current line (start inclusive, end exclusive)
+    private final int[] fieldStart = new int[5];
+    private final int[] fieldEnd = new int[5];
+
+    /**
+     * Opens a manifest for reading from the beginning.
+     *
+     * @param file the manifest file
+     * @throws IOException if the file cannot be opened
+     */
+    public ManifestReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * Opens a manifest for reading from a line boundary recorded earlier, such as
+     * {@link #getNextOffset()} of the last line a previous read consumed.
+     *
+     * @param file        the manifest file
+     * @param startOffset byte offset at which a line starts
+     * @param linesBefore number of lines before that offset, so line numbers continue from it
+     * @throws IOException if the file cannot be opened or is shorter than {@code startOffset}
+     */
+    public ManifestReader(Path file, long startOffset, long linesBefore) throws IOException {
+        this(file);
+        if (startOffset < 0 || linesBefore < 0) {
+            channel.close();
+            throw new IllegalArgumentException("Negative start position: " + startOffset + ", " + linesBefore);
+        }
+        if (startOffset > channel.size()) {
+            long size = channel.size();
+            channel.close();
+            throw new IOException("Cannot resume " + file + " at byte " + startOffset + ": file has " + size + " bytes");
+        }
+        channel.position(startOffset);
+        this.bufferOffset = startOffset;
+        this.lineOffset = startOffset;
+        this.nextOffset = startOffset;
+        this.lineNumber = linesBefore;
+    }
+
+    /**
+     * Advances to the next non-blank line and parses it.
+     *
+     * @return true if a line was read, false at end of file
+     * @throws IOException if reading fails
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            int end = findLineEnd();
+            if (end < 0) return false;
+
+            int start = pos;
+            int lineEnd = end;
+            lineOffset = bufferOffset + start;
+            // Consume the newline if present (a last line may have none)
+            pos = end < limit ? end + 1 : end;
+            nextOffset = bufferOffset + pos;
+            lineNumber++;
+
+            if (lineEnd > start && bytes[lineEnd - 1] == '\r') lineEnd--;
+            if (isBlank(start, lineEnd)) continue;
+
+            parseLine(start, lineEnd);
+            return true;
+        }
+    }
+
+    /**
+     * Returns whether the current line had five fields with numeric weight and distance.
+     * Field values are not range-checked here; use {@link OrderValidator} for that.
+     *
+     * @return true if the line could be parsed
+     */
+    public boolean isWellFormed() {
+        return wellFormed;
+    }
+
+    /**
+     * Returns the 1-based number of the current line in the file.
+     *
+     * @return the current line number
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the byte offset at which the current line starts.
+     *
+     * @return the current line's file offset
+     */
+    public long getLineOffset() {
+        return lineOffset;
+    }
+
+    /**
+     * Returns the byte offset just after the current line, where the next line begins.
+     *
+     * @return the offset of the next line
+     */
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * Returns the trimmed order ID field of the current line, as written. It is decoded
+     * only when asked for, since the import stores orders under new IDs.
+     *
+     * @return the manifest's order ID, or null if the line was not well formed
+     */
+    public String getOrderId() {
+        if (!wellFormed) return null;
+        return new String(bytes, fieldStart[0], fieldEnd[0] - fieldStart[0], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the trimmed customer name of the current line.
+     *
+     * @return the customer name, or null if the line was not well formed
+     */
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    /**
+     * Returns the trimmed shipper name of the current line.
+     *
+     * @return the shipper name, or null if the line was not well formed
+     */
+    public String getShipperName() {
+        return shipperName;
+    }
+
+    /**
+     * Returns the weight of the current line.
+     *
+     * @return the weight in pounds
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns the distance of the current line.
+     *
+     * @return the distance in miles
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     * Returns the current line as text, for error messages.
+     *
+     * @return the raw line without its line terminator
+     */
+    public String getLineText() {
+        int start = (int) (lineOffset - bufferOffset);
+        int end = (int) (nextOffset - bufferOffset);
+        while (end > start && (bytes[end - 1] == '\n' || bytes[end - 1] == '\r')) end--;
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Closes the underlying file.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Returns the index of the next '\n' at or after {@link #pos}, reading more data as
+     * needed, or {@link #limit} if the file ends without one. Returns -1 at end of file.
+     */
+    private int findLineEnd() throws IOException {
+        int scanFrom = pos;
+        while (true) {
+            for (int i = scanFrom; i < limit; i++) {
+                if (bytes[i] == '\n') return i;
+            }
+            if (endOfFile) return pos < limit ? limit : -1;
+            scanFrom = limit - pos;
+            fill();
+        }
+    }
+
+    /**
+     * Moves unread bytes to the front of the buffer and reads more, growing the buffer
+     * if it is already full of one unfinished line.
+     */
+    private void fill() throws IOException {
+        int unread = limit - pos;
+        if (pos == 0 && limit == bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            buffer = ByteBuffer.wrap(bytes);
+        } else if (pos > 0) {
+            System.arraycopy(bytes, pos, bytes, 0, unread);
+            bufferOffset += pos;
+        }
+        pos = 0;
+        limit = unread;
+
+        buffer.clear().position(limit);
+        int read = channel.read(buffer);
+        if (read < 0) endOfFile = true;
+        else limit += read;
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] != ' ' && bytes[i] != '\t') return false;
+        }
+        return true;
+    }
+
+    private void parseLine(int start, int end) {
+        wellFormed = false;
+        customerName = null;
+        shipperName = null;
+        weight = Double.NaN;
+        distance = 0;
+
+        int fields = 0;
+        int fieldFrom = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || bytes[i] == '|') {
+                if (fields == 5) return; // too many fields
+                fieldStart[fields] = fieldFrom;
+                fieldEnd[fields] = i;
+                fields++;
+                fieldFrom = i + 1;
+            }
+        }
+        if (fields != 5) return;
+
+        for (int f = 0; f < 5; f++) trimField(f);
+        try {
+            weight = parseDouble(fieldStart[3], fieldEnd[3]);
+            distance = parseInt(fieldStart[4], fieldEnd[4]);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        customerName = name(fieldStart[1], fieldEnd[1]);
+        shipperName = name(fieldStart[2], fieldEnd[2]);
+        wellFormed = true;
+    }
+
+    private void trimField(int f) {
+        int s = fieldStart[f];
+        int e = fieldEnd[f];
+        while (s < e && (bytes[s] == ' ' || bytes[s] == '\t')) s++;
+        while (e > s && (bytes[e - 1] == ' ' || bytes[e - 1] == '\t')) e--;
+        fieldStart[f] = s;
+        fieldEnd[f] = e;
+    }
+
+    /**
+     * Returns the name stored in {@code bytes[start, end)}, reusing a cached String when
+     * the same bytes were seen recently.
+     */
+    private String name(int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) hash = 31 * hash + bytes[i];
+        int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+
+        byte[] cached = cachedNameBytes[slot];
+        if (cached != null && Arrays.equals(cached, 0, cached.length, bytes, start, end)) {
+            return cachedNames[slot];
+        }
+        String decoded = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        cachedNameBytes[slot] = Arrays.copyOfRange(bytes, start, end);
+        cachedNames[slot] = decoded;
+        return decoded;
+    }
+
+    /**
+     * Parses a decimal number. Plain numbers with up to 15 significant digits are
+     * computed exactly as {@code mantissa / 10^scale}, which gives the same correctly
+     * rounded result as {@link Double#parseDouble}; anything else falls back to it.
+     */
+    private double parseDouble(int start, int end) {
+        if (start == end) throw new NumberFormatException("empty number");
+        int i = start;
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+') i++;
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) scale++;
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+
+        if (i == end && digits > 0 && digits <= 15 && mantissa < MAX_EXACT_MANTISSA) {
+            double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.US_ASCII));
+    }
+
+    private int parseInt(int start, int end) {
+        if (start == end) throw new NumberFormatException("empty number");
+        int i = start;
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+') i++;
+        if (i == end) throw new NumberFormatException("sign without digits");
+
+        long value = 0;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b < '0' || b > '9') throw new NumberFormatException("not an integer");
+            value = value * 10 + (b - '0');
+            if (value > Integer.MAX_VALUE + 1L) throw new NumberFormatException("integer overflow");
+        }
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw new NumberFormatException("integer overflow");
+        return (int) value;
+    }
+}
@@ -0,0 +1,207 @@
+package dms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ManifestReader} class.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Fields are split, trimmed, and parsed from well-formed lines</li>
+ *     <li>Blank lines, CRLF endings, and a missing final newline are handled</li>
+ *     <li>Malformed lines are reported without stopping the reader</li>
+ *     <li>Byte offsets and values stay correct across buffer refills and very long lines</li>
+ *     <li>A reader opened at a recorded offset continues with the same lines and line numbers</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class ManifestReaderTest {
+
+    private Path file;
+
+    /**
+     * Default constructor for ManifestReaderTest.
+     */
+    public ManifestReaderTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Creates a temporary manifest file before each test.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("manifest", ".txt");
+    }
+
+    /**
+     * Deletes the temporary manifest file after each test.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Verifies fields, line numbers, and offsets for well-formed lines.
+     *
+     * @throws IOException if reading fails
+     */
+    @Test
+    @DisplayName("Reads well-formed lines with CRLF, blanks and no final newline")
+    public void testWellFormedLines() throws IOException {
+        Files.writeString(file, "1|John Smith|UPS|45.0|1200\r\n\n  \n2| Maria Garcia |FedEx| 10.5 |300");
+
+        try (ManifestReader reader = new ManifestReader(file)) {
+            assertTrue(reader.next());
+            assertTrue(reader.isWellFormed());
+            assertEquals("1", reader.getOrderId());
+            assertEquals("John Smith", reader.getCustomerName());
+            assertEquals("UPS", reader.getShipperName());
+            assertEquals(45.0, reader.getWeight(), 0.0);
+            assertEquals(1200, reader.getDistance());
+            assertEquals(1, reader.getLineNumber());
+            assertEquals(0, reader.getLineOffset());
+            assertEquals(28, reader.getNextOffset());
+
+            assertTrue(reader.next());
+            assertTrue(reader.isWellFormed());
+            assertEquals("2", reader.getOrderId());
+            assertEquals("Maria Garcia", reader.getCustomerName());
+            assertEquals("FedEx", reader.getShipperName());
+            assertEquals(10.5, reader.getWeight(), 0.0);
+            assertEquals(300, reader.getDistance());
+            assertEquals(4, reader.getLineNumber());
+            assertEquals(32, reader.getLineOffset());
+            assertEquals(Files.size(file), reader.getNextOffset());
+
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * Verifies malformed lines are flagged and the reader continues past them.
+     *
+     * @throws IOException if reading fails
+     */
+    @Test
+    @DisplayName("Flags malformed lines and keeps reading")
+    public void testMalformedLines() throws IOException {
+        Files.writeString(file, String.join("\n",
+                "1|Too|Few|10",
+                "2|Too|Many|10|20|30",
+                "3|Bad|Weight|ten|20",
+                "4|Bad|Distance|10|20.5",
+                "5|Good|Line|1e1|-7",
+                ""));
+
+        try (ManifestReader reader = new ManifestReader(file)) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(reader.next());
+                assertFalse(reader.isWellFormed(), "Line " + reader.getLineNumber() + " should be malformed");
+                assertNull(reader.getCustomerName());
+            }
+            assertEquals("4|Bad|Distance|10|20.5", reader.getLineText());
+
+            assertTrue(reader.next());
+            assertTrue(reader.isWellFormed());
+            assertEquals(10.0, reader.getWeight(), 0.0);
+            assertEquals(-7, reader.getDistance());
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * Verifies values and offsets across many buffer refills, one line longer than the
+     * initial buffer, and weights that must match {@link Double#parseDouble} exactly.
+     *
+     * @throws IOException if reading fails
+     */
+    @Test
+    @DisplayName("Offsets and values survive buffer refills and long lines")
+    public void testLargeFile() throws IOException {
+        Random random = new Random(3);
+        int lines = 50_000;
+        String[] weights = new String[lines];
+        long[] offsets = new long[lines];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < lines; i++) {
+            offsets[i] = out.size();
+            weights[i] = random.nextInt(1500) + "." + random.nextInt(1000);
+            String customer = i == 1234 ? "X".repeat(200_000) : "Customer " + (char) ('A' + i % 26);
+            String line = i + "|" + customer + "|José|" + weights[i] + "|" + (i % 3000) + "\n";
+            out.writeBytes(line.getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(file, out.toByteArray());
+
+        try (ManifestReader reader = new ManifestReader(file)) {
+            for (int i = 0; i < lines; i++) {
+                assertTrue(reader.next());
+                assertTrue(reader.isWellFormed(), "Line " + (i + 1));
+                assertEquals(offsets[i], reader.getLineOffset(), "Offset of line " + (i + 1));
+                assertEquals(Double.parseDouble(weights[i]), reader.getWeight(), 0.0, "Weight of line " + (i + 1));
+                assertEquals(i % 3000, reader.getDistance());
+                assertEquals("José", reader.getShipperName());
+                if (i == 1234) assertEquals(200_000, reader.getCustomerName().length());
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * Verifies that a reader opened at {@link ManifestReader#getNextOffset()} of an
+     * earlier line sees the rest of the file exactly as an uninterrupted reader does.
+     *
+     * @throws IOException if reading fails
+     */
+    @Test
+    @DisplayName("Resumes from a recorded offset with continuous line numbers")
+    public void testResumeFromOffset() throws IOException {
+        Files.writeString(file, "1|A|UPS|1|10\r\n\n2|B|UPS|2|20\n3|C|UPS|3|30\n4|D|UPS|4|40");
+
+        long offset;
+        long line;
+        try (ManifestReader reader = new ManifestReader(file)) {
+            assertTrue(reader.next());
+            assertTrue(reader.next());
+            assertEquals("B", reader.getCustomerName());
+            offset = reader.getNextOffset();
+            line = reader.getLineNumber();
+        }
+
+        try (ManifestReader reader = new ManifestReader(file, offset, line)) {
+            assertTrue(reader.next());
+            assertEquals("C", reader.getCustomerName());
+            assertEquals(4, reader.getLineNumber());
+            assertEquals(offset, reader.getLineOffset());
+            assertEquals("3|C|UPS|3|30", reader.getLineText());
+            assertTrue(reader.next());
+            assertEquals("D", reader.getCustomerName());
+            assertEquals(Files.size(file), reader.getNextOffset());
+            assertFalse(reader.next());
+        }
+
+        try (ManifestReader reader = new ManifestReader(file, Files.size(file), 5)) {
+            assertFalse(reader.next(), "A checkpoint at end of file has nothing left to read");
+        }
+        assertThrows(IOException.class, () -> new ManifestReader(file, Files.size(file) + 1, 0));
+    }
+}
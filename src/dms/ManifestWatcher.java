@@ -0,0 +1,454 @@
+package dms;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background service that imports order manifests dropped into a spool directory.
+ *
+ * <p>The directory is watched with a {@link WatchService} for files named
+ * {@code shipping_orders_*.txt}; files already there at start-up are picked up too. A
+ * file counts as complete once its size and modification time have not changed for the
+ * settle interval, so a partner still uploading it is never read half-written (partners
+ * that write under another name and rename when done are picked up after one interval).
+ * Complete files are imported by {@link OrderImporter}, in batches, with duplicate
+ * detection and checkpoints, on a fixed pool of worker threads, so at most
+ * {@code concurrency} files are imported at once whatever arrives. Keep it below the
+ * connection pool size, since each import holds a connection per batch.</p>
+ *
+ * <p>An imported file, including one skipped as already imported, is moved to the
+ * {@code done} folder inside the spool directory. A file that fails is moved to
+ * {@code error}, next to a {@code .error} file with the reason; moving it back into the
+ * spool retries it, resuming from its checkpoint. When there is no database connection
+ * the file is left in place and retried after {@value #RETRY_DELAY_MILLIS} ms.</p>
+ *
+ * <p>Lag is published as metrics: {@code spool.ingest_lag} is the time from a file being
+ * seen to it being moved to {@code done}, {@code spool.backlog} and
+ * {@code spool.oldest_wait_seconds} cover files seen but not finished, and
+ * {@code spool.active} counts running imports.</p>
+ *
+ * <p>Entry points start it with {@link #startIfConfigured(ShippingOrderManager)}, which
+ * reads {@code -Ddms.spool.dir} (no watching when unset),
+ * {@code -Ddms.spool.concurrency} (default 2), and {@code -Ddms.spool.settleMillis}
+ * (default 5 seconds).</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class ManifestWatcher implements AutoCloseable {
+
+    /** System property with the spool directory to watch */
+    public static final String SPOOL_DIR_PROPERTY = "dms.spool.dir";
+
+    /** Names of the files that are imported */
+    public static final String FILE_PATTERN = "shipping_orders_*.txt";
+
+    /** Folder inside the spool directory for imported files */
+    public static final String DONE_FOLDER = "done";
+
+    /** Folder inside the spool directory for files that failed */
+    public static final String ERROR_FOLDER = "error";
+
+    /** Default number of files imported at once */
+    private static final int DEFAULT_CONCURRENCY = 2;
+
+    /** Default time a file must stay unchanged before it is imported */
+    private static final long DEFAULT_SETTLE_MILLIS = 5_000;
+
+    /** Delay before retrying a file that failed for lack of a connection */
+    static final long RETRY_DELAY_MILLIS = 30_000;
+
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    private static final LongAdder FILES_DONE = METRICS.counter("spool.files_done");
+    private static final LongAdder FILES_FAILED = METRICS.counter("spool.files_failed");
+    private static final LongAdder RETRIES = METRICS.counter("spool.retries");
+    private static final LatencyHistogram INGEST_LAG = METRICS.histogram("spool.ingest_lag");
+
+    /**
+     * Imports one complete file.
+     */
+    @FunctionalInterface
+    interface Ingester {
+        /**
+         * Imports the file, leaving it where it is.
+         *
+         * @param file the file
+         * @return counts for the import
+         * @throws IOException             if the file cannot be read
+         * @throws OrderOperationException if the orders cannot be stored
+         */
+        OrderImporter.Result ingest(Path file) throws IOException, OrderOperationException;
+    }
+
+    /**
+     * Receives each imported file. Called on a worker thread, so GUI listeners must hand
+     * the update to their UI thread.
+     */
+    @FunctionalInterface
+    public interface IngestListener {
+        /**
+         * Called after a file was imported and moved to {@code done}.
+         *
+         * @param file   the file's new location
+         * @param result counts for the import
+         */
+        void ingested(Path file, OrderImporter.Result result);
+    }
+
+    /**
+     * A file waiting to be complete, as last seen by the watch thread.
+     */
+    private static final class Candidate {
+        /** Size and modification time at the last look, or -1 before the first */
+        long size = -1;
+        long modified = -1;
+
+        /** When the size and modification time last changed */
+        long stableSince;
+
+        /** Not imported before this time; used to delay retries */
+        long notBefore;
+    }
+
+    /** Directory being watched */
+    private final Path spoolDir;
+
+    /** Destination folders for finished files */
+    private final Path doneDir;
+    private final Path errorDir;
+
+    /** Time a file must stay unchanged before it is imported */
+    private final long settleMillis;
+
+    /** Imports each complete file */
+    private final Ingester ingester;
+
+    /** Matches the names of files to import */
+    private final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + FILE_PATTERN);
+
+    /** Workers that run the imports; their count bounds concurrency */
+    private final ExecutorService workers;
+
+    /** Registered listeners */
+    private final List<IngestListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Every file seen but not yet moved out of the spool, with when it was first seen */
+    private final Map<Path, Long> backlog = new ConcurrentHashMap<>();
+
+    /** Files still settling; only used on the watch thread */
+    private final Map<Path, Candidate> candidates = new HashMap<>();
+
+    /** Files handed back by workers to be retried later */
+    private final Queue<Path> retries = new ConcurrentLinkedQueue<>();
+
+    /** Imports running right now */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /** Watch service for the spool directory, or null before {@link #start()} */
+    private WatchService watchService;
+
+    /** Thread that reads watch events and hands complete files to the workers */
+    private Thread watchThread;
+
+    /** Set once the watcher has been closed */
+    private volatile boolean closed;
+
+    /**
+     * Creates a watcher that imports with {@link OrderImporter}. Call {@link #start()} to begin.
+     *
+     * @param manager      the manager that stores the orders
+     * @param spoolDir     the directory to watch
+     * @param concurrency  largest number of files imported at once
+     * @param settleMillis time a file must stay unchanged before it is imported
+     */
+    public ManifestWatcher(ShippingOrderManager manager, Path spoolDir, int concurrency, long settleMillis) {
+        this(spoolDir, concurrency, settleMillis, file -> {
+            OrderImporter importer = new OrderImporter(manager);
+            importer.setDeduplicator(ImportDeduplicator.ifEnabled());
+            importer.setCheckpointing(ImportCheckpoint.isEnabled());
+            return importer.importFile(file);
+        });
+    }
+
+    /**
+     * Creates a watcher with its own way of importing a file, for tests.
+     */
+    ManifestWatcher(Path spoolDir, int concurrency, long settleMillis, Ingester ingester) {
+        if (concurrency < 1) throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        this.spoolDir = spoolDir.toAbsolutePath();
+        this.doneDir = this.spoolDir.resolve(DONE_FOLDER);
+        this.errorDir = this.spoolDir.resolve(ERROR_FOLDER);
+        this.settleMillis = Math.max(0, settleMillis);
+        this.ingester = ingester;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(concurrency, task -> {
+            Thread thread = new Thread(task, "manifest-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates and starts a watcher if {@value #SPOOL_DIR_PROPERTY} is set.
+     *
+     * @param manager the manager that stores the orders
+     * @return the running watcher, or null if no spool directory is configured or it cannot be watched
+     */
+    public static ManifestWatcher startIfConfigured(ShippingOrderManager manager) {
+        String dir = System.getProperty(SPOOL_DIR_PROPERTY);
+        if (dir == null || dir.isBlank()) return null;
+        ManifestWatcher watcher = new ManifestWatcher(manager, Path.of(dir),
+                Integer.getInteger("dms.spool.concurrency", DEFAULT_CONCURRENCY),
+                Long.getLong("dms.spool.settleMillis", DEFAULT_SETTLE_MILLIS));
+        try {
+            watcher.start();
+            System.out.println("Watching " + watcher.spoolDir + " for " + FILE_PATTERN);
+            return watcher;
+        } catch (IOException e) {
+            watcher.close();
+            System.err.println("Cannot watch spool directory " + dir + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Creates the {@code done} and {@code error} folders and starts watching. Files
+     * already in the spool directory are imported once they are complete.
+     *
+     * @throws IOException if the folders cannot be created or the directory cannot be watched
+     */
+    public synchronized void start() throws IOException {
+        if (watchThread != null) throw new IllegalStateException("Already started");
+        Files.createDirectories(doneDir);
+        Files.createDirectories(errorDir);
+        watchService = spoolDir.getFileSystem().newWatchService();
+        spoolDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        METRICS.gauge("spool.backlog", backlog::size);
+        METRICS.gauge("spool.active", active::get);
+        METRICS.gauge("spool.oldest_wait_seconds", () -> {
+            long now = System.currentTimeMillis();
+            long oldest = now;
+            for (long seen : backlog.values()) oldest = Math.min(oldest, seen);
+            return (now - oldest) / 1000.0;
+        });
+
+        watchThread = new Thread(this::watchLoop, "manifest-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /**
+     * Registers a listener told about each imported file.
+     *
+     * @param listener the listener
+     */
+    public void addListener(IngestListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns the number of files seen but not yet moved out of the spool directory.
+     *
+     * @return files settling, queued, or being imported
+     */
+    public int getBacklog() {
+        return backlog.size();
+    }
+
+    /**
+     * Stops watching. Imports already running finish their current batch's transaction
+     * or roll back, and their checkpoints let the next start resume them.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        workers.shutdownNow();
+        try {
+            if (watchService != null) watchService.close();
+        } catch (IOException e) {
+            System.err.println("Error closing spool watch: " + e.getMessage());
+        }
+    }
+
+    private void watchLoop() {
+        long pollMillis = Math.clamp(settleMillis / 2, 50, 1_000);
+        try {
+            scanSpool();
+            while (!closed) {
+                WatchKey key = watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // Events were lost; look at the directory itself
+                            scanSpool();
+                        } else if (event.context() instanceof Path name && matcher.matches(name)) {
+                            track(spoolDir.resolve(name));
+                        }
+                    }
+                    if (!key.reset()) {
+                        System.err.println("Spool directory " + spoolDir + " can no longer be watched");
+                        return;
+                    }
+                }
+                dispatchComplete();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        } catch (IOException | RuntimeException e) {
+            if (!closed) System.err.println("Spool watcher stopped: " + e.getMessage());
+        }
+    }
+
+    /** Tracks every matching file already in the spool directory. */
+    private void scanSpool() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir, FILE_PATTERN)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file)) track(file);
+            }
+        }
+    }
+
+    /** Starts waiting for a file to be complete, unless it is already being handled. */
+    private void track(Path file) {
+        if (backlog.putIfAbsent(file, System.currentTimeMillis()) == null) {
+            candidates.put(file, new Candidate());
+        }
+    }
+
+    /**
+     * Looks at every settling file and hands those unchanged for the settle interval to
+     * the workers. Files that disappeared are forgotten.
+     */
+    private void dispatchComplete() {
+        long now = System.currentTimeMillis();
+        for (Path retry; (retry = retries.poll()) != null; ) {
+            Candidate candidate = new Candidate();
+            candidate.notBefore = now + RETRY_DELAY_MILLIS;
+            candidates.put(retry, candidate);
+        }
+
+        Iterator<Map.Entry<Path, Candidate>> it = candidates.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Candidate> entry = it.next();
+            Path file = entry.getKey();
+            Candidate candidate = entry.getValue();
+            if (now < candidate.notBefore) continue;
+
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                it.remove();
+                backlog.remove(file);
+                continue;
+            } catch (IOException e) {
+                continue;
+            }
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (attributes.size() != candidate.size || modified != candidate.modified) {
+                candidate.size = attributes.size();
+                candidate.modified = modified;
+                candidate.stableSince = now;
+                continue;
+            }
+            if (now - candidate.stableSince < settleMillis) continue;
+
+            it.remove();
+            workers.execute(() -> ingest(file));
+        }
+    }
+
+    /** Imports one file on a worker thread and moves it to its destination folder. */
+    private void ingest(Path file) {
+        active.incrementAndGet();
+        boolean finished = true;
+        try {
+            OrderImporter.Result result = ingester.ingest(file);
+            Path moved = moveTo(doneDir, file);
+            FILES_DONE.increment();
+            Long seen = backlog.get(file);
+            if (seen != null) INGEST_LAG.record((System.currentTimeMillis() - seen) * 1_000_000);
+
+            if (result.isSkippedFile()) {
+                System.out.println("Skipped " + file.getFileName() + ": already imported");
+            } else {
+                System.out.printf("Imported %s: %,d orders, %,d rejected, %,d duplicates skipped%n",
+                        file.getFileName(), result.getAccepted(), result.getRejected(), result.getDuplicates());
+            }
+            for (IngestListener listener : listeners) {
+                try {
+                    listener.ingested(moved, result);
+                } catch (RuntimeException e) {
+                    System.err.println("Ingest listener failed: " + e.getMessage());
+                }
+            }
+        } catch (OrderOperationException e) {
+            if (e.getReason() == OrderOperationException.Reason.NO_CONNECTION && !closed) {
+                RETRIES.increment();
+                System.err.println("No database connection for " + file.getFileName() + "; will retry");
+                finished = false;
+                retries.add(file);
+            } else {
+                fail(file, e);
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(file, e);
+        } finally {
+            active.decrementAndGet();
+            if (finished) backlog.remove(file);
+        }
+    }
+
+    /** Moves a failed file to the error folder with a note of the reason. */
+    private void fail(Path file, Exception cause) {
+        FILES_FAILED.increment();
+        System.err.println("Import of " + file.getFileName() + " failed: " + cause.getMessage());
+        try {
+            Path moved = moveTo(errorDir, file);
+            Files.writeString(moved.resolveSibling(moved.getFileName() + ".error"), cause + System.lineSeparator());
+        } catch (IOException e) {
+            System.err.println("Could not move " + file.getFileName() + " to " + ERROR_FOLDER + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves a file into a folder, adding a timestamp to its name if a file of that name
+     * is already there.
+     */
+    private static Path moveTo(Path dir, Path file) throws IOException {
+        String name = file.getFileName().toString();
+        Path target = dir.resolve(name);
+        if (Files.exists(target)) {
+            int dot = name.lastIndexOf('.');
+            String stamp = "-" + System.currentTimeMillis();
+            target = dir.resolve(dot > 0 ? name.substring(0, dot) + stamp + name.substring(dot) : name + stamp);
+        }
+        return Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
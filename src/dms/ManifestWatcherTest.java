@@ -0,0 +1,158 @@
+package dms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ManifestWatcher} class, with a stand-in for the database import.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Files already in the spool and files dropped later are imported once and moved to {@code done}</li>
+ *     <li>Files not matching the name pattern are left alone</li>
+ *     <li>A file still being written is not imported until it stops changing</li>
+ *     <li>No more than the configured number of files are imported at once</li>
+ *     <li>A failed file is moved to {@code error} with the reason next to it</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class ManifestWatcherTest {
+
+    private Path spool;
+
+    /**
+     * Default constructor for ManifestWatcherTest.
+     */
+    public ManifestWatcherTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Creates a temporary spool directory before each test.
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        spool = Files.createTempDirectory("spool");
+    }
+
+    /**
+     * Deletes the spool directory and everything in it after each test.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(spool)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Drops several files before and after starting and checks where each ends up and
+     * how many imports overlapped.
+     *
+     * @throws Exception if the spool cannot be written or the wait is interrupted
+     */
+    @Test
+    @DisplayName("Imports each complete file once, with bounded concurrency")
+    public void testImportsAndMovesFiles() throws Exception {
+        Files.writeString(spool.resolve("shipping_orders_early.txt"), "1|A|UPS|1|10\n");
+        Files.writeString(spool.resolve("notes.txt"), "not a manifest");
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger imports = new AtomicInteger();
+        try (ManifestWatcher watcher = new ManifestWatcher(spool, 2, 100, file -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+                if (Files.readString(file).contains("bad")) throw new IOException("unreadable line");
+                imports.incrementAndGet();
+                return new OrderImporter.Result();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        })) {
+            watcher.start();
+            for (int i = 0; i < 5; i++) Files.writeString(spool.resolve("shipping_orders_" + i + ".txt"), "x\n");
+            Files.writeString(spool.resolve("shipping_orders_bad.txt"), "bad\n");
+
+            waitFor(() -> count("done") == 6 && count("error") == 2 && watcher.getBacklog() == 0);
+        }
+
+        assertEquals(6, imports.get());
+        assertTrue(maxRunning.get() <= 2, "Imports overlapped beyond the limit: " + maxRunning.get());
+        assertTrue(Files.exists(spool.resolve("done/shipping_orders_early.txt")));
+        assertTrue(Files.exists(spool.resolve("error/shipping_orders_bad.txt")));
+        assertTrue(Files.readString(spool.resolve("error/shipping_orders_bad.txt.error")).contains("unreadable line"));
+        assertTrue(Files.exists(spool.resolve("notes.txt")), "Other files are ignored");
+    }
+
+    /**
+     * Appends to a file faster than the settle interval and checks that it is only
+     * imported after the writes stop.
+     *
+     * @throws Exception if the spool cannot be written or the wait is interrupted
+     */
+    @Test
+    @DisplayName("Waits for a file to stop changing before importing it")
+    public void testWaitsForCompleteFile() throws Exception {
+        Path file = spool.resolve("shipping_orders_slow.txt");
+        AtomicInteger importedLines = new AtomicInteger(-1);
+        try (ManifestWatcher watcher = new ManifestWatcher(spool, 1, 300, path -> {
+            importedLines.set(Files.readAllLines(path).size());
+            return new OrderImporter.Result();
+        })) {
+            watcher.start();
+            try (OutputStream out = Files.newOutputStream(file)) {
+                for (int i = 0; i < 10; i++) {
+                    out.write((i + "|A|UPS|1|10\n").getBytes());
+                    out.flush();
+                    Thread.sleep(100);
+                    assertEquals(-1, importedLines.get(), "Imported while still being written");
+                }
+            }
+            waitFor(() -> count("done") == 1);
+        }
+        assertEquals(10, importedLines.get());
+    }
+
+    private long count(String folder) throws IOException {
+        Path dir = spool.resolve(folder);
+        if (!Files.isDirectory(dir)) return 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean done() throws IOException;
+    }
+
+    private static void waitFor(Check check) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!check.done()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the watcher");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package dms;
+
+/**
+ * Micro-benchmark measuring the hot-path cost of recording metrics.
+ *
+ * <p>Runs an empty loop, a loop that times itself with {@link System#nanoTime()},
+ * and a loop that also records into a {@link LatencyHistogram} and a counter,
+ * then prints the per-operation cost of each. Run it with:</p>
+ * <pre>java -cp out dms.MetricsBenchmark [iterations] [threads]</pre>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class MetricsBenchmark {
+
+    /** Sink that keeps the JIT from eliminating benchmark loops */
+    private static volatile long blackhole;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MetricsBenchmark() {}
+
+    /**
+     * Entry point for the benchmark.
+     *
+     * @param args optional iteration count and thread count
+     * @throws InterruptedException if interrupted while waiting for worker threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        LatencyHistogram histogram = MetricsRegistry.getInstance().histogram("benchmark.latency");
+        var counter = MetricsRegistry.getInstance().counter("benchmark.ops");
+
+        for (int round = 0; round < 3; round++) {
+            double baseline = run(threads, iterations, () -> {
+                long x = 0;
+                for (int i = 0; i < iterations; i++) x += i;
+                blackhole += x;
+            });
+            double timed = run(threads, iterations, () -> {
+                long x = 0;
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    x += start - System.nanoTime();
+                }
+                blackhole += x;
+            });
+            double recorded = run(threads, iterations, () -> {
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    counter.increment();
+                    histogram.recordSince(start);
+                }
+            });
+            System.out.printf("round %d: loop %.1f ns/op, nanoTime pair %.1f ns/op, record %.1f ns/op (overhead %.1f ns/op)%n",
+                    round + 1, baseline, timed, recorded, recorded - timed);
+        }
+        System.out.println("samples recorded: " + histogram.getCount() + ", blackhole " + (blackhole & 1));
+    }
+
+    private static double run(int threads, int iterations, Runnable body) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(body);
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+        return (double) (System.nanoTime() - start) / iterations;
+    }
+}
@@ -0,0 +1,92 @@
+package dms;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Optional local HTTP endpoint serving {@link MetricsRegistry} as Prometheus-style text.
+ *
+ * <p>The server is off by default. Setting the system property {@code dms.metrics.port}
+ * (e.g., {@code -Ddms.metrics.port=9404}) starts it on the loopback interface, where
+ * {@code GET /metrics} returns the current values.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class MetricsHttpServer {
+
+    /** System property naming the port to listen on */
+    public static final String PORT_PROPERTY = "dms.metrics.port";
+
+    /** Running server, or null if not started */
+    private static HttpServer server;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MetricsHttpServer() {}
+
+    /**
+     * Starts the metrics endpoint if {@value #PORT_PROPERTY} is set.
+     * Calling this more than once has no further effect.
+     */
+    public static synchronized void startIfConfigured() {
+        String port = System.getProperty(PORT_PROPERTY);
+        if (port == null || port.isBlank() || server != null) return;
+
+        try {
+            start(Integer.parseInt(port.trim()));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid " + PORT_PROPERTY + ": " + port);
+        } catch (IOException e) {
+            System.err.println("Metrics endpoint failed to start: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts the metrics endpoint on the loopback interface.
+     *
+     * @param port the TCP port to bind
+     * @throws IOException if the port cannot be bound
+     */
+    public static synchronized void start(int port) throws IOException {
+        if (server != null) return;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", MetricsHttpServer::handleMetrics);
+        server.start();
+        System.out.println("Metrics available at http://localhost:" + port + "/metrics");
+    }
+
+    /**
+     * Stops the metrics endpoint if it is running.
+     */
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private static void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            StringBuilder text = new StringBuilder(4096);
+            MetricsRegistry.getInstance().writePrometheus(text);
+            byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package dms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+
+/**
+ * Read-only JMX view over {@link MetricsRegistry}.
+ * Every counter, gauge, and histogram statistic appears as one attribute,
+ * so tools like JConsole or VisualVM can browse metrics without extra setup.
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+class MetricsMBean implements DynamicMBean {
+
+    /** Registry whose values are exposed */
+    private final MetricsRegistry registry;
+
+    /**
+     * Creates an MBean backed by the given registry.
+     *
+     * @param registry the metrics registry to expose
+     */
+    MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Number value = registry.snapshot().get(attribute);
+        if (value == null) throw new AttributeNotFoundException(attribute);
+        return value;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Number> values = registry.snapshot();
+        AttributeList list = new AttributeList();
+        for (String name : attributes) {
+            Number value = values.get(name);
+            if (value != null) list.add(new Attribute(name, value));
+        }
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        registry.snapshot().forEach((name, value) -> attributes.add(new MBeanAttributeInfo(
+                name, value.getClass().getName(), name, true, false, false)));
+        return new MBeanInfo(getClass().getName(), "Data Management System metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+}
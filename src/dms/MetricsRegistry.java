@@ -0,0 +1,168 @@
+package dms;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Central registry of application metrics: counters, gauges, and latency histograms.
+ *
+ * <p>Metrics are created on first use and live for the life of the JVM. Callers on
+ * hot paths should look up their counter or histogram once and keep it in a
+ * {@code static final} field, so recording a sample never touches the registry map.</p>
+ *
+ * <p>Responsibilities include:</p>
+ * <ul>
+ *     <li>Creating and holding named metrics</li>
+ *     <li>Publishing all metrics as a JMX MBean ({@code dms:type=Metrics})</li>
+ *     <li>Rendering metrics as Prometheus-style text for {@link MetricsHttpServer}</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class MetricsRegistry {
+
+    /** Singleton instance shared by the whole application */
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    /** Prefix added to every metric name in text exposition */
+    private static final String PREFIX = "dms_";
+
+    /** Quantiles reported for each histogram */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor; registers the JMX view of this registry.
+     */
+    private MetricsRegistry() {
+        registerMBean();
+    }
+
+    /**
+     * Returns the shared metrics registry.
+     *
+     * @return the singleton registry
+     */
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the counter with the given name, creating it if needed.
+     *
+     * @param name dotted metric name (e.g., "import.rows")
+     * @return the counter
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, _ -> new LongAdder());
+    }
+
+    /**
+     * Returns the latency histogram with the given name, creating it if needed.
+     *
+     * @param name dotted metric name (e.g., "order.add")
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, _ -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers (or replaces) a gauge whose value is read on demand.
+     *
+     * @param name     dotted metric name (e.g., "orders.in_memory")
+     * @param supplier function returning the current value
+     */
+    public void gauge(String name, DoubleSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Returns a sorted, point-in-time view of every metric value.
+     * Histograms are expanded into count, mean, max, and quantile entries in seconds.
+     *
+     * @return metric names mapped to their current values
+     */
+    public Map<String, Number> snapshot() {
+        Map<String, Number> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> values.put(name, readGauge(gauge)));
+        histograms.forEach((name, h) -> {
+            values.put(name + ".count", h.getCount());
+            values.put(name + ".mean_seconds", h.getMeanNanos() / 1e9);
+            values.put(name + ".max_seconds", h.getMaxNanos() / 1e9);
+            for (double q : QUANTILES) {
+                values.put(name + ".p" + Math.round(q * 100) + "_seconds", h.getQuantileNanos(q) / 1e9);
+            }
+        });
+        return values;
+    }
+
+    /**
+     * Appends all metrics in Prometheus text exposition format.
+     *
+     * @param out buffer receiving the text
+     */
+    public void writePrometheus(StringBuilder out) {
+        new TreeMap<>(counters).forEach((name, counter) -> {
+            String metric = PREFIX + sanitize(name) + "_total";
+            out.append("# TYPE ").append(metric).append(" counter\n");
+            out.append(metric).append(' ').append(counter.sum()).append('\n');
+        });
+        new TreeMap<>(gauges).forEach((name, gauge) -> {
+            String metric = PREFIX + sanitize(name);
+            out.append("# TYPE ").append(metric).append(" gauge\n");
+            out.append(metric).append(' ').append(readGauge(gauge)).append('\n');
+        });
+        new TreeMap<>(histograms).forEach((name, h) -> {
+            String metric = PREFIX + sanitize(name) + "_seconds";
+            out.append("# TYPE ").append(metric).append(" summary\n");
+            for (double q : QUANTILES) {
+                out.append(metric).append("{quantile=\"").append(q).append("\"} ")
+                        .append(h.getQuantileNanos(q) / 1e9).append('\n');
+            }
+            out.append(metric).append("_sum ").append(h.getSumNanos() / 1e9).append('\n');
+            out.append(metric).append("_count ").append(h.getCount()).append('\n');
+        });
+    }
+
+    private static double readGauge(DoubleSupplier gauge) {
+        try {
+            return gauge.getAsDouble();
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String sanitize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) ? c : '_');
+        }
+        return sb.toString();
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("dms:type=Metrics");
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(new MetricsMBean(this), objectName);
+            }
+        } catch (JMException | SecurityException e) {
+            System.err.println("Metrics JMX registration failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package dms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sorted-array index over customer or shipper names used for type-ahead search.
+ *
+ * <p>Names are kept in three parallel arrays ordered by their lower-cased key, so a
+ * prefix lookup is a binary search followed by a short forward scan. This keeps
+ * searches well under a millisecond even with hundreds of thousands of names,
+ * without the per-node overhead of a trie.</p>
+ *
+ * <p>Responsibilities include:</p>
+ * <ul>
+ *     <li>Bulk building from {@link Customer} or {@link Shipper} lists</li>
+ *     <li>Inserting names as they are created by {@link ShippingOrderManager}</li>
+ *     <li>Case-insensitive prefix search returning the top matches</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class NameIndex {
+
+    /** Initial capacity used for an empty index */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /** Lower-cased search keys, sorted ascending */
+    private String[] keys;
+
+    /** Original names, aligned with {@link #keys} */
+    private String[] names;
+
+    /** Database IDs, aligned with {@link #keys} */
+    private int[] ids;
+
+    /** Number of entries currently in use */
+    private int size;
+
+    /**
+     * Creates an empty index.
+     */
+    public NameIndex() {
+        keys = new String[DEFAULT_CAPACITY];
+        names = new String[DEFAULT_CAPACITY];
+        ids = new int[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Builds an index from customer records.
+     *
+     * @param customers customers loaded from the database
+     * @return a populated index
+     */
+    public static NameIndex fromCustomers(List<Customer> customers) {
+        NameIndex index = new NameIndex();
+        String[] n = new String[customers.size()];
+        int[] i = new int[customers.size()];
+        for (int k = 0; k < n.length; k++) {
+            n[k] = customers.get(k).getName();
+            i[k] = customers.get(k).getCustomerId();
+        }
+        index.load(n, i);
+        return index;
+    }
+
+    /**
+     * Builds an index from shipper records.
+     *
+     * @param shippers shippers loaded from the database
+     * @return a populated index
+     */
+    public static NameIndex fromShippers(List<Shipper> shippers) {
+        NameIndex index = new NameIndex();
+        String[] n = new String[shippers.size()];
+        int[] i = new int[shippers.size()];
+        for (int k = 0; k < n.length; k++) {
+            n[k] = shippers.get(k).getName();
+            i[k] = shippers.get(k).getShipperId();
+        }
+        index.load(n, i);
+        return index;
+    }
+
+    /**
+     * Replaces the index contents with the given names, sorting them once.
+     *
+     * @param newNames names to index (null entries are skipped)
+     * @param newIds   IDs aligned with {@code newNames}
+     */
+    public synchronized void load(String[] newNames, int[] newIds) {
+        Integer[] order = new Integer[newNames.length];
+        String[] newKeys = new String[newNames.length];
+        int count = 0;
+        for (int k = 0; k < newNames.length; k++) {
+            if (newNames[k] == null) continue;
+            newKeys[k] = keyOf(newNames[k]);
+            order[count++] = k;
+        }
+        Arrays.sort(order, 0, count, Comparator.comparing((Integer k) -> newKeys[k]).thenComparing(k -> newNames[k]));
+
+        int capacity = Math.max(DEFAULT_CAPACITY, count + (count >> 1));
+        keys = new String[capacity];
+        names = new String[capacity];
+        ids = new int[capacity];
+        size = 0;
+        for (int k = 0; k < count; k++) {
+            int src = order[k];
+            // Skip exact duplicates so each name appears once
+            if (size > 0 && names[size - 1].equals(newNames[src])) {
+                ids[size - 1] = newIds[src];
+                continue;
+            }
+            keys[size] = newKeys[src];
+            names[size] = newNames[src];
+            ids[size] = newIds[src];
+            size++;
+        }
+    }
+
+    /**
+     * Adds a name to the index, or updates its ID if it is already present.
+     *
+     * @param name the customer or shipper name
+     * @param id   the database ID for the name
+     */
+    public synchronized void put(String name, int id) {
+        if (name == null) return;
+        String key = keyOf(name);
+        int pos = lowerBound(key);
+        // Walk entries with an equal key looking for the exact name
+        while (pos < size && keys[pos].equals(key)) {
+            int cmp = names[pos].compareTo(name);
+            if (cmp == 0) {
+                ids[pos] = id;
+                return;
+            }
+            if (cmp > 0) break;
+            pos++;
+        }
+
+        if (size == keys.length) grow();
+        System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+        System.arraycopy(names, pos, names, pos + 1, size - pos);
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        keys[pos] = key;
+        names[pos] = name;
+        ids[pos] = id;
+        size++;
+    }
+
+    /**
+     * Returns up to {@code limit} names starting with the given prefix, ignoring case.
+     * Results are returned in alphabetical order.
+     *
+     * @param prefix the text typed so far
+     * @param limit  maximum number of matches to return
+     * @return matching names, or an empty list if none match
+     */
+    public synchronized List<String> search(String prefix, int limit) {
+        List<String> matches = new ArrayList<>(Math.min(Math.max(limit, 0), 16));
+        if (prefix == null || limit <= 0) return matches;
+
+        String key = keyOf(prefix.trim());
+        for (int i = lowerBound(key); i < size && matches.size() < limit; i++) {
+            if (!keys[i].startsWith(key)) break;
+            matches.add(names[i]);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the ID recorded for an exact (case-sensitive) name.
+     *
+     * @param name the name to look up
+     * @return the ID, or -1 if the name is not indexed
+     */
+    public synchronized int idOf(String name) {
+        if (name == null) return -1;
+        String key = keyOf(name);
+        for (int i = lowerBound(key); i < size && keys[i].equals(key); i++) {
+            if (names[i].equals(name)) return ids[i];
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the ID recorded for a name, ignoring case the way the database's
+     * case-insensitive name collation does. When several spellings share a key, the
+     * first one in sort order wins; they all belong to the same database row anyway.
+     *
+     * @param name the name to look up
+     * @return the ID, or -1 if no spelling of the name is indexed
+     */
+    public synchronized int idOfIgnoreCase(String name) {
+        if (name == null) return -1;
+        String key = keyOf(name);
+        int pos = lowerBound(key);
+        return pos < size && keys[pos].equals(key) ? ids[pos] : -1;
+    }
+
+    /**
+     * Returns the number of indexed names.
+     *
+     * @return the index size
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private void grow() {
+        int capacity = keys.length + (keys.length >> 1) + 1;
+        keys = Arrays.copyOf(keys, capacity);
+        names = Arrays.copyOf(names, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+    }
+
+    private static String keyOf(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,116 @@
+package dms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link NameIndex} class.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Case-insensitive prefix search in alphabetical order</li>
+ *     <li>Result limits and empty prefixes</li>
+ *     <li>Incremental inserts and ID updates, and ID lookups by exact or any-case spelling</li>
+ *     <li>Search latency on a large index</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class NameIndexTest {
+
+    private NameIndex index;
+
+    /**
+     * Default constructor for NameIndexTest.
+     */
+    public NameIndexTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Builds a small index from customer records before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        index = NameIndex.fromCustomers(List.of(
+                new Customer(1, "John Smith", "", ""),
+                new Customer(2, "Maria Garcia", "", ""),
+                new Customer(3, "james Wilson", "", ""),
+                new Customer(4, "Jennifer Harris", "", "")
+        ));
+    }
+
+    /**
+     * Verifies prefix matches ignore case and come back sorted.
+     */
+    @Test
+    @DisplayName("Prefix search is case-insensitive and sorted")
+    public void testSearchPrefix() {
+        assertEquals(List.of("james Wilson", "Jennifer Harris", "John Smith"), index.search("J", 10));
+        assertEquals(List.of("Maria Garcia"), index.search("mar", 10));
+        assertTrue(index.search("Zed", 10).isEmpty(), "Unknown prefix should return no matches");
+    }
+
+    /**
+     * Verifies the result limit is honored.
+     */
+    @Test
+    @DisplayName("Search respects the result limit")
+    public void testSearchLimit() {
+        assertEquals(2, index.search("j", 2).size(), "Only two matches should be returned");
+        assertTrue(index.search("j", 0).isEmpty(), "Zero limit should return no matches");
+    }
+
+    /**
+     * Verifies names added after the initial build are searchable and IDs can be updated.
+     */
+    @Test
+    @DisplayName("Inserted names are searchable")
+    public void testPut() {
+        index.put("Joseph Martin", 5);
+        index.put("Aaron Ames", 6);
+        index.put("John Smith", 10);
+
+        assertEquals(6, index.size(), "Duplicate names should not add entries");
+        assertEquals(List.of("Joseph Martin"), index.search("jos", 5));
+        assertEquals(List.of("Aaron Ames"), index.search("a", 5));
+        assertEquals(10, index.idOf("John Smith"), "Existing name should take the new ID");
+        assertEquals(-1, index.idOf("john smith"), "ID lookup is case-sensitive");
+        assertEquals(10, index.idOfIgnoreCase("JOHN SMITH"), "Other spellings find the indexed name");
+        assertEquals(-1, index.idOfIgnoreCase("John Smit"));
+    }
+
+    /**
+     * Verifies a prefix search over a large index completes in well under a millisecond.
+     */
+    @Test
+    @DisplayName("Search stays fast with many names")
+    public void testLargeIndexLatency() {
+        int count = 300_000;
+        String[] names = new String[count];
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = "Customer " + Integer.toString(i, 36);
+            ids[i] = i + 1;
+        }
+        NameIndex large = new NameIndex();
+        large.load(names, ids);
+
+        // Warm up before timing
+        for (int i = 0; i < 10_000; i++) large.search("customer a" + (i % 36), 10);
+
+        long start = System.nanoTime();
+        int rounds = 1_000;
+        for (int i = 0; i < rounds; i++) {
+            assertEquals(10, large.search("customer " + Integer.toString(1 + i % 35, 36), 10).size());
+        }
+        long avgMicros = (System.nanoTime() - start) / rounds / 1_000;
+        assertTrue(avgMicros < 1_000, "Average search took " + avgMicros + " µs");
+    }
+}
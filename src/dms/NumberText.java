@@ -0,0 +1,152 @@
+package dms;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Allocation-free formatting of integers and short decimals as ASCII bytes or chars.
+ *
+ * <p>{@code Integer.toString} and {@code Double.toString} create a new String for every
+ * value, which dominates the cost of writing millions of rows. These methods write the
+ * digits straight into the destination instead. Decimals that are exact to a few places
+ * (weights, distances, and costs always are) use a fixed-point path whose output parses
+ * back to the identical {@code double}; anything else falls back to
+ * {@link Double#toString(double)}.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+final class NumberText {
+
+    /** Powers of ten up to the largest supported number of decimal places */
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    /** Largest supported number of decimal places */
+    static final int MAX_DECIMALS = POWERS_OF_TEN.length - 1;
+
+    /** Largest scaled value handled by the fixed-point path (well within double precision) */
+    private static final double MAX_FIXED = 1e15;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private NumberText() {}
+
+    /**
+     * Writes an integer in decimal.
+     *
+     * @param out   destination with at least 20 bytes remaining
+     * @param value the value to write
+     */
+    static void put(ByteBuffer out, long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                putAscii(out, "-9223372036854775808");
+                return;
+            }
+            out.put((byte) '-');
+            value = -value;
+        }
+        int length = digitCount(value);
+        int start = out.position();
+        for (int i = start + length - 1; i >= start; i--) {
+            out.put(i, (byte) ('0' + (int) (value % 10)));
+            value /= 10;
+        }
+        out.position(start + length);
+    }
+
+    /**
+     * Writes a decimal with at most {@code maxDecimals} places and no trailing zeros
+     * beyond the first (e.g. {@code 45.0}, {@code 10.5}, {@code 7.88}).
+     *
+     * @param out         destination with at least 32 bytes remaining
+     * @param value       the value to write
+     * @param maxDecimals places to try before falling back (0 to {@link #MAX_DECIMALS})
+     */
+    static void put(ByteBuffer out, double value, int maxDecimals) {
+        long scale = POWERS_OF_TEN[maxDecimals];
+        double scaled = value * scale;
+        if (!(Math.abs(scaled) < MAX_FIXED)) {
+            putAscii(out, Double.toString(value));
+            return;
+        }
+        long units = Math.round(scaled);
+        if ((double) units / scale != value) {
+            // Needs more places than allowed; use the general algorithm
+            putAscii(out, Double.toString(value));
+            return;
+        }
+
+        if (units < 0) {
+            out.put((byte) '-');
+            units = -units;
+        }
+        put(out, units / scale);
+        out.put((byte) '.');
+
+        long fraction = units % scale;
+        int places = maxDecimals;
+        while (places > 1 && fraction % 10 == 0) {
+            fraction /= 10;
+            places--;
+        }
+        // Leading zeros of the fraction, e.g. the 0 in 1.05
+        for (int i = digitCount(fraction); i < places; i++) out.put((byte) '0');
+        put(out, fraction);
+    }
+
+    /**
+     * Appends a decimal with exactly {@code decimals} places, rounded half up like
+     * {@code String.format("%.2f", value)} (e.g. {@code 81.00}), without creating a String.
+     * {@code String.format} rounds the shortest decimal form of the value, so a value
+     * written as an exact tie such as {@code 4541.275} rounds up even though the nearest
+     * double is just below it. Values that close to a tie are formatted with
+     * {@code String.format} itself.
+     *
+     * @param out      destination
+     * @param value    the value to append
+     * @param decimals number of places (0 to {@link #MAX_DECIMALS})
+     */
+    static void appendFixed(StringBuilder out, double value, int decimals) {
+        long scale = POWERS_OF_TEN[decimals];
+        double scaled = Math.abs(value) * scale;
+        // Near a tie, binary rounding can disagree with rounding the decimal form
+        if (!(scaled < MAX_FIXED) || Math.abs(scaled - Math.floor(scaled) - 0.5) <= 4 * Math.ulp(scaled)) {
+            out.append(String.format("%." + decimals + "f", value));
+            return;
+        }
+        long units = Math.round(scaled);
+        if (value < 0) out.append('-');
+        out.append(units / scale);
+        if (decimals == 0) return;
+        out.append('.');
+        long fraction = units % scale;
+        for (int i = digitCount(fraction); i < decimals; i++) out.append('0');
+        out.append(fraction);
+    }
+
+    /**
+     * Writes the characters of a string that is known to be ASCII.
+     *
+     * @param out  destination with enough bytes remaining
+     * @param text ASCII text
+     */
+    static void putAscii(ByteBuffer out, String text) {
+        for (int i = 0; i < text.length(); i++) out.put((byte) text.charAt(i));
+    }
+
+    /**
+     * Returns the number of decimal digits in a non-negative value (1 for zero).
+     *
+     * @param value a non-negative value
+     * @return the digit count
+     */
+    static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,124 @@
+package dms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link NumberText} class.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Integers match {@link Long#toString(long)}, including the extremes</li>
+ *     <li>Short decimals are written in fixed-point form</li>
+ *     <li>Every written decimal parses back to the identical double</li>
+ *     <li>Fixed-place decimals match {@link String#format}, including values written as exact ties</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class NumberTextTest {
+
+    /**
+     * Default constructor for NumberTextTest.
+     */
+    public NumberTextTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Verifies integer output against the JDK.
+     */
+    @Test
+    @DisplayName("Integers match Long.toString")
+    public void testIntegers() {
+        long[] values = {0, 7, 10, 99, 100, -1, -10, 1200, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            assertEquals(Long.toString(value), format(value));
+        }
+    }
+
+    /**
+     * Verifies the fixed-point form of typical weights and costs.
+     */
+    @Test
+    @DisplayName("Short decimals use fixed-point form")
+    public void testDecimals() {
+        assertEquals("45.0", format(45.0, 3));
+        assertEquals("10.5", format(10.5, 3));
+        assertEquals("7.88", format(7.88, 2));
+        assertEquals("1.05", format(1.05, 2));
+        assertEquals("0.1", format(0.1, 3));
+        assertEquals("0.001", format(0.001, 3));
+        assertEquals("-2.25", format(-2.25, 3));
+        assertEquals("0.0", format(0.0, 2));
+        assertEquals(Double.toString(1.0 / 3), format(1.0 / 3, 3));
+        assertEquals(Double.toString(Double.NaN), format(Double.NaN, 3));
+        assertEquals(Double.toString(1e300), format(1e300, 3));
+    }
+
+    /**
+     * Verifies random decimals round-trip exactly through text.
+     */
+    @Test
+    @DisplayName("Written decimals parse back to the same double")
+    public void testRoundTrip() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            double value = random.nextInt(1_500_000) / 1000.0;
+            assertEquals(value, Double.parseDouble(format(value, 3)), 0.0, "Value " + value);
+            double cost = random.nextInt(10_000_000) / 100.0;
+            assertEquals(cost, Double.parseDouble(format(cost, 2)), 0.0, "Cost " + cost);
+            double any = random.nextDouble() * 1000;
+            assertEquals(any, Double.parseDouble(format(any, 3)), 0.0, "Any " + any);
+        }
+    }
+
+    /**
+     * Verifies fixed-place output against {@code String.format}.
+     */
+    @Test
+    @DisplayName("Fixed-place decimals match String.format")
+    public void testAppendFixed() {
+        Random random = new Random(5);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            double value = i < 1_000 ? i / 8.0 : random.nextInt(10_000_000) / 100.0;
+            text.setLength(0);
+            NumberText.appendFixed(text, value, 2);
+            assertEquals(String.format("%.2f", value), text.toString(), "Value " + value);
+        }
+        // Three-place values include every tie, most of them just below it in binary
+        for (int i = -100_000; i < 100_000; i++) {
+            double value = i / 1000.0;
+            text.setLength(0);
+            NumberText.appendFixed(text, value, 2);
+            assertEquals(String.format("%.2f", value), text.toString(), "Value " + value);
+        }
+        text.setLength(0);
+        NumberText.appendFixed(text, 81.0, 2);
+        assertEquals("81.00", text.toString());
+        text.setLength(0);
+        NumberText.appendFixed(text, 4541.275, 2);
+        assertEquals("4541.28", text.toString(), "Ties round up as written, not as stored");
+    }
+
+    private static String format(long value) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        NumberText.put(buffer, value);
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+    }
+
+    private static String format(double value, int decimals) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        NumberText.put(buffer, value, decimals);
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,190 @@
+package dms;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read access to archived orders in the {@code ShippingOrderArchive} table.
+ *
+ * <p>{@link ShippingOrderManager#archiveOrdersBefore(int)} moves old orders out of
+ * {@code ShippingOrder}, so normal loads only read the recent, "hot" orders. Archived
+ * orders are never loaded implicitly; callers that need history ask for it here. Every
+ * query is a keyset seek on the primary key or on the customer index, so a page costs
+ * the same however large the archive grows.</p>
+ *
+ * <p>Each shard archives its own orders, so the archive is sharded like the live table.
+ * A single order is read from the shard its ID maps to and a customer's orders from the
+ * customer's shard; paging through all orders and counting them query every shard
+ * through {@link DBConnectionManager#scatter} and merge the results by order ID.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class OrderArchive {
+
+    // Latency histograms for each archive query
+    private static final LatencyHistogram ORDER_LATENCY = MetricsRegistry.getInstance().histogram("archive.get_order");
+    private static final LatencyHistogram PAGE_LATENCY = MetricsRegistry.getInstance().histogram("archive.get_page");
+
+    /** Archived order columns with joined names, in the shape {@link DatabaseHelper#readOrder} reads */
+    private static final String ARCHIVE_SELECT = """
+        SELECT a.order_id, a.customer_id, a.shipper_id,
+               a.weight_in_pounds, a.distance_in_miles, a.shipping_cost, a.row_version,
+               c.name AS customer_name, s.name AS shipper_name
+        FROM ShippingOrderArchive a
+        JOIN Customer c ON a.customer_id = c.customer_id
+        JOIN Shipper s ON a.shipper_id = s.shipper_id
+        """;
+
+    /**
+     * Constructs an OrderArchive that reads through the shared {@link DBConnectionManager},
+     * leasing a connection to the right shard for each query.
+     */
+    public OrderArchive() {
+        // Connections are leased per query
+    }
+
+    /**
+     * Retrieves a single archived order by ID.
+     *
+     * @param orderId the order ID
+     * @return the archived order, or null if the order is not archived
+     * @throws SQLException if a database access error occurs
+     */
+    public ShippingOrder getOrder(int orderId) throws SQLException {
+        long start = System.nanoTime();
+        try (var _ = leaseShard(db().getShardRouter().shardForOrder(orderId));
+             PreparedStatement stmt = db().requireConnection().prepareStatement(ARCHIVE_SELECT + "WHERE a.order_id = ?")) {
+            stmt.setInt(1, orderId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? DatabaseHelper.readOrder(rs) : null;
+            }
+        } finally {
+            ORDER_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Retrieves one page of archived orders with IDs greater than {@code afterId}.
+     *
+     * @param afterId the last ID already seen (0 for the first page)
+     * @param limit   maximum number of orders to return
+     * @return up to {@code limit} orders, in ascending ID order
+     * @throws SQLException if a database access error occurs
+     */
+    public List<ShippingOrder> getOrdersAfter(int afterId, int limit) throws SQLException {
+        String sql = ARCHIVE_SELECT + "WHERE a.order_id > ? ORDER BY a.order_id LIMIT ?";
+        List<ShippingOrder> merged = new ArrayList<>();
+        for (List<ShippingOrder> part : db().scatter((shard, conn) -> getPage(conn, sql, null, afterId, limit))) {
+            merged.addAll(part);
+        }
+        merged.sort(Comparator.comparingInt(ShippingOrder::getOrderId));
+        return merged.subList(0, Math.min(limit, merged.size()));
+    }
+
+    /**
+     * Retrieves one page of a customer's archived orders with IDs greater than {@code afterId}.
+     *
+     * @param customerName the customer's exact name
+     * @param afterId      the last ID already seen (0 for the first page)
+     * @param limit        maximum number of orders to return
+     * @return up to {@code limit} orders, in ascending ID order
+     * @throws SQLException if a database access error occurs
+     */
+    public List<ShippingOrder> getOrdersForCustomer(String customerName, int afterId, int limit) throws SQLException {
+        ShardRouter router = db().getShardRouter();
+        if (!router.isSharded()) {
+            try (var _ = db().leaseForRead()) {
+                return getPage(db().requireConnection(),
+                        ARCHIVE_SELECT + "WHERE c.name = ? AND a.order_id > ? ORDER BY a.order_id LIMIT ?",
+                        customerName, afterId, limit);
+            }
+        }
+
+        Integer customerId = findCustomerId(customerName);
+        if (customerId == null) return new ArrayList<>();
+        try (var _ = leaseShard(router.shardForCustomer(customerId))) {
+            return getPage(db().requireConnection(),
+                    ARCHIVE_SELECT + "WHERE a.customer_id = ? AND a.order_id > ? ORDER BY a.order_id LIMIT ?",
+                    customerId, afterId, limit);
+        }
+    }
+
+    /**
+     * Counts the archived orders.
+     *
+     * @return the number of orders in the archive
+     * @throws SQLException if a database access error occurs
+     */
+    public long countOrders() throws SQLException {
+        long total = 0;
+        for (long count : db().scatter((shard, conn) -> {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM ShippingOrderArchive");
+                 ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        })) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Looks up a customer's ID on the primary, which owns the reference data.
+     *
+     * @return the ID, or null if no customer has that name
+     */
+    private Integer findCustomerId(String customerName) throws SQLException {
+        try (var _ = leaseShard(0);
+             PreparedStatement stmt = db().requireConnection().prepareStatement(
+                     "SELECT customer_id FROM Customer WHERE name = ?")) {
+            stmt.setString(1, customerName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Runs a page query whose parameters are an optional customer (name or ID), the
+     * last ID seen, and the page size.
+     */
+    private static List<ShippingOrder> getPage(Connection conn, String sql, Object customer, int afterId, int limit)
+            throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<ShippingOrder> list = new ArrayList<>(limit);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int param = 1;
+                if (customer != null) stmt.setObject(param++, customer);
+                stmt.setInt(param++, afterId);
+                stmt.setInt(param, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        list.add(DatabaseHelper.readOrder(rs));
+                    }
+                }
+            }
+            return list;
+        } finally {
+            PAGE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Leases a connection to a shard; without shards, a read connection that may be a replica.
+     */
+    private static DBConnectionManager.Lease leaseShard(int shard) throws SQLException {
+        DBConnectionManager db = db();
+        return db.getShardRouter().isSharded() ? db.leaseShard(shard) : db.leaseForRead();
+    }
+
+    private static DBConnectionManager db() {
+        return DBConnectionManager.getInstance();
+    }
+}
@@ -0,0 +1,159 @@
+package dms;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background job that keeps the {@code ShippingOrder} table down to its most recent
+ * orders by moving older ones to the archive.
+ *
+ * <p>Order IDs are assigned in insertion order, so "older than the newest
+ * {@code keepRecent} orders" is an age watermark that needs no timestamp column. Each run
+ * finds the ID of the {@code keepRecent}-th newest order and calls
+ * {@link ShippingOrderManager#archiveOrdersBefore(int)}, which moves everything below it
+ * in small committed batches. When orders are sharded, each shard's own watermark is
+ * found for its share of {@code keepRecent} and the lowest is used, since shards hand
+ * out IDs independently. Runs happen on one daemon thread, off any request or UI
+ * thread, with a fixed delay between them.</p>
+ *
+ * <p>Entry points start it with {@link #startIfConfigured(ShippingOrderManager)}, which
+ * reads {@code -Ddms.archive.keepRecent} (no archiving when unset) and
+ * {@code -Ddms.archive.intervalMillis} (default one hour).</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class OrderArchiver implements AutoCloseable {
+
+    /** System property with the number of recent orders to keep in the hot table */
+    public static final String KEEP_RECENT_PROPERTY = "dms.archive.keepRecent";
+
+    /** Default time between runs */
+    private static final long DEFAULT_INTERVAL_MILLIS = 60 * 60 * 1000;
+
+    private static final LongAdder FAILED_RUNS = MetricsRegistry.getInstance().counter("archive.failures");
+
+    /** Manager that performs the moves and keeps its in-memory orders in step */
+    private final ShippingOrderManager manager;
+
+    /** Number of newest orders left in {@code ShippingOrder} */
+    private final int keepRecent;
+
+    /** Time between the end of one run and the start of the next */
+    private final long intervalMillis;
+
+    /** Single daemon thread that runs every archive pass */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates an archiver. Call {@link #start()} to begin.
+     *
+     * @param manager        the manager used to move orders
+     * @param keepRecent     number of newest orders to keep in {@code ShippingOrder}
+     * @param intervalMillis time between runs
+     */
+    public OrderArchiver(ShippingOrderManager manager, int keepRecent, long intervalMillis) {
+        if (keepRecent < 1) throw new IllegalArgumentException("keepRecent must be positive: " + keepRecent);
+        this.manager = manager;
+        this.keepRecent = keepRecent;
+        this.intervalMillis = Math.max(1, intervalMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "order-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates and starts an archiver if {@value #KEEP_RECENT_PROPERTY} is set.
+     *
+     * @param manager the manager used to move orders
+     * @return the running archiver, or null if archiving is not configured
+     */
+    public static OrderArchiver startIfConfigured(ShippingOrderManager manager) {
+        Integer keep = Integer.getInteger(KEEP_RECENT_PROPERTY);
+        if (keep == null) return null;
+        OrderArchiver archiver = new OrderArchiver(manager, keep,
+                Long.getLong("dms.archive.intervalMillis", DEFAULT_INTERVAL_MILLIS));
+        archiver.start();
+        return archiver;
+    }
+
+    /**
+     * Starts archiving, with the first run right away.
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Archives everything older than the newest {@code keepRecent} orders, on the
+     * calling thread.
+     *
+     * @return the number of orders moved
+     * @throws OrderOperationException if the watermark cannot be read or the move fails
+     */
+    public long runOnce() throws OrderOperationException {
+        DBConnectionManager db = DBConnectionManager.getInstance();
+        if (db.getConnection() == null) {
+            throw new OrderOperationException(OrderOperationException.Reason.NO_CONNECTION,
+                    "Archive failed: DB connection is closed or null.");
+        }
+        int watermark = 0;
+        try {
+            // Each shard keeps its share; the lowest watermark keeps at least that many everywhere
+            int shards = db.getShardRouter().getShardCount();
+            int keepPerShard = (keepRecent + shards - 1) / shards;
+            for (int shardWatermark : db.scatter((shard, conn) -> findWatermark(conn, keepPerShard))) {
+                if (shardWatermark > 0 && (watermark == 0 || shardWatermark < watermark)) watermark = shardWatermark;
+            }
+        } catch (SQLException e) {
+            throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                    "Error finding the archive watermark: " + e.getMessage(), e);
+        }
+        return watermark > 0 ? manager.archiveOrdersBefore(watermark) : 0;
+    }
+
+    /**
+     * Stops archiving. A batch already running finishes its transaction or rolls back.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Returns the ID of the {@code keepRecent}-th newest order; every order below it is
+     * old enough to archive.
+     *
+     * @param conn       the connection to query
+     * @param keepRecent number of newest orders to keep
+     * @return the watermark ID, or 0 if there are no more than {@code keepRecent} orders
+     * @throws SQLException if the query fails
+     */
+    static int findWatermark(Connection conn, int keepRecent) throws SQLException {
+        String sql = "SELECT order_id FROM ShippingOrder ORDER BY order_id DESC LIMIT 1 OFFSET ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, keepRecent - 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private void runSafely() {
+        try {
+            long moved = runOnce();
+            if (moved > 0) System.out.println("Archived " + moved + " orders");
+        } catch (OrderOperationException | RuntimeException e) {
+            FAILED_RUNS.increment();
+            System.err.println("Archiving failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package dms;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams every order from the database to a file, either in the pipe-delimited
+ * manifest format read by {@link OrderImporter} ({@code ID|Customer|Shipper|Weight|Distance})
+ * or as CSV with a header row and the stored shipping cost, or in the binary
+ * {@link ColumnarOrderFile} format.
+ *
+ * <p>Rows are read through a forward-only, read-only cursor and encoded straight into a
+ * large direct {@link ByteBuffer} that is written to a {@link FileChannel} whenever it
+ * fills. Numbers are formatted by {@link NumberText} without creating Strings, so the
+ * per-row work is little more than copying bytes; exporting any number of orders uses
+ * constant memory and runs as fast as the database and disk can deliver.</p>
+ *
+ * <p>When orders are sharded, the exporter is given one connection per shard. It opens a
+ * cursor on each, already in ID order, and merges them as it writes, so the file holds
+ * every shard's orders in one ID order.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class OrderExporter {
+
+    /** Rows per round trip for drivers that do not support row-by-row streaming */
+    private static final int FETCH_SIZE = 10_000;
+
+    /** Size of the output buffer in bytes */
+    private static final int WRITE_BUFFER_SIZE = 4 << 20;
+
+    // Export metrics
+    private static final LatencyHistogram EXPORT_LATENCY = MetricsRegistry.getInstance().histogram("order.export");
+    private static final LongAdder EXPORTED_ROWS = MetricsRegistry.getInstance().counter("export.rows");
+
+    /**
+     * Output file formats.
+     */
+    public enum Format {
+        /** {@code ID|Customer|Shipper|Weight|Distance}, readable by {@link OrderImporter} */
+        PIPE,
+        /** RFC 4180 CSV with a header row and the shipping cost */
+        CSV,
+        /** Binary columnar file read by {@link ColumnarOrderFile.Reader} */
+        COLUMNAR;
+
+        /**
+         * Picks a format from a file name: CSV for {@code .csv}, columnar for
+         * {@value ColumnarOrderFile#EXTENSION}, otherwise pipe-delimited.
+         *
+         * @param file the output file
+         * @return the matching format
+         */
+        public static Format forFile(Path file) {
+            if (ColumnarOrderFile.isColumnarFile(file)) return COLUMNAR;
+            return file.getFileName().toString().toLowerCase().endsWith(".csv") ? CSV : PIPE;
+        }
+    }
+
+    /** Connections the cursors are opened on, one per shard */
+    private final List<Connection> conns;
+
+    /**
+     * Creates an exporter reading from the given connection.
+     *
+     * @param conn an open database connection
+     */
+    public OrderExporter(Connection conn) {
+        this(List.of(conn));
+    }
+
+    /**
+     * Creates an exporter that merges the orders of several shards.
+     *
+     * @param conns an open connection to each shard
+     */
+    public OrderExporter(List<Connection> conns) {
+        if (conns.isEmpty()) throw new IllegalArgumentException("No connections to export from");
+        this.conns = List.copyOf(conns);
+    }
+
+    /**
+     * Writes all orders, in ID order, to a file in the format implied by its name.
+     *
+     * @param file destination file, replaced if it exists
+     * @return the number of orders written
+     * @throws IOException  if the file cannot be written
+     * @throws SQLException if the query fails
+     */
+    public long exportTo(Path file) throws IOException, SQLException {
+        return exportTo(file, Format.forFile(file));
+    }
+
+    /**
+     * Writes all orders, in ID order, to a file, merging the shards' orders when there
+     * is more than one connection.
+     *
+     * @param file   destination file, replaced if it exists
+     * @param format the output format
+     * @return the number of orders written
+     * @throws IOException  if the file cannot be written
+     * @throws SQLException if the query fails
+     */
+    public long exportTo(Path file, Format format) throws IOException, SQLException {
+        String sql = """
+            SELECT so.order_id, c.name, s.name, so.weight_in_pounds, so.distance_in_miles, so.shipping_cost,
+                   so.customer_id, so.shipper_id
+            FROM ShippingOrder so
+            JOIN Customer c ON so.customer_id = c.customer_id
+            JOIN Shipper s ON so.shipper_id = s.shipper_id
+            ORDER BY so.order_id
+        """;
+
+        long start = System.nanoTime();
+        long rows = 0;
+        List<Statement> statements = new ArrayList<>(conns.size());
+        try {
+            List<ResultSet> cursors = new ArrayList<>(conns.size());
+            for (Connection conn : conns) {
+                Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statements.add(stmt);
+                enableStreaming(stmt);
+                cursors.add(stmt.executeQuery(sql));
+            }
+            MergedRows merged = new MergedRows(cursors);
+            if (format == Format.COLUMNAR) {
+                try (ColumnarOrderFile.Writer out = new ColumnarOrderFile.Writer(file, true)) {
+                    for (ResultSet rs; (rs = merged.next()) != null; ) {
+                        out.write(rs.getInt(1), rs.getInt(7), rs.getInt(8), rs.getString(2), rs.getString(3),
+                                rs.getDouble(4), rs.getInt(5), rs.getDouble(6));
+                        rows++;
+                    }
+                }
+            } else {
+                try (RowWriter out = new RowWriter(file, format)) {
+                    for (ResultSet rs; (rs = merged.next()) != null; ) {
+                        out.write(rs.getInt(1), rs.getString(2), rs.getString(3),
+                                rs.getDouble(4), rs.getInt(5), rs.getDouble(6));
+                        rows++;
+                    }
+                }
+            }
+            return rows;
+        } finally {
+            // Closing a statement closes its cursor
+            for (Statement stmt : statements) {
+                try {
+                    stmt.close();
+                } catch (SQLException e) {
+                    System.err.println("Error closing export cursor: " + e.getMessage());
+                }
+            }
+            EXPORT_LATENCY.recordSince(start);
+            EXPORTED_ROWS.add(rows);
+        }
+    }
+
+    /**
+     * Merges cursors that are each in order ID order into one sequence in order ID order.
+     * With a single cursor, rows are passed straight through. Package-private for tests.
+     */
+    static final class MergedRows {
+
+        /** Cursors with a current row, ordered by that row's order ID */
+        private final PriorityQueue<Head> heads = new PriorityQueue<>();
+
+        /** The single cursor when there is nothing to merge, otherwise null */
+        private final ResultSet only;
+
+        /** Cursor whose current row was returned last and must be advanced next, or null */
+        private ResultSet returned;
+
+        /** A cursor and the order ID of its current row. */
+        private record Head(int orderId, ResultSet rs) implements Comparable<Head> {
+            @Override
+            public int compareTo(Head other) {
+                return Integer.compare(orderId, other.orderId);
+            }
+        }
+
+        MergedRows(List<ResultSet> cursors) throws SQLException {
+            if (cursors.size() == 1) {
+                only = cursors.get(0);
+                return;
+            }
+            only = null;
+            for (ResultSet rs : cursors) {
+                if (rs.next()) heads.add(new Head(rs.getInt(1), rs));
+            }
+        }
+
+        /**
+         * Returns the cursor positioned on the next row, or null when every cursor is done.
+         */
+        ResultSet next() throws SQLException {
+            if (only != null) return only.next() ? only : null;
+            if (returned != null && returned.next()) heads.add(new Head(returned.getInt(1), returned));
+            Head head = heads.poll();
+            returned = head != null ? head.rs() : null;
+            return returned;
+        }
+    }
+
+    /**
+     * Asks the driver to stream rows instead of buffering the whole result.
+     * MySQL Connector/J streams when the fetch size is {@link Integer#MIN_VALUE};
+     * other drivers reject that value and get a large positive fetch size instead.
+     */
+    static void enableStreaming(Statement stmt) throws SQLException {
+        try {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+        } catch (SQLException e) {
+            stmt.setFetchSize(FETCH_SIZE);
+        }
+    }
+
+    /**
+     * Encodes order rows into a direct buffer and writes it to a file channel when full.
+     * Package-private so tests and benchmarks can write rows without a database.
+     */
+    static final class RowWriter implements Closeable {
+
+        /** Room kept free for the numeric fields of one row */
+        private static final int NUMBERS_RESERVE = 128;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private final Format format;
+
+        /**
+         * Creates or truncates the file and writes the CSV header if needed.
+         */
+        RowWriter(Path file, Format format) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.format = format;
+            if (format == Format.CSV) {
+                NumberText.putAscii(buffer, "order_id,customer_name,shipper_name,weight_in_pounds,distance_in_miles,shipping_cost\r\n");
+            }
+        }
+
+        /**
+         * Appends one order.
+         */
+        void write(int orderId, String customerName, String shipperName, double weight, int distance, double cost)
+                throws IOException {
+            char separator = format == Format.CSV ? ',' : '|';
+            ensureRoom(NUMBERS_RESERVE);
+            NumberText.put(buffer, orderId);
+            buffer.put((byte) separator);
+            putText(customerName);
+            ensureRoom(1);
+            buffer.put((byte) separator);
+            putText(shipperName);
+
+            ensureRoom(NUMBERS_RESERVE);
+            buffer.put((byte) separator);
+            NumberText.put(buffer, weight, 3);
+            buffer.put((byte) separator);
+            NumberText.put(buffer, distance);
+            if (format == Format.CSV) {
+                buffer.put((byte) ',');
+                NumberText.put(buffer, cost, 2);
+                buffer.put((byte) '\r');
+            }
+            buffer.put((byte) '\n');
+        }
+
+        /**
+         * Writes a name, quoting it for CSV when needed. ASCII is copied byte by byte;
+         * other text is encoded as UTF-8.
+         */
+        private void putText(String text) throws IOException {
+            if (text == null) text = "";
+            boolean quote = format == Format.CSV && needsQuotes(text);
+            if (quote) text = "\"" + text.replace("\"", "\"\"") + "\"";
+
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c >= 0x80) {
+                    putBytes(text.substring(i).getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                if (!buffer.hasRemaining()) flush();
+                buffer.put((byte) c);
+            }
+        }
+
+        private void putBytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) flush();
+                int n = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, n);
+                offset += n;
+            }
+        }
+
+        private static boolean needsQuotes(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+            }
+            return false;
+        }
+
+        private void ensureRoom(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        /**
+         * Writes any buffered bytes and closes the file.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
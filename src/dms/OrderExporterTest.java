@@ -0,0 +1,162 @@
+package dms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the file formats written by {@link OrderExporter}.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Pipe output is read back by {@link ManifestReader} with identical values</li>
+ *     <li>CSV output has a header, CRLF line endings, and quoted names where needed</li>
+ *     <li>Rows larger than the write buffer are written completely</li>
+ *     <li>Cursors from several shards are merged into one ID order</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class OrderExporterTest {
+
+    private Path file;
+
+    /**
+     * Default constructor for OrderExporterTest.
+     */
+    public OrderExporterTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Creates a temporary output file before each test.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("export", ".txt");
+    }
+
+    /**
+     * Deletes the temporary output file after each test.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Verifies exported pipe rows import with the same values.
+     *
+     * @throws IOException if writing or reading fails
+     */
+    @Test
+    @DisplayName("Pipe export round-trips through the manifest reader")
+    public void testPipeRoundTrip() throws IOException {
+        int rows = 20_000;
+        try (OrderExporter.RowWriter out = new OrderExporter.RowWriter(file, OrderExporter.Format.PIPE)) {
+            for (int i = 1; i <= rows; i++) {
+                out.write(i, "Customer " + (char) ('A' + i % 26), "Zoë Freight", 0.1 + (i % 1500) / 10.0, i % 3000 + 1, 0);
+            }
+        }
+
+        try (ManifestReader reader = new ManifestReader(file)) {
+            for (int i = 1; i <= rows; i++) {
+                assertTrue(reader.next());
+                assertTrue(reader.isWellFormed(), "Row " + i);
+                assertEquals("Customer " + (char) ('A' + i % 26), reader.getCustomerName());
+                assertEquals("Zoë Freight", reader.getShipperName());
+                assertEquals(0.1 + (i % 1500) / 10.0, reader.getWeight(), 0.0);
+                assertEquals(i % 3000 + 1, reader.getDistance());
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * Verifies CSV header, line endings, quoting, and the cost column.
+     *
+     * @throws IOException if writing or reading fails
+     */
+    @Test
+    @DisplayName("CSV export quotes names and includes the cost")
+    public void testCsv() throws IOException {
+        try (OrderExporter.RowWriter out = new OrderExporter.RowWriter(file, OrderExporter.Format.CSV)) {
+            out.write(1, "John Smith", "UPS", 45.0, 1200, 81.0);
+            out.write(2, "Smith, \"Jr\"", "FedEx", 10.5, 300, 4.73);
+        }
+
+        String text = Files.readString(file, StandardCharsets.UTF_8);
+        assertEquals(List.of(
+                "order_id,customer_name,shipper_name,weight_in_pounds,distance_in_miles,shipping_cost",
+                "1,John Smith,UPS,45.0,1200,81.0",
+                "2,\"Smith, \"\"Jr\"\"\",FedEx,10.5,300,4.73"), List.of(text.split("\r\n")));
+    }
+
+    /**
+     * Verifies a name longer than the write buffer is written in full.
+     *
+     * @throws IOException if writing or reading fails
+     */
+    @Test
+    @DisplayName("Names longer than the buffer are written completely")
+    public void testLongName() throws IOException {
+        String longName = "N".repeat(5 << 20);
+        try (OrderExporter.RowWriter out = new OrderExporter.RowWriter(file, OrderExporter.Format.PIPE)) {
+            out.write(1, longName, "UPS", 1.5, 10, 0);
+            out.write(2, "Short", "UPS", 2.5, 20, 0);
+        }
+
+        try (ManifestReader reader = new ManifestReader(file)) {
+            assertTrue(reader.next());
+            assertEquals(longName.length(), reader.getCustomerName().length());
+            assertTrue(reader.next());
+            assertEquals("Short", reader.getCustomerName());
+            assertEquals(2.5, reader.getWeight(), 0.0);
+        }
+    }
+
+    /**
+     * Verifies shard cursors, including an empty one, are merged by order ID.
+     *
+     * @throws SQLException if a cursor fails
+     */
+    @Test
+    @DisplayName("Shard cursors are merged in order ID order")
+    public void testMergeShards() throws SQLException {
+        OrderExporter.MergedRows merged = new OrderExporter.MergedRows(List.of(
+                cursor(2, 5, 8, 11), cursor(), cursor(1, 3, 4, 12), cursor(6, 7)));
+        List<Integer> ids = new ArrayList<>();
+        for (ResultSet rs; (rs = merged.next()) != null; ) ids.add(rs.getInt(1));
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 11, 12), ids);
+        assertNull(merged.next());
+    }
+
+    /** Returns a cursor over rows whose first column holds the given order IDs. */
+    private static ResultSet cursor(int... orderIds) {
+        int[] row = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> ++row[0] < orderIds.length;
+                    case "getInt" -> orderIds[row[0]];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
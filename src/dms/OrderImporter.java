@@ -0,0 +1,510 @@
+package dms;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams an order manifest into the database in batches.
+ *
+ * <p>Lines are read with {@link ManifestReader} into fixed-size column arrays and each
+ * full batch is stored with one {@link ShippingOrderManager#insertOrders} call, so a
+ * manifest of any size is imported with constant memory and one transaction per batch.
+ * Malformed lines and rows that fail {@link OrderValidator} are counted as rejected and
+ * passed to an optional {@link RejectHandler}; they never stop the import.</p>
+ *
+ * <p>With an {@link ImportDeduplicator} set, a manifest whose exact contents were imported
+ * before is skipped, and rows already imported (the same manifest order ID and values,
+ * from another manifest or the same line of this one) are counted as duplicates instead
+ * of being stored again.</p>
+ *
+ * <p>With checkpointing on, each batch also writes an {@link ImportCheckpoint} (how far
+ * into the file it got and how many orders are committed) in the same transaction as its
+ * rows, one per shard when orders are sharded. If the import stops part way, because the
+ * application or the database failed, importing the same file again seeks straight past
+ * the committed lines instead of starting from line one, and leaves out rows that a
+ * shard committed before the batch failed on another.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class OrderImporter {
+
+    /** Rows stored per transaction unless configured otherwise */
+    public static final int DEFAULT_BATCH_SIZE = 5_000;
+
+    // Import throughput counters shared by every import path
+    private static final LongAdder IMPORTED_ROWS = MetricsRegistry.getInstance().counter("import.rows");
+    private static final LongAdder REJECTED_ROWS = MetricsRegistry.getInstance().counter("import.rejected");
+
+    /** Rows per second achieved by the most recent import */
+    private static volatile double lastImportRate;
+
+    static {
+        MetricsRegistry.getInstance().gauge("import.last_rows_per_second", () -> lastImportRate);
+    }
+
+    /**
+     * Receives each rejected line.
+     */
+    @FunctionalInterface
+    public interface RejectHandler {
+        /**
+         * Called once per rejected line.
+         *
+         * @param lineNumber 1-based line number in the manifest
+         * @param reason     why the line was rejected
+         * @param line       the raw line text
+         */
+        void rejected(long lineNumber, String reason, String line);
+    }
+
+    /** Manager that stores each batch */
+    private final ShippingOrderManager manager;
+
+    /** Rows per batch */
+    private final int batchSize;
+
+    /** Handler for rejected lines, or null */
+    private RejectHandler rejectHandler;
+
+    /** Skips files and rows imported before, or null to store everything */
+    private ImportDeduplicator deduplicator;
+
+    /** Whether each batch records a checkpoint and imports resume from one */
+    private boolean checkpointing;
+
+    /**
+     * Where a batch ends in the file, for its checkpoints.
+     *
+     * @param fingerprint the file's fingerprint
+     * @param file        the file
+     * @param byteOffset  offset just after the batch's last line
+     * @param lineNumber  number of that line
+     * @param shards      what each shard has committed so far
+     */
+    private record Progress(String fingerprint, Path file, long byteOffset, long lineNumber, ShardProgress shards) {}
+
+    /**
+     * What each shard has committed from one file, by shard index: the orders, including
+     * those of earlier runs, and the last line its checkpoint covers.
+     *
+     * @param rows  orders committed to the shard, updated as batches are stored
+     * @param lines line number of the shard's checkpoint, 0 if it has none
+     */
+    private record ShardProgress(long[] rows, long[] lines) {
+
+        static ShardProgress of(ImportCheckpoint[] checkpoints) {
+            long[] rows = new long[checkpoints.length];
+            long[] lines = new long[checkpoints.length];
+            for (int shard = 0; shard < checkpoints.length; shard++) {
+                if (checkpoints[shard] == null) continue;
+                rows[shard] = checkpoints[shard].getRowCount();
+                lines[shard] = checkpoints[shard].getLineNumber();
+            }
+            return new ShardProgress(rows, lines);
+        }
+
+        long totalRows() {
+            long total = 0;
+            for (long r : rows) total += r;
+            return total;
+        }
+    }
+
+    /**
+     * Creates an importer using {@link #DEFAULT_BATCH_SIZE}.
+     *
+     * @param manager the manager that stores orders
+     */
+    public OrderImporter(ShippingOrderManager manager) {
+        this(manager, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates an importer with a custom batch size.
+     *
+     * @param manager   the manager that stores orders
+     * @param batchSize rows per transaction
+     */
+    public OrderImporter(ShippingOrderManager manager, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        this.manager = manager;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets the handler told about each rejected line.
+     *
+     * @param rejectHandler the handler, or null for none
+     */
+    public void setRejectHandler(RejectHandler rejectHandler) {
+        this.rejectHandler = rejectHandler;
+    }
+
+    /**
+     * Sets the deduplicator that skips files and rows imported before.
+     *
+     * @param deduplicator the deduplicator, or null to store every row
+     */
+    public void setDeduplicator(ImportDeduplicator deduplicator) {
+        this.deduplicator = deduplicator;
+    }
+
+    /**
+     * Sets whether each batch records an {@link ImportCheckpoint}, so an interrupted
+     * import of the same file resumes where it stopped.
+     *
+     * @param checkpointing true to write and resume from checkpoints
+     */
+    public void setCheckpointing(boolean checkpointing) {
+        this.checkpointing = checkpointing;
+    }
+
+    /**
+     * Imports every line of a manifest, or with checkpointing on, every line after the
+     * last checkpoint of an earlier, interrupted import of the same file.
+     * Batches committed before a failure stay committed.
+     *
+     * @param file the manifest to read
+     * @return counts and timing for the import
+     * @throws IOException             if the file cannot be read
+     * @throws OrderOperationException if a batch cannot be stored
+     */
+    public Result importFile(Path file) throws IOException, OrderOperationException {
+        Result result = new Result();
+        long start = System.nanoTime();
+
+        String fingerprint = deduplicator != null || checkpointing ? ImportDeduplicator.fingerprint(file) : null;
+        if (deduplicator != null && checkFileImported(fingerprint)) {
+            result.skippedFile = true;
+            result.elapsedNanos = System.nanoTime() - start;
+            return result;
+        }
+        // The primary commits each batch last, so its checkpoint is where every shard has got to
+        ImportCheckpoint[] checkpoints = checkpointing ? findCheckpoints(fingerprint) : null;
+        ShardProgress shards = checkpoints != null ? ShardProgress.of(checkpoints) : null;
+        ImportCheckpoint checkpoint = checkpoints != null ? checkpoints[0] : null;
+        long committedBefore = shards != null ? shards.totalRows() : 0;
+        if (checkpoint != null) result.resumedAtLine = checkpoint.getLineNumber();
+
+        // Manifest order IDs only matter for recognizing rows imported before
+        String[] orderIds = deduplicator != null ? new String[batchSize] : null;
+        String[] customers = new String[batchSize];
+        String[] shippers = new String[batchSize];
+        double[] weights = new double[batchSize];
+        int[] distances = new int[batchSize];
+        long[] lineNumbers = new long[batchSize];
+        int count = 0;
+
+        try (ManifestReader reader = checkpoint == null ? new ManifestReader(file)
+                : new ManifestReader(file, checkpoint.getByteOffset(), checkpoint.getLineNumber())) {
+            while (reader.next()) {
+                result.linesRead++;
+                if (!reader.isWellFormed()) {
+                    result.malformed++;
+                    reject(reader.getLineNumber(), "malformed line", reader.getLineText());
+                    continue;
+                }
+                if (orderIds != null) orderIds[count] = reader.getOrderId();
+                customers[count] = reader.getCustomerName();
+                shippers[count] = reader.getShipperName();
+                weights[count] = reader.getWeight();
+                distances[count] = reader.getDistance();
+                lineNumbers[count] = reader.getLineNumber();
+                count++;
+
+                if (count == batchSize) {
+                    storeBatch(result, fingerprint, orderIds, customers, shippers, weights, distances, lineNumbers, count,
+                            progress(fingerprint, file, reader, shards));
+                    count = 0;
+                }
+            }
+            if (count > 0) {
+                storeBatch(result, fingerprint, orderIds, customers, shippers, weights, distances, lineNumbers, count,
+                        progress(fingerprint, file, reader, shards));
+            }
+            if (fingerprint != null) finishFile(fingerprint, file, committedBefore + result.accepted);
+        } finally {
+            result.elapsedNanos = System.nanoTime() - start;
+            IMPORTED_ROWS.add(result.accepted);
+            REJECTED_ROWS.add(result.getRejected());
+            lastImportRate = result.getRowsPerSecond();
+        }
+        return result;
+    }
+
+    private Progress progress(String fingerprint, Path file, ManifestReader reader, ShardProgress shards) {
+        if (!checkpointing) return null;
+        return new Progress(fingerprint, file, reader.getNextOffset(), reader.getLineNumber(), shards);
+    }
+
+    /**
+     * Stores a batch, leaving out rows imported before. The records of the stored rows
+     * and the checkpoint (when {@code progress} is not null) commit with the batch.
+     */
+    private void storeBatch(Result result, String fingerprint, String[] orderIds, String[] customers,
+                            String[] shippers, double[] weights, int[] distances, long[] lineNumbers,
+                            int count, Progress progress)
+            throws OrderOperationException {
+        if (deduplicator == null) {
+            BatchHook hook = progress == null ? null : new BatchHook(progress, null, null, null, lineNumbers, count);
+            insertBatch(result, customers, shippers, weights, distances, lineNumbers, count, hook);
+            return;
+        }
+
+        long[] hashes = new long[count];
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            hashes[i] = ImportDeduplicator.rowHash(orderIds[i], customers[i], shippers[i], weights[i], distances[i]);
+            keys[i] = ImportDeduplicator.rowKey(orderIds[i], customers[i], shippers[i], weights[i], distances[i]);
+        }
+        try (ImportDeduplicator.Claim claim = deduplicator.claim(fingerprint, hashes, keys, lineNumbers, count)) {
+            // Move the new rows to the front, keeping their order
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (claim.isDuplicate(i)) {
+                    result.duplicates++;
+                    continue;
+                }
+                customers[kept] = customers[i];
+                shippers[kept] = shippers[i];
+                weights[kept] = weights[i];
+                distances[kept] = distances[i];
+                lineNumbers[kept] = lineNumbers[i];
+                hashes[kept] = hashes[i];
+                keys[kept] = keys[i];
+                kept++;
+            }
+            // A batch of only duplicates still moves the checkpoint past its lines
+            if (kept == 0 && progress == null) return;
+            insertBatch(result, customers, shippers, weights, distances, lineNumbers, kept,
+                    new BatchHook(progress, claim, hashes, keys, lineNumbers, kept));
+        } catch (SQLException e) {
+            throw databaseFailure("Import failed checking for duplicates: ", e);
+        }
+    }
+
+    private void insertBatch(Result result, String[] customers, String[] shippers, double[] weights,
+                             int[] distances, long[] lineNumbers, int count,
+                             BatchHook hook) throws OrderOperationException {
+        ShippingOrder[] stored = manager.insertOrders(customers, shippers, weights, distances, count, hook);
+        for (int i = 0; i < count; i++) {
+            if (stored[i] != null) {
+                result.accepted++;
+            } else if (hook != null && hook.committedBefore[i]) {
+                // Stored by the interrupted run this one resumes
+                result.duplicates++;
+            } else {
+                result.invalid++;
+                int failures = OrderValidator.checkOrder(customers[i], shippers[i], weights[i], distances[i]);
+                reject(lineNumbers[i], "invalid " + OrderValidator.describe(failures), null);
+            }
+        }
+    }
+
+    /**
+     * Commits a batch's bookkeeping with its rows: each shard's checkpoint in that shard's
+     * transaction, and the stored rows' records in the primary's. Rows whose shard
+     * checkpoint already covers their line were committed by an interrupted run and are
+     * left out.
+     */
+    private static final class BatchHook implements ShippingOrderManager.BatchCommitHook {
+        private final Progress progress;
+        private final ImportDeduplicator.Claim claim;
+        private final long[] hashes;
+        private final String[] keys;
+        private final long[] lineNumbers;
+        private final int count;
+
+        /** Rows left out because their shard already had them */
+        private final boolean[] committedBefore;
+
+        BatchHook(Progress progress, ImportDeduplicator.Claim claim, long[] hashes, String[] keys,
+                  long[] lineNumbers, int count) {
+            this.progress = progress;
+            this.claim = claim;
+            this.hashes = hashes;
+            this.keys = keys;
+            this.lineNumbers = lineNumbers;
+            this.count = count;
+            this.committedBefore = new boolean[count];
+        }
+
+        @Override
+        public void beforeCommit(Connection conn, int shard, ShippingOrder[] stored) throws SQLException {
+            if (claim != null && shard == 0) claim.recordStored(conn, hashes, keys, lineNumbers, stored, count);
+            if (progress == null) return;
+
+            // Stored orders carry IDs from their shard's residue class
+            ShardRouter router = DBConnectionManager.getInstance().getShardRouter();
+            long rows = progress.shards().rows()[shard];
+            for (int i = 0; i < count; i++) {
+                if (stored[i] != null && router.shardForOrder(stored[i].getOrderId()) == shard) rows++;
+            }
+            ImportCheckpoint.save(conn, progress.fingerprint(), progress.file(),
+                    progress.byteOffset(), progress.lineNumber(), rows);
+            // A failed commit ends the import, so the count is never used after a rollback
+            progress.shards().rows()[shard] = rows;
+        }
+
+        @Override
+        public boolean isCommitted(int row, int shard) {
+            if (progress == null || lineNumbers[row] > progress.shards().lines()[shard]) return false;
+            committedBefore[row] = true;
+            return true;
+        }
+    }
+
+    private ImportCheckpoint[] findCheckpoints(String fingerprint) throws OrderOperationException {
+        try {
+            return ImportCheckpoint.find(fingerprint);
+        } catch (SQLException e) {
+            throw databaseFailure("Import failed reading its checkpoint: ", e);
+        }
+    }
+
+    private boolean checkFileImported(String fingerprint) throws OrderOperationException {
+        try {
+            return deduplicator.isFileImported(fingerprint);
+        } catch (SQLException e) {
+            throw databaseFailure("Import failed checking the file fingerprint: ", e);
+        }
+    }
+
+    /** Records a fully imported file and drops its checkpoint, which is no longer needed. */
+    private void finishFile(String fingerprint, Path file, long rows) throws IOException, OrderOperationException {
+        try {
+            if (deduplicator != null) deduplicator.recordFile(fingerprint, file, rows);
+            if (checkpointing) ImportCheckpoint.clear(fingerprint);
+        } catch (SQLException e) {
+            throw databaseFailure("Import stored every row but could not record the file: ", e);
+        }
+    }
+
+    /**
+     * Wraps a bookkeeping failure, reporting a missing or lost connection as
+     * {@link OrderOperationException.Reason#NO_CONNECTION} so callers can retry later.
+     */
+    private static OrderOperationException databaseFailure(String message, SQLException e) {
+        OrderOperationException.Reason reason = DBConnectionManager.isConnectionFailure(e)
+                ? OrderOperationException.Reason.NO_CONNECTION
+                : OrderOperationException.Reason.DATABASE_ERROR;
+        return new OrderOperationException(reason, message + e.getMessage(), e);
+    }
+
+    private void reject(long lineNumber, String reason, String line) {
+        if (rejectHandler != null) rejectHandler.rejected(lineNumber, reason, line);
+    }
+
+    /**
+     * Counts and timing for one import.
+     */
+    public static final class Result {
+        private long linesRead;
+        private long accepted;
+        private long malformed;
+        private long invalid;
+        private long duplicates;
+        private boolean skippedFile;
+        private long resumedAtLine;
+        private long elapsedNanos;
+
+        Result() {
+            // Filled in by the importer
+        }
+
+        /**
+         * Returns the number of non-blank lines read.
+         *
+         * @return the number of lines read
+         */
+        public long getLinesRead() {
+            return linesRead;
+        }
+
+        /**
+         * Returns the number of orders stored.
+         *
+         * @return the number of accepted rows
+         */
+        public long getAccepted() {
+            return accepted;
+        }
+
+        /**
+         * Returns the number of lines that could not be parsed.
+         *
+         * @return the number of malformed lines
+         */
+        public long getMalformed() {
+            return malformed;
+        }
+
+        /**
+         * Returns the number of parsed rows that failed validation.
+         *
+         * @return the number of invalid rows
+         */
+        public long getInvalid() {
+            return invalid;
+        }
+
+        /**
+         * Returns the number of rows skipped because they were imported before.
+         *
+         * @return the number of duplicate rows
+         */
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        /**
+         * Returns whether the whole file was skipped because it was imported before.
+         *
+         * @return true if no line was read
+         */
+        public boolean isSkippedFile() {
+            return skippedFile;
+        }
+
+        /**
+         * Returns the line after which an interrupted import was resumed.
+         * Counts in this result cover only the lines read after it.
+         *
+         * @return the checkpoint's line number, or 0 if the import started at the beginning
+         */
+        public long getResumedAtLine() {
+            return resumedAtLine;
+        }
+
+        /**
+         * Returns the total number of rejected lines.
+         *
+         * @return malformed plus invalid rows
+         */
+        public long getRejected() {
+            return malformed + invalid;
+        }
+
+        /**
+         * Returns how long the import took.
+         *
+         * @return elapsed time in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the import throughput.
+         *
+         * @return lines read per second
+         */
+        public double getRowsPerSecond() {
+            return elapsedNanos > 0 ? linesRead * 1e9 / elapsedNanos : 0.0;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package dms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces single-order inserts from concurrent callers into batched inserts.
+ *
+ * <p>Each call to {@link #submit} queues one order and returns a future. A flusher
+ * thread takes everything queued so far (up to the batch limit) and stores it with one
+ * {@link AsyncShippingOrderManager#addOrdersAsync} call, so one transaction and one
+ * round trip serve many HTTP requests. The flusher never waits for a batch to fill:
+ * an idle server inserts a lone order immediately, and a busy one naturally builds
+ * larger batches while the previous batch is being written.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class OrderInsertBatcher implements AutoCloseable {
+
+    // Batches flushed and orders they carried; their ratio is the average batch size
+    private static final LongAdder BATCHES = MetricsRegistry.getInstance().counter("http.insert_batches");
+    private static final LongAdder BATCHED_ORDERS = MetricsRegistry.getInstance().counter("http.insert_batched_orders");
+
+    /** Facade that performs each batch on a pooled connection */
+    private final AsyncShippingOrderManager async;
+
+    /** Largest number of orders written in one batch */
+    private final int maxBatchSize;
+
+    /** Orders waiting to be flushed */
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    /** Thread draining {@link #queue} */
+    private final Thread flusher;
+
+    /** Set by {@link #close()} to stop the flusher */
+    private volatile boolean closed;
+
+    /**
+     * One queued order and the future its caller waits on.
+     */
+    private record Pending(String customerName, String shipperName, double weight, int distance,
+                           CompletableFuture<ShippingOrder> result) {}
+
+    /**
+     * Creates a batcher and starts its flusher thread.
+     *
+     * @param async        facade used to write each batch
+     * @param maxBatchSize largest number of orders per batch
+     */
+    public OrderInsertBatcher(AsyncShippingOrderManager async, int maxBatchSize) {
+        this.async = async;
+        this.maxBatchSize = maxBatchSize;
+        this.flusher = Thread.ofVirtual().name("order-insert-batcher").start(this::flushLoop);
+    }
+
+    /**
+     * Queues one order for insertion.
+     *
+     * @param customerName customer name
+     * @param shipperName  shipper name
+     * @param weight       weight in pounds
+     * @param distance     distance in miles
+     * @return a future completed with the stored order, or exceptionally with an
+     *         {@link OrderOperationException} if the order was invalid or the batch failed
+     */
+    public CompletableFuture<ShippingOrder> submit(String customerName, String shipperName, double weight, int distance) {
+        CompletableFuture<ShippingOrder> result = new CompletableFuture<>();
+        if (closed) {
+            result.completeExceptionally(new OrderOperationException(OrderOperationException.Reason.INTERRUPTED,
+                    "Add failed: server is shutting down."));
+            return result;
+        }
+        queue.add(new Pending(customerName, shipperName, weight, distance, result));
+        return result;
+    }
+
+    /**
+     * Stops the flusher after writing any orders already queued.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        flusher.interrupt();
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                if (queue.isEmpty()) break;
+                continue;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        int count = batch.size();
+        BATCHES.increment();
+        BATCHED_ORDERS.add(count);
+
+        String[] customers = new String[count];
+        String[] shippers = new String[count];
+        double[] weights = new double[count];
+        int[] distances = new int[count];
+        for (int i = 0; i < count; i++) {
+            Pending p = batch.get(i);
+            customers[i] = p.customerName();
+            shippers[i] = p.shipperName();
+            weights[i] = p.weight();
+            distances[i] = p.distance();
+        }
+
+        try {
+            ShippingOrder[] stored = async.addOrdersAsync(customers, shippers, weights, distances, count).join();
+            for (int i = 0; i < count; i++) {
+                Pending p = batch.get(i);
+                if (stored[i] != null) {
+                    p.result().complete(stored[i]);
+                } else {
+                    int failures = OrderValidator.checkOrder(p.customerName(), p.shipperName(), p.weight(), p.distance());
+                    p.result().completeExceptionally(new OrderOperationException(
+                            OrderOperationException.Reason.INVALID_INPUT,
+                            "Add failed: invalid " + OrderValidator.describe(failures) + "."));
+                }
+            }
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            for (Pending p : batch) p.result().completeExceptionally(cause);
+        }
+    }
+}
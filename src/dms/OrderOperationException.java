@@ -0,0 +1,67 @@
+package dms;
+
+/**
+ * Checked exception describing why a shipping order operation failed.
+ * Thrown by the typed {@link ShippingOrderManager} operations and delivered to callers of
+ * {@link AsyncShippingOrderManager} through failed {@link java.util.concurrent.CompletableFuture}s.
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class OrderOperationException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Broad category of the failure, so callers can react without parsing messages.
+     */
+    public enum Reason {
+        /** Input failed {@link OrderValidator} rules */
+        INVALID_INPUT,
+        /** The referenced order does not exist */
+        NOT_FOUND,
+        /** The order was changed by someone else since the caller read it */
+        CONFLICT,
+        /** No usable database connection was available */
+        NO_CONNECTION,
+        /** The database rejected or failed the operation */
+        DATABASE_ERROR,
+        /** The operation was interrupted before it could run */
+        INTERRUPTED
+    }
+
+    /** Category of this failure */
+    private final Reason reason;
+
+    /**
+     * Creates an exception with a reason and message.
+     *
+     * @param reason  the failure category
+     * @param message a description of the failure
+     */
+    public OrderOperationException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * Creates an exception with a reason, message, and underlying cause.
+     *
+     * @param reason  the failure category
+     * @param message a description of the failure
+     * @param cause   the exception that caused this failure
+     */
+    public OrderOperationException(Reason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+
+    /**
+     * Returns the failure category.
+     *
+     * @return the reason for the failure
+     */
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,278 @@
+package dms;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Immutable, versioned view of the in-memory orders, sorted by order ID.
+ *
+ * <p>{@link ShippingOrderManager} publishes a new snapshot through an atomic reference
+ * after every write, and readers simply take the current one: a reader can never see a
+ * half-applied change or a {@code ConcurrentModificationException}, and needs no lock.
+ * Orders are kept in sorted chunks of a few hundred entries, so a write copies only the
+ * chunk it touches plus the small array of chunk references (copy-on-write), and the
+ * unchanged chunks are shared with the previous version. Lookup by ID is a binary search.
+ * A superseded snapshot stays valid for as long as a reader holds it and is reclaimed by
+ * the garbage collector afterwards.</p>
+ *
+ * <p>Every mutating {@link List} method throws {@link UnsupportedOperationException}.
+ * The orders themselves must be treated as read-only; the manager replaces an order
+ * object rather than changing it.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class OrderSnapshot extends AbstractList<ShippingOrder> implements RandomAccess {
+
+    /** Snapshot with no orders, version 0 */
+    public static final OrderSnapshot EMPTY = new OrderSnapshot(new ShippingOrder[0][], 0);
+
+    /** Orders per chunk when a snapshot is built from scratch */
+    private static final int CHUNK_SIZE = 512;
+
+    /** Chunks that grow beyond this size are split in two */
+    private static final int MAX_CHUNK_SIZE = 2 * CHUNK_SIZE;
+
+    private static final Comparator<ShippingOrder> BY_ID = Comparator.comparingInt(ShippingOrder::getOrderId);
+
+    /** Non-empty chunks, each sorted by ID, with every ID in a chunk below those of the next */
+    private final ShippingOrder[][] chunks;
+
+    /** Index of the first order of each chunk; the last entry is the size */
+    private final int[] offsets;
+
+    /** Version number, increasing with every published change */
+    private final long version;
+
+    private OrderSnapshot(ShippingOrder[][] chunks, long version) {
+        this.chunks = chunks;
+        this.version = version;
+        offsets = new int[chunks.length + 1];
+        for (int i = 0; i < chunks.length; i++) offsets[i + 1] = offsets[i] + chunks[i].length;
+    }
+
+    /**
+     * Builds a snapshot from scratch.
+     *
+     * @param orders  the orders, in any order, with unique IDs
+     * @param version the version number of the new snapshot
+     * @return the new snapshot
+     */
+    public static OrderSnapshot of(Collection<ShippingOrder> orders, long version) {
+        ShippingOrder[] sorted = orders.toArray(new ShippingOrder[0]);
+        Arrays.sort(sorted, BY_ID);
+        ShippingOrder[][] chunks = new ShippingOrder[(sorted.length + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = Arrays.copyOfRange(sorted, i * CHUNK_SIZE, Math.min(sorted.length, (i + 1) * CHUNK_SIZE));
+        }
+        return new OrderSnapshot(chunks, version);
+    }
+
+    /**
+     * Gets the version number of this snapshot.
+     *
+     * @return the version, increasing with every published change
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public int size() {
+        return offsets[chunks.length];
+    }
+
+    @Override
+    public ShippingOrder get(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException(index);
+        int chunk = Arrays.binarySearch(offsets, index);
+        if (chunk < 0) chunk = -chunk - 2;
+        return chunks[chunk][index - offsets[chunk]];
+    }
+
+    /**
+     * Finds an order by ID in O(log n).
+     *
+     * @param orderId the order ID
+     * @return the order, or null if this snapshot does not contain it
+     */
+    public ShippingOrder find(int orderId) {
+        if (chunks.length == 0) return null;
+        ShippingOrder[] chunk = chunks[chunkFor(Arrays.asList(chunks), orderId)];
+        int pos = indexOf(chunk, orderId);
+        return pos >= 0 ? chunk[pos] : null;
+    }
+
+    /**
+     * Returns up to {@code limit} orders with IDs greater than {@code afterId}, in ID order.
+     *
+     * @param afterId the last ID already seen
+     * @param limit   maximum number of orders to return
+     * @return an immutable view of the matching orders
+     */
+    public List<ShippingOrder> after(int afterId, int limit) {
+        int from = countAtMost(afterId);
+        return subList(from, (int) Math.min(size(), (long) from + limit));
+    }
+
+    /**
+     * Returns a new version with an order added, or replacing the order with the same ID.
+     *
+     * @param order the order to store
+     * @return the new snapshot
+     */
+    public OrderSnapshot withPut(ShippingOrder order) {
+        return withPutAll(Collections.singletonList(order));
+    }
+
+    /**
+     * Returns a new version with several orders added or replaced. Only the chunks the
+     * orders fall into are copied; all other chunks are shared with this snapshot.
+     *
+     * @param added the orders to store
+     * @return the new snapshot
+     */
+    public OrderSnapshot withPutAll(Collection<ShippingOrder> added) {
+        if (added.isEmpty()) return this;
+        List<ShippingOrder[]> list = new ArrayList<>(Arrays.asList(chunks));
+        // Chunks already copied for this version, which may be changed in place
+        Set<ShippingOrder[]> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (ShippingOrder order : added) {
+            if (list.isEmpty()) {
+                ShippingOrder[] first = {order};
+                list.add(first);
+                owned.add(first);
+                continue;
+            }
+            int c = chunkFor(list, order.getOrderId());
+            ShippingOrder[] chunk = list.get(c);
+            int pos = indexOf(chunk, order.getOrderId());
+            if (pos >= 0) {
+                if (!owned.contains(chunk)) {
+                    chunk = chunk.clone();
+                    list.set(c, chunk);
+                    owned.add(chunk);
+                }
+                chunk[pos] = order;
+                continue;
+            }
+
+            int insert = -pos - 1;
+            ShippingOrder[] grown = new ShippingOrder[chunk.length + 1];
+            System.arraycopy(chunk, 0, grown, 0, insert);
+            grown[insert] = order;
+            System.arraycopy(chunk, insert, grown, insert + 1, chunk.length - insert);
+            owned.remove(chunk);
+            if (grown.length > MAX_CHUNK_SIZE) {
+                ShippingOrder[] low = Arrays.copyOfRange(grown, 0, grown.length / 2);
+                ShippingOrder[] high = Arrays.copyOfRange(grown, grown.length / 2, grown.length);
+                list.set(c, low);
+                list.add(c + 1, high);
+                owned.add(low);
+                owned.add(high);
+            } else {
+                list.set(c, grown);
+                owned.add(grown);
+            }
+        }
+        return new OrderSnapshot(list.toArray(new ShippingOrder[0][]), version + 1);
+    }
+
+    /**
+     * Returns a new version without the order with the given ID.
+     *
+     * @param orderId the order ID to remove
+     * @return the new snapshot, or this snapshot if it does not contain the order
+     */
+    public OrderSnapshot withRemoved(int orderId) {
+        if (chunks.length == 0) return this;
+        List<ShippingOrder[]> list = Arrays.asList(chunks);
+        int c = chunkFor(list, orderId);
+        ShippingOrder[] chunk = chunks[c];
+        int pos = indexOf(chunk, orderId);
+        if (pos < 0) return this;
+
+        ShippingOrder[][] newChunks;
+        if (chunk.length == 1) {
+            newChunks = new ShippingOrder[chunks.length - 1][];
+            System.arraycopy(chunks, 0, newChunks, 0, c);
+            System.arraycopy(chunks, c + 1, newChunks, c, chunks.length - c - 1);
+        } else {
+            ShippingOrder[] shrunk = new ShippingOrder[chunk.length - 1];
+            System.arraycopy(chunk, 0, shrunk, 0, pos);
+            System.arraycopy(chunk, pos + 1, shrunk, pos, chunk.length - pos - 1);
+            newChunks = chunks.clone();
+            newChunks[c] = shrunk;
+        }
+        return new OrderSnapshot(newChunks, version + 1);
+    }
+
+    /**
+     * Returns a new version without the orders whose IDs are below {@code beforeId}, as
+     * when old orders are archived in bulk. Whole chunks past the cut are shared.
+     *
+     * @param beforeId orders with smaller IDs are removed
+     * @return the new snapshot, or this snapshot if no order is below the cut
+     */
+    public OrderSnapshot withRemovedBefore(int beforeId) {
+        int from = beforeId == Integer.MIN_VALUE ? 0 : countAtMost(beforeId - 1);
+        if (from == 0) return this;
+
+        int c = Arrays.binarySearch(offsets, from);
+        if (c < 0) c = -c - 2;
+        ShippingOrder[][] newChunks = Arrays.copyOfRange(chunks, c, chunks.length);
+        int skip = from - offsets[c];
+        if (skip > 0) newChunks[0] = Arrays.copyOfRange(chunks[c], skip, chunks[c].length);
+        return new OrderSnapshot(newChunks, version + 1);
+    }
+
+    /**
+     * Returns the number of orders with IDs less than or equal to {@code orderId}.
+     */
+    private int countAtMost(int orderId) {
+        if (chunks.length == 0) return 0;
+        int c = chunkFor(Arrays.asList(chunks), orderId);
+        int pos = indexOf(chunks[c], orderId);
+        return offsets[c] + (pos >= 0 ? pos + 1 : -pos - 1);
+    }
+
+    /**
+     * Returns the index of the last chunk whose first ID is at most {@code orderId},
+     * or 0 if every chunk starts above it.
+     */
+    private static int chunkFor(List<ShippingOrder[]> chunks, int orderId) {
+        int low = 0;
+        int high = chunks.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunks.get(mid)[0].getOrderId() <= orderId) low = mid;
+            else high = mid - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Binary search of one chunk, with the same result convention as {@link Arrays#binarySearch}.
+     */
+    private static int indexOf(ShippingOrder[] chunk, int orderId) {
+        int low = 0;
+        int high = chunk.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = chunk[mid].getOrderId();
+            if (id < orderId) low = mid + 1;
+            else if (id > orderId) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,141 @@
+package dms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link OrderSnapshot} class.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Random puts and removals match a sorted reference map, including chunk splits</li>
+ *     <li>Older versions are unchanged by later writes</li>
+ *     <li>Keyset pages and the read-only list contract</li>
+ *     <li>Bulk removal of the oldest orders, as done by archiving</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class OrderSnapshotTest {
+
+    /**
+     * Default constructor for OrderSnapshotTest.
+     */
+    public OrderSnapshotTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Applies random writes and compares every version with a reference map.
+     */
+    @Test
+    @DisplayName("Random writes match a sorted map")
+    public void testRandomWrites() {
+        Random random = new Random(17);
+        TreeMap<Integer, ShippingOrder> expected = new TreeMap<>();
+        OrderSnapshot snapshot = OrderSnapshot.EMPTY;
+
+        for (int step = 0; step < 20_000; step++) {
+            int id = 1 + random.nextInt(5_000);
+            int action = random.nextInt(10);
+            if (action < 6) {
+                ShippingOrder order = order(id, step);
+                expected.put(id, order);
+                snapshot = snapshot.withPut(order);
+            } else if (action < 8) {
+                List<ShippingOrder> batch = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    ShippingOrder order = order(1 + random.nextInt(5_000), step);
+                    batch.add(order);
+                    expected.put(order.getOrderId(), order);
+                }
+                snapshot = snapshot.withPutAll(batch);
+            } else {
+                expected.remove(id);
+                snapshot = snapshot.withRemoved(id);
+            }
+            assertSame(expected.get(id), snapshot.find(id));
+        }
+
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(snapshot));
+        assertEquals(expected.size(), snapshot.size());
+        for (int id = 0; id <= 5_001; id++) assertSame(expected.get(id), snapshot.find(id));
+    }
+
+    /**
+     * Verifies an earlier version is unaffected by later writes.
+     */
+    @Test
+    @DisplayName("Published versions never change")
+    public void testVersionsAreImmutable() {
+        List<ShippingOrder> initial = new ArrayList<>();
+        for (int id = 1; id <= 2_000; id++) initial.add(order(id, 0));
+        OrderSnapshot first = OrderSnapshot.of(initial, 1);
+
+        OrderSnapshot second = first.withPut(order(1_000, 1)).withRemoved(5).withPut(order(2_001, 1));
+        assertEquals(4, second.getVersion());
+        assertEquals(2_000, first.size());
+        assertEquals(0, first.find(1_000).getDistanceInMiles());
+        assertNotNull(first.find(5));
+        assertNull(first.find(2_001));
+        assertEquals(1, second.find(1_000).getDistanceInMiles());
+        assertNull(second.find(5));
+        assertSame(second, second.withRemoved(5), "Removing a missing order publishes nothing");
+    }
+
+    /**
+     * Verifies pages after an ID and that the list cannot be modified.
+     */
+    @Test
+    @DisplayName("Pages follow ID order and the list is read-only")
+    public void testPagesAndReadOnly() {
+        List<ShippingOrder> initial = new ArrayList<>();
+        for (int id = 10; id <= 10_000; id += 10) initial.add(order(id, 0));
+        OrderSnapshot snapshot = OrderSnapshot.of(initial, 1);
+
+        List<ShippingOrder> page = snapshot.after(Integer.MIN_VALUE, 3);
+        assertEquals(List.of(10, 20, 30), page.stream().map(ShippingOrder::getOrderId).toList());
+        page = snapshot.after(5_005, 2);
+        assertEquals(List.of(5_010, 5_020), page.stream().map(ShippingOrder::getOrderId).toList());
+        assertTrue(snapshot.after(10_000, 5).isEmpty());
+        assertEquals(1, snapshot.after(9_990, 5).size());
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(order(1, 0)));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(0));
+    }
+
+    /**
+     * Cuts the oldest orders at chunk boundaries and inside chunks.
+     */
+    @Test
+    @DisplayName("Removing orders below an ID keeps the rest")
+    public void testRemovedBefore() {
+        List<ShippingOrder> initial = new ArrayList<>();
+        for (int id = 1; id <= 2_000; id++) initial.add(order(id, 0));
+        OrderSnapshot snapshot = OrderSnapshot.of(initial, 1);
+
+        assertSame(snapshot, snapshot.withRemovedBefore(1), "Nothing below the first ID");
+        for (int cut : new int[]{2, 512, 513, 514, 1_500, 2_000}) {
+            OrderSnapshot trimmed = snapshot.withRemovedBefore(cut);
+            assertEquals(2_001 - cut, trimmed.size(), "Cut at " + cut);
+            assertEquals(cut, trimmed.get(0).getOrderId());
+            assertNull(trimmed.find(cut - 1));
+            assertNotNull(trimmed.find(2_000));
+            assertEquals(2, trimmed.getVersion());
+        }
+        assertTrue(snapshot.withRemovedBefore(5_000).isEmpty());
+        assertEquals(2_000, snapshot.size(), "The original version is unchanged");
+    }
+
+    private static ShippingOrder order(int id, int marker) {
+        return new ShippingOrder(id, 1, 1, 10.0, marker, "Customer", "Shipper", 1.0);
+    }
+}
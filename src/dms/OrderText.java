@@ -0,0 +1,97 @@
+package dms;
+
+/**
+ * Display formatting for order fields, shared by the table cells, the console, and
+ * {@link ShippingOrder#toString()}.
+ *
+ * <p>{@code String.format} parses its pattern and boxes its arguments on every call, which
+ * adds up when table cells are re-rendered on every scroll step. These methods format
+ * with {@link NumberText} into a per-thread reusable builder, so the only allocation is
+ * the resulting String, and {@link ShippingOrder} caches that String until the order
+ * changes. Output matches the previous {@code String.format} patterns.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+final class OrderText {
+
+    /** Reusable builder per thread; rendering happens on the FX thread and console threads */
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private OrderText() {}
+
+    /**
+     * Formats a weight with one decimal place, e.g. {@code 45.0 lb}.
+     *
+     * @param weight weight in pounds
+     * @return the display text
+     */
+    static String weight(double weight) {
+        StringBuilder text = builder();
+        NumberText.appendFixed(text, weight, 1);
+        return text.append(" lb").toString();
+    }
+
+    /**
+     * Formats a distance, e.g. {@code 1200 mi}.
+     *
+     * @param distance distance in miles
+     * @return the display text
+     */
+    static String distance(int distance) {
+        return builder().append(distance).append(" mi").toString();
+    }
+
+    /**
+     * Formats a cost as dollars and cents, e.g. {@code $81.00}.
+     *
+     * @param cost the shipping cost
+     * @return the display text
+     */
+    static String cost(double cost) {
+        StringBuilder text = builder().append('$');
+        NumberText.appendFixed(text, cost, 2);
+        return text.toString();
+    }
+
+    /**
+     * Formats a one-line description of an order.
+     *
+     * @param order the order to describe
+     * @return the description
+     */
+    static String describe(ShippingOrder order) {
+        return appendDescription(builder(), order).toString();
+    }
+
+    /**
+     * Appends a one-line description of an order, falling back to IDs when names are not
+     * loaded, e.g. {@code Order ID: 1, Customer: John Smith, ..., Cost: $81.00}.
+     *
+     * @param out   destination builder
+     * @param order the order to describe
+     * @return {@code out}, for chaining
+     */
+    static StringBuilder appendDescription(StringBuilder out, ShippingOrder order) {
+        out.append("Order ID: ").append(order.getOrderId()).append(", Customer: ");
+        if (order.getCustomerName() != null) out.append(order.getCustomerName());
+        else out.append(order.getCustomerId());
+        out.append(", Shipper: ");
+        if (order.getShipperName() != null) out.append(order.getShipperName());
+        else out.append(order.getShipperId());
+        out.append(", Weight: ").append(order.getWeightInPounds()).append(" lb")
+                .append(", Distance: ").append(order.getDistanceInMiles()).append(" mi")
+                .append(", Cost: $");
+        NumberText.appendFixed(out, order.getShippingCost(), 2);
+        return out;
+    }
+
+    private static StringBuilder builder() {
+        StringBuilder text = BUILDER.get();
+        text.setLength(0);
+        return text;
+    }
+}
@@ -0,0 +1,280 @@
+package dms;
+
+import java.util.BitSet;
+
+/**
+ * Shared validation rules for shipping order input, used by the console, the GUI,
+ * and file import so every entry point accepts exactly the same data.
+ *
+ * <p>All checks are hand-written loops and comparisons; they compile no regular
+ * expressions and allocate nothing, which matters when validating millions of
+ * rows during a bulk import.</p>
+ *
+ * <p>Rules:</p>
+ * <ul>
+ *     <li>Names: 1–30 characters, letters only, words separated by single spaces</li>
+ *     <li>Weight: 0.1–150 pounds</li>
+ *     <li>Distance: 1–3000 miles</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class OrderValidator {
+
+    /** Maximum length of a customer or shipper name */
+    public static final int MAX_NAME_LENGTH = 30;
+
+    /** Minimum shipment weight in pounds (inclusive) */
+    public static final double MIN_WEIGHT = 0.1;
+
+    /** Maximum shipment weight in pounds (inclusive) */
+    public static final double MAX_WEIGHT = 150.0;
+
+    /** Minimum shipping distance in miles (inclusive) */
+    public static final int MIN_DISTANCE = 1;
+
+    /** Maximum shipping distance in miles (inclusive) */
+    public static final int MAX_DISTANCE = 3000;
+
+    /** Failure flag: the customer name is invalid */
+    public static final int CUSTOMER_NAME = 1;
+
+    /** Failure flag: the shipper name is invalid */
+    public static final int SHIPPER_NAME = 1 << 1;
+
+    /** Failure flag: the weight is out of range */
+    public static final int WEIGHT = 1 << 2;
+
+    /** Failure flag: the distance is out of range */
+    public static final int DISTANCE = 1 << 3;
+
+    /**
+     * Reasons a single name can be rejected, with user-facing messages.
+     */
+    public enum NameProblem {
+        /** The name is valid */
+        NONE(""),
+        /** The name is null, empty, or only spaces */
+        BLANK("Name cannot be blank."),
+        /** The name is longer than {@link #MAX_NAME_LENGTH} */
+        TOO_LONG("Name must be " + MAX_NAME_LENGTH + " characters or fewer."),
+        /** The name contains digits, symbols, or extra spaces */
+        INVALID_CHARACTERS("Only letters and a single space allowed. No numbers or symbols.");
+
+        private final String message;
+
+        NameProblem(String message) {
+            this.message = message;
+        }
+
+        /**
+         * Returns a message suitable for showing to the user.
+         *
+         * @return the message text (empty for {@link #NONE})
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private OrderValidator() {}
+
+    /**
+     * Checks a customer or shipper name.
+     *
+     * @param name the name to check (not trimmed)
+     * @return {@link NameProblem#NONE} if valid, otherwise the first problem found
+     */
+    public static NameProblem checkName(CharSequence name) {
+        if (name == null) return NameProblem.BLANK;
+        int length = name.length();
+
+        boolean sawLetter = false;
+        boolean afterSpace = true;
+        boolean badChar = false;
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (c == ' ') {
+                // Leading or doubled spaces are not allowed
+                if (afterSpace) badChar = true;
+                afterSpace = true;
+            } else if (Character.isLetter(c)) {
+                sawLetter = true;
+                afterSpace = false;
+            } else {
+                badChar = true;
+            }
+        }
+
+        if (!sawLetter) return length == 0 || onlySpaces(name) ? NameProblem.BLANK : NameProblem.INVALID_CHARACTERS;
+        if (length > MAX_NAME_LENGTH) return NameProblem.TOO_LONG;
+        if (badChar || afterSpace) return NameProblem.INVALID_CHARACTERS;
+        return NameProblem.NONE;
+    }
+
+    /**
+     * Returns whether a name passes {@link #checkName(CharSequence)}.
+     *
+     * @param name the name to check
+     * @return true if the name is valid
+     */
+    public static boolean isValidName(CharSequence name) {
+        return checkName(name) == NameProblem.NONE;
+    }
+
+    /**
+     * Returns whether a weight is within the accepted range.
+     *
+     * @param weight shipment weight in pounds
+     * @return true if the weight is valid
+     */
+    public static boolean isValidWeight(double weight) {
+        // Written so NaN fails both comparisons
+        return weight >= MIN_WEIGHT && weight <= MAX_WEIGHT;
+    }
+
+    /**
+     * Returns whether a distance is within the accepted range.
+     *
+     * @param distance shipping distance in miles
+     * @return true if the distance is valid
+     */
+    public static boolean isValidDistance(int distance) {
+        return distance >= MIN_DISTANCE && distance <= MAX_DISTANCE;
+    }
+
+    /**
+     * Checks every field of an order.
+     *
+     * @param customerName customer name
+     * @param shipperName  shipper name
+     * @param weight       weight in pounds
+     * @param distance     distance in miles
+     * @return 0 if valid, otherwise a combination of {@link #CUSTOMER_NAME},
+     *         {@link #SHIPPER_NAME}, {@link #WEIGHT}, and {@link #DISTANCE}
+     */
+    public static int checkOrder(CharSequence customerName, CharSequence shipperName, double weight, int distance) {
+        int failures = 0;
+        if (!isValidName(customerName)) failures |= CUSTOMER_NAME;
+        if (!isValidName(shipperName)) failures |= SHIPPER_NAME;
+        if (!isValidWeight(weight)) failures |= WEIGHT;
+        if (!isValidDistance(distance)) failures |= DISTANCE;
+        return failures;
+    }
+
+    /**
+     * Validates many orders at once. Arrays are read from index 0 to {@code count - 1}.
+     *
+     * @param customerNames customer name per row
+     * @param shipperNames  shipper name per row
+     * @param weights       weight per row
+     * @param distances     distance per row
+     * @param count         number of rows to validate
+     * @return the rows that failed and why
+     */
+    public static Result validateBatch(CharSequence[] customerNames, CharSequence[] shipperNames,
+                                       double[] weights, int[] distances, int count) {
+        Result result = new Result(count);
+        for (int i = 0; i < count; i++) {
+            int failures = checkOrder(customerNames[i], shipperNames[i], weights[i], distances[i]);
+            if (failures != 0) result.fail(i, failures);
+        }
+        return result;
+    }
+
+    /**
+     * Describes failure flags in words, e.g. "customer name, weight".
+     *
+     * @param failures combination of failure flags
+     * @return a comma-separated description, or an empty string if none
+     */
+    public static String describe(int failures) {
+        StringBuilder sb = new StringBuilder();
+        if ((failures & CUSTOMER_NAME) != 0) sb.append("customer name, ");
+        if ((failures & SHIPPER_NAME) != 0) sb.append("shipper name, ");
+        if ((failures & WEIGHT) != 0) sb.append("weight, ");
+        if ((failures & DISTANCE) != 0) sb.append("distance, ");
+        if (sb.length() > 0) sb.setLength(sb.length() - 2);
+        return sb.toString();
+    }
+
+    private static boolean onlySpaces(CharSequence name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != ' ') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Outcome of {@link #validateBatch}: a bitset of failed rows plus one byte of
+     * failure flags per row.
+     */
+    public static final class Result {
+        private final BitSet failedRows;
+        private final byte[] reasons;
+        private int failureCount;
+
+        Result(int rows) {
+            failedRows = new BitSet(rows);
+            reasons = new byte[rows];
+        }
+
+        void fail(int row, int failures) {
+            failedRows.set(row);
+            reasons[row] = (byte) failures;
+            failureCount++;
+        }
+
+        /**
+         * Returns whether every row passed.
+         *
+         * @return true if no row failed
+         */
+        public boolean allValid() {
+            return failureCount == 0;
+        }
+
+        /**
+         * Returns the number of failed rows.
+         *
+         * @return the failure count
+         */
+        public int getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * Returns whether a row passed validation.
+         *
+         * @param row row index
+         * @return true if the row is valid
+         */
+        public boolean isValid(int row) {
+            return !failedRows.get(row);
+        }
+
+        /**
+         * Returns the failure flags for a row.
+         *
+         * @param row row index
+         * @return 0 if valid, otherwise a combination of failure flags
+         */
+        public int getReasons(int row) {
+            return reasons[row];
+        }
+
+        /**
+         * Returns the index of the next failed row at or after {@code fromRow}.
+         *
+         * @param fromRow row to start from
+         * @return the next failed row, or -1 if there is none
+         */
+        public int nextFailure(int fromRow) {
+            return failedRows.nextSetBit(fromRow);
+        }
+    }
+}
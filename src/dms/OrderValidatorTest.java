@@ -0,0 +1,90 @@
+package dms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link OrderValidator} class.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Name rules (blank, length, characters, spacing)</li>
+ *     <li>Weight and distance boundaries</li>
+ *     <li>Batch validation failure flags</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class OrderValidatorTest {
+
+    /**
+     * Default constructor for OrderValidatorTest.
+     */
+    public OrderValidatorTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Verifies each name rule and its reported problem.
+     */
+    @Test
+    @DisplayName("Names follow one set of rules")
+    public void testCheckName() {
+        assertEquals(OrderValidator.NameProblem.NONE, OrderValidator.checkName("John Smith"));
+        assertEquals(OrderValidator.NameProblem.NONE, OrderValidator.checkName("FedEx"));
+        assertEquals(OrderValidator.NameProblem.BLANK, OrderValidator.checkName(null));
+        assertEquals(OrderValidator.NameProblem.BLANK, OrderValidator.checkName(""));
+        assertEquals(OrderValidator.NameProblem.BLANK, OrderValidator.checkName("   "));
+        assertEquals(OrderValidator.NameProblem.TOO_LONG, OrderValidator.checkName("A".repeat(31)));
+        assertEquals(OrderValidator.NameProblem.NONE, OrderValidator.checkName("A".repeat(30)));
+        assertEquals(OrderValidator.NameProblem.INVALID_CHARACTERS, OrderValidator.checkName("Agent 007"));
+        assertEquals(OrderValidator.NameProblem.INVALID_CHARACTERS, OrderValidator.checkName("John  Smith"));
+        assertEquals(OrderValidator.NameProblem.INVALID_CHARACTERS, OrderValidator.checkName(" John"));
+        assertEquals(OrderValidator.NameProblem.INVALID_CHARACTERS, OrderValidator.checkName("John "));
+        assertEquals(OrderValidator.NameProblem.INVALID_CHARACTERS, OrderValidator.checkName("Smith & Co"));
+    }
+
+    /**
+     * Verifies weight and distance limits are inclusive and reject NaN.
+     */
+    @Test
+    @DisplayName("Weight and distance boundaries")
+    public void testRanges() {
+        assertTrue(OrderValidator.isValidWeight(0.1));
+        assertTrue(OrderValidator.isValidWeight(150.0));
+        assertFalse(OrderValidator.isValidWeight(0.0));
+        assertFalse(OrderValidator.isValidWeight(150.01));
+        assertFalse(OrderValidator.isValidWeight(Double.NaN));
+        assertTrue(OrderValidator.isValidDistance(1));
+        assertTrue(OrderValidator.isValidDistance(3000));
+        assertFalse(OrderValidator.isValidDistance(0));
+        assertFalse(OrderValidator.isValidDistance(3001));
+    }
+
+    /**
+     * Verifies batch validation reports the failed rows and their reasons.
+     */
+    @Test
+    @DisplayName("Batch validation flags failed rows")
+    public void testValidateBatch() {
+        String[] customers = {"Alice", "B0b", "Carol", "Dave"};
+        String[] shippers = {"UPS", "DHL", "", "FedEx"};
+        double[] weights = {10.0, 200.0, 5.0, 20.0};
+        int[] distances = {100, 100, 0, 500};
+
+        OrderValidator.Result result = OrderValidator.validateBatch(customers, shippers, weights, distances, 4);
+
+        assertEquals(2, result.getFailureCount());
+        assertTrue(result.isValid(0));
+        assertTrue(result.isValid(3));
+        assertEquals(OrderValidator.CUSTOMER_NAME | OrderValidator.WEIGHT, result.getReasons(1));
+        assertEquals(OrderValidator.SHIPPER_NAME | OrderValidator.DISTANCE, result.getReasons(2));
+        assertEquals(1, result.nextFailure(0));
+        assertEquals(2, result.nextFailure(2));
+        assertEquals(-1, result.nextFailure(3));
+        assertEquals("customer name, weight", OrderValidator.describe(result.getReasons(1)));
+    }
+}
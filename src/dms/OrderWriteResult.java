@@ -0,0 +1,116 @@
+package dms;
+
+/**
+ * Outcome of a conditional (optimistic) write to one order.
+ *
+ * <p>Returned by {@link ShippingOrderManager#updateOrderIfVersion},
+ * {@link ShippingOrderManager#deleteOrderIfVersion}, and their batch variants. A write
+ * is applied only if the stored row still has the version the caller read; otherwise
+ * the result is a {@link Status#CONFLICT} carrying the order as it is now stored, so
+ * the caller can show the other change or retry against the new version.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class OrderWriteResult {
+
+    /**
+     * What happened to the write.
+     */
+    public enum Status {
+        /** The write was applied */
+        APPLIED,
+        /** The order was changed by someone else after the caller read it; nothing was written */
+        CONFLICT,
+        /** The order no longer exists; nothing was written */
+        NOT_FOUND
+    }
+
+    /** ID of the order the write targeted */
+    private final int orderId;
+
+    /** Outcome of the write */
+    private final Status status;
+
+    /** Order after the write, or the stored order on conflict; null otherwise */
+    private final ShippingOrder order;
+
+    private OrderWriteResult(int orderId, Status status, ShippingOrder order) {
+        this.orderId = orderId;
+        this.status = status;
+        this.order = order;
+    }
+
+    /**
+     * Creates the result of an applied write.
+     *
+     * @param orderId the order ID
+     * @param order   the order as written, or null for a delete
+     * @return the result
+     */
+    static OrderWriteResult applied(int orderId, ShippingOrder order) {
+        return new OrderWriteResult(orderId, Status.APPLIED, order);
+    }
+
+    /**
+     * Creates the result of a write rejected because the row version changed.
+     *
+     * @param current the order as currently stored
+     * @return the result
+     */
+    static OrderWriteResult conflict(ShippingOrder current) {
+        return new OrderWriteResult(current.getOrderId(), Status.CONFLICT, current);
+    }
+
+    /**
+     * Creates the result of a write to an order that does not exist.
+     *
+     * @param orderId the order ID
+     * @return the result
+     */
+    static OrderWriteResult notFound(int orderId) {
+        return new OrderWriteResult(orderId, Status.NOT_FOUND, null);
+    }
+
+    /**
+     * Gets the ID of the order the write targeted.
+     *
+     * @return the order ID
+     */
+    public int getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Gets the outcome of the write.
+     *
+     * @return the status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns whether the write was applied.
+     *
+     * @return true if the status is {@link Status#APPLIED}
+     */
+    public boolean isApplied() {
+        return status == Status.APPLIED;
+    }
+
+    /**
+     * Gets the order: after an applied update, its new state with the new row version;
+     * after a conflict, its currently stored state.
+     *
+     * @return the order, or null after a delete or when the order was not found
+     */
+    public ShippingOrder getOrder() {
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return "Order " + orderId + ": " + status;
+    }
+}
@@ -0,0 +1,68 @@
+package dms;
+
+import java.util.Random;
+
+/**
+ * Benchmark comparing per-object cost calculation with bulk repricing.
+ *
+ * <p>Generates random orders across several shippers with their own rate tables,
+ * then times {@link ShippingOrder#calculateShippingCost()} one object at a time
+ * against {@link PricingEngine#priceAll(int[], double[], int[], double[], int)}
+ * over primitive arrays. Run it with:</p>
+ * <pre>java -cp out dms.PricingBenchmark [orders]</pre>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class PricingBenchmark {
+
+    /** Sink that keeps the JIT from eliminating benchmark loops */
+    private static volatile double blackhole;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private PricingBenchmark() {}
+
+    /**
+     * Entry point for the benchmark.
+     *
+     * @param args optional number of orders to price (default 5,000,000)
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        PricingEngine engine = PricingEngine.getInstance();
+        for (int shipper = 1; shipper <= 8; shipper++) {
+            engine.setRateTable(shipper, new RateTable(shipper, 0.01 * shipper, 0.02, 0.001));
+        }
+
+        Random random = new Random(7);
+        int[] shipperIds = new int[count];
+        double[] weights = new double[count];
+        int[] distances = new int[count];
+        ShippingOrder[] orders = new ShippingOrder[count];
+        for (int i = 0; i < count; i++) {
+            shipperIds[i] = 1 + random.nextInt(8);
+            weights[i] = 0.1 + random.nextInt(1500) / 10.0;
+            distances[i] = 1 + random.nextInt(3000);
+            orders[i] = new ShippingOrder(i + 1, 1, shipperIds[i], weights[i], distances[i]);
+        }
+        double[] costs = new double[count];
+
+        for (int round = 1; round <= 5; round++) {
+            long start = System.nanoTime();
+            double sum = 0;
+            for (ShippingOrder order : orders) sum += order.calculateShippingCost();
+            long scalarNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            engine.priceAll(shipperIds, weights, distances, costs, count);
+            long bulkNanos = System.nanoTime() - start;
+            for (int i = 0; i < count; i += 4096) sum += costs[i];
+            blackhole += sum;
+
+            System.out.printf("round %d: per-object %.1f M orders/s, bulk %.1f M orders/s (%.1fx)%n",
+                    round, count * 1e3 / scalarNanos, count * 1e3 / bulkNanos, (double) scalarNanos / bulkNanos);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package dms;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Single source of truth for shipping cost, with per-shipper rate tables.
+ *
+ * <p>Orders are priced with the {@link RateTable} registered for their shipper,
+ * or the default table when none is registered. The engine offers a scalar
+ * {@link #price(int, double, int)} for one order and a bulk
+ * {@link #priceAll(int[], double[], int[], double[], int)} that reprices large
+ * batches over primitive arrays.</p>
+ *
+ * <p>The bulk path works in chunks: it first gathers each row's coefficients into
+ * scratch arrays, then runs a branch-free arithmetic loop over those arrays. That
+ * loop has no method calls or data-dependent branches, so HotSpot's C2 compiler
+ * turns it into SIMD instructions on hardware that supports them, and it runs as
+ * a plain scalar loop everywhere else.</p>
+ *
+ * <p>Rate tables can be loaded at startup from the properties file named by the
+ * {@code dms.pricing.file} system property:</p>
+ * <pre>
+ * default   = 0,0,0,0.0015
+ * shipper.3 = 5.00,0.05,0.10,0
+ * </pre>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class PricingEngine {
+
+    /** System property naming an optional rate table properties file */
+    public static final String CONFIG_PROPERTY = "dms.pricing.file";
+
+    /** Rows processed per chunk in the bulk path (sized to stay in L1/L2 cache) */
+    private static final int CHUNK = 2048;
+
+    /** Shipper IDs up to this value get direct array lookup in the bulk path */
+    private static final int MAX_DENSE_ID = 1 << 16;
+
+    /** Minimum size of the dense lookup array, covering common small shipper IDs */
+    private static final int DENSE_MIN = 256;
+
+    /** Shared engine used by the manager and order objects */
+    private static final PricingEngine INSTANCE = createConfigured();
+
+    /** Table used for shippers without their own entry */
+    private volatile RateTable defaultTable = RateTable.DEFAULT;
+
+    /** Per-shipper tables; replaced wholesale on change so readers never lock */
+    private volatile Map<Integer, RateTable> shipperTables = Map.of();
+
+    /**
+     * Creates an engine that prices every order with {@link RateTable#DEFAULT}.
+     */
+    public PricingEngine() {
+        // Default table only until configured
+    }
+
+    /**
+     * Returns the shared pricing engine.
+     *
+     * @return the singleton engine
+     */
+    public static PricingEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Sets the table used for shippers that have no table of their own.
+     *
+     * @param table the new default rate table
+     */
+    public void setDefaultRateTable(RateTable table) {
+        defaultTable = table;
+    }
+
+    /**
+     * Registers a rate table for one shipper, replacing any previous table.
+     *
+     * @param shipperId the shipper's database ID
+     * @param table     the rate table to use, or null to fall back to the default
+     */
+    public synchronized void setRateTable(int shipperId, RateTable table) {
+        Map<Integer, RateTable> copy = new HashMap<>(shipperTables);
+        if (table == null) copy.remove(shipperId);
+        else copy.put(shipperId, table);
+        shipperTables = Map.copyOf(copy);
+    }
+
+    /**
+     * Returns the rate table that applies to the given shipper.
+     *
+     * @param shipperId the shipper's database ID
+     * @return the shipper's table, or the default table
+     */
+    public RateTable rateTableFor(int shipperId) {
+        RateTable table = shipperTables.get(shipperId);
+        return table != null ? table : defaultTable;
+    }
+
+    /**
+     * Calculates the cost of one order.
+     *
+     * @param shipperId shipper's database ID (selects the rate table)
+     * @param weight    shipment weight in pounds
+     * @param distance  shipping distance in miles
+     * @return the cost rounded to the nearest cent
+     */
+    public double price(int shipperId, double weight, int distance) {
+        return rateTableFor(shipperId).price(weight, distance);
+    }
+
+    /**
+     * Calculates costs for many orders at once.
+     * Results are identical to calling {@link #price(int, double, int)} for each row.
+     *
+     * @param shipperIds shipper ID per row
+     * @param weights    weight in pounds per row
+     * @param distances  distance in miles per row
+     * @param costs      receives the cost per row
+     * @param count      number of rows to price, starting at index 0
+     */
+    public void priceAll(int[] shipperIds, double[] weights, int[] distances, double[] costs, int count) {
+        double[] base = new double[CHUNK];
+        double[] perPound = new double[CHUNK];
+        double[] perMile = new double[CHUNK];
+        double[] perPoundMile = new double[CHUNK];
+        double[] miles = new double[CHUNK];
+
+        Map<Integer, RateTable> tables = shipperTables;
+        RateTable fallback = defaultTable;
+        RateTable[] dense = denseTables(tables, fallback);
+
+        for (int offset = 0; offset < count; offset += CHUNK) {
+            int n = Math.min(CHUNK, count - offset);
+
+            // Gather coefficients, using direct array lookup when shipper IDs are small
+            for (int i = 0; i < n; i++) {
+                int shipperId = shipperIds[offset + i];
+                RateTable table;
+                if (shipperId >= 0 && shipperId < dense.length) {
+                    table = dense[shipperId];
+                } else {
+                    table = tables.getOrDefault(shipperId, fallback);
+                }
+                base[i] = table.getBase();
+                perPound[i] = table.getPerPound();
+                perMile[i] = table.getPerMile();
+                perPoundMile[i] = table.getPerPoundMile();
+                miles[i] = distances[offset + i];
+            }
+
+            priceChunk(base, perPound, perMile, perPoundMile, weights, miles, costs, offset, n);
+        }
+    }
+
+    /**
+     * Lays out the registered tables in an array indexed by shipper ID, so the
+     * bulk path avoids a map lookup per row. IDs beyond the array use the map.
+     */
+    private static RateTable[] denseTables(Map<Integer, RateTable> tables, RateTable fallback) {
+        int maxId = 0;
+        for (int id : tables.keySet()) {
+            if (id >= 0 && id < MAX_DENSE_ID) maxId = Math.max(maxId, id);
+        }
+        RateTable[] dense = new RateTable[Math.max(maxId + 1, DENSE_MIN)];
+        Arrays.fill(dense, fallback);
+        tables.forEach((id, table) -> {
+            if (id >= 0 && id < dense.length) dense[id] = table;
+        });
+        return dense;
+    }
+
+    /**
+     * Branch-free pricing kernel over one chunk; kept small so C2 can vectorize it.
+     */
+    private static void priceChunk(double[] base, double[] perPound, double[] perMile, double[] perPoundMile,
+                                   double[] weights, double[] miles, double[] costs, int offset, int n) {
+        for (int i = 0; i < n; i++) {
+            double w = weights[offset + i];
+            double d = miles[i];
+            double raw = base[i] + perPound[i] * w + perMile[i] * d + perPoundMile[i] * (w * d);
+            costs[offset + i] = Math.floor(raw * 100.0 + 0.5) / 100.0;
+        }
+    }
+
+    /**
+     * Builds the shared engine, applying the properties file if one is configured.
+     */
+    private static PricingEngine createConfigured() {
+        PricingEngine engine = new PricingEngine();
+        String file = System.getProperty(CONFIG_PROPERTY);
+        if (file == null || file.isBlank()) return engine;
+
+        try (Reader reader = new FileReader(file)) {
+            Properties props = new Properties();
+            props.load(reader);
+            for (String key : props.stringPropertyNames()) {
+                RateTable table = RateTable.parse(props.getProperty(key));
+                if (key.equals("default")) {
+                    engine.setDefaultRateTable(table);
+                } else if (key.startsWith("shipper.")) {
+                    engine.setRateTable(Integer.parseInt(key.substring("shipper.".length()).trim()), table);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error loading rate tables from " + file + ": " + e.getMessage());
+        }
+        return engine;
+    }
+}
@@ -0,0 +1,102 @@
+package dms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link PricingEngine} and {@link RateTable} classes.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>The default table matches the stored weight × distance × 0.0015 formula</li>
+ *     <li>Per-shipper rate tables override the default</li>
+ *     <li>Bulk pricing matches scalar pricing across chunk boundaries</li>
+ *     <li>Rate table parsing</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class PricingEngineTest {
+
+    private PricingEngine engine;
+
+    /**
+     * Default constructor for PricingEngineTest.
+     */
+    public PricingEngineTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Creates an engine with two shipper-specific tables before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        engine = new PricingEngine();
+        engine.setRateTable(2, new RateTable(5.00, 0.05, 0.10, 0.0));
+        engine.setRateTable(3, RateTable.parse("1.5, 0.02, 0.01, 0.001"));
+    }
+
+    /**
+     * Verifies the default table reproduces the historical cost formula.
+     */
+    @Test
+    @DisplayName("Default table matches the stored formula")
+    public void testDefaultTable() {
+        assertEquals(Math.round(45.0 * 1200 * 0.0015 * 100.0) / 100.0, engine.price(1, 45.0, 1200), 0.0001);
+        assertEquals(Math.round(10.5 * 300 * 0.0015 * 100.0) / 100.0, engine.price(99, 10.5, 300), 0.0001);
+    }
+
+    /**
+     * Verifies that a shipper's own table is used when registered.
+     */
+    @Test
+    @DisplayName("Shipper tables override the default")
+    public void testShipperTable() {
+        assertEquals(5.00 + 20.0 * 0.05 + 150 * 0.10, engine.price(2, 20.0, 150), 0.0001);
+
+        engine.setRateTable(2, null);
+        assertEquals(Math.round(20.0 * 150 * 0.0015 * 100.0) / 100.0, engine.price(2, 20.0, 150), 0.0001,
+                "Removing a table should fall back to the default");
+    }
+
+    /**
+     * Verifies bulk pricing produces exactly the scalar results for mixed shippers.
+     */
+    @Test
+    @DisplayName("Bulk pricing matches scalar pricing")
+    public void testPriceAll() {
+        int count = 10_000;
+        Random random = new Random(42);
+        int[] shippers = new int[count];
+        double[] weights = new double[count];
+        int[] distances = new int[count];
+        double[] expected = new double[count];
+        for (int i = 0; i < count; i++) {
+            shippers[i] = 1 + random.nextInt(4);
+            weights[i] = 0.1 + random.nextInt(1500) / 10.0;
+            distances[i] = 1 + random.nextInt(3000);
+            expected[i] = engine.price(shippers[i], weights[i], distances[i]);
+        }
+
+        double[] actual = new double[count];
+        engine.priceAll(shippers, weights, distances, actual, count);
+        assertArrayEquals(expected, actual, 0.0, "Bulk and scalar prices should be identical");
+    }
+
+    /**
+     * Verifies malformed rate table text is rejected.
+     */
+    @Test
+    @DisplayName("Invalid rate tables are rejected")
+    public void testParseInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> RateTable.parse("1,2,3"));
+        assertThrows(IllegalArgumentException.class, () -> RateTable.parse("1,2,x,4"));
+    }
+}
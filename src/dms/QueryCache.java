@@ -0,0 +1,233 @@
+package dms;
+
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of query results, in front of the full-table reads in {@link DatabaseHelper}.
+ *
+ * <p>Each entry is a read-only list of rows with an estimated size in bytes, a time to
+ * live, and the tables it was read from ({@link Tag}). The cache holds at most
+ * {@code maxBytes} of estimated row data and evicts the least recently used entries to
+ * stay under it. Writers call {@link #invalidate(Tag)} after committing a change to a
+ * table, which drops every entry read from it; {@link ShippingOrderManager} does this for
+ * every write it makes. TTLs bound staleness for changes made by other processes.</p>
+ *
+ * <p>A load that was already running when its table was invalidated returns its rows to
+ * the caller but does not store them, so a write is never hidden by an older read
+ * finishing after it.</p>
+ *
+ * <p>Sizing is read from {@code -Ddms.cache.maxBytes} (default 32 MB; 0 disables
+ * caching). Hits, misses, evictions and the estimated bytes held are published as
+ * {@code cache.*} metrics.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class QueryCache {
+
+    /**
+     * Tables a cached result depends on.
+     */
+    public enum Tag {
+        /** The Customer table */
+        CUSTOMERS,
+        /** The Shipper table */
+        SHIPPERS,
+        /** The ShippingOrder table */
+        ORDERS
+    }
+
+    /**
+     * Reads the rows to cache on a miss.
+     *
+     * @param <T> the row type
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        /**
+         * Runs the query.
+         *
+         * @return the rows
+         * @throws SQLException if the query fails
+         */
+        List<T> load() throws SQLException;
+    }
+
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    private static final LongAdder HITS = METRICS.counter("cache.hits");
+    private static final LongAdder MISSES = METRICS.counter("cache.misses");
+    private static final LongAdder EVICTIONS = METRICS.counter("cache.evictions");
+    private static final LongAdder INVALIDATIONS = METRICS.counter("cache.invalidations");
+
+    /** Default bound on the estimated size of cached rows */
+    private static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    /** Estimated fixed cost of one entry: key, list, and bookkeeping */
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+
+    /** Cache shared by the whole application */
+    private static final QueryCache INSTANCE = new QueryCache(Long.getLong("dms.cache.maxBytes", DEFAULT_MAX_BYTES));
+
+    static {
+        METRICS.gauge("cache.bytes", () -> INSTANCE.getBytes());
+        METRICS.gauge("cache.entries", () -> INSTANCE.size());
+        METRICS.gauge("cache.hit_ratio", () -> {
+            long hits = HITS.sum();
+            long total = hits + MISSES.sum();
+            return total == 0 ? 0 : (double) hits / total;
+        });
+    }
+
+    /**
+     * A cached result.
+     *
+     * @param rows      the read-only rows
+     * @param bytes     estimated size
+     * @param expiresAt {@link System#nanoTime()} after which the entry is stale
+     * @param tags      tables the rows were read from
+     */
+    private record Entry(List<?> rows, long bytes, long expiresAt, Set<Tag> tags) {}
+
+    /** Upper bound on the estimated bytes held */
+    private final long maxBytes;
+
+    /** Entries in least- to most-recently used order; guarded by {@code this} */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Invalidation count per tag, to detect loads that raced with a write; guarded by {@code this} */
+    private final long[] generations = new long[Tag.values().length];
+
+    /** Estimated bytes held; guarded by {@code this} */
+    private long bytes;
+
+    /**
+     * Creates a cache with its own entries. The application uses {@link #getInstance()}.
+     *
+     * @param maxBytes upper bound on the estimated size of cached rows; 0 disables caching
+     */
+    QueryCache(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    /**
+     * Returns the shared cache.
+     *
+     * @return the singleton cache
+     */
+    public static QueryCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the cached rows for a key, or runs the loader and caches its result.
+     *
+     * @param key         identifies the query and the database it ran on
+     * @param ttlMillis   how long the result may be served
+     * @param bytesPerRow estimated size of one row
+     * @param tags        tables the query reads
+     * @param loader      runs the query on a miss
+     * @param <T>         the row type
+     * @return the rows, as a read-only list
+     * @throws SQLException if the loader fails
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(String key, long ttlMillis, long bytesPerRow, Set<Tag> tags, Loader<T> loader)
+            throws SQLException {
+        long[] seen;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.expiresAt() < 0) {
+                    HITS.increment();
+                    return (List<T>) entry.rows();
+                }
+                remove(key);
+            }
+            seen = generations.clone();
+        }
+
+        MISSES.increment();
+        List<T> rows = List.copyOf(loader.load());
+        long size = ENTRY_OVERHEAD_BYTES + rows.size() * bytesPerRow;
+        if (size > maxBytes) return rows;
+
+        synchronized (this) {
+            for (Tag tag : tags) {
+                if (generations[tag.ordinal()] != seen[tag.ordinal()]) return rows;
+            }
+            remove(key);
+            long expiresAt = System.nanoTime() + ttlMillis * 1_000_000;
+            entries.put(key, new Entry(rows, size, expiresAt, EnumSet.copyOf(tags)));
+            bytes += size;
+            evictToFit();
+        }
+        return rows;
+    }
+
+    /**
+     * Drops every entry read from a table. Call after committing a change to it.
+     *
+     * @param tag the changed table
+     */
+    public synchronized void invalidate(Tag tag) {
+        generations[tag.ordinal()]++;
+        INVALIDATIONS.increment();
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (entry.tags().contains(tag)) {
+                bytes -= entry.bytes();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops every entry, as when switching databases.
+     */
+    public synchronized void clear() {
+        for (Tag tag : Tag.values()) generations[tag.ordinal()]++;
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the estimated size of the cached rows.
+     *
+     * @return bytes held
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of cached results.
+     *
+     * @return entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) bytes -= removed.bytes();
+    }
+
+    /** Evicts least recently used entries until the size bound holds. */
+    private void evictToFit() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().bytes();
+            it.remove();
+            EVICTIONS.increment();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package dms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link QueryCache} class.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Repeated reads are served from the cache until the TTL runs out</li>
+ *     <li>The least recently used entries are evicted to stay under the size bound</li>
+ *     <li>Invalidating a table drops exactly the entries read from it</li>
+ *     <li>A load that races with an invalidation is not cached</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class QueryCacheTest {
+
+    private static final Set<QueryCache.Tag> CUSTOMERS = EnumSet.of(QueryCache.Tag.CUSTOMERS);
+    private static final Set<QueryCache.Tag> ORDERS = EnumSet.of(QueryCache.Tag.ORDERS, QueryCache.Tag.CUSTOMERS);
+
+    /**
+     * Default constructor for QueryCacheTest.
+     */
+    public QueryCacheTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Reads the same key repeatedly with a long and a zero TTL.
+     *
+     * @throws Exception if a load fails
+     */
+    @Test
+    @DisplayName("Hits until the TTL runs out")
+    public void testHitsAndTtl() throws Exception {
+        QueryCache cache = new QueryCache(1_000_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(List.of("a", "b"), cache.get("k", 60_000, 10, CUSTOMERS, () -> load(loads, "a", "b")));
+        }
+        assertEquals(1, loads.get());
+        assertThrows(UnsupportedOperationException.class,
+                () -> cache.get("k", 60_000, 10, CUSTOMERS, () -> load(loads)).add("c"));
+
+        for (int i = 0; i < 3; i++) cache.get("expired", 0, 10, CUSTOMERS, () -> load(loads, "x"));
+        assertEquals(4, loads.get(), "A zero TTL is never served");
+    }
+
+    /**
+     * Fills the cache past its bound and checks which entries survive.
+     *
+     * @throws Exception if a load fails
+     */
+    @Test
+    @DisplayName("Evicts least recently used entries by size")
+    public void testEviction() throws Exception {
+        // Each entry is 128 bytes of overhead plus 100 rows of 10 bytes
+        QueryCache cache = new QueryCache(3 * 1_128);
+        AtomicInteger loads = new AtomicInteger();
+        String[] rows = new String[100];
+        Arrays.fill(rows, "r");
+
+        for (String key : List.of("a", "b", "c")) cache.get(key, 60_000, 10, CUSTOMERS, () -> load(loads, rows));
+        cache.get("a", 60_000, 10, CUSTOMERS, () -> load(loads, rows));
+        cache.get("d", 60_000, 10, CUSTOMERS, () -> load(loads, rows));
+        assertEquals(4, loads.get());
+        assertEquals(3, cache.size());
+        assertTrue(cache.getBytes() <= 3 * 1_128);
+
+        cache.get("a", 60_000, 10, CUSTOMERS, () -> load(loads, rows));
+        assertEquals(4, loads.get(), "Recently used entry survives");
+        cache.get("b", 60_000, 10, CUSTOMERS, () -> load(loads, rows));
+        assertEquals(5, loads.get(), "Least recently used entry was evicted");
+
+        cache.get("huge", 60_000, 1_000_000, CUSTOMERS, () -> load(loads, "x"));
+        assertEquals(3, cache.size(), "Results larger than the bound are not cached");
+    }
+
+    /**
+     * Invalidates one table and checks that only dependent entries are dropped,
+     * including a load that was running at the time.
+     *
+     * @throws Exception if a load fails
+     */
+    @Test
+    @DisplayName("Invalidation drops dependent entries and racing loads")
+    public void testInvalidation() throws Exception {
+        QueryCache cache = new QueryCache(1_000_000);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("customers", 60_000, 10, CUSTOMERS, () -> load(loads, "c"));
+        cache.get("orders", 60_000, 10, ORDERS, () -> load(loads, "o"));
+
+        cache.invalidate(QueryCache.Tag.ORDERS);
+        assertEquals(1, cache.size());
+        cache.get("customers", 60_000, 10, CUSTOMERS, () -> load(loads, "c"));
+        assertEquals(2, loads.get(), "Customers stay cached when orders change");
+
+        cache.invalidate(QueryCache.Tag.CUSTOMERS);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+
+        // A write commits while the read is running: the read's rows must not be cached
+        List<String> stale = cache.get("orders", 60_000, 10, ORDERS, () -> {
+            cache.invalidate(QueryCache.Tag.ORDERS);
+            return load(loads, "old");
+        });
+        assertEquals(List.of("old"), stale);
+        assertEquals(List.of("new"), cache.get("orders", 60_000, 10, ORDERS, () -> load(loads, "new")));
+    }
+
+    private static List<String> load(AtomicInteger loads, String... rows) {
+        loads.incrementAndGet();
+        return List.of(rows);
+    }
+}
@@ -0,0 +1,137 @@
+package dms;
+
+/**
+ * Immutable set of pricing coefficients used by {@link PricingEngine}.
+ *
+ * <p>The cost of an order is:</p>
+ * <pre>base + perPound × weight + perMile × distance + perPoundMile × (weight × distance)</pre>
+ * <p>rounded to the nearest cent. The default table reproduces the historical
+ * weight × distance × 0.0015 formula stored with every order.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class RateTable {
+
+    /** Default table: $0.0015 per pound-mile with no fixed fees */
+    public static final RateTable DEFAULT = new RateTable(0.0, 0.0, 0.0, 0.0015);
+
+    /** Flat fee charged per order */
+    private final double base;
+
+    /** Charge per pound of weight */
+    private final double perPound;
+
+    /** Charge per mile of distance */
+    private final double perMile;
+
+    /** Charge per pound-mile (weight × distance) */
+    private final double perPoundMile;
+
+    /**
+     * Constructs a rate table.
+     *
+     * @param base         flat fee per order
+     * @param perPound     charge per pound
+     * @param perMile      charge per mile
+     * @param perPoundMile charge per pound-mile
+     */
+    public RateTable(double base, double perPound, double perMile, double perPoundMile) {
+        this.base = base;
+        this.perPound = perPound;
+        this.perMile = perMile;
+        this.perPoundMile = perPoundMile;
+    }
+
+    /**
+     * Parses a table from four comma-separated numbers:
+     * {@code base,perPound,perMile,perPoundMile}.
+     *
+     * @param spec the comma-separated coefficients
+     * @return the parsed table
+     * @throws IllegalArgumentException if the text is not four numbers
+     */
+    public static RateTable parse(String spec) {
+        String[] parts = spec.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Rate table needs 4 values (base,perPound,perMile,perPoundMile): " + spec);
+        }
+        try {
+            return new RateTable(
+                    Double.parseDouble(parts[0].trim()),
+                    Double.parseDouble(parts[1].trim()),
+                    Double.parseDouble(parts[2].trim()),
+                    Double.parseDouble(parts[3].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rate table: " + spec, e);
+        }
+    }
+
+    /**
+     * Calculates the cost of one order with this table.
+     *
+     * @param weight   shipment weight in pounds
+     * @param distance shipping distance in miles
+     * @return the cost rounded to the nearest cent
+     */
+    public double price(double weight, int distance) {
+        return roundToCents(base + perPound * weight + perMile * distance + perPoundMile * (weight * distance));
+    }
+
+    /**
+     * Rounds a dollar amount half-up to the nearest cent.
+     * Shared by the scalar and bulk paths so both produce identical results.
+     *
+     * @param amount raw dollar amount
+     * @return the amount rounded to cents
+     */
+    static double roundToCents(double amount) {
+        return Math.floor(amount * 100.0 + 0.5) / 100.0;
+    }
+
+    /**
+     * Returns the flat fee per order.
+     *
+     * @return the flat fee per order
+     */
+    public double getBase() {
+        return base;
+    }
+
+    /**
+     * Returns the charge per pound.
+     *
+     * @return the charge per pound
+     */
+    public double getPerPound() {
+        return perPound;
+    }
+
+    /**
+     * Returns the charge per mile.
+     *
+     * @return the charge per mile
+     */
+    public double getPerMile() {
+        return perMile;
+    }
+
+    /**
+     * Returns the charge per pound-mile.
+     *
+     * @return the charge per pound-mile
+     */
+    public double getPerPoundMile() {
+        return perPoundMile;
+    }
+
+    /**
+     * Returns the coefficients in the same format accepted by {@link #parse(String)}.
+     *
+     * @return comma-separated coefficients
+     */
+    @Override
+    public String toString() {
+        return base + "," + perPound + "," + perMile + "," + perPoundMile;
+    }
+}
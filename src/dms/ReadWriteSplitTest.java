@@ -0,0 +1,146 @@
+package dms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests read/write splitting in {@link DBConnectionManager}.
+ * <p>
+ * Requires a primary and at least one replica configured in the environment or a
+ * {@code .env} file ({@code DB_URL} and {@code DB_REPLICA_URLS}); two independent local
+ * database instances with the same schema are enough, since only routing is checked.
+ * It is skipped otherwise. These tests verify:
+ * <ul>
+ *     <li>Read leases use read-only replica connections, spread round robin</li>
+ *     <li>Reads right after a committed write use the primary, on the writing thread only</li>
+ *     <li>A lease that did not write leaves reads on the replicas</li>
+ *     <li>Writes through a replica connection are rejected, and a write lease inside a read lease uses the primary</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class ReadWriteSplitTest {
+
+    private final DBConnectionManager db = DBConnectionManager.getInstance();
+
+    /**
+     * Default constructor for ReadWriteSplitTest.
+     */
+    public ReadWriteSplitTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Connects to the configured primary and replicas, or skips the test.
+     */
+    @BeforeEach
+    public void setUp() {
+        boolean connected;
+        try {
+            db.connectFromEnvironment();
+            connected = true;
+        } catch (SQLException e) {
+            connected = false;
+        }
+        assumeTrue(connected && !db.getReplicaPools().isEmpty(), "No primary and replica configured");
+    }
+
+    /**
+     * Closes the connections.
+     */
+    @AfterEach
+    public void tearDown() {
+        db.closeConnection();
+    }
+
+    /**
+     * Checks where read leases go before and after a write.
+     *
+     * @throws Exception if a connection cannot be borrowed or the wait is interrupted
+     */
+    @Test
+    @DisplayName("Reads go to replicas except right after a write")
+    public void testRouting() throws Exception {
+        waitOutReadYourWritesWindow();
+
+        List<ConnectionPool> replicas = db.getReplicaPools();
+        Set<ConnectionPool> used = new HashSet<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            try (var _ = db.leaseForRead()) {
+                assertTrue(db.getConnection().isReadOnly(), "Read lease should use a replica");
+                for (ConnectionPool replica : replicas) {
+                    if (replica.getActiveCount() > 0) used.add(replica);
+                }
+            }
+        }
+        assertEquals(replicas.size(), used.size(), "Round robin should visit every replica");
+
+        try (var _ = db.lease()) {
+            assertFalse(db.getConnection().isReadOnly(), "Write lease should use the primary");
+        }
+        assertFalse(db.inReadYourWritesWindow(), "A lease that wrote nothing opens no window");
+
+        try (var _ = db.lease()) {
+            db.markWritten();
+        }
+        assertTrue(db.inReadYourWritesWindow());
+        try (var _ = db.leaseForRead()) {
+            assertFalse(db.getConnection().isReadOnly(), "Reads after a write should use the primary");
+        }
+
+        boolean[] otherThreadOnReplica = new boolean[1];
+        Thread other = Thread.ofVirtual().start(() -> {
+            try (var _ = db.leaseForRead()) {
+                otherThreadOnReplica[0] = db.getConnection().isReadOnly();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        other.join();
+        assertTrue(otherThreadOnReplica[0], "Other threads' reads should stay on the replicas");
+    }
+
+    /**
+     * Attempts a write through a replica connection.
+     *
+     * @throws Exception if a connection cannot be borrowed or the wait is interrupted
+     */
+    @Test
+    @DisplayName("Replica connections reject writes")
+    public void testReplicaIsReadOnly() throws Exception {
+        waitOutReadYourWritesWindow();
+        try (var _ = db.leaseForRead()) {
+            Connection conn = db.getConnection();
+            assertTrue(conn.isReadOnly());
+            try (Statement stmt = conn.createStatement()) {
+                assertThrows(SQLException.class,
+                        () -> stmt.executeUpdate("UPDATE ShippingOrder SET row_version = row_version WHERE order_id = -1"));
+            }
+
+            // A write lease taken inside the read lease moves to the primary and back
+            try (var _ = db.lease()) {
+                assertFalse(db.getConnection().isReadOnly(), "Nested write lease should use the primary");
+            }
+            assertSame(conn, db.getConnection());
+        }
+    }
+
+    private void waitOutReadYourWritesWindow() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (db.inReadYourWritesWindow() && System.currentTimeMillis() < deadline) Thread.sleep(50);
+        assertFalse(db.inReadYourWritesWindow());
+    }
+}
@@ -0,0 +1,104 @@
+package dms;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Benchmark of scroll-like table rendering, without JavaFX.
+ *
+ * <p>Slides a viewport of visible rows over a large order list a few rows at a time and
+ * renders the weight, distance, and cost cells of every visible row on each step, as a
+ * {@code TableView} does while scrolling. Compares {@code String.format} per cell,
+ * {@link OrderText} formatting per cell, and the per-row cached text on
+ * {@link ShippingOrder}, reporting time and bytes allocated per cell (from the JVM's
+ * per-thread allocation counter). Run it with:</p>
+ * <pre>java -cp out dms.RenderBenchmark [orders] [visibleRows]</pre>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class RenderBenchmark {
+
+    /** Sink that keeps the JIT from eliminating benchmark loops */
+    private static volatile int blackhole;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private RenderBenchmark() {}
+
+    /**
+     * Entry point for the benchmark.
+     *
+     * @param args optional order count (default 200,000) and viewport height (default 40)
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int visible = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+
+        Random random = new Random(3);
+        ShippingOrder[] orders = new ShippingOrder[count];
+        for (int i = 0; i < count; i++) {
+            orders[i] = new ShippingOrder(i + 1, 1, 1, 0.1 + random.nextInt(1500) / 10.0,
+                    1 + random.nextInt(3000), "Customer", "Shipper", random.nextInt(100_000) / 100.0);
+        }
+
+        for (int round = 1; round <= 5; round++) {
+            System.out.printf("Round %d: String.format %s, formatter %s, cached %s%n", round,
+                    measure(orders, visible, RenderBenchmark::renderWithFormat),
+                    measure(orders, visible, RenderBenchmark::renderWithFormatter),
+                    measure(orders, visible, RenderBenchmark::renderCached));
+        }
+    }
+
+    /**
+     * Renders the three numeric cells of one row.
+     */
+    private interface RowRenderer {
+        int render(ShippingOrder order);
+    }
+
+    private static int renderWithFormat(ShippingOrder order) {
+        return String.format("%.1f lb", order.getWeightInPounds()).length()
+                + (order.getDistanceInMiles() + " mi").length()
+                + String.format("$%.2f", order.getShippingCost()).length();
+    }
+
+    private static int renderWithFormatter(ShippingOrder order) {
+        return OrderText.weight(order.getWeightInPounds()).length()
+                + OrderText.distance(order.getDistanceInMiles()).length()
+                + OrderText.cost(order.getShippingCost()).length();
+    }
+
+    private static int renderCached(ShippingOrder order) {
+        return order.getWeightText().length() + order.getDistanceText().length() + order.getCostText().length();
+    }
+
+    /**
+     * Scrolls down and back up through the whole list, one to three rows per step,
+     * re-rendering the full viewport at every step.
+     */
+    private static String measure(ShippingOrder[] orders, int visible, RowRenderer renderer) {
+        Random steps = new Random(9);
+        long cells = 0;
+        int sink = 0;
+        long allocStart = allocatedBytes();
+        long start = System.nanoTime();
+        for (int direction = 1; direction >= -1; direction -= 2) {
+            int top = direction > 0 ? 0 : orders.length - visible;
+            while (top >= 0 && top + visible <= orders.length) {
+                for (int row = top; row < top + visible; row++) sink += renderer.render(orders[row]);
+                cells += 3L * visible;
+                top += direction * (1 + steps.nextInt(3));
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocStart;
+        blackhole = sink;
+        return String.format("%.1f ns/cell (%.1f B/cell)", (double) nanos / cells, (double) allocated / cells);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
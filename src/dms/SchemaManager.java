@@ -0,0 +1,344 @@
+package dms;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Creates, migrates, and checks the database schema the application depends on.
+ *
+ * <p>Every name lookup ({@code SELECT customer_id FROM Customer WHERE name = ?}) and every
+ * order join on {@code customer_id} and {@code shipper_id} needs an index to be a seek
+ * rather than a full table scan. This class owns the DDL for the {@code Customer},
+ * {@code Shipper}, {@code ShippingOrder}, and {@code ShippingOrderArchive} tables, the
+ * import bookkeeping tables used by {@link ImportDeduplicator} and {@link ImportCheckpoint},
+ * and the indexes they need:</p>
+ * <ul>
+ *     <li>{@link #migrate(Connection)} creates missing tables, adds missing columns such as
+ *         {@code row_version}, and creates missing indexes. It is safe to run repeatedly.</li>
+ *     <li>{@link #findProblems(Connection)} reports what is missing without changing anything.</li>
+ *     <li>{@link #checkOnStartup(Connection)} is called by the entry points after connecting.
+ *         It prints a warning for each problem, or migrates when started with
+ *         {@code -Ddms.schema.migrate=true}.</li>
+ * </ul>
+ *
+ * <p>An existing index counts as long as it starts with the required columns, so indexes
+ * created by hand or by foreign keys under other names are recognized. A required unique
+ * index is only satisfied by a unique index on exactly those columns.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class SchemaManager {
+
+    /**
+     * A table and the statement that creates it.
+     *
+     * @param name      the table name
+     * @param createSql the {@code CREATE TABLE} statement
+     */
+    record Table(String name, String createSql) {}
+
+    /**
+     * A column added to a table after it was first released.
+     *
+     * @param table      the table name
+     * @param name       the column name
+     * @param definition the column type and constraints
+     */
+    record Column(String table, String name, String definition) {
+
+        /**
+         * Builds the statement that adds the column.
+         *
+         * @return the {@code ALTER TABLE} statement
+         */
+        String addSql() {
+            return "ALTER TABLE " + table + " ADD COLUMN " + name + " " + definition;
+        }
+    }
+
+    /**
+     * An index the application's queries rely on.
+     *
+     * @param table   the table name
+     * @param name    the name used when the index is created
+     * @param unique  whether the index must reject duplicate keys
+     * @param columns the indexed columns, in order
+     */
+    record Index(String table, String name, boolean unique, List<String> columns) {
+
+        /**
+         * Builds the statement that creates the index.
+         *
+         * @return the {@code CREATE INDEX} statement
+         */
+        String createSql() {
+            return "CREATE " + (unique ? "UNIQUE " : "") + "INDEX " + name + " ON " + table
+                    + " (" + String.join(", ", columns) + ")";
+        }
+
+        /**
+         * Returns whether an existing index serves the same lookups as this one. A plain
+         * index is served by any index whose leading columns match; a unique index needs
+         * a unique index on exactly the same columns, since uniqueness of a wider key says
+         * nothing about the narrower one.
+         *
+         * @param existingUnique  whether the existing index is unique
+         * @param existingColumns the existing index's columns, in order
+         * @return true if no new index is needed
+         */
+        boolean isSatisfiedBy(boolean existingUnique, List<String> existingColumns) {
+            if (unique && (!existingUnique || existingColumns.size() != columns.size())) return false;
+            if (existingColumns.size() < columns.size()) return false;
+            for (int i = 0; i < columns.size(); i++) {
+                if (!columns.get(i).equalsIgnoreCase(existingColumns.get(i))) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return (unique ? "unique index " : "index ") + "on " + table + " (" + String.join(", ", columns) + ")";
+        }
+    }
+
+    /** Tables in creation order, so referenced tables exist before their foreign keys */
+    static final List<Table> TABLES = List.of(
+            new Table("Customer", """
+                CREATE TABLE IF NOT EXISTS Customer (
+                    customer_id INT AUTO_INCREMENT PRIMARY KEY,
+                    name VARCHAR(30) NOT NULL,
+                    email VARCHAR(100),
+                    phone VARCHAR(20)
+                )
+                """),
+            new Table("Shipper", """
+                CREATE TABLE IF NOT EXISTS Shipper (
+                    shipper_id INT AUTO_INCREMENT PRIMARY KEY,
+                    name VARCHAR(30) NOT NULL,
+                    phone VARCHAR(20)
+                )
+                """),
+            new Table("ShippingOrder", """
+                CREATE TABLE IF NOT EXISTS ShippingOrder (
+                    order_id INT AUTO_INCREMENT PRIMARY KEY,
+                    customer_id INT NOT NULL,
+                    shipper_id INT NOT NULL,
+                    weight_in_pounds DECIMAL(6,2) NOT NULL,
+                    distance_in_miles INT NOT NULL,
+                    shipping_cost DECIMAL(10,2) NOT NULL,
+                    row_version INT NOT NULL DEFAULT 0,
+                    FOREIGN KEY (customer_id) REFERENCES Customer (customer_id),
+                    FOREIGN KEY (shipper_id) REFERENCES Shipper (shipper_id)
+                )
+                """),
+            new Table("ShippingOrderArchive", """
+                CREATE TABLE IF NOT EXISTS ShippingOrderArchive (
+                    order_id INT PRIMARY KEY,
+                    customer_id INT NOT NULL,
+                    shipper_id INT NOT NULL,
+                    weight_in_pounds DECIMAL(6,2) NOT NULL,
+                    distance_in_miles INT NOT NULL,
+                    shipping_cost DECIMAL(10,2) NOT NULL,
+                    row_version INT NOT NULL DEFAULT 0,
+                    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY (customer_id) REFERENCES Customer (customer_id),
+                    FOREIGN KEY (shipper_id) REFERENCES Shipper (shipper_id)
+                )
+                """),
+            new Table("ImportedRow", """
+                CREATE TABLE IF NOT EXISTS ImportedRow (
+                    source_file BIGINT NOT NULL,
+                    source_line BIGINT NOT NULL,
+                    row_hash BIGINT NOT NULL,
+                    row_key VARCHAR(255) NOT NULL,
+                    imported_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    PRIMARY KEY (source_file, source_line)
+                )
+                """),
+            new Table("ImportedFile", """
+                CREATE TABLE IF NOT EXISTS ImportedFile (
+                    fingerprint CHAR(64) PRIMARY KEY,
+                    file_name VARCHAR(255) NOT NULL,
+                    file_size BIGINT NOT NULL,
+                    row_count BIGINT NOT NULL,
+                    imported_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                )
+                """),
+            new Table("ImportCheckpoint", """
+                CREATE TABLE IF NOT EXISTS ImportCheckpoint (
+                    fingerprint CHAR(64) PRIMARY KEY,
+                    file_name VARCHAR(255) NOT NULL,
+                    byte_offset BIGINT NOT NULL,
+                    line_number BIGINT NOT NULL,
+                    row_count BIGINT NOT NULL,
+                    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+                )
+                """));
+
+    /** Columns that older deployments may lack */
+    static final List<Column> ADDED_COLUMNS = List.of(
+            new Column("ShippingOrder", "row_version", "INT NOT NULL DEFAULT 0"));
+
+    /** Indexes the queries need beyond the primary keys */
+    static final List<Index> INDEXES = List.of(
+            new Index("Customer", "uk_customer_name", true, List.of("name")),
+            new Index("Shipper", "uk_shipper_name", true, List.of("name")),
+            new Index("ShippingOrder", "idx_order_customer", false, List.of("customer_id")),
+            new Index("ShippingOrder", "idx_order_shipper", false, List.of("shipper_id")),
+            new Index("ShippingOrderArchive", "idx_archive_customer", false, List.of("customer_id")),
+            new Index("ImportedRow", "idx_imported_row_hash", false, List.of("row_hash")),
+            new Index("ImportedRow", "idx_imported_row_time", false, List.of("imported_at")));
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SchemaManager() {}
+
+    /**
+     * Brings the schema up to date: creates missing tables, adds missing columns, and
+     * creates missing indexes. A unique name index that cannot be created, usually because
+     * the table already holds duplicate names, is reported on standard error and skipped
+     * so the rest of the migration still runs.
+     *
+     * @param conn the connection to migrate through
+     * @return a description of each change made, empty if the schema was already current
+     * @throws SQLException if the metadata cannot be read or a table or column cannot be created
+     */
+    public static List<String> migrate(Connection conn) throws SQLException {
+        List<String> changes = new ArrayList<>();
+        DatabaseMetaData meta = conn.getMetaData();
+        try (Statement stmt = conn.createStatement()) {
+            for (Table table : TABLES) {
+                if (tableExists(conn, meta, table.name())) continue;
+                stmt.execute(table.createSql());
+                changes.add("Created table " + table.name());
+            }
+            for (Column column : ADDED_COLUMNS) {
+                if (columnExists(conn, meta, column.table(), column.name())) continue;
+                stmt.execute(column.addSql());
+                changes.add("Added column " + column.table() + "." + column.name());
+            }
+            for (Index index : INDEXES) {
+                if (hasIndex(conn, meta, index)) continue;
+                try {
+                    stmt.execute(index.createSql());
+                    changes.add("Created " + index);
+                } catch (SQLException e) {
+                    System.err.println("Could not create " + index + " (check for duplicate values): " + e.getMessage());
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Lists missing tables, columns, and indexes without changing the schema.
+     *
+     * @param conn the connection to inspect
+     * @return a description of each problem, empty if the schema is complete
+     * @throws SQLException if the metadata cannot be read
+     */
+    public static List<String> findProblems(Connection conn) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        DatabaseMetaData meta = conn.getMetaData();
+        for (Table table : TABLES) {
+            if (!tableExists(conn, meta, table.name())) problems.add("Missing table " + table.name());
+        }
+        for (Column column : ADDED_COLUMNS) {
+            if (tableExists(conn, meta, column.table()) && !columnExists(conn, meta, column.table(), column.name())) {
+                problems.add("Missing column " + column.table() + "." + column.name());
+            }
+        }
+        for (Index index : INDEXES) {
+            if (tableExists(conn, meta, index.table()) && !hasIndex(conn, meta, index)) {
+                problems.add("Missing " + index + "; lookups on it scan the whole table");
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Checks the schema after connecting. Prints a warning for each problem found, or,
+     * with {@code -Ddms.schema.migrate=true}, fixes them and prints what changed. Never
+     * throws, so a schema the check cannot read does not stop the application.
+     *
+     * @param conn the connection to check
+     */
+    public static void checkOnStartup(Connection conn) {
+        try {
+            if (Boolean.getBoolean("dms.schema.migrate")) {
+                for (String change : migrate(conn)) System.out.println("Schema: " + change);
+                return;
+            }
+            List<String> problems = findProblems(conn);
+            for (String problem : problems) System.err.println("Schema warning: " + problem);
+            if (!problems.isEmpty()) {
+                System.err.println("Run 'java dms.BatchMain schema' or start with -Ddms.schema.migrate=true to fix.");
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not check the database schema: " + e.getMessage());
+        }
+    }
+
+    private static boolean tableExists(Connection conn, DatabaseMetaData meta, String table) throws SQLException {
+        try (ResultSet rs = meta.getTables(conn.getCatalog(), conn.getSchema(), identifier(meta, table),
+                new String[]{"TABLE"})) {
+            while (rs.next()) {
+                if (table.equalsIgnoreCase(rs.getString("TABLE_NAME"))) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean columnExists(Connection conn, DatabaseMetaData meta, String table, String column)
+            throws SQLException {
+        try (ResultSet rs = meta.getColumns(conn.getCatalog(), conn.getSchema(), identifier(meta, table),
+                identifier(meta, column))) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasIndex(Connection conn, DatabaseMetaData meta, Index required) throws SQLException {
+        // Index name -> column position -> column name; rows of one index may arrive in any order
+        Map<String, TreeMap<Short, String>> columnsByIndex = new HashMap<>();
+        Map<String, Boolean> uniqueByIndex = new HashMap<>();
+        try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), conn.getSchema(),
+                identifier(meta, required.table()), false, true)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (name == null || column == null) continue; // Table statistics row
+                columnsByIndex.computeIfAbsent(name, k -> new TreeMap<>()).put(rs.getShort("ORDINAL_POSITION"), column);
+                uniqueByIndex.put(name, !rs.getBoolean("NON_UNIQUE"));
+            }
+        }
+        for (Map.Entry<String, TreeMap<Short, String>> index : columnsByIndex.entrySet()) {
+            List<String> columns = new ArrayList<>(index.getValue().values());
+            if (required.isSatisfiedBy(uniqueByIndex.get(index.getKey()), columns)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Converts a name to the case the database stores unquoted identifiers in, for
+     * metadata lookups.
+     */
+    private static String identifier(DatabaseMetaData meta, String name) throws SQLException {
+        if (meta.storesUpperCaseIdentifiers()) return name.toUpperCase(Locale.ROOT);
+        if (meta.storesLowerCaseIdentifiers()) return name.toLowerCase(Locale.ROOT);
+        return name;
+    }
+}
@@ -0,0 +1,66 @@
+package dms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link SchemaManager} class.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Which existing indexes satisfy a required plain or unique index</li>
+ *     <li>The generated DDL for indexes and added columns</li>
+ *     <li>The name lookups are covered by unique indexes</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class SchemaManagerTest {
+
+    /**
+     * Default constructor for SchemaManagerTest.
+     */
+    public SchemaManagerTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Checks prefix matching for plain indexes and exact matching for unique ones.
+     */
+    @Test
+    @DisplayName("Existing indexes are matched by leading columns")
+    public void testIndexMatching() {
+        SchemaManager.Index byCustomer = new SchemaManager.Index("ShippingOrder", "idx_order_customer", false,
+                List.of("customer_id"));
+        assertTrue(byCustomer.isSatisfiedBy(false, List.of("CUSTOMER_ID")), "Case is ignored");
+        assertTrue(byCustomer.isSatisfiedBy(false, List.of("customer_id", "order_id")), "A wider index still seeks");
+        assertFalse(byCustomer.isSatisfiedBy(false, List.of("shipper_id", "customer_id")), "Not a leading column");
+
+        SchemaManager.Index byName = new SchemaManager.Index("Customer", "uk_customer_name", true, List.of("name"));
+        assertTrue(byName.isSatisfiedBy(true, List.of("name")));
+        assertFalse(byName.isSatisfiedBy(false, List.of("name")), "A plain index does not enforce uniqueness");
+        assertFalse(byName.isSatisfiedBy(true, List.of("name", "email")), "Unique on a wider key is not unique on name");
+    }
+
+    /**
+     * Checks the generated statements and that both name tables get a unique name index.
+     */
+    @Test
+    @DisplayName("Builds DDL for the required indexes")
+    public void testDdl() {
+        SchemaManager.Index byName = new SchemaManager.Index("Customer", "uk_customer_name", true, List.of("name"));
+        assertEquals("CREATE UNIQUE INDEX uk_customer_name ON Customer (name)", byName.createSql());
+        assertEquals("ALTER TABLE ShippingOrder ADD COLUMN row_version INT NOT NULL DEFAULT 0",
+                SchemaManager.ADDED_COLUMNS.get(0).addSql());
+
+        for (String table : List.of("Customer", "Shipper")) {
+            assertTrue(SchemaManager.INDEXES.stream().anyMatch(index -> index.table().equals(table)
+                    && index.unique() && index.columns().equals(List.of("name"))), table);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package dms;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test for {@link ServerMain} reporting requests per second and latency percentiles.
+ *
+ * <p>By default it starts the server in-process against an embedded H2 database in
+ * MySQL compatibility mode (H2 must be on the classpath), creates the schema, and
+ * drives a mix of 50% inserts, 40% lookups, and 10% updates from many concurrent
+ * clients over keep-alive HTTP/1.1 connections. Pass an {@code http://} URL instead
+ * of a JDBC URL to load an already running server. Run it with:</p>
+ * <pre>java -cp out:h2.jar dms.ServerLoadTest [jdbcUrl|serverUrl] [requests] [concurrency]</pre>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class ServerLoadTest {
+
+    /** Embedded database used when no target is given */
+    private static final String DEFAULT_JDBC_URL = "jdbc:h2:mem:dms;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    /** Names used for generated orders (letters only, so they pass validation) */
+    private static final String[] CUSTOMERS = {"Alice Smith", "Bob Jones", "Carol White", "Dan Brown", "Eve Black"};
+    private static final String[] SHIPPERS = {"UPS", "FedEx", "DHL", "USPS"};
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ServerLoadTest() {}
+
+    /**
+     * Entry point for the load test.
+     *
+     * @param args optional target (JDBC or http URL), request count (default 5,000),
+     *             and concurrency (default 64)
+     * @throws Exception if the embedded server cannot be started
+     */
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : DEFAULT_JDBC_URL;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        ServerMain server = null;
+        String baseUrl;
+        if (target.startsWith("http")) {
+            baseUrl = target.endsWith("/") ? target.substring(0, target.length() - 1) : target;
+        } else {
+            server = startEmbedded(target);
+            baseUrl = "http://localhost:" + server.getPort();
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        try {
+            System.out.printf("Target %s, %d requests, %d concurrent clients%n", baseUrl, requests, concurrency);
+            run(client, baseUrl, Math.max(requests / 10, 100), concurrency, false);
+            run(client, baseUrl, requests, concurrency, true);
+        } finally {
+            if (server != null) {
+                server.stop();
+                DBConnectionManager.getInstance().closeConnection();
+            }
+        }
+    }
+
+    /**
+     * Connects to the given JDBC URL, creates the schema, and starts a server on a free port.
+     */
+    private static ServerMain startEmbedded(String jdbcUrl) throws SQLException, IOException {
+        Connection conn = DBConnectionManager.getInstance().connect(jdbcUrl, "sa", "");
+        SchemaManager.migrate(conn);
+        ServerMain server = new ServerMain(new ShippingOrderManager());
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        return server;
+    }
+
+    /**
+     * Sends {@code requests} requests with at most {@code concurrency} in flight and
+     * optionally prints the results.
+     */
+    private static void run(HttpClient client, String baseUrl, int requests, int concurrency, boolean report)
+            throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        AtomicIntegerArray createdIds = new AtomicIntegerArray(requests);
+        AtomicInteger createdCount = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                inFlight.acquire();
+                int n = i;
+                clients.submit(() -> {
+                    try {
+                        long t0 = System.nanoTime();
+                        int status = sendOne(client, baseUrl, n, createdIds, createdCount);
+                        latency.recordSince(t0);
+                        if (status >= 400) errors.increment();
+                    } catch (IOException | InterruptedException e) {
+                        errors.increment();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (!report) return;
+        System.out.printf("Throughput: %.0f req/s over %.2f s%n", requests * 1e9 / elapsed, elapsed / 1e9);
+        System.out.printf("Latency:    p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                latency.getQuantileNanos(0.50) / 1e6, latency.getQuantileNanos(0.90) / 1e6,
+                latency.getQuantileNanos(0.99) / 1e6, latency.getMaxNanos() / 1e6);
+        System.out.printf("Errors:     %d%n", errors.sum());
+    }
+
+    /**
+     * Sends one request from the workload mix and returns its HTTP status.
+     */
+    private static int sendOne(HttpClient client, String baseUrl, int n,
+                               AtomicIntegerArray createdIds, AtomicInteger createdCount)
+            throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int known = createdCount.get();
+        int slot = n % 10;
+
+        HttpRequest request;
+        if (slot < 5 || known == 0) {
+            String json = "{\"customerName\":\"" + CUSTOMERS[random.nextInt(CUSTOMERS.length)]
+                    + "\",\"shipperName\":\"" + SHIPPERS[random.nextInt(SHIPPERS.length)]
+                    + "\",\"weight\":" + (1 + random.nextInt(1490) / 10.0)
+                    + ",\"distance\":" + (1 + random.nextInt(3000)) + "}";
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/orders"))
+                    .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 201) {
+                String location = response.headers().firstValue("Location").orElse("");
+                int id = Integer.parseInt(location.substring(location.lastIndexOf('/') + 1));
+                int index = createdCount.getAndIncrement();
+                if (index < createdIds.length()) createdIds.set(index, id);
+            }
+            return response.statusCode();
+        }
+
+        int id = createdIds.get(random.nextInt(Math.min(known, createdIds.length())));
+        if (id == 0) {
+            // The slot was claimed but its ID is not published yet; read a page instead
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/orders?limit=20")).GET().build();
+        } else if (slot < 9) {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/orders/" + id)).GET().build();
+        } else {
+            String json = "{\"weight\":" + (1 + random.nextInt(1490) / 10.0) + ",\"distance\":" + (1 + random.nextInt(3000)) + "}";
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/orders/" + id))
+                    .PUT(HttpRequest.BodyPublishers.ofString(json)).build();
+        }
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
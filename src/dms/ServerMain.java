@@ -0,0 +1,527 @@
+package dms;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless entry point exposing shipping orders over a local HTTP/JSON API,
+ * for warehouse scanners and scripts that cannot drive the GUI or console menu.
+ *
+ * <p>Endpoints:</p>
+ * <ul>
+ *     <li>{@code GET /orders?after=ID&limit=N} – orders with IDs greater than {@code after}, in ID order</li>
+ *     <li>{@code GET /orders/{id}} – one order</li>
+ *     <li>{@code POST /orders} – add one order:
+ *         {@code {"customerName":"Alice","shipperName":"UPS","weight":10.5,"distance":500}}</li>
+ *     <li>{@code POST /orders/batch} – add a JSON array of orders in one transaction</li>
+ *     <li>{@code PUT /orders/{id}} – update weight and distance: {@code {"weight":12,"distance":450}};
+ *         add {@code "version"} (from a previous read) to fail with 409 if someone else changed it</li>
+ *     <li>{@code DELETE /orders/{id}} – delete one order; {@code ?version=N} makes it conditional too</li>
+ *     <li>{@code POST /orders/import} – import a pipe-delimited body in the same format as order files</li>
+ *     <li>{@code GET /customers?prefix=Al} and {@code GET /shippers?prefix=U} – name lookup</li>
+ *     <li>{@code GET /health} – cached database status from {@link ConnectionHealthMonitor}; 503 when not connected</li>
+ * </ul>
+ *
+ * <p>Every request runs on its own virtual thread, and database work borrows a pooled
+ * connection through {@link AsyncShippingOrderManager}. Concurrent single-order POSTs
+ * are coalesced by {@link OrderInsertBatcher} into batched inserts. Responses always
+ * carry a Content-Length and request bodies are read fully, so HTTP/1.1 clients keep
+ * their connections open between requests.</p>
+ *
+ * <p>Database settings come from the environment (see
+ * {@link DBConnectionManager#connectFromEnvironment()}). The port is the first argument,
+ * or {@code -Ddms.server.port}, defaulting to 8080; the server binds the loopback
+ * interface unless {@code -Ddms.server.host} says otherwise. With
+ * {@code -Ddms.archive.keepRecent=N} an {@link OrderArchiver} moves all but the newest N
+ * orders to the archive table in the background, and with {@code -Ddms.spool.dir=DIR} a
+ * {@link ManifestWatcher} imports manifests dropped into that directory.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class ServerMain {
+
+    /** Default TCP port */
+    public static final int DEFAULT_PORT = 8080;
+
+    /** Largest page returned by {@code GET /orders} */
+    private static final int MAX_PAGE_SIZE = 1_000;
+
+    /** Rows sent to the database per batch by {@code POST /orders/import} */
+    private static final int IMPORT_BATCH_SIZE = 1_000;
+
+    // Request metrics
+    private static final LatencyHistogram REQUEST_LATENCY = MetricsRegistry.getInstance().histogram("http.request");
+    private static final LongAdder SERVER_ERRORS = MetricsRegistry.getInstance().counter("http.server_errors");
+
+    /** Blocking manager holding the in-memory order list */
+    private final ShippingOrderManager manager;
+
+    /** Runs database operations on pooled connections */
+    private final AsyncShippingOrderManager async;
+
+    /** Coalesces single-order inserts */
+    private final OrderInsertBatcher batcher;
+
+    /** Validates the database connection in the background for {@code /health} */
+    private final ConnectionHealthMonitor healthMonitor = new ConnectionHealthMonitor(DBConnectionManager.getInstance());
+
+    /** One virtual thread per request */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Underlying JDK HTTP server, or null until started */
+    private HttpServer server;
+
+    /**
+     * Creates a server over the given manager. Call {@link #start(InetSocketAddress)} to listen.
+     *
+     * @param manager the order manager to expose
+     */
+    public ServerMain(ShippingOrderManager manager) {
+        this.manager = manager;
+        this.async = new AsyncShippingOrderManager(manager);
+        this.batcher = new OrderInsertBatcher(async, Integer.getInteger("dms.server.maxBatch", 500));
+    }
+
+    /**
+     * Starts listening for requests.
+     *
+     * @param address the address and port to bind (port 0 picks a free port)
+     * @throws IOException if the address cannot be bound
+     */
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/orders", this::handleOrders);
+        server.createContext("/customers", exchange -> handleNameSearch(exchange, true));
+        server.createContext("/shippers", exchange -> handleNameSearch(exchange, false));
+        server.createContext("/health", this::handleHealth);
+        server.start();
+        healthMonitor.start();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the bound port, or -1 if not started
+     */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    /**
+     * Stops accepting requests, flushes queued inserts, and waits for in-flight work.
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(1);
+            server = null;
+        }
+        healthMonitor.close();
+        batcher.close();
+        async.close();
+        executor.close();
+    }
+
+    /**
+     * Connects to the database and serves requests until the process is stopped.
+     *
+     * @param args optional port number
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("dms.server.port", DEFAULT_PORT);
+        String host = System.getProperty("dms.server.host");
+        InetAddress address;
+        try {
+            address = host != null ? InetAddress.getByName(host) : InetAddress.getLoopbackAddress();
+            SchemaManager.checkOnStartup(DBConnectionManager.getInstance().connectFromEnvironment());
+        } catch (IOException | SQLException e) {
+            System.err.println("Server startup failed: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        MetricsHttpServer.startIfConfigured();
+        ShippingOrderManager manager = new ShippingOrderManager();
+        ServerMain server = new ServerMain(manager);
+        try {
+            server.start(new InetSocketAddress(address, port));
+        } catch (IOException e) {
+            System.err.println("Server failed to bind port " + port + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        OrderArchiver archiver = OrderArchiver.startIfConfigured(manager);
+        ManifestWatcher watcher = ManifestWatcher.startIfConfigured(manager);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (watcher != null) watcher.close();
+            if (archiver != null) archiver.close();
+            server.stop();
+            DBConnectionManager.getInstance().closeConnection();
+        }));
+        System.out.println("Order API listening on http://" + address.getHostAddress() + ":" + server.getPort() + "/orders");
+    }
+
+    /**
+     * Routes every request under {@code /orders}.
+     */
+    private void handleOrders(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            String rest = path.length() > "/orders".length() ? path.substring("/orders/".length()) : "";
+            String body = readBody(exchange);
+
+            try {
+                if (rest.isEmpty()) {
+                    switch (method) {
+                        case "GET" -> listOrders(exchange);
+                        case "POST" -> addOrder(exchange, body);
+                        default -> respondError(exchange, 405, "Method not allowed.");
+                    }
+                } else if (rest.equals("batch")) {
+                    if (method.equals("POST")) addOrders(exchange, body);
+                    else respondError(exchange, 405, "Method not allowed.");
+                } else if (rest.equals("import")) {
+                    if (method.equals("POST")) importOrders(exchange, body);
+                    else respondError(exchange, 405, "Method not allowed.");
+                } else {
+                    int orderId = Integer.parseInt(rest);
+                    switch (method) {
+                        case "GET" -> getOrder(exchange, orderId);
+                        case "PUT" -> updateOrder(exchange, orderId, body);
+                        case "DELETE" -> deleteOrder(exchange, orderId);
+                        default -> respondError(exchange, 405, "Method not allowed.");
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // Covers malformed JSON, missing fields, and non-numeric IDs
+                respondError(exchange, 400, e.getMessage());
+            } catch (CompletionException e) {
+                // Typed failures from the async facade and the insert batcher arrive wrapped
+                respondFailure(exchange, e.getCause() != null ? e.getCause() : e);
+            } catch (RuntimeException e) {
+                // Anything else is a bug; answer it rather than dropping the connection
+                System.err.println("Unexpected error handling " + method + " " + path + ": " + e);
+                respondError(exchange, 500, "Internal server error.");
+            }
+        } finally {
+            REQUEST_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Reports the cached database status; 503 unless the last check found a working connection.
+     */
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        ConnectionHealthMonitor.Status status = healthMonitor.getStatus();
+        respond(exchange, status == ConnectionHealthMonitor.Status.CONNECTED ? 200 : 503,
+                "{\"status\":\"" + (status == ConnectionHealthMonitor.Status.CONNECTED ? "ok" : "degraded")
+                        + "\",\"database\":\"" + status.name().toLowerCase(Locale.ROOT) + "\"}");
+    }
+
+    private void listOrders(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI());
+        int after = Integer.parseInt(query.getOrDefault("after", String.valueOf(Integer.MIN_VALUE)));
+        int limit = Integer.parseInt(query.getOrDefault("limit", "100"));
+        if (limit < 1) throw new IllegalArgumentException("limit must be at least 1.");
+        limit = Math.min(limit, MAX_PAGE_SIZE);
+
+        // The snapshot is sorted by ID, so a page is a binary search plus a view
+        List<ShippingOrder> page = manager.getSnapshot().after(after, limit);
+
+        StringBuilder json = new StringBuilder(64 + page.size() * 160);
+        json.append("{\"orders\":[");
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) json.append(',');
+            Json.writeOrder(json, page.get(i));
+        }
+        json.append("],\"next\":");
+        json.append(page.size() == limit ? String.valueOf(page.get(page.size() - 1).getOrderId()) : "null");
+        json.append('}');
+        respond(exchange, 200, json.toString());
+    }
+
+    private void getOrder(HttpExchange exchange, int orderId) throws IOException {
+        Optional<ShippingOrder> order = async.findOrderAsync(orderId).join();
+        if (order.isEmpty()) {
+            respondError(exchange, 404, "Order not found.");
+            return;
+        }
+        respondOrder(exchange, 200, order.get());
+    }
+
+    private void addOrder(HttpExchange exchange, String body) throws IOException {
+        Map<String, Object> fields = asObject(Json.parse(body));
+        ShippingOrder order = batcher.submit(
+                stringField(fields, "customerName"),
+                stringField(fields, "shipperName"),
+                numberField(fields, "weight"),
+                intField(fields, "distance")).join();
+        exchange.getResponseHeaders().set("Location", "/orders/" + order.getOrderId());
+        respondOrder(exchange, 201, order);
+    }
+
+    private void addOrders(HttpExchange exchange, String body) throws IOException {
+        if (!(Json.parse(body) instanceof List<?> items)) {
+            throw new IllegalArgumentException("Expected a JSON array of orders.");
+        }
+        int count = items.size();
+        String[] customers = new String[count];
+        String[] shippers = new String[count];
+        double[] weights = new double[count];
+        int[] distances = new int[count];
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> fields = asObject(items.get(i));
+            customers[i] = stringField(fields, "customerName");
+            shippers[i] = stringField(fields, "shipperName");
+            weights[i] = numberField(fields, "weight");
+            distances[i] = intField(fields, "distance");
+        }
+
+        ShippingOrder[] stored = async.addOrdersAsync(customers, shippers, weights, distances, count).join();
+        StringBuilder json = new StringBuilder(32 + count * 160);
+        json.append("{\"results\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+            if (stored[i] != null) {
+                Json.writeOrder(json, stored[i]);
+            } else {
+                json.append("{\"error\":");
+                int failures = OrderValidator.checkOrder(customers[i], shippers[i], weights[i], distances[i]);
+                Json.writeString(json, "invalid " + OrderValidator.describe(failures));
+                json.append('}');
+            }
+        }
+        json.append("]}");
+        respond(exchange, 200, json.toString());
+    }
+
+    /**
+     * Updates an order. With a {@code version} field the update is conditional on the
+     * stored row version, and a stale version gets 409 with the stored order.
+     */
+    private void updateOrder(HttpExchange exchange, int orderId, String body) throws IOException {
+        Map<String, Object> fields = asObject(Json.parse(body));
+        double weight = numberField(fields, "weight");
+        int distance = intField(fields, "distance");
+        if (fields.containsKey("version")) {
+            int version = intField(fields, "version");
+            respondWriteResult(exchange, 200, async.updateOrderIfVersionAsync(orderId, version, weight, distance).join());
+            return;
+        }
+        ShippingOrder order = async.updateOrderAsync(orderId, weight, distance).join();
+        respondOrder(exchange, 200, order);
+    }
+
+    /**
+     * Deletes an order. With a {@code version} query parameter the delete is conditional
+     * on the stored row version, and a stale version gets 409 with the stored order.
+     */
+    private void deleteOrder(HttpExchange exchange, int orderId) throws IOException {
+        String version = parseQuery(exchange.getRequestURI()).get("version");
+        if (version != null) {
+            respondWriteResult(exchange, 204,
+                    async.deleteOrderIfVersionAsync(orderId, Integer.parseInt(version)).join());
+            return;
+        }
+        async.deleteOrderAsync(orderId).join();
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private static void respondWriteResult(HttpExchange exchange, int appliedStatus, OrderWriteResult result)
+            throws IOException {
+        switch (result.getStatus()) {
+            case APPLIED -> {
+                if (result.getOrder() != null) respondOrder(exchange, appliedStatus, result.getOrder());
+                else exchange.sendResponseHeaders(appliedStatus, -1);
+            }
+            case NOT_FOUND -> respondError(exchange, 404, "Order not found.");
+            case CONFLICT -> {
+                StringBuilder json = new StringBuilder("{\"error\":");
+                Json.writeString(json, "Order was changed by another user.");
+                json.append(",\"current\":");
+                Json.writeOrder(json, result.getOrder());
+                json.append('}');
+                respond(exchange, 409, json.toString());
+            }
+        }
+    }
+
+    /**
+     * Imports a pipe-delimited body ({@code ID|Customer|Shipper|Weight|Distance} per line)
+     * in batches. Lines that cannot be parsed or fail validation are counted as rejected.
+     */
+    private void importOrders(HttpExchange exchange, String body) throws IOException {
+        String[] customers = new String[IMPORT_BATCH_SIZE];
+        String[] shippers = new String[IMPORT_BATCH_SIZE];
+        double[] weights = new double[IMPORT_BATCH_SIZE];
+        int[] distances = new int[IMPORT_BATCH_SIZE];
+        long accepted = 0;
+        long rejected = 0;
+        int count = 0;
+
+        for (String line : body.split("\r?\n")) {
+            if (line.isBlank()) continue;
+            String[] parts = line.split("\\|");
+            try {
+                if (parts.length != 5) throw new NumberFormatException("expected 5 fields");
+                customers[count] = parts[1].trim();
+                shippers[count] = parts[2].trim();
+                weights[count] = Double.parseDouble(parts[3].trim());
+                distances[count] = Integer.parseInt(parts[4].trim());
+                count++;
+            } catch (NumberFormatException e) {
+                rejected++;
+                continue;
+            }
+            if (count == IMPORT_BATCH_SIZE) {
+                int stored = countStored(async.addOrdersAsync(customers, shippers, weights, distances, count).join());
+                accepted += stored;
+                rejected += count - stored;
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            int stored = countStored(async.addOrdersAsync(customers, shippers, weights, distances, count).join());
+            accepted += stored;
+            rejected += count - stored;
+        }
+        respond(exchange, 200, "{\"accepted\":" + accepted + ",\"rejected\":" + rejected + "}");
+    }
+
+    private void handleNameSearch(HttpExchange exchange, boolean customers) throws IOException {
+        try (exchange) {
+            readBody(exchange);
+            Map<String, String> query = parseQuery(exchange.getRequestURI());
+            String prefix = query.getOrDefault("prefix", "");
+            int limit = Integer.parseInt(query.getOrDefault("limit", "10"));
+            if (limit < 1) {
+                respondError(exchange, 400, "Invalid limit.");
+                return;
+            }
+            limit = Math.min(limit, MAX_PAGE_SIZE);
+            List<String> names = customers ? manager.searchCustomers(prefix, limit) : manager.searchShippers(prefix, limit);
+
+            StringBuilder json = new StringBuilder("{\"names\":[");
+            for (int i = 0; i < names.size(); i++) {
+                if (i > 0) json.append(',');
+                Json.writeString(json, names.get(i));
+            }
+            json.append("]}");
+            respond(exchange, 200, json.toString());
+        } catch (NumberFormatException e) {
+            respondError(exchange, 400, "Invalid limit.");
+        }
+    }
+
+    private static int countStored(ShippingOrder[] stored) {
+        int n = 0;
+        for (ShippingOrder order : stored) {
+            if (order != null) n++;
+        }
+        return n;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        // Always drain the body so the connection can be reused for the next request
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(URI uri) {
+        String raw = uri.getRawQuery();
+        if (raw == null || raw.isEmpty()) return Map.of();
+        Map<String, String> params = new HashMap<>();
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asObject(Object value) {
+        if (value instanceof Map<?, ?> map) return (Map<String, Object>) map;
+        throw new IllegalArgumentException("Expected a JSON object.");
+    }
+
+    private static String stringField(Map<String, Object> fields, String name) {
+        if (fields.get(name) instanceof String s) return s.trim();
+        throw new IllegalArgumentException("Missing or non-text field: " + name);
+    }
+
+    private static double numberField(Map<String, Object> fields, String name) {
+        if (fields.get(name) instanceof Double d) return d;
+        throw new IllegalArgumentException("Missing or non-numeric field: " + name);
+    }
+
+    private static int intField(Map<String, Object> fields, String name) {
+        double value = numberField(fields, name);
+        if (value != Math.rint(value) || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Field " + name + " must be a whole number in int range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static void respondOrder(HttpExchange exchange, int status, ShippingOrder order) throws IOException {
+        StringBuilder json = new StringBuilder(192);
+        Json.writeOrder(json, order);
+        respond(exchange, status, json.toString());
+    }
+
+    private static void respondFailure(HttpExchange exchange, Throwable failure) throws IOException {
+        if (failure instanceof OrderOperationException e) {
+            int status = switch (e.getReason()) {
+                case INVALID_INPUT -> 400;
+                case NOT_FOUND -> 404;
+                case CONFLICT -> 409;
+                case NO_CONNECTION, INTERRUPTED -> 503;
+                case DATABASE_ERROR -> 500;
+            };
+            respondError(exchange, status, e.getMessage());
+        } else {
+            respondError(exchange, 500, String.valueOf(failure.getMessage()));
+        }
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        if (status >= 500) SERVER_ERRORS.increment();
+        StringBuilder json = new StringBuilder("{\"error\":");
+        Json.writeString(json, message);
+        json.append('}');
+        respond(exchange, status, json.toString());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
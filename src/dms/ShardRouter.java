@@ -0,0 +1,144 @@
+package dms;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Routing rules for orders spread over several databases (hash sharding).
+ *
+ * <p>New orders go to the shard chosen by a hash of their {@code customer_id}, so one
+ * customer's orders live together and customers spread evenly. To find the shard of an
+ * existing order from its ID alone, every shard hands out order IDs from its own residue
+ * class: shard {@code k} of {@code N} runs with {@code auto_increment_increment = N} and
+ * {@code auto_increment_offset = k + 1} (see {@link #sessionSql(int)}), so
+ * {@code (order_id - 1) mod N} is the owning shard. Sharding should therefore be set up
+ * while the order tables are empty.</p>
+ *
+ * <p>Customers and shippers are reference data needed by every shard's foreign keys and
+ * joins. Shard 0, the primary, owns them and assigns their IDs; every other shard holds a
+ * copy with the same IDs, written when a name is created and brought up to date by
+ * {@link #copyReferenceData(Connection, Connection)} when shards are configured.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class ShardRouter {
+
+    /** Router for an unsharded deployment */
+    static final ShardRouter SINGLE = new ShardRouter(1);
+
+    /** Number of shards, at least 1 */
+    private final int shardCount;
+
+    /**
+     * Creates a router over a number of shards.
+     *
+     * @param shardCount number of shards, including the primary
+     */
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1) throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Gets the number of shards.
+     *
+     * @return the shard count, 1 when not sharded
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Returns whether orders are spread over more than one database.
+     *
+     * @return true if there are at least two shards
+     */
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    /**
+     * Returns the shard that stores a customer's new orders.
+     *
+     * @param customerId the customer ID
+     * @return the shard index, from 0 to {@code getShardCount() - 1}
+     */
+    public int shardForCustomer(int customerId) {
+        // Spread the bits so sequential customer IDs do not map to shards in lockstep
+        int h = customerId * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), shardCount);
+    }
+
+    /**
+     * Returns the shard that owns an existing order.
+     *
+     * @param orderId the order ID
+     * @return the shard index, from 0 to {@code getShardCount() - 1}
+     */
+    public int shardForOrder(int orderId) {
+        return Math.floorMod(orderId - 1, shardCount);
+    }
+
+    /**
+     * Returns the statement each connection to a shard runs when opened, so that the
+     * IDs it generates fall in the shard's residue class.
+     *
+     * @param shard the shard index
+     * @return the {@code SET SESSION} statement, or null when not sharded
+     */
+    public String sessionSql(int shard) {
+        if (!isSharded()) return null;
+        return "SET SESSION auto_increment_increment = " + shardCount + ", auto_increment_offset = " + (shard + 1);
+    }
+
+    /**
+     * Copies customers and shippers that exist on the primary but not on another shard,
+     * keeping their IDs.
+     *
+     * @param primary connection to shard 0
+     * @param shard   connection to the shard to bring up to date
+     * @return the number of rows copied
+     * @throws SQLException if a read or insert fails
+     */
+    public static int copyReferenceData(Connection primary, Connection shard) throws SQLException {
+        return copyMissing(primary, shard, "SELECT customer_id, name, email, phone FROM Customer",
+                "SELECT customer_id FROM Customer",
+                "INSERT INTO Customer (customer_id, name, email, phone) VALUES (?, ?, ?, ?)")
+                + copyMissing(primary, shard, "SELECT shipper_id, name, phone FROM Shipper",
+                "SELECT shipper_id FROM Shipper",
+                "INSERT INTO Shipper (shipper_id, name, phone) VALUES (?, ?, ?)");
+    }
+
+    /**
+     * Inserts the rows of {@code selectAll} whose first column is not yet in
+     * {@code selectIds} on the target, binding every selected column in order.
+     */
+    private static int copyMissing(Connection from, Connection to, String selectAll, String selectIds, String insert)
+            throws SQLException {
+        Set<Integer> present = new HashSet<>();
+        try (Statement stmt = to.createStatement(); ResultSet rs = stmt.executeQuery(selectIds)) {
+            while (rs.next()) present.add(rs.getInt(1));
+        }
+
+        int copied = 0;
+        try (Statement select = from.createStatement();
+             ResultSet rs = select.executeQuery(selectAll);
+             PreparedStatement stmt = to.prepareStatement(insert)) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                if (present.contains(rs.getInt(1))) continue;
+                for (int c = 1; c <= columns; c++) stmt.setObject(c, rs.getObject(c));
+                stmt.addBatch();
+                copied++;
+            }
+            if (copied > 0) stmt.executeBatch();
+        }
+        return copied;
+    }
+}
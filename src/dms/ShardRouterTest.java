@@ -0,0 +1,80 @@
+package dms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ShardRouter} class.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Customers spread evenly over the shards</li>
+ *     <li>IDs generated under a shard's session settings route back to that shard</li>
+ *     <li>An unsharded router sends everything to shard 0 and needs no session settings</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class ShardRouterTest {
+
+    /**
+     * Default constructor for ShardRouterTest.
+     */
+    public ShardRouterTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Routes sequential customer IDs and checks every shard gets close to its share.
+     */
+    @Test
+    @DisplayName("Customers spread evenly over shards")
+    public void testCustomerSpread() {
+        ShardRouter router = new ShardRouter(4);
+        int[] counts = new int[4];
+        for (int customerId = 1; customerId <= 40_000; customerId++) {
+            int shard = router.shardForCustomer(customerId);
+            assertTrue(shard >= 0 && shard < 4);
+            assertEquals(shard, router.shardForCustomer(customerId), "Routing must be stable");
+            counts[shard]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 9_000 && count < 11_000, "Uneven shard: " + count);
+        }
+    }
+
+    /**
+     * Generates IDs the way MySQL does under each shard's session settings and routes them back.
+     */
+    @Test
+    @DisplayName("Order IDs route to the shard that generated them")
+    public void testOrderRouting() {
+        ShardRouter router = new ShardRouter(3);
+        for (int shard = 0; shard < 3; shard++) {
+            assertEquals("SET SESSION auto_increment_increment = 3, auto_increment_offset = " + (shard + 1),
+                    router.sessionSql(shard));
+            // auto_increment yields offset, offset + increment, offset + 2 * increment, ...
+            for (int n = 0; n < 100; n++) {
+                int orderId = (shard + 1) + n * 3;
+                assertEquals(shard, router.shardForOrder(orderId), "Order " + orderId);
+            }
+        }
+    }
+
+    /**
+     * Checks the single-shard router used when no shards are configured.
+     */
+    @Test
+    @DisplayName("Unsharded router uses shard 0 only")
+    public void testSingleShard() {
+        ShardRouter router = ShardRouter.SINGLE;
+        assertFalse(router.isSharded());
+        assertNull(router.sessionSql(0));
+        assertEquals(0, router.shardForCustomer(12345));
+        assertEquals(0, router.shardForOrder(678));
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouter(0));
+    }
+}
@@ -39,6 +39,22 @@ public class ShippingOrder {
     /** Shipper name (used for displaying JOINed results) */
     private String shipperName;
 
+    /**
+     * Version of the stored row ({@code row_version} column), incremented by every
+     * database write and used for optimistic concurrency checks
+     */
+    private int rowVersion;
+
+    /** Incremented by every setter, so cached display text can tell it is stale */
+    private int revision;
+
+    // Display text rendered by OrderText, valid while textRevision == revision
+    private int textRevision = -1;
+    private String weightText;
+    private String distanceText;
+    private String costText;
+    private String description;
+
     // --- Constructors ---
 
     /**
@@ -124,6 +140,26 @@ public class ShippingOrder {
         this.shippingCost = shippingCost;
     }
 
+    /**
+     * Constructor for stored rows including IDs, names, cost, and row version.
+     *
+     * @param orderId         the order ID
+     * @param customerId      the customer ID (foreign key)
+     * @param shipperId       the shipper ID (foreign key)
+     * @param weightInPounds  the shipment weight in pounds
+     * @param distanceInMiles the distance to be shipped in miles
+     * @param customerName    the customer name
+     * @param shipperName     the shipper name
+     * @param shippingCost    the pre-computed shipping cost
+     * @param rowVersion      the version of the stored row
+     */
+    public ShippingOrder(int orderId, int customerId, int shipperId,
+                         double weightInPounds, int distanceInMiles,
+                         String customerName, String shipperName, double shippingCost, int rowVersion) {
+        this(orderId, customerId, shipperId, weightInPounds, distanceInMiles, customerName, shipperName, shippingCost);
+        this.rowVersion = rowVersion;
+    }
+
     // --- Getters and Setters ---
 
     /**
@@ -151,6 +187,7 @@ public class ShippingOrder {
      */
     public void setCustomerId(int customerId) {
         this.customerId = customerId;
+        revision++;
     }
 
     /**
@@ -169,6 +206,7 @@ public class ShippingOrder {
      */
     public void setShipperId(int shipperId) {
         this.shipperId = shipperId;
+        revision++;
     }
 
     /**
@@ -188,6 +226,7 @@ public class ShippingOrder {
     public void setWeightInPounds(double weightInPounds) {
         this.weightInPounds = weightInPounds;
         this.shippingCost = calculateShippingCost();
+        revision++;
     }
 
     /**
@@ -207,6 +246,7 @@ public class ShippingOrder {
     public void setDistanceInMiles(int distanceInMiles) {
         this.distanceInMiles = distanceInMiles;
         this.shippingCost = calculateShippingCost();
+        revision++;
     }
 
     /**
@@ -234,6 +274,7 @@ public class ShippingOrder {
      */
     public void setCustomerName(String customerName) {
         this.customerName = customerName;
+        revision++;
     }
 
     /**
@@ -252,37 +293,102 @@ public class ShippingOrder {
      */
     public void setShipperName(String shipperName) {
         this.shipperName = shipperName;
+        revision++;
+    }
+
+    /**
+     * Gets the version of the stored row this order was read from or written as.
+     * Pass it back to {@link ShippingOrderManager#updateOrderIfVersion} or
+     * {@link ShippingOrderManager#deleteOrderIfVersion} to make the change conditional
+     * on nobody else having changed the order since.
+     *
+     * @return the row version
+     */
+    public int getRowVersion() {
+        return rowVersion;
+    }
+
+    /**
+     * Gets the revision number, which changes whenever a setter modifies the order.
+     *
+     * @return the in-memory revision of this order
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    // --- Display Text ---
+
+    /**
+     * Gets the weight as display text (e.g. {@code 45.0 lb}), cached until the order changes.
+     *
+     * @return the formatted weight
+     */
+    public String getWeightText() {
+        checkTextRevision();
+        if (weightText == null) weightText = OrderText.weight(weightInPounds);
+        return weightText;
+    }
+
+    /**
+     * Gets the distance as display text (e.g. {@code 1200 mi}), cached until the order changes.
+     *
+     * @return the formatted distance
+     */
+    public String getDistanceText() {
+        checkTextRevision();
+        if (distanceText == null) distanceText = OrderText.distance(distanceInMiles);
+        return distanceText;
+    }
+
+    /**
+     * Gets the shipping cost as display text (e.g. {@code $81.00}), cached until the order changes.
+     *
+     * @return the formatted cost
+     */
+    public String getCostText() {
+        checkTextRevision();
+        if (costText == null) costText = OrderText.cost(shippingCost);
+        return costText;
+    }
+
+    /**
+     * Drops cached display text rendered before the latest change.
+     */
+    private void checkTextRevision() {
+        if (textRevision != revision) {
+            weightText = null;
+            distanceText = null;
+            costText = null;
+            description = null;
+            textRevision = revision;
+        }
     }
 
     // --- Business Logic ---
 
     /**
-     * Calculates the shipping cost using basic pricing rules:
-     * Base fee: $5.00 + $0.05/lb + $0.10/mile
+     * Calculates the shipping cost with the rate table that {@link PricingEngine}
+     * applies to this order's shipper (by default $0.0015 per pound-mile, rounded to cents).
      *
      * @return the calculated shipping cost
      */
     public double calculateShippingCost() {
-        double base = 5.00;
-        double perPound = 0.05;
-        double perMile = 0.10;
-        return base + (weightInPounds * perPound) + (distanceInMiles * perMile);
+        return PricingEngine.getInstance().price(shipperId, weightInPounds, distanceInMiles);
     }
 
     // --- Utility ---
 
     /**
-     * Returns a formatted string of order data for logging or debugging.
+     * Returns a formatted string of order data for logging or debugging,
+     * cached until the order changes.
      *
      * @return the string representation of the order
      */
     @Override
     public String toString() {
-        return "Order ID: " + orderId +
-                ", Customer: " + (customerName != null ? customerName : customerId) +
-                ", Shipper: " + (shipperName != null ? shipperName : shipperId) +
-                ", Weight: " + weightInPounds + " lb" +
-                ", Distance: " + distanceInMiles + " mi" +
-                ", Cost: $" + String.format("%.2f", shippingCost);
+        checkTextRevision();
+        if (description == null) description = OrderText.describe(this);
+        return description;
     }
 }
@@ -2,10 +2,19 @@ package dms;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * Manager class for handling all operations related to ShippingOrder records.
@@ -14,10 +23,24 @@ import java.io.IOException;
  * <p>Responsibilities include:</p>
  * <ul>
  *     <li>Inserting and updating orders using foreign key relationships</li>
- *     <li>Validating customer and shipper names</li>
+ *     <li>Batched inserts of many orders in one transaction</li>
+ *     <li>Validating customer and shipper names via {@link OrderValidator}</li>
  *     <li>Auto-creating customer/shipper records if they don't exist</li>
- *     <li>Calculating shipping cost in Java instead of SQL</li>
+ *     <li>Calculating shipping cost in Java via {@link PricingEngine}</li>
+ *     <li>Bulk repricing and purging of stored orders in batches</li>
+ *     <li>Archiving old orders to {@code ShippingOrderArchive} so loads read only recent ones</li>
+ *     <li>Reading for loads and pages through read leases, which may use a replica</li>
+ *     <li>Routing each order to its shard when orders are spread over several databases
+ *         (see {@link ShardRouter}), and merging loads and pages from every shard</li>
  *     <li>Loading data with JOINs for display</li>
+ *     <li>Publishing immutable {@link OrderSnapshot}s of the orders for concurrent readers</li>
+ *     <li>Running writes from many threads at once, each on its own pooled connection,
+ *         with per-order lock striping</li>
+ *     <li>Optimistic concurrency: updates and deletes can be made conditional on the
+ *         {@code row_version} column, which every write increments (created by
+ *         {@link SchemaManager#migrate})</li>
+ *     <li>Type-ahead search over customer and shipper names</li>
+ *     <li>Invalidating cached {@link DatabaseHelper} reads in {@link QueryCache} after each write</li>
  * </ul>
  *
  * Author: Julio Lopez
@@ -25,15 +48,152 @@ import java.io.IOException;
  */
 public class ShippingOrderManager {
 
-    /** In-memory list of all shipping orders (used for display and search) */
-    private final List<ShippingOrder> orders;
+    /** Shared metrics registry for operation timings and import throughput */
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+
+    // Latency histograms recorded by each manager operation
+    private static final LatencyHistogram ADD_LATENCY = METRICS.histogram("order.add");
+    private static final LatencyHistogram BATCH_ADD_LATENCY = METRICS.histogram("order.add_batch");
+    private static final LatencyHistogram UPDATE_LATENCY = METRICS.histogram("order.update");
+    private static final LatencyHistogram BATCH_UPDATE_LATENCY = METRICS.histogram("order.update_batch");
+    private static final LatencyHistogram DELETE_LATENCY = METRICS.histogram("order.delete");
+    private static final LatencyHistogram BATCH_DELETE_LATENCY = METRICS.histogram("order.delete_batch");
+    private static final LatencyHistogram FIND_LATENCY = METRICS.histogram("order.find");
+    private static final LatencyHistogram DB_LOAD_LATENCY = METRICS.histogram("order.load_database");
+    private static final LatencyHistogram FILE_IMPORT_LATENCY = METRICS.histogram("order.load_file");
+    private static final LatencyHistogram REPRICE_LATENCY = METRICS.histogram("order.reprice_all");
+    private static final LatencyHistogram PURGE_LATENCY = METRICS.histogram("order.purge");
+    private static final LatencyHistogram ARCHIVE_LATENCY = METRICS.histogram("order.archive");
+    private static final LongAdder ARCHIVED_ORDERS = METRICS.counter("order.archived");
+    private static final LatencyHistogram CUSTOMER_LOOKUP_LATENCY = METRICS.histogram("jdbc.customer_lookup");
+    private static final LatencyHistogram SHIPPER_LOOKUP_LATENCY = METRICS.histogram("jdbc.shipper_lookup");
+
+    /** Number of orders read, priced, and written back per batch by {@link #repriceAll()} */
+    private static final int REPRICE_BATCH_SIZE = 5_000;
+
+    /** Number of orders deleted per transaction by {@link #purgeOrdersBefore(int)} */
+    private static final int PURGE_BATCH_SIZE = 5_000;
+
+    /** Number of orders moved per transaction by {@link #archiveOrdersBefore(int)} */
+    private static final int ARCHIVE_BATCH_SIZE = 5_000;
+
+    /** Highest ID of the next archive batch: the oldest orders below the watermark */
+    private static final String ARCHIVE_BATCH_BOUND_SQL = """
+        SELECT MAX(order_id) FROM (
+            SELECT order_id FROM ShippingOrder WHERE order_id < ? ORDER BY order_id LIMIT ?
+        ) batch
+    """;
+
+    /** Copies one batch into the archive table; run in the same transaction as the delete */
+    private static final String ARCHIVE_COPY_SQL = """
+        INSERT INTO ShippingOrderArchive
+            (order_id, customer_id, shipper_id, weight_in_pounds, distance_in_miles, shipping_cost, row_version)
+        SELECT order_id, customer_id, shipper_id, weight_in_pounds, distance_in_miles, shipping_cost, row_version
+        FROM ShippingOrder
+        WHERE order_id <= ?
+    """;
+
+    /** Every order with its customer and shipper names, in ID order */
+    private static final String ALL_ORDERS_SQL = """
+        SELECT
+            o.order_id,
+            o.customer_id,
+            o.shipper_id,
+            o.weight_in_pounds,
+            o.distance_in_miles,
+            o.shipping_cost,
+            o.row_version,
+            c.name AS customer_name,
+            s.name AS shipper_name
+        FROM ShippingOrder o
+        JOIN Customer c ON o.customer_id = c.customer_id
+        JOIN Shipper s ON o.shipper_id = s.shipper_id
+        ORDER BY o.order_id
+    """;
+
+    /** Size of the first chunk handed out by {@link #streamOrdersFromDatabase}, kept small for a fast first paint */
+    private static final int FIRST_CHUNK_SIZE = 100;
+
+    /** Maximum attempts to publish a full reload that raced with concurrent writes */
+    private static final int RELOAD_ATTEMPTS = 3;
+
+    /**
+     * Current immutable snapshot of all shipping orders (used for display and search).
+     * Writers publish a new version after each committed change; readers never lock.
+     */
+    private final AtomicReference<OrderSnapshot> snapshot = new AtomicReference<>(OrderSnapshot.EMPTY);
+
+    /** Whether {@link #snapshot} mirrors the database; false for headless batch jobs */
+    private final boolean keepOrdersInMemory;
+
+    /** Prefix index over customer names for type-ahead search */
+    private volatile NameIndex customerIndex;
+
+    /** Prefix index over shipper names for type-ahead search */
+    private volatile NameIndex shipperIndex;
+
+    /**
+     * Conditional update: matches only while the row still has the expected version,
+     * and bumps the version so every later writer holding the old one is rejected
+     */
+    private static final String UPDATE_IF_VERSION_SQL = """
+        UPDATE ShippingOrder
+        SET weight_in_pounds = ?, distance_in_miles = ?, shipping_cost = ?, row_version = row_version + 1
+        WHERE order_id = ? AND row_version = ?
+    """;
+
+    /** Conditional delete: matches only while the row still has the expected version */
+    private static final String DELETE_IF_VERSION_SQL = "DELETE FROM ShippingOrder WHERE order_id = ? AND row_version = ?";
+
+    /** Number of lock stripes for orders and for names */
+    private static final int LOCK_STRIPES = 64;
+
+    /** Serializes writes to the same order while writes to other orders run in parallel */
+    private final StripedLock orderLocks = new StripedLock(LOCK_STRIPES);
+
+    /** Serializes lookup-or-insert of the same customer name */
+    private final StripedLock customerNameLocks = new StripedLock(LOCK_STRIPES);
+
+    /** Serializes lookup-or-insert of the same shipper name */
+    private final StripedLock shipperNameLocks = new StripedLock(LOCK_STRIPES);
 
     /**
      * Constructor initializes the order list and loads data from the database.
      */
     public ShippingOrderManager() {
-        orders = new ArrayList<>();
-        loadOrdersFromDatabase();
+        this(true);
+    }
+
+    /**
+     * Constructor for callers that may not need the in-memory order list.
+     * With {@code keepOrdersInMemory} false, orders are never loaded into memory, so bulk
+     * jobs over millions of rows use constant memory; {@link #getAllOrders()} stays empty
+     * and {@link #findOrder(int)}, updates, and the GUI views are unavailable.
+     *
+     * @param keepOrdersInMemory true to load and maintain the in-memory order list
+     */
+    public ShippingOrderManager(boolean keepOrdersInMemory) {
+        this(keepOrdersInMemory, true);
+    }
+
+    /**
+     * Constructor that can leave loading for later. With {@code loadNow} false the
+     * constructor does no database work, and the orders and name indexes stay empty until
+     * {@link #streamOrdersFromDatabase} is called; the GUI uses this to show its window
+     * before the first query runs.
+     *
+     * @param keepOrdersInMemory true to load and maintain the in-memory order list
+     * @param loadNow            true to load orders and name indexes before returning
+     */
+    public ShippingOrderManager(boolean keepOrdersInMemory, boolean loadNow) {
+        this.keepOrdersInMemory = keepOrdersInMemory;
+        customerIndex = new NameIndex();
+        shipperIndex = new NameIndex();
+        if (loadNow) {
+            loadOrdersFromDatabase();
+            loadNameIndexes();
+        }
+        METRICS.gauge("orders.in_memory", () -> snapshot.get().size());
     }
 
     /**
@@ -46,43 +206,294 @@ public class ShippingOrderManager {
      * @return true if added successfully, false otherwise
      */
     public boolean addOrder(String customerName, String shipperName, double weight, int distance) {
-        if (!isValidName(customerName) || !isValidName(shipperName)) return false;
-        if (weight <= 0 || weight > 150 || distance <= 0 || distance > 3000) return false;
+        try {
+            insertOrder(customerName, shipperName, weight, distance);
+            return true;
+        } catch (OrderOperationException e) {
+            if (e.getReason() != OrderOperationException.Reason.INVALID_INPUT) {
+                System.err.println(e.getMessage());
+            }
+            return false;
+        }
+    }
 
+    /**
+     * Adds a new order and returns it, reporting failures as typed exceptions.
+     *
+     * @param customerName customer name (validated and stored)
+     * @param shipperName shipper name (validated and stored)
+     * @param weight shipment weight in pounds
+     * @param distance shipping distance in miles
+     * @return the stored order, including its generated ID and cost
+     * @throws OrderOperationException if the input is invalid or the database write fails
+     */
+    public ShippingOrder insertOrder(String customerName, String shipperName, double weight, int distance)
+            throws OrderOperationException {
+        long start = System.nanoTime();
         try {
-            Connection conn = DBConnectionManager.getInstance().getConnection();
-            if (conn == null || conn.isClosed()) {
-                System.err.println("Add failed: DB connection is closed or null.");
-                return false;
-            }
-
-            int customerId = getOrInsertCustomerId(conn, customerName);
-            int shipperId = getOrInsertShipperId(conn, shipperName);
-            double cost = calculateShippingCost(weight, distance);
-
-            String sql = """
-                INSERT INTO ShippingOrder (customer_id, shipper_id, weight_in_pounds, distance_in_miles, shipping_cost)
-                VALUES (?, ?, ?, ?, ?)
-            """;
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, customerId);
-                stmt.setInt(2, shipperId);
-                stmt.setDouble(3, weight);
-                stmt.setInt(4, distance);
-                stmt.setDouble(5, cost);
-                stmt.executeUpdate();
+            int failures = OrderValidator.checkOrder(customerName, shipperName, weight, distance);
+            if (failures != 0) {
+                throw new OrderOperationException(OrderOperationException.Reason.INVALID_INPUT,
+                        "Add failed: invalid " + OrderValidator.describe(failures) + ".");
             }
 
-            loadOrdersFromDatabase();
-            return true;
-        } catch (SQLException e) {
-            System.err.println("Error inserting order: " + e.getMessage());
+            try (var _ = leaseConnection("Add")) {
+                // Names are resolved on the primary, which owns the reference tables
+                Connection conn = requireConnection("Add");
+                int customerId = getOrInsertCustomerId(conn, customerName);
+                int shipperId = getOrInsertShipperId(conn, shipperName);
+                double cost = PricingEngine.getInstance().price(shipperId, weight, distance);
+
+                String sql = """
+                    INSERT INTO ShippingOrder (customer_id, shipper_id, weight_in_pounds, distance_in_miles, shipping_cost)
+                    VALUES (?, ?, ?, ?, ?)
+                """;
+                int orderId = -1;
+                try (var _ = leaseShardConnection("Add", router().shardForCustomer(customerId));
+                     PreparedStatement stmt = requireConnection("Add").prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    stmt.setInt(1, customerId);
+                    stmt.setInt(2, shipperId);
+                    stmt.setDouble(3, weight);
+                    stmt.setInt(4, distance);
+                    stmt.setDouble(5, cost);
+                    stmt.executeUpdate();
+                    try (ResultSet keys = stmt.getGeneratedKeys()) {
+                        if (keys.next()) orderId = keys.getInt(1);
+                    }
+                }
+
+                ShippingOrder order = new ShippingOrder(orderId, customerId, shipperId, weight, distance,
+                        customerName, shipperName, cost);
+                publish(current -> current.withPut(order));
+                return order;
+            } catch (SQLException e) {
+                throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                        "Error inserting order: " + e.getMessage(), e);
+            }
+        } finally {
+            ADD_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Adds many orders in one transaction with a single batched INSERT.
+     * Rows are validated with {@link OrderValidator#validateBatch}; invalid rows are
+     * skipped and reported as null in the result, while valid rows are inserted
+     * together. Customer and shipper IDs are resolved once per distinct name.
+     * When orders are sharded, each shard's rows are inserted in a transaction of their own.
+     * Arrays are read from index 0 to {@code count - 1}.
+     *
+     * @param customerNames customer name per row
+     * @param shipperNames  shipper name per row
+     * @param weights       weight in pounds per row
+     * @param distances     distance in miles per row
+     * @param count         number of rows
+     * @return the stored order per row, or null where the row was invalid
+     * @throws OrderOperationException if the database write fails; no orders are stored in that case,
+     *                                 though new customers and shippers may have been created,
+     *                                 and shards that committed before the failure keep their rows
+     */
+    public ShippingOrder[] insertOrders(String[] customerNames, String[] shipperNames,
+                                        double[] weights, int[] distances, int count)
+            throws OrderOperationException {
+        return insertOrders(customerNames, shipperNames, weights, distances, count, null);
+    }
+
+    /**
+     * Extra writes that must commit or roll back together with a batch of orders.
+     */
+    @FunctionalInterface
+    public interface BatchCommitHook {
+        /**
+         * Called inside a shard's batch transaction, just before it commits. Shards commit
+         * from the highest index down, so the primary's (shard 0) call comes last.
+         *
+         * @param conn   the shard's connection, with the transaction open
+         * @param shard  the shard being committed
+         * @param stored the order stored per row on this shard or a shard committed before
+         *               it, or null where the row is not stored
+         * @throws SQLException to roll back the shard's rows along with the hook's writes
+         */
+        void beforeCommit(Connection conn, int shard, ShippingOrder[] stored) throws SQLException;
+
+        /**
+         * Returns whether a row was already committed to its shard by an earlier,
+         * interrupted attempt at the same batch. Such rows are not inserted again and
+         * come back as null.
+         *
+         * @param row   index of the row in the batch
+         * @param shard the shard the row belongs to
+         * @return true to leave the row out
+         */
+        default boolean isCommitted(int row, int shard) {
             return false;
         }
     }
 
+    /**
+     * Adds many orders like {@link #insertOrders(String[], String[], double[], int[], int)},
+     * running a hook in the same transaction as the rows, for bookkeeping such as import
+     * checkpoints that must never disagree with what was stored. When orders are sharded,
+     * the other shards commit first, each running the hook in its own transaction if it
+     * stores any row, and the primary (shard 0) commits last; its hook call sees every row
+     * of the batch and runs even when no row is valid. Rows on other shards stay committed
+     * if a later shard's transaction fails, so the hook records per-shard progress on each
+     * shard and tells a retry which rows to leave out.
+     *
+     * @param customerNames customer name per row
+     * @param shipperNames  shipper name per row
+     * @param weights       weight in pounds per row
+     * @param distances     distance in miles per row
+     * @param count         number of rows
+     * @param hook          writes to commit with the batch, or null for none
+     * @return the stored order per row, or null where the row was invalid
+     * @throws OrderOperationException if the database write or the hook fails
+     */
+    public ShippingOrder[] insertOrders(String[] customerNames, String[] shipperNames,
+                                        double[] weights, int[] distances, int count, BatchCommitHook hook)
+            throws OrderOperationException {
+        long start = System.nanoTime();
+        try {
+            ShippingOrder[] stored = new ShippingOrder[count];
+            OrderValidator.Result validation =
+                    OrderValidator.validateBatch(customerNames, shipperNames, weights, distances, count);
+            if (validation.getFailureCount() == count && hook == null) return stored;
+
+            try (var _ = leaseConnection("Add")) {
+                Connection conn = requireConnection("Add");
+
+                // Resolve foreign keys once per distinct name in the batch. This runs before
+                // the transaction so new names are committed, and visible to other writers,
+                // as soon as they are created.
+                Map<String, Integer> customerIds = new HashMap<>();
+                Map<String, Integer> shipperIds = new HashMap<>();
+                int[] rowCustomerIds = new int[count];
+                int[] rowShipperIds = new int[count];
+                for (int i = 0; i < count; i++) {
+                    if (!validation.isValid(i)) continue;
+                    Integer customerId = customerIds.get(customerNames[i]);
+                    if (customerId == null) {
+                        customerId = getOrInsertCustomerId(conn, customerNames[i]);
+                        customerIds.put(customerNames[i], customerId);
+                    }
+                    Integer shipperId = shipperIds.get(shipperNames[i]);
+                    if (shipperId == null) {
+                        shipperId = getOrInsertShipperId(conn, shipperNames[i]);
+                        shipperIds.put(shipperNames[i], shipperId);
+                    }
+                    rowCustomerIds[i] = customerId;
+                    rowShipperIds[i] = shipperId;
+                }
+
+                double[] costs = new double[count];
+                PricingEngine.getInstance().priceAll(rowShipperIds, weights, distances, costs, count);
+
+                // Rows of one customer share a shard; -1 marks rows that are not stored
+                ShardRouter router = router();
+                int[] rowShards = new int[count];
+                for (int i = 0; i < count; i++) {
+                    rowShards[i] = validation.isValid(i) ? router.shardForCustomer(rowCustomerIds[i]) : -1;
+                    if (hook != null && rowShards[i] >= 0 && hook.isCommitted(i, rowShards[i])) rowShards[i] = -1;
+                }
+
+                try {
+                    // Shard 0 goes last so the hook's call in its transaction sees every row
+                    for (int shard = router.getShardCount() - 1; shard >= 0; shard--) {
+                        try (var _ = leaseShardConnection("Add", shard)) {
+                            insertShardRows(requireConnection("Add"), shard, rowShards, rowCustomerIds, rowShipperIds,
+                                    customerNames, shipperNames, weights, distances, costs, stored, hook);
+                        }
+                    }
+                } finally {
+                    // Publish whatever committed, including shards stored before a failure
+                    List<ShippingOrder> added = new ArrayList<>(count);
+                    for (ShippingOrder order : stored) {
+                        if (order != null) added.add(order);
+                    }
+                    if (!added.isEmpty()) publish(current -> current.withPutAll(added));
+                }
+                return stored;
+            } catch (SQLException e) {
+                throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                        "Error inserting orders: " + e.getMessage(), e);
+            }
+        } finally {
+            BATCH_ADD_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Inserts the rows of {@code insertOrders} that belong to one shard in a single
+     * transaction, running the hook (if any) before it commits, and fills in their stored
+     * orders. Other shards without rows are skipped; the primary always runs the hook.
+     */
+    private static void insertShardRows(Connection conn, int shard, int[] rowShards,
+                                        int[] rowCustomerIds, int[] rowShipperIds,
+                                        String[] customerNames, String[] shipperNames,
+                                        double[] weights, int[] distances, double[] costs,
+                                        ShippingOrder[] stored, BatchCommitHook hook) throws SQLException {
+        int count = rowShards.length;
+        int pending = 0;
+        for (int rowShard : rowShards) {
+            if (rowShard == shard) pending++;
+        }
+        if (pending == 0 && (hook == null || shard != 0)) return;
+
+        String sql = """
+            INSERT INTO ShippingOrder (customer_id, shipper_id, weight_in_pounds, distance_in_miles, shipping_cost)
+            VALUES (?, ?, ?, ?, ?)
+        """;
+        ShippingOrder[] inserted = new ShippingOrder[count];
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < count; i++) {
+                if (rowShards[i] != shard) continue;
+                stmt.setInt(1, rowCustomerIds[i]);
+                stmt.setInt(2, rowShipperIds[i]);
+                stmt.setDouble(3, weights[i]);
+                stmt.setInt(4, distances[i]);
+                stmt.setDouble(5, costs[i]);
+                stmt.addBatch();
+            }
+            if (pending > 0) {
+                stmt.executeBatch();
+
+                // Generated keys come back in the order the rows were added
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    for (int i = 0; i < count; i++) {
+                        if (rowShards[i] != shard) continue;
+                        int orderId = keys.next() ? keys.getInt(1) : -1;
+                        inserted[i] = new ShippingOrder(orderId, rowCustomerIds[i], rowShipperIds[i],
+                                weights[i], distances[i], customerNames[i], shipperNames[i], costs[i]);
+                    }
+                }
+            }
+            if (hook != null) {
+                ShippingOrder[] batch = stored.clone();
+                for (int i = 0; i < count; i++) {
+                    if (inserted[i] != null) batch[i] = inserted[i];
+                }
+                hook.beforeCommit(conn, shard, batch);
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+
+        // Only rows of a committed transaction are reported as stored
+        for (int i = 0; i < count; i++) {
+            if (inserted[i] != null) stored[i] = inserted[i];
+        }
+    }
+
     /**
      * Updates an existing shipping order's weight, distance, and recalculated cost.
+     * The update is applied only if nobody changed the order since this manager last
+     * saw it; see {@link #applyOrderUpdate(int, double, int)}.
      *
      * @param orderId order ID to update
      * @param weight new weight
@@ -90,42 +501,212 @@ public class ShippingOrderManager {
      * @return true if updated successfully, false otherwise
      */
     public boolean updateOrder(int orderId, double weight, int distance) {
-        if (weight <= 0 || weight > 150 || distance <= 0 || distance > 3000) return false;
-
         try {
-            Connection conn = DBConnectionManager.getInstance().getConnection();
-            if (conn == null || conn.isClosed()) {
-                System.err.println("Update failed: DB connection is closed or null.");
-                return false;
+            applyOrderUpdate(orderId, weight, distance);
+            return true;
+        } catch (OrderOperationException e) {
+            if (e.getReason() != OrderOperationException.Reason.INVALID_INPUT) {
+                System.err.println(e.getMessage());
             }
+            return false;
+        }
+    }
 
-            ShippingOrder order = findOrder(orderId);
-            if (order == null) {
-                System.err.println("Update failed: order not found.");
-                return false;
+    /**
+     * Updates an existing order and returns its new state, reporting failures as typed exceptions.
+     * The write is conditional on the row version held in memory, so a change made through
+     * another manager or process since the last load is reported as a conflict rather
+     * than overwritten; the in-memory order is refreshed in that case, so a retry applies
+     * the update on top of the other change.
+     *
+     * @param orderId order ID to update
+     * @param weight new weight
+     * @param distance new distance
+     * @return the updated order with its recalculated cost
+     * @throws OrderOperationException if the input is invalid, the order does not exist,
+     *                                 the order was changed elsewhere ({@code CONFLICT}),
+     *                                 or the database write fails
+     */
+    public ShippingOrder applyOrderUpdate(int orderId, double weight, int distance) throws OrderOperationException {
+        requireValidUpdate(weight, distance);
+        try (var _ = leaseOrderConnection("Update", orderId)) {
+            ReentrantLock lock = orderLocks.forKey(orderId);
+            lock.lock();
+            try {
+                // Under the stripe lock, memory holds the latest version this manager wrote
+                ShippingOrder order = findOrder(orderId);
+                if (order == null) {
+                    throw new OrderOperationException(OrderOperationException.Reason.NOT_FOUND,
+                            "Update failed: order not found.");
+                }
+                OrderWriteResult result = updateOrderIfVersion(orderId, order.getRowVersion(), weight, distance);
+                return switch (result.getStatus()) {
+                    case APPLIED -> result.getOrder();
+                    case CONFLICT -> throw new OrderOperationException(OrderOperationException.Reason.CONFLICT,
+                            "Update failed: order " + orderId + " was changed by another user.");
+                    case NOT_FOUND -> throw new OrderOperationException(OrderOperationException.Reason.NOT_FOUND,
+                            "Update failed: order not found.");
+                };
+            } finally {
+                lock.unlock();
             }
+        }
+    }
 
-            double cost = calculateShippingCost(weight, distance);
+    /**
+     * Updates an order only if its stored row still has the version the caller read
+     * (optimistic concurrency). The check and the write are one
+     * {@code UPDATE ... WHERE row_version = ?}, so no lock is held between the caller's
+     * read and this write, and of two clients editing the same version exactly one wins.
+     *
+     * @param orderId         order ID to update
+     * @param expectedVersion row version the caller read, from {@link ShippingOrder#getRowVersion()}
+     * @param weight          new weight
+     * @param distance        new distance
+     * @return {@code APPLIED} with the new state, {@code CONFLICT} with the stored state,
+     *         or {@code NOT_FOUND}
+     * @throws OrderOperationException if the input is invalid or the database write fails
+     */
+    public OrderWriteResult updateOrderIfVersion(int orderId, int expectedVersion, double weight, int distance)
+            throws OrderOperationException {
+        long start = System.nanoTime();
+        try {
+            requireValidUpdate(weight, distance);
 
-            String sql = """
-                UPDATE ShippingOrder
-                SET weight_in_pounds = ?, distance_in_miles = ?, shipping_cost = ?
-                WHERE order_id = ?
-            """;
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setDouble(1, weight);
-                stmt.setInt(2, distance);
-                stmt.setDouble(3, cost);
-                stmt.setInt(4, orderId);
-                stmt.executeUpdate();
+            try (var _ = leaseOrderConnection("Update", orderId)) {
+                Connection conn = requireConnection("Update");
+                // Writes to the same order run one at a time, so the snapshot sees them in commit order
+                ReentrantLock lock = orderLocks.forKey(orderId);
+                lock.lock();
+                try {
+                    ShippingOrder order = currentOrder(conn, orderId);
+                    if (order == null) {
+                        publish(current -> current.withRemoved(orderId));
+                        return OrderWriteResult.notFound(orderId);
+                    }
+
+                    double cost = PricingEngine.getInstance().price(order.getShipperId(), weight, distance);
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_IF_VERSION_SQL)) {
+                        bindUpdate(stmt, orderId, expectedVersion, weight, distance, cost);
+                        if (stmt.executeUpdate() == 0) return resolveRejectedWrite(conn, orderId);
+                    }
+
+                    ShippingOrder updated = new ShippingOrder(orderId, order.getCustomerId(), order.getShipperId(),
+                            weight, distance, order.getCustomerName(), order.getShipperName(), cost,
+                            expectedVersion + 1);
+                    publish(current -> current.withPut(updated));
+                    return OrderWriteResult.applied(orderId, updated);
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                        "Error updating order: " + e.getMessage(), e);
             }
+        } finally {
+            UPDATE_LATENCY.recordSince(start);
+        }
+    }
 
-            loadOrdersFromDatabase();
-            return true;
+    /**
+     * Updates many orders in one transaction, each only if its stored row still has the
+     * expected version. Rows are independent: a conflicting or missing row is reported
+     * in its result and does not stop the other rows from being written. Rows whose
+     * weight or distance fail validation are skipped and reported as null.
+     * When orders are sharded, each shard's rows are written in a transaction of their own.
+     * Arrays are read from index 0 to {@code count - 1}.
+     *
+     * @param orderIds         order ID per row
+     * @param expectedVersions row version the caller read, per row
+     * @param weights          new weight per row
+     * @param distances        new distance per row
+     * @param count            number of rows
+     * @return the outcome per row, or null where the row was invalid
+     * @throws OrderOperationException if the database write fails; no row is written in that case,
+     *                                 except on shards that committed before the failure
+     */
+    public OrderWriteResult[] updateOrdersIfVersion(int[] orderIds, int[] expectedVersions,
+                                                    double[] weights, int[] distances, int count)
+            throws OrderOperationException {
+        int shard = commonShard(orderIds, count);
+        if (shard < 0) {
+            return splitByShard(orderIds, count, rows -> updateOrdersIfVersion(pick(orderIds, rows),
+                    pick(expectedVersions, rows), pick(weights, rows), pick(distances, rows), rows.length));
+        }
 
-        } catch (SQLException e) {
-            System.err.println("Error updating order: " + e.getMessage());
-            return false;
+        long start = System.nanoTime();
+        try {
+            OrderWriteResult[] results = new OrderWriteResult[count];
+            try (var _ = leaseShardConnection("Update", shard)) {
+                Connection conn = requireConnection("Update");
+                List<ReentrantLock> locks = orderLocks.forKeys(orderIds, count);
+                locks.forEach(ReentrantLock::lock);
+                try {
+                    // Price each valid row against its order's shipper
+                    ShippingOrder[] orders = new ShippingOrder[count];
+                    int[] shipperIds = new int[count];
+                    double[] costs = new double[count];
+                    for (int i = 0; i < count; i++) {
+                        if (!OrderValidator.isValidWeight(weights[i]) || !OrderValidator.isValidDistance(distances[i])) {
+                            continue;
+                        }
+                        orders[i] = currentOrder(conn, orderIds[i]);
+                        if (orders[i] == null) results[i] = OrderWriteResult.notFound(orderIds[i]);
+                        else shipperIds[i] = orders[i].getShipperId();
+                    }
+                    PricingEngine.getInstance().priceAll(shipperIds, weights, distances, costs, count);
+
+                    int[] rowCounts = new int[count];
+                    boolean autoCommit = conn.getAutoCommit();
+                    conn.setAutoCommit(false);
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_IF_VERSION_SQL)) {
+                        int pending = 0;
+                        for (int i = 0; i < count; i++) {
+                            if (orders[i] == null) continue;
+                            bindUpdate(stmt, orderIds[i], expectedVersions[i], weights[i], distances[i], costs[i]);
+                            stmt.addBatch();
+                            pending++;
+                        }
+                        if (pending > 0) {
+                            int[] batchCounts = stmt.executeBatch();
+                            for (int i = 0, b = 0; i < count; i++) {
+                                if (orders[i] != null) rowCounts[i] = batchCounts[b++];
+                            }
+                        }
+                        conn.commit();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(autoCommit);
+                    }
+
+                    // A row that matched nothing had its version changed or was deleted meanwhile
+                    List<ShippingOrder> updated = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        if (orders[i] == null) continue;
+                        if (rowCounts[i] != 0) {
+                            ShippingOrder order = orders[i];
+                            ShippingOrder written = new ShippingOrder(orderIds[i], order.getCustomerId(),
+                                    order.getShipperId(), weights[i], distances[i], order.getCustomerName(),
+                                    order.getShipperName(), costs[i], expectedVersions[i] + 1);
+                            updated.add(written);
+                            results[i] = OrderWriteResult.applied(orderIds[i], written);
+                        } else {
+                            results[i] = resolveRejectedWrite(conn, orderIds[i]);
+                        }
+                    }
+                    publish(current -> current.withPutAll(updated));
+                    return results;
+                } finally {
+                    locks.forEach(ReentrantLock::unlock);
+                }
+            } catch (SQLException e) {
+                throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                        "Error updating orders: " + e.getMessage(), e);
+            }
+        } finally {
+            BATCH_UPDATE_LATENCY.recordSince(start);
         }
     }
 
@@ -137,169 +718,1096 @@ public class ShippingOrderManager {
      */
     public boolean deleteOrder(int id) {
         try {
-            Connection conn = DBConnectionManager.getInstance().getConnection();
-            if (conn == null || conn.isClosed()) {
-                System.err.println("Delete failed: DB connection is closed or null.");
-                return false;
+            removeOrder(id);
+            return true;
+        } catch (OrderOperationException e) {
+            if (e.getReason() != OrderOperationException.Reason.NOT_FOUND) {
+                System.err.println(e.getMessage());
             }
+            return false;
+        }
+    }
 
-            String sql = "DELETE FROM ShippingOrder WHERE order_id = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, id);
-                int affected = stmt.executeUpdate();
-                if (affected > 0) {
-                    loadOrdersFromDatabase();
-                    return true;
+    /**
+     * Deletes an order by ID, reporting failures as typed exceptions. If the order is in
+     * memory, the delete is conditional on its row version, so an order changed elsewhere
+     * since the last load is reported as a conflict instead of being deleted unseen.
+     *
+     * @param id order ID to delete
+     * @throws OrderOperationException if the order does not exist, was changed elsewhere
+     *                                 ({@code CONFLICT}), or the database write fails
+     */
+    public void removeOrder(int id) throws OrderOperationException {
+        try (var _ = leaseOrderConnection("Delete", id)) {
+            ReentrantLock lock = orderLocks.forKey(id);
+            lock.lock();
+            try {
+                ShippingOrder order = findOrder(id);
+                OrderWriteResult result = order != null
+                        ? deleteOrderIfVersion(id, order.getRowVersion())
+                        : deleteUnconditionally(id);
+                switch (result.getStatus()) {
+                    case APPLIED -> { }
+                    case CONFLICT -> throw new OrderOperationException(OrderOperationException.Reason.CONFLICT,
+                            "Delete failed: order " + id + " was changed by another user.");
+                    case NOT_FOUND -> throw new OrderOperationException(OrderOperationException.Reason.NOT_FOUND,
+                            "Delete failed: order not found.");
                 }
+            } finally {
+                lock.unlock();
             }
-        } catch (SQLException e) {
-            System.err.println("Error deleting order: " + e.getMessage());
         }
-        return false;
     }
 
     /**
-     * Finds an order by ID from the in-memory list.
+     * Deletes an order only if its stored row still has the version the caller read.
+     *
+     * @param orderId         order ID to delete
+     * @param expectedVersion row version the caller read, from {@link ShippingOrder#getRowVersion()}
+     * @return {@code APPLIED}, {@code CONFLICT} with the stored state, or {@code NOT_FOUND}
+     * @throws OrderOperationException if the database write fails
+     */
+    public OrderWriteResult deleteOrderIfVersion(int orderId, int expectedVersion) throws OrderOperationException {
+        long start = System.nanoTime();
+        try {
+            try (var _ = leaseOrderConnection("Delete", orderId)) {
+                Connection conn = requireConnection("Delete");
+                ReentrantLock lock = orderLocks.forKey(orderId);
+                lock.lock();
+                try {
+                    try (PreparedStatement stmt = conn.prepareStatement(DELETE_IF_VERSION_SQL)) {
+                        stmt.setInt(1, orderId);
+                        stmt.setInt(2, expectedVersion);
+                        if (stmt.executeUpdate() == 0) return resolveRejectedWrite(conn, orderId);
+                    }
+                    publish(current -> current.withRemoved(orderId));
+                    return OrderWriteResult.applied(orderId, null);
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                        "Error deleting order: " + e.getMessage(), e);
+            }
+        } finally {
+            DELETE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Deletes many orders in one transaction, each only if its stored row still has the
+     * expected version. Conflicting or missing rows are reported in their results and do
+     * not stop the other rows from being deleted.
+     * When orders are sharded, each shard's rows are deleted in a transaction of their own.
+     * Arrays are read from index 0 to {@code count - 1}.
+     *
+     * @param orderIds         order ID per row
+     * @param expectedVersions row version the caller read, per row
+     * @param count            number of rows
+     * @return the outcome per row
+     * @throws OrderOperationException if the database write fails; no row is deleted in that case,
+     *                                 except on shards that committed before the failure
+     */
+    public OrderWriteResult[] deleteOrdersIfVersion(int[] orderIds, int[] expectedVersions, int count)
+            throws OrderOperationException {
+        int shard = commonShard(orderIds, count);
+        if (shard < 0) {
+            return splitByShard(orderIds, count,
+                    rows -> deleteOrdersIfVersion(pick(orderIds, rows), pick(expectedVersions, rows), rows.length));
+        }
+
+        long start = System.nanoTime();
+        try {
+            OrderWriteResult[] results = new OrderWriteResult[count];
+            if (count == 0) return results;
+            try (var _ = leaseShardConnection("Delete", shard)) {
+                Connection conn = requireConnection("Delete");
+                List<ReentrantLock> locks = orderLocks.forKeys(orderIds, count);
+                locks.forEach(ReentrantLock::lock);
+                try {
+                    int[] rowCounts;
+                    boolean autoCommit = conn.getAutoCommit();
+                    conn.setAutoCommit(false);
+                    try (PreparedStatement stmt = conn.prepareStatement(DELETE_IF_VERSION_SQL)) {
+                        for (int i = 0; i < count; i++) {
+                            stmt.setInt(1, orderIds[i]);
+                            stmt.setInt(2, expectedVersions[i]);
+                            stmt.addBatch();
+                        }
+                        rowCounts = stmt.executeBatch();
+                        conn.commit();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(autoCommit);
+                    }
+
+                    List<Integer> deleted = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        if (rowCounts[i] != 0) {
+                            deleted.add(orderIds[i]);
+                            results[i] = OrderWriteResult.applied(orderIds[i], null);
+                        } else {
+                            results[i] = resolveRejectedWrite(conn, orderIds[i]);
+                        }
+                    }
+                    publish(current -> {
+                        OrderSnapshot next = current;
+                        for (int orderId : deleted) next = next.withRemoved(orderId);
+                        return next;
+                    });
+                    return results;
+                } finally {
+                    locks.forEach(ReentrantLock::unlock);
+                }
+            } catch (SQLException e) {
+                throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                        "Error deleting orders: " + e.getMessage(), e);
+            }
+        } finally {
+            BATCH_DELETE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Finds an order by ID in the current snapshot with a binary search.
      *
      * @param id the order ID to search
      * @return ShippingOrder if found, otherwise null
      */
     public ShippingOrder findOrder(int id) {
-        for (ShippingOrder order : orders) {
-            if (order.getOrderId() == id) return order;
+        long start = System.nanoTime();
+        try {
+            return snapshot.get().find(id);
+        } finally {
+            FIND_LATENCY.recordSince(start);
         }
-        return null;
     }
 
     /**
-     * Returns the full list of shipping orders currently held in memory.
+     * Returns the shipping orders currently held in memory as an immutable snapshot
+     * sorted by order ID. The returned list never changes; call again to see later writes.
      *
      * @return a list of all ShippingOrder objects loaded from the database
      */
     public List<ShippingOrder> getAllOrders() {
-        return orders;
+        return snapshot.get();
+    }
+
+    /**
+     * Returns the current immutable snapshot of the in-memory orders.
+     *
+     * @return the latest published snapshot
+     */
+    public OrderSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Reads one page of orders straight from the database with a keyset query,
+     * independent of the in-memory list. Sharded orders are read from every shard in
+     * parallel and merged.
+     *
+     * @param afterId the last ID already seen (0 for the first page)
+     * @param limit   maximum number of orders to return
+     * @return up to {@code limit} orders with IDs above {@code afterId}, in ID order
+     * @throws OrderOperationException if there is no connection or the query fails
+     */
+    public List<ShippingOrder> getOrdersAfter(int afterId, int limit) throws OrderOperationException {
+        try {
+            if (router().isSharded()) {
+                List<ShippingOrder> merged = mergeById(DBConnectionManager.getInstance().scatter(
+                        (shard, conn) -> new DatabaseHelper(conn).getOrdersAfter(afterId, limit)));
+                return merged.subList(0, Math.min(limit, merged.size()));
+            }
+            try (var _ = leaseReadConnection("Page")) {
+                return new DatabaseHelper(requireConnection("Page")).getOrdersAfter(afterId, limit);
+            }
+        } catch (SQLException e) {
+            throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                    "Page failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the page of orders immediately before an ID, for paging backwards.
+     *
+     * @param beforeId the first ID of the current page
+     * @param limit    maximum number of orders to return
+     * @return up to {@code limit} orders with IDs below {@code beforeId}, in ID order
+     * @throws OrderOperationException if there is no connection or the query fails
+     */
+    public List<ShippingOrder> getOrdersBefore(int beforeId, int limit) throws OrderOperationException {
+        try {
+            if (router().isSharded()) {
+                List<ShippingOrder> merged = mergeById(DBConnectionManager.getInstance().scatter(
+                        (shard, conn) -> new DatabaseHelper(conn).getOrdersBefore(beforeId, limit)));
+                return merged.subList(Math.max(0, merged.size() - limit), merged.size());
+            }
+            try (var _ = leaseReadConnection("Page")) {
+                return new DatabaseHelper(requireConnection("Page")).getOrdersBefore(beforeId, limit);
+            }
+        } catch (SQLException e) {
+            throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                    "Page failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns customer names starting with the given prefix (case-insensitive).
+     *
+     * @param prefix the text typed so far
+     * @param limit maximum number of names to return
+     * @return matching customer names in alphabetical order
+     */
+    public List<String> searchCustomers(String prefix, int limit) {
+        return customerIndex.search(prefix, limit);
+    }
+
+    /**
+     * Returns shipper names starting with the given prefix (case-insensitive).
+     *
+     * @param prefix the text typed so far
+     * @param limit maximum number of names to return
+     * @return matching shipper names in alphabetical order
+     */
+    public List<String> searchShippers(String prefix, int limit) {
+        return shipperIndex.search(prefix, limit);
     }
 
     /**
      * Loads orders from a file with structured pipe-delimited format.
      * Each line should have 5 fields: ID | Customer | Shipper | Weight | Distance
+     * The file is streamed and stored in batches by {@link OrderImporter}; a file or rows
+     * imported before are skipped (see {@link ImportDeduplicator}), and an import that was
+     * interrupted resumes from its last committed batch (see {@link ImportCheckpoint}).
      *
      * @param filename path to the .txt file
      */
     public void loadOrdersFromFile(String filename) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split("\\|");
-                if (parts.length == 5) {
-                    String customerName = parts[1].trim();
-                    String shipperName = parts[2].trim();
-                    double weight = Double.parseDouble(parts[3].trim());
-                    int distance = Integer.parseInt(parts[4].trim());
-                    addOrder(customerName, shipperName, weight, distance);
-                }
+        long start = System.nanoTime();
+        try {
+            OrderImporter importer = new OrderImporter(this);
+            importer.setDeduplicator(ImportDeduplicator.ifEnabled());
+            importer.setCheckpointing(ImportCheckpoint.isEnabled());
+            OrderImporter.Result result = importer.importFile(Path.of(filename));
+            if (result.isSkippedFile()) System.out.println("Skipped " + filename + ": already imported");
+            if (result.getResumedAtLine() > 0) {
+                System.out.println("Resumed " + filename + " after line " + result.getResumedAtLine());
             }
-        } catch (IOException | NumberFormatException e) {
+        } catch (IOException | OrderOperationException e) {
             System.err.println("Error reading orders from file: " + e.getMessage());
+        } finally {
+            FILE_IMPORT_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Stores every order in a {@link ColumnarOrderFile}, one row group per transaction.
+     * Names, weights, and distances are copied out of each mapped group in bulk and
+     * passed to {@link #insertOrders}, so new IDs are assigned, customers and shippers
+     * are matched by name, and costs are priced with the current rate tables.
+     *
+     * @param file the columnar file to load
+     * @return the number of orders stored; invalid rows are skipped
+     * @throws IOException             if the file cannot be read or is corrupt
+     * @throws OrderOperationException if a batch cannot be stored
+     */
+    public long importColumnarFile(Path file) throws IOException, OrderOperationException {
+        long start = System.nanoTime();
+        long stored = 0;
+        try (var _ = leaseConnection("Add");
+             ColumnarOrderFile.Reader reader = new ColumnarOrderFile.Reader(file)) {
+            String[] customers = new String[0];
+            String[] shippers = new String[0];
+            double[] weights = new double[0];
+            int[] distances = new int[0];
+            while (reader.nextGroup()) {
+                int rows = reader.getGroupRowCount();
+                if (customers.length < rows) {
+                    customers = new String[rows];
+                    shippers = new String[rows];
+                    weights = new double[rows];
+                    distances = new int[rows];
+                }
+                reader.getCustomerNames(customers);
+                reader.getShipperNames(shippers);
+                reader.getWeights(weights);
+                reader.getDistances(distances);
+                for (ShippingOrder order : insertOrders(customers, shippers, weights, distances, rows)) {
+                    if (order != null) stored++;
+                }
+            }
+            return stored;
+        } finally {
+            FILE_IMPORT_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Recalculates the stored shipping cost of every order with the current
+     * {@link PricingEngine} rate tables. Orders are read in ID order, priced in bulk,
+     * and only changed costs are written back, one committed batch at a time, so
+     * memory use stays constant regardless of table size.
+     * A row updated by someone else between being read and written back is skipped,
+     * since that update already priced it; every repriced row gets a new row version.
+     * Sharded orders are repriced one shard after another.
+     *
+     * @return the number of orders whose cost changed
+     */
+    public int repriceAll() {
+        try {
+            return repriceOrders();
+        } catch (OrderOperationException e) {
+            System.err.println(e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Recalculates every stored cost like {@link #repriceAll()}, reporting failures as
+     * typed exceptions. Batches committed before a failure keep their new costs.
+     *
+     * @return the number of orders whose cost changed
+     * @throws OrderOperationException if there is no connection or the database update fails
+     */
+    public int repriceOrders() throws OrderOperationException {
+        long start = System.nanoTime();
+        int changed = 0;
+        try {
+            ShardRouter router = router();
+            for (int shard = 0; shard < router.getShardCount(); shard++) {
+                try (var _ = leaseShardConnection("Reprice", shard)) {
+                    Connection conn = requireConnection("Reprice");
+
+                    String select = """
+                        SELECT order_id, shipper_id, weight_in_pounds, distance_in_miles, shipping_cost, row_version
+                        FROM ShippingOrder
+                        WHERE order_id > ?
+                        ORDER BY order_id
+                        LIMIT ?
+                    """;
+                    // Skips rows updated since they were read; those were priced when they were written
+                    String update = """
+                        UPDATE ShippingOrder SET shipping_cost = ?, row_version = row_version + 1
+                        WHERE order_id = ? AND row_version = ?
+                    """;
+
+                    int[] ids = new int[REPRICE_BATCH_SIZE];
+                    int[] shipperIds = new int[REPRICE_BATCH_SIZE];
+                    double[] weights = new double[REPRICE_BATCH_SIZE];
+                    int[] distances = new int[REPRICE_BATCH_SIZE];
+                    double[] storedCosts = new double[REPRICE_BATCH_SIZE];
+                    double[] newCosts = new double[REPRICE_BATCH_SIZE];
+                    int[] versions = new int[REPRICE_BATCH_SIZE];
+                    PricingEngine engine = PricingEngine.getInstance();
+
+                    boolean autoCommit = conn.getAutoCommit();
+                    conn.setAutoCommit(false);
+                    try (PreparedStatement selectStmt = conn.prepareStatement(select);
+                         PreparedStatement updateStmt = conn.prepareStatement(update)) {
+
+                        int lastId = Integer.MIN_VALUE;
+                        int count;
+                        do {
+                            selectStmt.setInt(1, lastId);
+                            selectStmt.setInt(2, REPRICE_BATCH_SIZE);
+                            count = 0;
+                            try (ResultSet rs = selectStmt.executeQuery()) {
+                                while (rs.next()) {
+                                    ids[count] = rs.getInt(1);
+                                    shipperIds[count] = rs.getInt(2);
+                                    weights[count] = rs.getDouble(3);
+                                    distances[count] = rs.getInt(4);
+                                    storedCosts[count] = rs.getDouble(5);
+                                    versions[count] = rs.getInt(6);
+                                    count++;
+                                }
+                            }
+                            if (count == 0) break;
+
+                            engine.priceAll(shipperIds, weights, distances, newCosts, count);
+                            int pending = 0;
+                            for (int i = 0; i < count; i++) {
+                                if (newCosts[i] != storedCosts[i]) {
+                                    updateStmt.setDouble(1, newCosts[i]);
+                                    updateStmt.setInt(2, ids[i]);
+                                    updateStmt.setInt(3, versions[i]);
+                                    updateStmt.addBatch();
+                                    pending++;
+                                }
+                            }
+                            if (pending > 0) {
+                                for (int rows : updateStmt.executeBatch()) {
+                                    if (rows != 0) changed++;
+                                }
+                            }
+                            conn.commit();
+
+                            lastId = ids[count - 1];
+                        } while (count == REPRICE_BATCH_SIZE);
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(autoCommit);
+                    }
+                }
+            }
+
+            if (changed > 0) {
+                committed(QueryCache.Tag.ORDERS);
+                loadOrdersFromDatabase();
+            }
+        } catch (SQLException e) {
+            throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                    "Error repricing orders: " + e.getMessage(), e);
+        } finally {
+            REPRICE_LATENCY.recordSince(start);
+        }
+        return changed;
+    }
+
+    /**
+     * Deletes every order with an ID below {@code beforeId}, in committed batches of
+     * {@value #PURGE_BATCH_SIZE} so locks and undo logs stay small, one shard after another.
+     *
+     * @param beforeId orders with smaller IDs are deleted
+     * @return the number of orders deleted
+     * @throws OrderOperationException if the database delete fails; batches already
+     *                                 committed stay deleted
+     */
+    public long purgeOrdersBefore(int beforeId) throws OrderOperationException {
+        long start = System.nanoTime();
+        long deleted = 0;
+        try {
+            ShardRouter router = router();
+            for (int shard = 0; shard < router.getShardCount(); shard++) {
+                try (var _ = leaseShardConnection("Purge", shard)) {
+                    Connection conn = requireConnection("Purge");
+                    String sql = "DELETE FROM ShippingOrder WHERE order_id < ? ORDER BY order_id LIMIT ?";
+
+                    boolean autoCommit = conn.getAutoCommit();
+                    conn.setAutoCommit(false);
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        int batch;
+                        do {
+                            stmt.setInt(1, beforeId);
+                            stmt.setInt(2, PURGE_BATCH_SIZE);
+                            batch = stmt.executeUpdate();
+                            conn.commit();
+                            deleted += batch;
+                        } while (batch == PURGE_BATCH_SIZE);
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(autoCommit);
+                    }
+                }
+            }
+
+            if (deleted > 0) {
+                committed(QueryCache.Tag.ORDERS);
+                loadOrdersFromDatabase();
+            }
+            return deleted;
+        } catch (SQLException e) {
+            throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                    "Error purging orders after deleting " + deleted + ": " + e.getMessage(), e);
+        } finally {
+            PURGE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Moves every order with an ID below {@code beforeId} from {@code ShippingOrder} to
+     * {@code ShippingOrderArchive}, oldest first, in committed batches of
+     * {@value #ARCHIVE_BATCH_SIZE}. Each batch is copied and deleted in one transaction,
+     * so an order is always in exactly one of the two tables, and the in-memory orders
+     * drop each batch as it commits. Sharded orders are archived one shard after another,
+     * each into its own database's archive table, and the in-memory orders are reloaded
+     * at the end. Archived orders are read through {@link OrderArchive}.
+     *
+     * @param beforeId orders with smaller IDs are archived
+     * @return the number of orders moved
+     * @throws OrderOperationException if the move fails; batches already committed stay archived
+     */
+    public long archiveOrdersBefore(int beforeId) throws OrderOperationException {
+        long start = System.nanoTime();
+        long moved = 0;
+        try {
+            ShardRouter router = router();
+            for (int shard = 0; shard < router.getShardCount(); shard++) {
+                try (var _ = leaseShardConnection("Archive", shard)) {
+                    Connection conn = requireConnection("Archive");
+
+                    boolean autoCommit = conn.getAutoCommit();
+                    conn.setAutoCommit(false);
+                    try (PreparedStatement bound = conn.prepareStatement(ARCHIVE_BATCH_BOUND_SQL);
+                         PreparedStatement copy = conn.prepareStatement(ARCHIVE_COPY_SQL);
+                         PreparedStatement delete = conn.prepareStatement("DELETE FROM ShippingOrder WHERE order_id <= ?")) {
+                        while (true) {
+                            bound.setInt(1, beforeId);
+                            bound.setInt(2, ARCHIVE_BATCH_SIZE);
+                            int lastId;
+                            try (ResultSet rs = bound.executeQuery()) {
+                                lastId = rs.next() ? rs.getInt(1) : 0;
+                                if (rs.wasNull()) lastId = 0;
+                            }
+                            if (lastId == 0) break;
+
+                            copy.setInt(1, lastId);
+                            int copied = copy.executeUpdate();
+                            delete.setInt(1, lastId);
+                            int deleted = delete.executeUpdate();
+                            if (copied != deleted) {
+                                throw new SQLException("Orders changed while archiving (copied " + copied
+                                        + ", deleted " + deleted + ")");
+                            }
+                            conn.commit();
+
+                            moved += deleted;
+                            ARCHIVED_ORDERS.add(deleted);
+                            // Shards interleave IDs, so a cut on one shard says nothing about the others
+                            int cut = lastId + 1;
+                            if (!router.isSharded()) publish(current -> current.withRemovedBefore(cut));
+                            if (deleted < ARCHIVE_BATCH_SIZE) break;
+                        }
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(autoCommit);
+                    }
+                }
+            }
+            if (router.isSharded() && moved > 0) {
+                committed(QueryCache.Tag.ORDERS);
+                loadOrdersFromDatabase();
+            }
+            return moved;
+        } catch (SQLException e) {
+            throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                    "Error archiving orders after moving " + moved + ": " + e.getMessage(), e);
+        } finally {
+            ARCHIVE_LATENCY.recordSince(start);
         }
     }
 
     private int getOrInsertCustomerId(Connection conn, String name) throws SQLException {
-        if (!isValidName(name)) throw new SQLException("Invalid customer name.");
+        long start = System.nanoTime();
+        try {
+            if (!OrderValidator.isValidName(name)) throw new SQLException("Invalid customer name.");
 
-        String select = "SELECT customer_id FROM Customer WHERE name = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(select)) {
-            stmt.setString(1, name);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) return rs.getInt("customer_id");
+            // Names already seen need no round trip; like the database, case does not matter
+            int known = customerIndex.idOfIgnoreCase(name);
+            if (known >= 0) return known;
+
+            // Two threads adding the same new name must not both insert it
+            ReentrantLock lock = customerNameLocks.forKey(name.toLowerCase(Locale.ROOT));
+            lock.lock();
+            try {
+                return selectOrInsertCustomerId(conn, name);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            CUSTOMER_LOOKUP_LATENCY.recordSince(start);
         }
+    }
+
+    /**
+     * Looks up a customer by name, inserting it if missing. Callers hold the name's lock.
+     */
+    private int selectOrInsertCustomerId(Connection conn, String name) throws SQLException {
+        int known = customerIndex.idOfIgnoreCase(name);
+        if (known >= 0) return known;
+
+        // The collation may match a differently spelled row; index the stored spelling
+        String select = "SELECT customer_id, name FROM Customer WHERE name = ?";
+        int existing = selectId(conn, select, name, customerIndex);
+        if (existing >= 0) return existing;
 
         String insert = "INSERT INTO Customer (name, email, phone) VALUES (?, '', '')";
         try (PreparedStatement stmt = conn.prepareStatement(insert, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, name);
             stmt.executeUpdate();
             ResultSet keys = stmt.getGeneratedKeys();
-            if (keys.next()) return keys.getInt(1);
+            if (keys.next()) {
+                int id = keys.getInt(1);
+                copyToShards("INSERT INTO Customer (customer_id, name, email, phone) VALUES (?, ?, '', '')", id, name);
+                committed(QueryCache.Tag.CUSTOMERS);
+                customerIndex.put(name, id);
+                return id;
+            }
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // Another process inserted the name first and the unique name index rejected ours
+            int id = selectId(conn, select, name, customerIndex);
+            if (id < 0) throw e;
+            return id;
         }
 
         throw new SQLException("Failed to insert or fetch customer.");
     }
 
     private int getOrInsertShipperId(Connection conn, String name) throws SQLException {
-        if (!isValidName(name)) throw new SQLException("Invalid shipper name.");
+        long start = System.nanoTime();
+        try {
+            if (!OrderValidator.isValidName(name)) throw new SQLException("Invalid shipper name.");
 
-        String select = "SELECT shipper_id FROM Shipper WHERE name = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(select)) {
-            stmt.setString(1, name);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) return rs.getInt("shipper_id");
+            // Names already seen need no round trip; like the database, case does not matter
+            int known = shipperIndex.idOfIgnoreCase(name);
+            if (known >= 0) return known;
+
+            // Two threads adding the same new name must not both insert it
+            ReentrantLock lock = shipperNameLocks.forKey(name.toLowerCase(Locale.ROOT));
+            lock.lock();
+            try {
+                return selectOrInsertShipperId(conn, name);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            SHIPPER_LOOKUP_LATENCY.recordSince(start);
         }
+    }
+
+    /**
+     * Looks up a shipper by name, inserting it if missing. Callers hold the name's lock.
+     */
+    private int selectOrInsertShipperId(Connection conn, String name) throws SQLException {
+        int known = shipperIndex.idOfIgnoreCase(name);
+        if (known >= 0) return known;
+
+        // The collation may match a differently spelled row; index the stored spelling
+        String select = "SELECT shipper_id, name FROM Shipper WHERE name = ?";
+        int existing = selectId(conn, select, name, shipperIndex);
+        if (existing >= 0) return existing;
 
         String insert = "INSERT INTO Shipper (name, phone) VALUES (?, '')";
         try (PreparedStatement stmt = conn.prepareStatement(insert, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, name);
             stmt.executeUpdate();
             ResultSet keys = stmt.getGeneratedKeys();
-            if (keys.next()) return keys.getInt(1);
+            if (keys.next()) {
+                int id = keys.getInt(1);
+                copyToShards("INSERT INTO Shipper (shipper_id, name, phone) VALUES (?, ?, '')", id, name);
+                committed(QueryCache.Tag.SHIPPERS);
+                shipperIndex.put(name, id);
+                return id;
+            }
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // Another process inserted the name first and the unique name index rejected ours
+            int id = selectId(conn, select, name, shipperIndex);
+            if (id < 0) throw e;
+            return id;
         }
 
         throw new SQLException("Failed to insert or fetch shipper.");
     }
 
-    private double calculateShippingCost(double weight, int distance) {
-        return Math.round(weight * distance * 0.0015 * 100.0) / 100.0;
+    /**
+     * Looks up an ID and stored name with a seek on the table's unique name index and
+     * adds the stored spelling to {@code index}; -1 if absent.
+     */
+    private static int selectId(Connection conn, String sql, String name, NameIndex index) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return -1;
+                int id = rs.getInt(1);
+                index.put(rs.getString(2), id);
+                return id;
+            }
+        }
     }
 
-    private boolean isValidName(String name) {
-        return name != null && name.length() <= 30 && !name.matches(".*\\d.*");
+    /**
+     * Loads every order like the default constructor, but hands the rows to
+     * {@code onChunk} in ID order while they are still being read, so a caller can show
+     * the first orders long before the last ones arrive. The first chunk is small and
+     * later chunks grow up to {@code maxChunkSize}. Each chunk is a new list the consumer
+     * may keep. The complete snapshot is published when the query finishes, followed by
+     * the name indexes. Sharded orders are read from every shard in parallel and handed
+     * out in chunks once merged. Call it once, on a background thread, after constructing the
+     * manager with {@code loadNow} false.
+     *
+     * @param maxChunkSize largest number of orders per chunk
+     * @param onChunk      receives each chunk on the calling thread
+     * @return the number of orders in memory afterwards
+     */
+    public int streamOrdersFromDatabase(int maxChunkSize, Consumer<List<ShippingOrder>> onChunk) {
+        if (!keepOrdersInMemory) return 0;
+        long start = System.nanoTime();
+        try {
+            OrderSnapshot base = snapshot.get();
+            List<ShippingOrder> loaded = queryAllShards(maxChunkSize, onChunk);
+            if (!snapshot.compareAndSet(base, OrderSnapshot.of(loaded, base.getVersion() + 1))) {
+                // A write landed while rows were streaming; reload until a consistent copy publishes
+                loadOrdersFromDatabase();
+            }
+            loadNameIndexes();
+        } catch (SQLException e) {
+            System.err.println("Error loading orders: " + e.getMessage());
+        } finally {
+            DB_LOAD_LATENCY.recordSince(start);
+        }
+        return snapshot.get().size();
     }
 
     private void loadOrdersFromDatabase() {
-        orders.clear();
-        String sql = """
-            SELECT 
-                o.order_id,
-                o.customer_id,
-                o.shipper_id,
-                o.weight_in_pounds,
-                o.distance_in_miles,
-                c.name AS customer_name,
-                s.name AS shipper_name
-            FROM ShippingOrder o
-            JOIN Customer c ON o.customer_id = c.customer_id
-            JOIN Shipper s ON o.shipper_id = s.shipper_id
-        """;
-
+        if (!keepOrdersInMemory) return;
+        long start = System.nanoTime();
         try {
-            Connection conn = DBConnectionManager.getInstance().getConnection();
-            if (conn == null || conn.isClosed()) {
-                System.err.println("Load failed: DB connection is closed or null.");
-                return;
+            try {
+                // Publish only if no write landed while the query ran; otherwise reload again
+                for (int attempt = 1; attempt <= RELOAD_ATTEMPTS; attempt++) {
+                    OrderSnapshot base = snapshot.get();
+                    List<ShippingOrder> loaded = queryAllShards(Integer.MAX_VALUE, null);
+                    if (snapshot.compareAndSet(base, OrderSnapshot.of(loaded, base.getVersion() + 1))) return;
+                }
+                System.err.println("Load skipped: orders kept changing during reload.");
+            } catch (SQLException e) {
+                System.err.println("Error loading orders: " + e.getMessage());
             }
+        } finally {
+            DB_LOAD_LATENCY.recordSince(start);
+        }
+    }
 
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(sql)) {
+    /**
+     * Runs the full order query on every shard and returns the orders in ID order. Without
+     * shards the rows reach {@code onChunk} while they stream in; with shards, once every
+     * shard has answered and the results are merged.
+     */
+    private static List<ShippingOrder> queryAllShards(int maxChunkSize,
+                                                      Consumer<List<ShippingOrder>> onChunk) throws SQLException {
+        DBConnectionManager db = DBConnectionManager.getInstance();
+        if (!db.getShardRouter().isSharded()) {
+            return db.scatter((shard, conn) -> queryAllOrders(requireOpen(conn), maxChunkSize, onChunk)).get(0);
+        }
 
+        List<ShippingOrder> loaded = mergeById(
+                db.scatter((shard, conn) -> queryAllOrders(requireOpen(conn), Integer.MAX_VALUE, null)));
+        if (onChunk != null) {
+            int chunkSize = Math.min(FIRST_CHUNK_SIZE, maxChunkSize);
+            for (int from = 0; from < loaded.size(); ) {
+                int to = (int) Math.min((long) from + chunkSize, loaded.size());
+                onChunk.accept(new ArrayList<>(loaded.subList(from, to)));
+                chunkSize = (int) Math.min((long) chunkSize * 2, maxChunkSize);
+                from = to;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Runs the full order query, streaming rows from the driver, and returns every row
+     * as an order. If {@code onChunk} is not null it also receives the rows in chunks,
+     * starting at {@value #FIRST_CHUNK_SIZE} rows and doubling up to {@code maxChunkSize}.
+     */
+    private static List<ShippingOrder> queryAllOrders(Connection conn, int maxChunkSize,
+                                                      Consumer<List<ShippingOrder>> onChunk) throws SQLException {
+        List<ShippingOrder> loaded = new ArrayList<>();
+        int chunkSize = Math.min(FIRST_CHUNK_SIZE, maxChunkSize);
+        List<ShippingOrder> chunk = new ArrayList<>(chunkSize);
+        try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            OrderExporter.enableStreaming(stmt);
+            try (ResultSet rs = stmt.executeQuery(ALL_ORDERS_SQL)) {
                 while (rs.next()) {
-                    double weight = rs.getDouble("weight_in_pounds");
-                    int distance = rs.getInt("distance_in_miles");
-                    double shippingCost = calculateShippingCost(weight, distance);
-
-                    ShippingOrder order = new ShippingOrder(
-                            rs.getInt("order_id"),
-                            rs.getInt("customer_id"),
-                            rs.getInt("shipper_id"),
-                            weight,
-                            distance,
-                            rs.getString("customer_name"),
-                            rs.getString("shipper_name"),
-                            shippingCost
-                    );
-                    orders.add(order);
+                    // Cost is stored with each order and kept current by repriceAll()
+                    ShippingOrder order = DatabaseHelper.readOrder(rs);
+                    loaded.add(order);
+                    if (onChunk == null) continue;
+                    chunk.add(order);
+                    if (chunk.size() == chunkSize) {
+                        onChunk.accept(chunk);
+                        chunkSize = (int) Math.min((long) chunkSize * 2, maxChunkSize);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
                 }
             }
+        }
+        if (onChunk != null && !chunk.isEmpty()) onChunk.accept(chunk);
+        return loaded;
+    }
+
+    /**
+     * Throws if an update's weight or distance fails {@link OrderValidator} rules.
+     */
+    private static void requireValidUpdate(double weight, int distance) throws OrderOperationException {
+        if (!OrderValidator.isValidWeight(weight) || !OrderValidator.isValidDistance(distance)) {
+            throw new OrderOperationException(OrderOperationException.Reason.INVALID_INPUT,
+                    "Update failed: weight or distance out of range.");
+        }
+    }
+
+    private static void bindUpdate(PreparedStatement stmt, int orderId, int expectedVersion,
+                                   double weight, int distance, double cost) throws SQLException {
+        stmt.setDouble(1, weight);
+        stmt.setInt(2, distance);
+        stmt.setDouble(3, cost);
+        stmt.setInt(4, orderId);
+        stmt.setInt(5, expectedVersion);
+    }
+
+    /**
+     * Returns an order from memory, or from the database if it is not in memory.
+     * Only its IDs and names are relied on, which updates never change.
+     */
+    private ShippingOrder currentOrder(Connection conn, int orderId) throws SQLException {
+        ShippingOrder order = findOrder(orderId);
+        return order != null ? order : new DatabaseHelper(conn).getShippingOrder(orderId);
+    }
+
+    /**
+     * Works out why a conditional write matched no row, and refreshes the in-memory order
+     * from the database so the next attempt starts from the stored version.
+     */
+    private OrderWriteResult resolveRejectedWrite(Connection conn, int orderId) throws SQLException {
+        ShippingOrder stored = new DatabaseHelper(conn).getShippingOrder(orderId);
+        if (stored == null) {
+            publish(current -> current.withRemoved(orderId));
+            return OrderWriteResult.notFound(orderId);
+        }
+        publish(current -> current.withPut(stored));
+        return OrderWriteResult.conflict(stored);
+    }
+
+    /**
+     * Deletes an order that is not in memory, so has no version to check against.
+     */
+    private OrderWriteResult deleteUnconditionally(int orderId) throws OrderOperationException {
+        long start = System.nanoTime();
+        try {
+            Connection conn = requireConnection("Delete");
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM ShippingOrder WHERE order_id = ?")) {
+                stmt.setInt(1, orderId);
+                if (stmt.executeUpdate() == 0) return OrderWriteResult.notFound(orderId);
+            }
+            publish(current -> current.withRemoved(orderId));
+            return OrderWriteResult.applied(orderId, null);
         } catch (SQLException e) {
-            System.err.println("Error loading orders: " + e.getMessage());
+            throw new OrderOperationException(OrderOperationException.Reason.DATABASE_ERROR,
+                    "Error deleting order: " + e.getMessage(), e);
+        } finally {
+            DELETE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Copies a customer or shipper just created on the primary to every other shard, with
+     * the same ID. A shard that already has the row, from an earlier partial copy, keeps it.
+     */
+    private void copyToShards(String insert, int id, String name) throws SQLException {
+        ShardRouter router = router();
+        for (int shard = 1; shard < router.getShardCount(); shard++) {
+            try (var _ = DBConnectionManager.getInstance().leaseShard(shard);
+                 PreparedStatement stmt = DBConnectionManager.getInstance().getConnection().prepareStatement(insert)) {
+                stmt.setInt(1, id);
+                stmt.setString(2, name);
+                stmt.executeUpdate();
+            } catch (SQLIntegrityConstraintViolationException e) {
+                // Already present on this shard
+            }
+        }
+    }
+
+    /**
+     * Returns the shard of the given rows' orders, or -1 if they span several shards.
+     * An empty batch belongs to shard 0.
+     */
+    private static int commonShard(int[] orderIds, int count) {
+        ShardRouter router = router();
+        int shard = count > 0 ? router.shardForOrder(orderIds[0]) : 0;
+        for (int i = 1; i < count; i++) {
+            if (router.shardForOrder(orderIds[i]) != shard) return -1;
+        }
+        return shard;
+    }
+
+    /** A batch write over a subset of rows, given as indexes into the caller's arrays */
+    @FunctionalInterface
+    private interface ShardBatch {
+        OrderWriteResult[] apply(int[] rows) throws OrderOperationException;
+    }
+
+    /**
+     * Runs a batch write once per shard over the rows whose orders live there, and
+     * returns the results in the original row order.
+     */
+    private static OrderWriteResult[] splitByShard(int[] orderIds, int count, ShardBatch batch)
+            throws OrderOperationException {
+        ShardRouter router = router();
+        OrderWriteResult[] results = new OrderWriteResult[count];
+        int[] rows = new int[count];
+        for (int shard = 0; shard < router.getShardCount(); shard++) {
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                if (router.shardForOrder(orderIds[i]) == shard) rows[n++] = i;
+            }
+            if (n == 0) continue;
+            int[] shardRows = Arrays.copyOf(rows, n);
+            OrderWriteResult[] part = batch.apply(shardRows);
+            for (int j = 0; j < n; j++) results[shardRows[j]] = part[j];
+        }
+        return results;
+    }
+
+    private static int[] pick(int[] values, int[] rows) {
+        int[] picked = new int[rows.length];
+        for (int j = 0; j < rows.length; j++) picked[j] = values[rows[j]];
+        return picked;
+    }
+
+    private static double[] pick(double[] values, int[] rows) {
+        double[] picked = new double[rows.length];
+        for (int j = 0; j < rows.length; j++) picked[j] = values[rows[j]];
+        return picked;
+    }
+
+    /**
+     * Concatenates per-shard results and sorts them by order ID.
+     */
+    private static List<ShippingOrder> mergeById(List<List<ShippingOrder>> parts) {
+        List<ShippingOrder> merged = new ArrayList<>();
+        for (List<ShippingOrder> part : parts) merged.addAll(part);
+        merged.sort(Comparator.comparingInt(ShippingOrder::getOrderId));
+        return merged;
+    }
+
+    private static Connection requireOpen(Connection conn) throws SQLException {
+        if (conn == null || conn.isClosed()) throw new SQLException("DB connection is closed or null.");
+        return conn;
+    }
+
+    private static ShardRouter router() {
+        return DBConnectionManager.getInstance().getShardRouter();
+    }
+
+    /**
+     * Applies a change to the in-memory snapshot and publishes the result atomically.
+     * The change is retried if another writer published first, so it must be free of
+     * side effects; it is skipped entirely when orders are not kept in memory.
+     * Cached order reads are dropped either way, since every call follows a committed
+     * write or the discovery of one made elsewhere.
+     *
+     * @param change function from the current snapshot to the next version
+     */
+    private void publish(UnaryOperator<OrderSnapshot> change) {
+        committed(QueryCache.Tag.ORDERS);
+        if (keepOrdersInMemory) snapshot.updateAndGet(change);
+    }
+
+    /**
+     * Drops cached reads of a table after a change to it committed, and keeps the calling
+     * thread's next reads on the primary so they see the change.
+     */
+    private static void committed(QueryCache.Tag table) {
+        QueryCache.getInstance().invalidate(table);
+        DBConnectionManager.getInstance().markWritten();
+    }
+
+    /**
+     * Leases a pooled connection to the calling thread for one operation, so concurrent
+     * operations each use their own connection. Does nothing if the thread already holds
+     * one or no pool is configured.
+     *
+     * @param operation operation name used in the error message (e.g., "Add")
+     * @return the lease, to be closed when the operation ends
+     * @throws OrderOperationException if no connection could be borrowed
+     */
+    private DBConnectionManager.Lease leaseConnection(String operation) throws OrderOperationException {
+        try {
+            return DBConnectionManager.getInstance().lease();
+        } catch (SQLException e) {
+            throw new OrderOperationException(OrderOperationException.Reason.NO_CONNECTION,
+                    operation + " failed: could not borrow a database connection: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Like {@link #leaseConnection(String)}, for operations that only read: the connection
+     * may come from a read replica (see {@link DBConnectionManager#leaseForRead()}).
+     *
+     * @param operation operation name used in the error message (e.g., "Page")
+     * @return the lease, to be closed when the operation ends
+     * @throws OrderOperationException if no connection could be borrowed
+     */
+    private DBConnectionManager.Lease leaseReadConnection(String operation) throws OrderOperationException {
+        try {
+            return DBConnectionManager.getInstance().leaseForRead();
+        } catch (SQLException e) {
+            throw new OrderOperationException(OrderOperationException.Reason.NO_CONNECTION,
+                    operation + " failed: could not borrow a database connection: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Like {@link #leaseConnection(String)}, for a connection to one shard (see
+     * {@link DBConnectionManager#leaseShard(int)}).
+     *
+     * @param operation operation name used in the error message (e.g., "Add")
+     * @param shard     the shard index
+     * @return the lease, to be closed when the operation ends
+     * @throws OrderOperationException if no connection could be borrowed
+     */
+    private DBConnectionManager.Lease leaseShardConnection(String operation, int shard) throws OrderOperationException {
+        try {
+            return DBConnectionManager.getInstance().leaseShard(shard);
+        } catch (SQLException e) {
+            throw new OrderOperationException(OrderOperationException.Reason.NO_CONNECTION,
+                    operation + " failed: could not borrow a database connection: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Leases a connection to the shard that owns an order.
+     *
+     * @param operation operation name used in the error message (e.g., "Update")
+     * @param orderId   the order ID
+     * @return the lease, to be closed when the operation ends
+     * @throws OrderOperationException if no connection could be borrowed
+     */
+    private DBConnectionManager.Lease leaseOrderConnection(String operation, int orderId) throws OrderOperationException {
+        return leaseShardConnection(operation, router().shardForOrder(orderId));
+    }
+
+    /**
+     * Returns the connection for the current operation, failing if it is unusable.
+     *
+     * @param operation operation name used in the error message (e.g., "Add")
+     * @return an open connection
+     * @throws OrderOperationException if there is no open connection
+     * @throws SQLException if the connection state cannot be read
+     */
+    private Connection requireConnection(String operation) throws OrderOperationException, SQLException {
+        Connection conn = DBConnectionManager.getInstance().getConnection();
+        if (conn == null || conn.isClosed()) {
+            throw new OrderOperationException(OrderOperationException.Reason.NO_CONNECTION,
+                    operation + " failed: DB connection is closed or null.");
+        }
+        return conn;
+    }
+
+    /**
+     * Builds the customer and shipper name indexes from the reference tables.
+     */
+    private void loadNameIndexes() {
+        try (var _ = DBConnectionManager.getInstance().leaseForRead()) {
+            Connection conn = DBConnectionManager.getInstance().getConnection();
+            if (conn == null || conn.isClosed()) {
+                System.err.println("Name index load failed: DB connection is closed or null.");
+                return;
+            }
+
+            DatabaseHelper helper = new DatabaseHelper(conn);
+            customerIndex = NameIndex.fromCustomers(helper.getAllCustomers());
+            shipperIndex = NameIndex.fromShippers(helper.getAllShippers());
+        } catch (SQLException e) {
+            System.err.println("Error loading name indexes: " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,247 @@
+package dms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Stress test for {@link ShippingOrderManager} under concurrent writes.
+ * <p>
+ * Requires a database configured in the environment or a {@code .env} file (see
+ * {@link DBConnectionManager#connectFromEnvironment()}); it is skipped otherwise.
+ * These tests verify:
+ * <ul>
+ *     <li>Adds, updates, and deletes from many threads leave the in-memory snapshot
+ *         identical to the database</li>
+ *     <li>Each thread's own orders end in the state it last wrote</li>
+ *     <li>Concurrent first use of the same new name creates only one customer and shipper</li>
+ *     <li>Writes holding a stale row version are rejected as conflicts, singly and in batches</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class ShippingOrderManagerConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 200;
+
+    /** Shared names, so threads race to create the same customers and shippers */
+    private static final String[] CUSTOMERS = {"Stress Alpha", "Stress Bravo", "Stress Charlie", "Stress Delta"};
+    private static final String[] SHIPPERS = {"Stress Freight", "Stress Express"};
+
+    private ShippingOrderManager manager;
+
+    /** Every order created by a test, for cleanup */
+    private final Set<Integer> createdIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Default constructor for ShippingOrderManagerConcurrencyTest.
+     */
+    public ShippingOrderManagerConcurrencyTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Connects to the configured database, or skips the test if none is available.
+     */
+    @BeforeEach
+    public void setUp() {
+        boolean connected;
+        try {
+            DBConnectionManager.getInstance().connectFromEnvironment();
+            connected = true;
+        } catch (SQLException e) {
+            connected = false;
+        }
+        assumeTrue(connected, "No database configured");
+        manager = new ShippingOrderManager();
+    }
+
+    /**
+     * Deletes the orders created by the test and closes the connection.
+     */
+    @AfterEach
+    public void tearDown() {
+        if (manager == null) return;
+        for (int id : createdIds) manager.deleteOrder(id);
+        DBConnectionManager.getInstance().closeConnection();
+    }
+
+    /**
+     * Runs a random mix of writes from many threads, including contended updates
+     * of a few shared orders, then compares memory with the database.
+     *
+     * @throws Exception if the threads cannot be run or the database cannot be read
+     */
+    @Test
+    @DisplayName("Concurrent adds, updates, and deletes match the database")
+    public void testConcurrentWrites() throws Exception {
+        int[] hotIds = new int[4];
+        for (int i = 0; i < hotIds.length; i++) {
+            hotIds[i] = manager.insertOrder(CUSTOMERS[0], SHIPPERS[0], 10.0, 100).getOrderId();
+            createdIds.add(hotIds[i]);
+        }
+
+        // Final state each thread expects for the orders it owns: {weight, distance}, or null if deleted
+        Map<Integer, double[]> expected = new ConcurrentHashMap<>();
+        Set<Integer> deleted = ConcurrentHashMap.newKeySet();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch startGate = new CountDownLatch(1);
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                pool.submit(() -> {
+                    try {
+                        startGate.await();
+                        runWorker(hotIds, expected, deleted);
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                });
+            }
+            startGate.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(5, TimeUnit.MINUTES), "Workers should finish");
+        }
+        assertTrue(failures.isEmpty(), "Worker failures: " + failures);
+
+        Map<Integer, ShippingOrder> inDatabase = new HashMap<>();
+        for (ShippingOrder order : new DatabaseHelper(connection()).getAllShippingOrders()) {
+            if (createdIds.contains(order.getOrderId())) inDatabase.put(order.getOrderId(), order);
+        }
+        Map<Integer, ShippingOrder> inMemory = new HashMap<>();
+        for (ShippingOrder order : manager.getAllOrders()) {
+            if (createdIds.contains(order.getOrderId())) inMemory.put(order.getOrderId(), order);
+        }
+
+        assertEquals(inDatabase.keySet(), inMemory.keySet(), "Memory and database hold the same orders");
+        for (ShippingOrder stored : inDatabase.values()) {
+            ShippingOrder cached = inMemory.get(stored.getOrderId());
+            assertEquals(stored.getWeightInPounds(), cached.getWeightInPounds(), 0.001, "Weight of " + stored.getOrderId());
+            assertEquals(stored.getDistanceInMiles(), cached.getDistanceInMiles(), "Distance of " + stored.getOrderId());
+            assertEquals(stored.getShippingCost(), cached.getShippingCost(), 0.001, "Cost of " + stored.getOrderId());
+        }
+        for (Map.Entry<Integer, double[]> entry : expected.entrySet()) {
+            ShippingOrder stored = inDatabase.get(entry.getKey());
+            assertNotNull(stored, "Order " + entry.getKey() + " should exist");
+            assertEquals(entry.getValue()[0], stored.getWeightInPounds(), 0.001);
+            assertEquals((int) entry.getValue()[1], stored.getDistanceInMiles());
+        }
+        for (int id : deleted) assertFalse(inDatabase.containsKey(id), "Order " + id + " should be deleted");
+
+        assertNoDuplicateNames("Customer", "Stress %");
+        assertNoDuplicateNames("Shipper", "Stress %");
+    }
+
+    /**
+     * Verifies that a second manager's write makes the first manager's version stale,
+     * and that stale writes conflict instead of overwriting.
+     *
+     * @throws OrderOperationException if a write fails unexpectedly
+     */
+    @Test
+    @DisplayName("Stale row versions are rejected as conflicts")
+    public void testVersionConflicts() throws OrderOperationException {
+        ShippingOrder first = manager.insertOrder(CUSTOMERS[1], SHIPPERS[1], 20.0, 200);
+        ShippingOrder second = manager.insertOrder(CUSTOMERS[1], SHIPPERS[1], 30.0, 300);
+        createdIds.add(first.getOrderId());
+        createdIds.add(second.getOrderId());
+
+        // Another client changes the first order; this manager's copy is now stale
+        ShippingOrderManager other = new ShippingOrderManager();
+        other.applyOrderUpdate(first.getOrderId(), 25.0, 250);
+
+        OrderWriteResult stale = manager.updateOrderIfVersion(first.getOrderId(), first.getRowVersion(), 99.0, 999);
+        assertEquals(OrderWriteResult.Status.CONFLICT, stale.getStatus());
+        assertEquals(250, stale.getOrder().getDistanceInMiles());
+        assertEquals(first.getRowVersion() + 1, stale.getOrder().getRowVersion());
+        assertEquals(250, manager.findOrder(first.getOrderId()).getDistanceInMiles(), "Conflict refreshes memory");
+
+        OrderWriteResult[] batch = manager.updateOrdersIfVersion(
+                new int[]{first.getOrderId(), second.getOrderId(), Integer.MAX_VALUE},
+                new int[]{first.getRowVersion(), second.getRowVersion(), 0},
+                new double[]{40.0, 40.0, 40.0}, new int[]{400, 400, 400}, 3);
+        assertEquals(OrderWriteResult.Status.CONFLICT, batch[0].getStatus());
+        assertTrue(batch[1].isApplied());
+        assertEquals(second.getRowVersion() + 1, batch[1].getOrder().getRowVersion());
+        assertEquals(OrderWriteResult.Status.NOT_FOUND, batch[2].getStatus());
+
+        OrderOperationException e = assertThrows(OrderOperationException.class,
+                () -> other.removeOrder(second.getOrderId()));
+        assertEquals(OrderOperationException.Reason.CONFLICT, e.getReason());
+        assertTrue(manager.deleteOrderIfVersion(second.getOrderId(), batch[1].getOrder().getRowVersion()).isApplied());
+        assertNull(manager.findOrder(second.getOrderId()));
+    }
+
+    /**
+     * One thread's workload: adds, updates, and deletes of its own orders, plus
+     * updates of the shared hot orders that every thread contends for.
+     */
+    private void runWorker(int[] hotIds, Map<Integer, double[]> expected, Set<Integer> deleted)
+            throws OrderOperationException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Integer> own = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            int action = random.nextInt(100);
+            double weight = 1 + random.nextInt(1000) / 10.0;
+            int distance = 1 + random.nextInt(3000);
+
+            if (action < 45 || own.isEmpty()) {
+                ShippingOrder order = manager.insertOrder(CUSTOMERS[random.nextInt(CUSTOMERS.length)],
+                        SHIPPERS[random.nextInt(SHIPPERS.length)], weight, distance);
+                createdIds.add(order.getOrderId());
+                own.add(order.getOrderId());
+                expected.put(order.getOrderId(), new double[]{weight, distance});
+            } else if (action < 75) {
+                int id = own.get(random.nextInt(own.size()));
+                manager.applyOrderUpdate(id, weight, distance);
+                expected.put(id, new double[]{weight, distance});
+            } else if (action < 90) {
+                manager.applyOrderUpdate(hotIds[random.nextInt(hotIds.length)], weight, distance);
+            } else {
+                int id = own.remove(random.nextInt(own.size()));
+                manager.removeOrder(id);
+                expected.remove(id);
+                deleted.add(id);
+            }
+        }
+    }
+
+    private void assertNoDuplicateNames(String table, String pattern) throws SQLException {
+        String sql = "SELECT name, COUNT(*) FROM " + table + " WHERE name LIKE ? GROUP BY name HAVING COUNT(*) > 1";
+        try (PreparedStatement stmt = connection().prepareStatement(sql)) {
+            stmt.setString(1, pattern);
+            try (ResultSet rs = stmt.executeQuery()) {
+                String duplicate = rs.next() ? rs.getString(1) : null;
+                assertNull(duplicate, table + " name created more than once: " + duplicate);
+            }
+        }
+    }
+
+    private static Connection connection() {
+        return DBConnectionManager.getInstance().getConnection();
+    }
+}
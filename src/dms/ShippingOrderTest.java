@@ -14,6 +14,7 @@ import static org.junit.jupiter.api.Assertions.*;
  *     <li>Correct retrieval of properties through getters</li>
  *     <li>Accurate calculation of shipping costs</li>
  *     <li>Recalculation logic when weight or distance is modified</li>
+ *     <li>Cached display text matches the original formats and refreshes after changes</li>
  * </ul>
  *
  * Author: Julio Lopez
@@ -58,7 +59,7 @@ public class ShippingOrderTest {
     @Test
     @DisplayName("Initial shipping cost is calculated correctly")
     public void testCalculateShippingCost() {
-        double expectedCost = 5.00 + (20.0 * 0.05) + (150 * 0.10);
+        double expectedCost = Math.round(20.0 * 150 * 0.0015 * 100.0) / 100.0;
         assertEquals(expectedCost, order.calculateShippingCost(), 0.0001, "Shipping cost formula should match expected result");
     }
 
@@ -71,7 +72,26 @@ public class ShippingOrderTest {
         order.setWeightInPounds(50.0);
         order.setDistanceInMiles(300);
 
-        double expectedCost = 5.00 + (50.0 * 0.05) + (300 * 0.10);
+        double expectedCost = Math.round(50.0 * 300 * 0.0015 * 100.0) / 100.0;
         assertEquals(expectedCost, order.calculateShippingCost(), 0.0001, "Updated cost should reflect new weight and distance");
+        assertEquals(expectedCost, order.getShippingCost(), 0.0001, "Cached cost should be recalculated by the setters");
+    }
+
+    /**
+     * Tests display text formatting and that it is re-rendered after a setter.
+     */
+    @Test
+    @DisplayName("Display text is cached until the order changes")
+    public void testDisplayText() {
+        assertEquals("20.0 lb", order.getWeightText());
+        assertEquals("150 mi", order.getDistanceText());
+        assertEquals(String.format("$%.2f", order.getShippingCost()), order.getCostText());
+        assertSame(order.getCostText(), order.getCostText(), "Unchanged order should reuse its text");
+        assertTrue(order.toString().endsWith("Cost: " + order.getCostText()));
+
+        order.setWeightInPounds(12.25);
+        assertEquals(String.format("%.1f lb", 12.25), order.getWeightText());
+        assertEquals(String.format("$%.2f", order.getShippingCost()), order.getCostText());
+        assertTrue(order.toString().contains("Weight: 12.25 lb"));
     }
 }
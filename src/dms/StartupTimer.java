@@ -0,0 +1,112 @@
+package dms;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records when each step of application startup completes, measured from JVM start.
+ *
+ * <p>Startup code calls {@link #mark(String)} as milestones are reached (login shown,
+ * connected, main window shown, first row shown, all rows loaded). Each milestone is
+ * also published as a {@code startup.<name>_ms} gauge in {@link MetricsRegistry}, and
+ * {@link #report()} summarizes them, including time-to-window and time-to-first-row
+ * measured from when the user submitted the login form.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class StartupTimer {
+
+    /** Login form shown */
+    public static final String LOGIN_SHOWN = "login_shown";
+
+    /** Main view parsed in the background */
+    public static final String VIEW_PRELOADED = "view_preloaded";
+
+    /** User pressed Connect */
+    public static final String LOGIN_SUBMITTED = "login_submitted";
+
+    /** Database connection established */
+    public static final String CONNECTED = "connected";
+
+    /** Main window on screen */
+    public static final String WINDOW_SHOWN = "window_shown";
+
+    /** First orders added to the table */
+    public static final String FIRST_ROW = "first_row";
+
+    /** All orders loaded */
+    public static final String ALL_ROWS = "all_rows";
+
+    /** Milliseconds since JVM start for each milestone, in the order first reached */
+    private static final Map<String, Long> MARKS = new LinkedHashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private StartupTimer() {}
+
+    /**
+     * Records a milestone at the current time. Only the first mark of each name counts,
+     * so it is safe to mark from code that may run more than once.
+     *
+     * @param milestone the milestone name, such as {@link #WINDOW_SHOWN}
+     */
+    public static void mark(String milestone) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        synchronized (MARKS) {
+            if (MARKS.putIfAbsent(milestone, uptime) != null) return;
+        }
+        MetricsRegistry.getInstance().gauge("startup." + milestone + "_ms", () -> uptime);
+    }
+
+    /**
+     * Gets the time a milestone was reached.
+     *
+     * @param milestone the milestone name
+     * @return milliseconds since JVM start, or -1 if not reached
+     */
+    public static long getMillis(String milestone) {
+        synchronized (MARKS) {
+            return MARKS.getOrDefault(milestone, -1L);
+        }
+    }
+
+    /**
+     * Gets the time between two milestones.
+     *
+     * @param from the earlier milestone
+     * @param to   the later milestone
+     * @return the elapsed milliseconds, or -1 if either was not reached
+     */
+    public static long between(String from, String to) {
+        long start = getMillis(from);
+        long end = getMillis(to);
+        return start < 0 || end < 0 ? -1 : end - start;
+    }
+
+    /**
+     * Builds a report listing every milestone, followed by the times from submitting
+     * the login form to the main window and to the first row.
+     *
+     * @return the report, one line per entry
+     */
+    public static String report() {
+        StringBuilder out = new StringBuilder("Startup timing (ms since JVM start):\n");
+        synchronized (MARKS) {
+            for (Map.Entry<String, Long> mark : MARKS.entrySet()) {
+                out.append(String.format("  %-16s %6d%n", mark.getKey(), mark.getValue()));
+            }
+        }
+        appendInterval(out, "Time to window", WINDOW_SHOWN);
+        appendInterval(out, "Time to first row", FIRST_ROW);
+        appendInterval(out, "Time to all rows", ALL_ROWS);
+        return out.toString();
+    }
+
+    private static void appendInterval(StringBuilder out, String label, String milestone) {
+        long millis = between(LOGIN_SUBMITTED, milestone);
+        if (millis >= 0) out.append(String.format("%s after login: %d ms%n", label, millis));
+    }
+}
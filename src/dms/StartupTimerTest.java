@@ -0,0 +1,52 @@
+package dms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link StartupTimer} class.
+ * <p>
+ * These tests verify:
+ * <ul>
+ *     <li>Only the first mark of a milestone counts</li>
+ *     <li>Intervals between milestones, and -1 for milestones not reached</li>
+ *     <li>The report lists milestones and the time to window after login</li>
+ * </ul>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public class StartupTimerTest {
+
+    /**
+     * Default constructor for StartupTimerTest.
+     */
+    public StartupTimerTest() {
+        // No custom setup needed here; JUnit handles test lifecycle
+    }
+
+    /**
+     * Marks milestones and checks the recorded times and the report.
+     *
+     * @throws InterruptedException if interrupted while sleeping between marks
+     */
+    @Test
+    @DisplayName("Records milestones and reports intervals")
+    public void testMarksAndReport() throws InterruptedException {
+        StartupTimer.mark(StartupTimer.LOGIN_SUBMITTED);
+        long submitted = StartupTimer.getMillis(StartupTimer.LOGIN_SUBMITTED);
+        Thread.sleep(20);
+        StartupTimer.mark(StartupTimer.LOGIN_SUBMITTED);
+        assertEquals(submitted, StartupTimer.getMillis(StartupTimer.LOGIN_SUBMITTED), "First mark wins");
+
+        StartupTimer.mark(StartupTimer.WINDOW_SHOWN);
+        assertTrue(StartupTimer.between(StartupTimer.LOGIN_SUBMITTED, StartupTimer.WINDOW_SHOWN) >= 0);
+        assertEquals(-1, StartupTimer.between(StartupTimer.LOGIN_SUBMITTED, "never_reached"));
+
+        String report = StartupTimer.report();
+        assertTrue(report.contains(StartupTimer.WINDOW_SHOWN), report);
+        assertTrue(report.contains("Time to window after login"), report);
+    }
+}
@@ -0,0 +1,86 @@
+package dms;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by hashing keys onto them (lock striping).
+ *
+ * <p>One lock for the whole manager would serialize every write; one lock per order
+ * would need a map that grows with the table. Striping sits in between: writes to the
+ * same key always take the same lock, and writes to different keys usually take
+ * different locks and run in parallel. The number of stripes bounds both the memory
+ * used and the possible parallelism.</p>
+ *
+ * Author: Julio Lopez
+ * Version: 1.0
+ */
+public final class StripedLock {
+
+    /** The stripes; the length is a power of two */
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Creates a set of stripes.
+     *
+     * @param stripeCount minimum number of stripes, rounded up to a power of two
+     */
+    public StripedLock(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        stripes = new ReentrantLock[stripeCount <= 1 ? 1 : size];
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new ReentrantLock();
+    }
+
+    /**
+     * Returns the lock guarding an integer key, such as an order ID.
+     *
+     * @param key the key
+     * @return the key's stripe
+     */
+    public ReentrantLock forKey(int key) {
+        return stripes[indexFor(key)];
+    }
+
+    /**
+     * Returns the distinct locks guarding several integer keys, in stripe order.
+     * Taking them in the returned order from every thread avoids lock-order deadlocks.
+     *
+     * @param keys  the keys
+     * @param count number of keys to use from the start of {@code keys}
+     * @return the locks to take, each listed once
+     */
+    public List<ReentrantLock> forKeys(int[] keys, int count) {
+        BitSet used = new BitSet(stripes.length);
+        for (int i = 0; i < count; i++) used.set(indexFor(keys[i]));
+        List<ReentrantLock> locks = new ArrayList<>(used.cardinality());
+        for (int s = used.nextSetBit(0); s >= 0; s = used.nextSetBit(s + 1)) locks.add(stripes[s]);
+        return locks;
+    }
+
+    /**
+     * Returns the lock guarding a name.
+     *
+     * @param name the name
+     * @return the name's stripe
+     */
+    public ReentrantLock forKey(String name) {
+        return forKey(name.hashCode());
+    }
+
+    /**
+     * Returns the number of stripes.
+     *
+     * @return the stripe count
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    private int indexFor(int key) {
+        // Spread the bits so sequential IDs land on different stripes evenly
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+}